@@ -0,0 +1,413 @@
+package io.github.jitawangzi.jdepend.eclipse.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import io.github.jitawangzi.jdepend.config.AppConfigManager;
+import io.github.jitawangzi.jdepend.eclipse.analysis.CodeBlockSimplifier;
+import io.github.jitawangzi.jdepend.eclipse.analysis.CommentMinifier;
+import io.github.jitawangzi.jdepend.eclipse.analysis.DependencyGraphMetrics;
+import io.github.jitawangzi.jdepend.eclipse.analysis.SourceSimplifier;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisSettings;
+import io.github.jitawangzi.jdepend.eclipse.config.PluginConfig;
+import io.github.jitawangzi.jdepend.eclipse.utils.LibJarScanner;
+import io.github.jitawangzi.jdepend.eclipse.utils.PrefixMatcher;
+
+/**
+ * 分析流程的基准测试入口
+ * <p>
+ * benchmarks 目录不参与插件打包，编译时把 src、benchmarks 和 lib 下的 JAR 一起放到 classpath：
+ * <pre>
+ * java -cp bin:bench-bin:lib/* io.github.jitawangzi.jdepend.eclipse.benchmarks.AnalyzerBenchmarks \
+ *      --out build/benchmarks/results.json --sizes 1000,10000,50000
+ * </pre>
+ * 参数：
+ * <ul>
+ * <li>--out 结果文件，默认 benchmark-results.json</li>
+ * <li>--filter 只运行名称匹配该正则的基准</li>
+ * <li>--sizes 端到端基准的合成项目文件数，默认 1000,10000,50000</li>
+ * <li>--warmup / --iterations 微基准的预热与测量轮数，默认 5 / 10</li>
+ * <li>--e2e-iterations 端到端基准的测量轮数，默认 3，预热固定 1 轮</li>
+ * <li>--lib 分析器 JAR 所在目录，默认 ./lib</li>
+ * <li>--work 合成项目与临时文件目录，默认 系统临时目录/jdepend-bench</li>
+ * </ul>
+ * 内置引擎依赖 Eclipse 工作空间，不在这里测量。
+ */
+public class AnalyzerBenchmarks {
+
+    private static final String CLASS_ANALYZER = "io.github.jitawangzi.jdepend.ClassAnalyzer";
+    private static final String DIRECTORY_ANALYZER = "io.github.jitawangzi.jdepend.DirectoryAnalyzer";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        File out = new File(option(options, "out", "benchmark-results.json"));
+        File libDir = new File(option(options, "lib", "lib"));
+        File workDir = new File(option(options, "work", new File(System.getProperty("java.io.tmpdir"), "jdepend-bench").getPath()));
+        BenchmarkRunner runner = new BenchmarkRunner(
+                Integer.parseInt(option(options, "warmup", "5")),
+                Integer.parseInt(option(options, "iterations", "10")),
+                options.get("filter"));
+        int e2eIterations = Integer.parseInt(option(options, "e2e-iterations", "3"));
+        workDir.mkdirs();
+
+        List<File> libJars = listJars(libDir);
+        benchmarkLibJarScan(runner, workDir, libJars);
+        benchmarkClassLoaderCreation(runner, libJars);
+        benchmarkConfigMapping(runner);
+        benchmarkPrefixFiltering(runner);
+        benchmarkGraphMetrics(runner);
+        benchmarkSourceSimplifier(runner);
+        benchmarkCodeBlockDedup(runner, workDir);
+
+        if (libJars.isEmpty()) {
+            System.out.println("未找到分析器 JAR (" + libDir.getAbsolutePath() + ")，跳过端到端基准");
+        } else {
+            for (String size : option(options, "sizes", "1000,10000,50000").split(",")) {
+                benchmarkEndToEnd(runner, workDir, Integer.parseInt(size.trim()), e2eIterations);
+            }
+        }
+
+        runner.writeJson(out);
+        System.out.println("结果已写入: " + out.getAbsolutePath());
+    }
+
+    /**
+     * scanForLibJars 的目录模式与 JAR 模式
+     */
+    private static void benchmarkLibJarScan(BenchmarkRunner runner, File workDir, List<File> libJars) throws Exception {
+        List<File> jars = libJars.isEmpty() ? createDummyJars(new File(workDir, "dummy-lib"), 8) : libJars;
+
+        // 目录模式：插件以 bin 目录运行，lib 在其上一级
+        File pluginRoot = new File(workDir, "plugin-dir");
+        File binDir = new File(pluginRoot, "bin");
+        File pluginLib = new File(pluginRoot, "lib");
+        binDir.mkdirs();
+        pluginLib.mkdirs();
+        for (File jar : jars) {
+            File copy = new File(pluginLib, jar.getName());
+            if (!copy.exists()) {
+                Files.copy(jar.toPath(), copy.toPath());
+            }
+        }
+        URL directoryLocation = binDir.toURI().toURL();
+        runner.run("scanForLibJars.directory", params("jars", jars.size()), 1000,
+                () -> LibJarScanner.scan(directoryLocation, message -> { }));
+
+        // JAR 模式：插件 JAR 内含 lib 条目，前面放一批 class 条目模拟真实插件
+        File pluginJar = new File(workDir, "plugin.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(pluginJar))) {
+            for (int i = 0; i < 200; i++) {
+                zip.putNextEntry(new ZipEntry("io/github/jitawangzi/jdepend/eclipse/Generated" + i + ".class"));
+                zip.write(new byte[2048]);
+                zip.closeEntry();
+            }
+            for (File jar : jars) {
+                zip.putNextEntry(new ZipEntry("lib/" + jar.getName()));
+                Files.copy(jar.toPath(), zip);
+                zip.closeEntry();
+            }
+        }
+        URL jarLocation = pluginJar.toURI().toURL();
+        runner.run("scanForLibJars.jar", params("jars", jars.size()), 20,
+                () -> LibJarScanner.scan(jarLocation, message -> { }));
+    }
+
+    /**
+     * 每次分析都会新建的 URLClassLoader，分析器 JAR 存在时包含加载入口类
+     */
+    private static void benchmarkClassLoaderCreation(BenchmarkRunner runner, List<File> libJars) throws Exception {
+        URL[] urls = new URL[libJars.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = libJars.get(i).toURI().toURL();
+        }
+        boolean loadEntry = !libJars.isEmpty();
+        ClassLoader parent = ClassLoader.getSystemClassLoader().getParent();
+        runner.run("classLoader.create", params("jars", urls.length), 100, () -> {
+            try (URLClassLoader loader = new URLClassLoader(urls, parent)) {
+                return loadEntry ? loader.loadClass(CLASS_ANALYZER) : loader;
+            }
+        });
+    }
+
+    /**
+     * 由 PluginConfig 生成配置快照：校验、拆分前缀列表并生成外部分析器属性，每次分析开始时执行一次
+     */
+    private static void benchmarkConfigMapping(BenchmarkRunner runner) throws Exception {
+        PluginConfig config = new PluginConfig();
+        config.setMainClass(SyntheticProjectGenerator.ENTRY_CLASS);
+        config.setProjectRoot("/tmp/project");
+        config.setDirectoryPath("/tmp/project/src");
+        for (boolean classMode : new boolean[] { true, false }) {
+            runner.run("analysisSettings.of", params("mode", classMode ? "class" : "directory"), 10000,
+                    () -> AnalysisSettings.of(config, classMode));
+        }
+    }
+
+    /**
+     * 依赖图指标：随机图上叠加一条贯穿所有节点的长链和首尾相连的大环，检验线性耗时与深图不栈溢出
+     */
+    private static void benchmarkGraphMetrics(BenchmarkRunner runner) throws Exception {
+        String layers = "com.example.bench.web,com.example.bench.service,com.example.bench.dao";
+        String[] layerNames = layers.split(",");
+        for (int edgesPerNode : new int[] { 5, 25 }) {
+            int nodeCount = 20000;
+            Random random = new Random(42);
+            String[] names = new String[nodeCount];
+            int[][] dependencies = new int[nodeCount][];
+            for (int i = 0; i < nodeCount; i++) {
+                names[i] = layerNames[i % layerNames.length] + ".p" + (i % 200) + ".Type" + i;
+                Set<Integer> targets = new LinkedHashSet<>();
+                targets.add((i + 1) % nodeCount);
+                while (targets.size() < edgesPerNode) {
+                    int target = random.nextInt(nodeCount);
+                    if (target != i) {
+                        targets.add(target);
+                    }
+                }
+                dependencies[i] = new int[targets.size()];
+                int j = 0;
+                for (int target : targets) {
+                    dependencies[i][j++] = target;
+                }
+            }
+            Map<String, String> params = params("nodes", nodeCount);
+            params.put("edges", String.valueOf(nodeCount * edgesPerNode));
+            runner.run("graphMetrics.compute", params, 1,
+                    () -> new DependencyGraphMetrics(names, dependencies, PrefixMatcher.split(layers)).getCycles().size());
+        }
+    }
+
+    /**
+     * 非 Java 源码的函数体折叠与注释精简，与逐字符复制同样大小的文本对比，衡量与直接读取的速度差距
+     */
+    private static void benchmarkSourceSimplifier(BenchmarkRunner runner) throws Exception {
+        StringBuilder script = new StringBuilder();
+        StringBuilder python = new StringBuilder();
+        for (int i = 0; script.length() < 1 << 20; i++) {
+            script.append("/** Service ").append(i).append(" */\nexport class Service").append(i).append(" {\n")
+                    .append("  private cache = new Map<string, number>();\n")
+                    .append("  async load(id: string, opts: { retry: number }): Promise<number> {\n")
+                    .append("    const url = `/api/${id}?r=${opts.retry}`; // }\n")
+                    .append("    if (/[{}]/.test(id)) { throw new Error('bad }'); }\n")
+                    .append("    return this.cache.get(id) ?? fetch(url).then((r) => { return r.json(); });\n")
+                    .append("  }\n}\n\n");
+            python.append("class Service").append(i).append(":\n")
+                    .append("    def load(self, id: str,\n             retry: int = 3) -> int:\n")
+                    .append("        \"\"\"Load one entry.\"\"\"\n")
+                    .append("        url = f'/api/{id}?r={retry}'  # def\n")
+                    .append("        data = '''\ndef not_a_function():\n'''\n")
+                    .append("        return len(url) + len(data)\n\n");
+        }
+        String[][] inputs = { { "ts", script.toString() }, { "py", python.toString() } };
+        for (String[] input : inputs) {
+            SourceSimplifier simplifier = SourceSimplifier.forLanguage(input[0]);
+            String source = input[1];
+            Map<String, String> params = params("language", input[0]);
+            params.put("chars", String.valueOf(source.length()));
+            runner.run("sourceSimplifier.simplify", params, 1, () -> {
+                StringBuilder out = new StringBuilder(source.length() / 2);
+                simplifier.simplify(source, out);
+                return out.length();
+            });
+            String[] lines = source.split("\n");
+            runner.run("commentMinifier.lines", params, 1, () -> {
+                StringWriter out = new StringWriter(source.length());
+                CommentMinifier minifier = new CommentMinifier(input[0], CommentMinifier.COMMENTS_FIRST_LINE, true, true, out);
+                for (String line : lines) {
+                    minifier.line(line);
+                }
+                minifier.finish();
+                return minifier.getWrittenChars();
+            });
+            runner.run("sourceSimplifier.copyBaseline", params, 1, () -> {
+                StringBuilder out = new StringBuilder(source.length());
+                for (int i = 0; i < source.length(); i++) {
+                    out.append(source.charAt(i));
+                }
+                return out.length();
+            });
+        }
+    }
+
+    /**
+     * 目录输出中相同文件的去重：一半小节是生成代码的副本，与只复制文件的耗时对比
+     */
+    private static void benchmarkCodeBlockDedup(BenchmarkRunner runner, File workDir) throws Exception {
+        File template = new File(workDir, "dedup-template.md");
+        File output = new File(workDir, "dedup-output.md");
+        StringBuilder markdown = new StringBuilder("# Directory Analysis\n\n");
+        for (int i = 0; i < 4000; i++) {
+            int content = i % 2 == 0 ? i : 0;
+            markdown.append("## src/gen/module").append(i).append("/messages.pb.go\n\n```go\n")
+                    .append("// Code generated by protoc-gen-go. DO NOT EDIT.\npackage gen\n\n");
+            for (int line = 0; line < 20; line++) {
+                markdown.append("func (m *Message").append(content).append(") GetField").append(line)
+                        .append("() string { return m.field").append(line).append(" }\n");
+            }
+            markdown.append("```\n\n");
+        }
+        Files.write(template.toPath(), markdown.toString().getBytes(StandardCharsets.UTF_8));
+        Map<String, String> params = params("sections", "4000");
+        params.put("bytes", String.valueOf(template.length()));
+        runner.run("codeBlockDedup.simplify", params, 1, () -> {
+            Files.copy(template.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            CodeBlockSimplifier simplifier = new CodeBlockSimplifier(false, CommentMinifier.COMMENTS_KEEP, false, false, true, 0);
+            simplifier.simplify(output);
+            return simplifier.getDuplicateBlocks();
+        });
+        runner.run("codeBlockDedup.copyBaseline", params, 1, () -> {
+            Files.copy(template.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return output.length();
+        });
+    }
+
+    /**
+     * 包前缀过滤：预解析的 PrefixMatcher 与每次拆分字符串的写法
+     */
+    private static void benchmarkPrefixFiltering(BenchmarkRunner runner) throws Exception {
+        String prefixes = "java.,javax.,org.springframework,org.apache,com.google,io.vertx,org.slf4j,com.example.bench.p1";
+        Random random = new Random(42);
+        String[] roots = { "java.util", "org.apache.commons", "com.example.bench.p", "net.other", "io.vertx.core" };
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            names.add(roots[random.nextInt(roots.length)] + random.nextInt(100) + ".Type" + i);
+        }
+        PrefixMatcher matcher = new PrefixMatcher(prefixes);
+        Map<String, String> params = params("names", names.size());
+        params.put("prefixes", String.valueOf(prefixes.split(",").length));
+
+        runner.run("prefixFilter.matcher", params, 10, () -> {
+            int matched = 0;
+            for (String name : names) {
+                if (matcher.matches(name)) {
+                    matched++;
+                }
+            }
+            return matched;
+        });
+        runner.run("prefixFilter.splitPerCall", params, 10, () -> {
+            int matched = 0;
+            for (String name : names) {
+                for (String prefix : prefixes.split(",")) {
+                    if (name.startsWith(prefix.trim())) {
+                        matched++;
+                        break;
+                    }
+                }
+            }
+            return matched;
+        });
+    }
+
+    /**
+     * 外部分析器在合成项目上的类分析与目录分析
+     */
+    private static void benchmarkEndToEnd(BenchmarkRunner runner, File workDir, int files, int iterations) throws Exception {
+        String classBenchmark = "endToEnd.classAnalysis";
+        String directoryBenchmark = "endToEnd.directoryAnalysis";
+        if (!runner.isSelected(classBenchmark) && !runner.isSelected(directoryBenchmark)) {
+            return;
+        }
+        File projectRoot = new File(workDir, "project-" + files);
+        System.out.println("生成合成项目: " + files + " 个文件 -> " + projectRoot);
+        File sourceRoot = new SyntheticProjectGenerator(files, 42).generate(projectRoot);
+        File output = new File(workDir, "output-" + files + ".md");
+
+        PluginConfig classConfig = new PluginConfig();
+        classConfig.setMainClass(SyntheticProjectGenerator.ENTRY_CLASS);
+        classConfig.setProjectRoot(projectRoot.getAbsolutePath());
+        classConfig.setProjectPackagePrefixes(SyntheticProjectGenerator.BASE_PACKAGE);
+        classConfig.setSourceDirectories("src");
+        classConfig.setOutputFile(output.getAbsolutePath());
+        Properties classProperties = AnalysisSettings.of(classConfig, true).toEngineProperties();
+        runner.run(classBenchmark, params("files", files), 1, 1, iterations,
+                () -> invokeAnalyzer(CLASS_ANALYZER, classProperties, output));
+
+        PluginConfig directoryConfig = new PluginConfig();
+        directoryConfig.setDirectoryPath(sourceRoot.getAbsolutePath());
+        directoryConfig.setOutputFile(output.getAbsolutePath());
+        Properties directoryProperties = AnalysisSettings.of(directoryConfig, false).toEngineProperties();
+        directoryProperties.setProperty("project.root", projectRoot.getAbsolutePath());
+        runner.run(directoryBenchmark, params("files", files), 1, 1, iterations,
+                () -> invokeAnalyzer(DIRECTORY_ANALYZER, directoryProperties, output));
+    }
+
+    /**
+     * 与插件相同的调用方式：重载配置后反射调用分析器的 main
+     */
+    static Long invokeAnalyzer(String analyzerClassName, Properties properties, File output) throws Exception {
+        output.delete();
+        AppConfigManager.reload(properties);
+        Method main = Class.forName(analyzerClassName).getMethod("main", String[].class);
+        main.invoke(null, (Object) new String[0]);
+        if (!output.isFile()) {
+            throw new IOException("分析器没有生成输出文件: " + output);
+        }
+        return output.length();
+    }
+
+    private static List<File> listJars(File libDir) {
+        File[] jars = libDir.listFiles((dir, name) -> name.endsWith(".jar"));
+        if (jars == null) {
+            return Collections.emptyList();
+        }
+        List<File> result = new ArrayList<>();
+        Collections.addAll(result, jars);
+        return result;
+    }
+
+    private static List<File> createDummyJars(File dir, int count) throws IOException {
+        dir.mkdirs();
+        List<File> jars = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            File jar = new File(dir, "dummy-" + i + ".jar");
+            try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jar))) {
+                zip.putNextEntry(new ZipEntry("dummy/Dummy" + i + ".class"));
+                zip.write(new byte[64 * 1024]);
+                zip.closeEntry();
+            }
+            jars.add(jar);
+        }
+        return jars;
+    }
+
+    private static Map<String, String> params(String name, Object value) {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put(name, String.valueOf(value));
+        return params;
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i].substring(2), args[++i]);
+            }
+        }
+        return options;
+    }
+
+    static String option(Map<String, String> options, String name, String defaultValue) {
+        String value = options.get(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.jitawangzi.jdepend.eclipse.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import io.github.jitawangzi.jdepend.eclipse.utils.JsonUtils;
+
+/**
+ * 简易基准测试执行器
+ * 每个基准先预热若干轮，再测量若干轮，每轮连续执行 ops 次取平均；
+ * 结果按 JMH 的 JSON 结构 (benchmark / mode / params / primaryMetric) 输出，便于用现有工具跨版本对比。
+ */
+public class BenchmarkRunner {
+
+    /**
+     * 被测代码，返回值会被吸收，防止被 JIT 消除
+     */
+    public interface Body {
+        Object run() throws Exception;
+    }
+
+    /**
+     * 单个基准的测量结果
+     */
+    public static class Result {
+        private final String benchmark;
+        private final Map<String, String> params;
+        private final int warmupIterations;
+        private final double[] samplesMillis;
+
+        Result(String benchmark, Map<String, String> params, int warmupIterations, double[] samplesMillis) {
+            this.benchmark = benchmark;
+            this.params = params;
+            this.warmupIterations = warmupIterations;
+            this.samplesMillis = samplesMillis;
+        }
+
+        public String getBenchmark() {
+            return benchmark;
+        }
+
+        public Map<String, String> getParams() {
+            return params;
+        }
+
+        public double getScore() {
+            double sum = 0;
+            for (double sample : samplesMillis) {
+                sum += sample;
+            }
+            return sum / samplesMillis.length;
+        }
+
+        /**
+         * 99.9% 置信区间的半宽 (正态近似)
+         */
+        public double getScoreError() {
+            if (samplesMillis.length < 2) {
+                return 0;
+            }
+            double mean = getScore();
+            double squares = 0;
+            for (double sample : samplesMillis) {
+                squares += (sample - mean) * (sample - mean);
+            }
+            return 3.29 * Math.sqrt(squares / (samplesMillis.length - 1)) / Math.sqrt(samplesMillis.length);
+        }
+
+        public double getMin() {
+            return Arrays.stream(samplesMillis).min().orElse(0);
+        }
+    }
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final Pattern filter;
+    private final List<Result> results = new ArrayList<>();
+    private volatile int sink;
+
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, String filter) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.filter = filter != null ? Pattern.compile(filter) : null;
+    }
+
+    public boolean isSelected(String benchmark) {
+        return filter == null || filter.matcher(benchmark).find();
+    }
+
+    /**
+     * 使用默认轮数执行一个基准
+     */
+    public Result run(String benchmark, Map<String, String> params, int ops, Body body) throws Exception {
+        return run(benchmark, params, ops, warmupIterations, measurementIterations, body);
+    }
+
+    /**
+     * 执行一个基准，端到端这类单次耗时较长的基准可以指定较少的轮数
+     * @return 未被过滤条件选中时返回 null
+     */
+    public Result run(String benchmark, Map<String, String> params, int ops, int warmup, int iterations, Body body)
+            throws Exception {
+        if (!isSelected(benchmark)) {
+            return null;
+        }
+        System.out.println("# " + benchmark + (params.isEmpty() ? "" : " " + params));
+        for (int i = 0; i < warmup; i++) {
+            double millis = iteration(ops, body);
+            System.out.printf("  预热 %d: %.3f ms/op%n", i + 1, millis);
+        }
+        double[] samples = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            samples[i] = iteration(ops, body);
+            System.out.printf("  测量 %d: %.3f ms/op%n", i + 1, samples[i]);
+        }
+        Result result = new Result(benchmark, new LinkedHashMap<>(params), warmup, samples);
+        System.out.printf("  结果: %.3f ± %.3f ms/op%n", result.getScore(), result.getScoreError());
+        results.add(result);
+        return result;
+    }
+
+    private double iteration(int ops, Body body) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            Object value = body.run();
+            sink += value != null ? value.hashCode() : 0;
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ops;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public String toJson() {
+        String jvm = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            json.append("  {\n");
+            json.append("    \"benchmark\": ").append(JsonUtils.quote(result.benchmark)).append(",\n");
+            json.append("    \"mode\": \"avgt\",\n");
+            json.append("    \"threads\": 1,\n");
+            json.append("    \"forks\": 0,\n");
+            json.append("    \"jvm\": ").append(JsonUtils.quote(jvm)).append(",\n");
+            json.append("    \"jvmArgs\": [");
+            List<String> jvmArgs = ManagementFactory.getRuntimeMXBean().getInputArguments();
+            for (int j = 0; j < jvmArgs.size(); j++) {
+                json.append(j > 0 ? ", " : "").append(JsonUtils.quote(jvmArgs.get(j)));
+            }
+            json.append("],\n");
+            json.append("    \"jdkVersion\": ").append(JsonUtils.quote(System.getProperty("java.version"))).append(",\n");
+            json.append("    \"vmName\": ").append(JsonUtils.quote(System.getProperty("java.vm.name"))).append(",\n");
+            json.append("    \"warmupIterations\": ").append(result.warmupIterations).append(",\n");
+            json.append("    \"measurementIterations\": ").append(result.samplesMillis.length).append(",\n");
+            json.append("    \"params\": {");
+            int p = 0;
+            for (Map.Entry<String, String> param : result.params.entrySet()) {
+                json.append(p++ > 0 ? ", " : "").append(JsonUtils.quote(param.getKey())).append(": ")
+                        .append(JsonUtils.quote(param.getValue()));
+            }
+            json.append("},\n");
+            json.append("    \"primaryMetric\": {\n");
+            json.append("      \"score\": ").append(result.getScore()).append(",\n");
+            json.append("      \"scoreError\": ").append(result.getScoreError()).append(",\n");
+            json.append("      \"scoreUnit\": \"ms/op\",\n");
+            json.append("      \"rawData\": [[");
+            for (int j = 0; j < result.samplesMillis.length; j++) {
+                json.append(j > 0 ? ", " : "").append(result.samplesMillis[j]);
+            }
+            json.append("]]\n    }\n  }").append(i + 1 < results.size() ? ",\n" : "\n");
+        }
+        return json.append("]\n").toString();
+    }
+
+    public void writeJson(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package io.github.jitawangzi.jdepend.eclipse.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import io.github.jitawangzi.jdepend.config.AppConfigManager;
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisMetrics;
+import io.github.jitawangzi.jdepend.eclipse.analysis.ExternalAnalyzerRunner;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisSettings;
+import io.github.jitawangzi.jdepend.eclipse.config.PluginConfig;
+import io.github.jitawangzi.jdepend.eclipse.utils.JsonUtils;
+
+/**
+ * 无界面的性能回归检查
+ * 在合成项目上按插件的调用流程 (AnalysisSettings 生成配置、AppConfigManager.reload、ExternalAnalyzerRunner) 执行类分析和目录分析，
+ * 耗时或堆内存峰值超过基线加容差时以退出码 1 结束。
+ * <p>
+ * 与 AnalyzerBenchmarks 相同的 classpath 运行，建议固定 -Xmx 以便堆峰值可比：
+ * <pre>
+ * java -Xmx2g -cp bin:bench-bin:lib/* io.github.jitawangzi.jdepend.eclipse.benchmarks.PerformanceRegressionSuite \
+ *      --baselines benchmarks/perf-baselines.properties
+ * </pre>
+ * 参数：
+ * <ul>
+ * <li>--baselines 基线文件，默认 benchmarks/perf-baselines.properties</li>
+ * <li>--update-baselines true 时把本次结果写回基线文件而不做检查</li>
+ * <li>--sizes 合成项目文件数，默认 1000,10000</li>
+ * <li>--runs 每个场景的运行次数，耗时取中位数、堆峰值取最大值，默认 3</li>
+ * <li>--time-tolerance / --heap-tolerance 允许超出基线的比例，默认 0.25 / 0.25</li>
+ * <li>--plugin-location 插件代码位置，默认为当前 classpath 中插件类所在位置</li>
+ * <li>--work 合成项目与输出目录，默认 系统临时目录/jdepend-perf</li>
+ * <li>--report 结果报告，默认 perf-report.json</li>
+ * <li>生成选项 --depth、--fan-out、--cycles、--beans、--other-languages、--extensions 同 SyntheticProjectGenerator</li>
+ * </ul>
+ */
+public class PerformanceRegressionSuite {
+
+    private static final String CLASS_ANALYZER = "io.github.jitawangzi.jdepend.ClassAnalyzer";
+    private static final String DIRECTORY_ANALYZER = "io.github.jitawangzi.jdepend.DirectoryAnalyzer";
+
+    /**
+     * 单个场景的测量结果
+     */
+    static class Measurement {
+        final String scenario;
+        final long millis;
+        final long peakHeapBytes;
+        long baselineMillis = -1;
+        long baselinePeakHeapBytes = -1;
+        final List<String> failures = new ArrayList<>();
+
+        Measurement(String scenario, long millis, long peakHeapBytes) {
+            this.scenario = scenario;
+            this.millis = millis;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = AnalyzerBenchmarks.parseOptions(args);
+        File baselineFile = new File(AnalyzerBenchmarks.option(options, "baselines", "benchmarks/perf-baselines.properties"));
+        boolean updateBaselines = Boolean.parseBoolean(AnalyzerBenchmarks.option(options, "update-baselines", "false"));
+        int runs = Integer.parseInt(AnalyzerBenchmarks.option(options, "runs", "3"));
+        double timeTolerance = Double.parseDouble(AnalyzerBenchmarks.option(options, "time-tolerance", "0.25"));
+        double heapTolerance = Double.parseDouble(AnalyzerBenchmarks.option(options, "heap-tolerance", "0.25"));
+        File workDir = new File(AnalyzerBenchmarks.option(options, "work",
+                new File(System.getProperty("java.io.tmpdir"), "jdepend-perf").getPath()));
+        File report = new File(AnalyzerBenchmarks.option(options, "report", "perf-report.json"));
+        String location = options.get("plugin-location");
+        URL pluginLocation = location != null ? new File(location).toURI().toURL()
+                : ExternalAnalyzerRunner.class.getProtectionDomain().getCodeSource().getLocation();
+
+        Properties baselines = new Properties();
+        if (baselineFile.isFile()) {
+            try (InputStream in = Files.newInputStream(baselineFile.toPath())) {
+                baselines.load(in);
+            }
+        }
+
+        List<Measurement> measurements = new ArrayList<>();
+        for (String size : AnalyzerBenchmarks.option(options, "sizes", "1000,10000").split(",")) {
+            int files = Integer.parseInt(size.trim());
+            File projectRoot = new File(workDir, "project-" + files);
+            SyntheticProjectGenerator generator = new SyntheticProjectGenerator(files, 42);
+            generator.setPackageDepth(3);
+            generator.setCycleRatio(0.05);
+            generator.setBeanRatio(0.3);
+            generator.setOtherLanguageRatio(0.1);
+            generator.setAllowedExtensions(new PluginConfig().getDirectoryAllowedExtensions());
+            generator.configure(options);
+            System.out.println("生成合成项目: " + files + " 个文件 -> " + projectRoot);
+            File sourceRoot = generator.generate(projectRoot);
+            File output = new File(workDir, "output-" + files + ".md");
+
+            PluginConfig classConfig = new PluginConfig();
+            classConfig.setMainClass(SyntheticProjectGenerator.ENTRY_CLASS);
+            classConfig.setProjectRoot(projectRoot.getAbsolutePath());
+            classConfig.setProjectPackagePrefixes(SyntheticProjectGenerator.BASE_PACKAGE);
+            classConfig.setSourceDirectories("src");
+            classConfig.setOutputFile(output.getAbsolutePath());
+            Properties classProperties = AnalysisSettings.of(classConfig, true).toEngineProperties();
+            measurements.add(measure("class." + files, CLASS_ANALYZER, classProperties, projectRoot, output,
+                    pluginLocation, runs));
+
+            PluginConfig directoryConfig = new PluginConfig();
+            directoryConfig.setDirectoryPath(sourceRoot.getAbsolutePath());
+            directoryConfig.setOutputFile(output.getAbsolutePath());
+            Properties directoryProperties = AnalysisSettings.of(directoryConfig, false).toEngineProperties();
+            directoryProperties.setProperty("project.root", projectRoot.getAbsolutePath());
+            measurements.add(measure("directory." + files, DIRECTORY_ANALYZER, directoryProperties, projectRoot, output,
+                    pluginLocation, runs));
+        }
+
+        if (updateBaselines) {
+            for (Measurement measurement : measurements) {
+                baselines.setProperty(measurement.scenario + ".millis", String.valueOf(measurement.millis));
+                baselines.setProperty(measurement.scenario + ".peakHeapBytes", String.valueOf(measurement.peakHeapBytes));
+            }
+            try (OutputStream out = Files.newOutputStream(baselineFile.toPath())) {
+                baselines.store(out, "性能基线，由 PerformanceRegressionSuite --update-baselines true 生成");
+            }
+            System.out.println("基线已更新: " + baselineFile.getAbsolutePath());
+        }
+
+        int failed = 0;
+        for (Measurement measurement : measurements) {
+            measurement.baselineMillis = Long.parseLong(baselines.getProperty(measurement.scenario + ".millis", "-1"));
+            measurement.baselinePeakHeapBytes = Long.parseLong(baselines.getProperty(measurement.scenario + ".peakHeapBytes", "-1"));
+            if (!updateBaselines) {
+                check(measurement, timeTolerance, heapTolerance);
+            }
+            failed += measurement.failures.isEmpty() ? 0 : 1;
+            System.out.println(describe(measurement));
+        }
+        writeReport(report, measurements, timeTolerance, heapTolerance);
+        System.out.println("报告已写入: " + report.getAbsolutePath());
+        if (failed > 0) {
+            System.err.println(failed + " 个场景超出基线");
+            System.exit(1);
+        }
+    }
+
+    private static Measurement measure(String scenario, String analyzerClassName, Properties properties, File workingDir,
+            File output, URL pluginLocation, int runs) throws Exception {
+        System.out.println("# " + scenario);
+        long[] millis = new long[runs];
+        long peakHeap = 0;
+        for (int run = 0; run < runs; run++) {
+            output.delete();
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = resetHeapPeaks();
+            long start = System.nanoTime();
+
+            AppConfigManager.reload(properties);
+            new ExternalAnalyzerRunner(pluginLocation, PerformanceRegressionSuite.class.getClassLoader(), message -> { })
+                    .run(analyzerClassName, workingDir.getAbsolutePath(), new AnalysisMetrics(scenario));
+
+            millis[run] = (System.nanoTime() - start) / 1_000_000;
+            long peak = 0;
+            for (MemoryPoolMXBean pool : heapPools) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+            peakHeap = Math.max(peakHeap, peak);
+            if (!output.isFile()) {
+                throw new IOException("分析器没有生成输出文件: " + output);
+            }
+            System.out.println("  运行 " + (run + 1) + ": " + millis[run] + " ms, 堆峰值 " + peak / (1024 * 1024) + " MB");
+        }
+        Arrays.sort(millis);
+        return new Measurement(scenario, millis[runs / 2], peakHeap);
+    }
+
+    private static List<MemoryPoolMXBean> resetHeapPeaks() {
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        return heapPools;
+    }
+
+    private static void check(Measurement measurement, double timeTolerance, double heapTolerance) {
+        if (measurement.baselineMillis >= 0 && measurement.millis > measurement.baselineMillis * (1 + timeTolerance)) {
+            measurement.failures.add("耗时 " + measurement.millis + " ms 超过基线 " + measurement.baselineMillis + " ms");
+        }
+        if (measurement.baselinePeakHeapBytes >= 0
+                && measurement.peakHeapBytes > measurement.baselinePeakHeapBytes * (1 + heapTolerance)) {
+            measurement.failures.add("堆峰值 " + measurement.peakHeapBytes / (1024 * 1024) + " MB 超过基线 "
+                    + measurement.baselinePeakHeapBytes / (1024 * 1024) + " MB");
+        }
+    }
+
+    private static String describe(Measurement measurement) {
+        StringBuilder text = new StringBuilder(measurement.scenario).append(": ").append(measurement.millis).append(" ms, ")
+                .append(measurement.peakHeapBytes / (1024 * 1024)).append(" MB");
+        if (measurement.baselineMillis < 0 && measurement.baselinePeakHeapBytes < 0) {
+            return text.append(" (无基线)").toString();
+        }
+        if (measurement.failures.isEmpty()) {
+            return text.append(" (通过)").toString();
+        }
+        return text.append(" 失败: ").append(String.join("; ", measurement.failures)).toString();
+    }
+
+    private static void writeReport(File report, List<Measurement> measurements, double timeTolerance, double heapTolerance)
+            throws IOException {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"jdkVersion\": ").append(JsonUtils.quote(System.getProperty("java.version"))).append(",\n");
+        json.append("  \"maxHeapBytes\": ").append(Runtime.getRuntime().maxMemory()).append(",\n");
+        json.append("  \"timeTolerance\": ").append(timeTolerance).append(",\n");
+        json.append("  \"heapTolerance\": ").append(heapTolerance).append(",\n");
+        json.append("  \"scenarios\": [\n");
+        for (int i = 0; i < measurements.size(); i++) {
+            Measurement measurement = measurements.get(i);
+            json.append("    {\"scenario\": ").append(JsonUtils.quote(measurement.scenario))
+                    .append(", \"millis\": ").append(measurement.millis)
+                    .append(", \"peakHeapBytes\": ").append(measurement.peakHeapBytes)
+                    .append(", \"baselineMillis\": ").append(measurement.baselineMillis)
+                    .append(", \"baselinePeakHeapBytes\": ").append(measurement.baselinePeakHeapBytes)
+                    .append(", \"failures\": [");
+            for (int j = 0; j < measurement.failures.size(); j++) {
+                json.append(j > 0 ? ", " : "").append(JsonUtils.quote(measurement.failures.get(j)));
+            }
+            json.append("]}").append(i + 1 < measurements.size() ? ",\n" : "\n");
+        }
+        json.append("  ]\n}\n");
+        File parent = report.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (Writer writer = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(json.toString());
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package io.github.jitawangzi.jdepend.eclipse.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 生成用于基准测试的合成项目
+ * Java 类按包均匀分布，每个类引用若干后续类，入口类引用每个包的第一个类；
+ * 可按比例加入回向引用 (形成循环依赖)、Bean 风格的类和其他语言的源文件。相同参数生成的内容完全一致。
+ * <p>
+ * 也可以单独运行，参数见 {@link #main(String[])}。
+ */
+public class SyntheticProjectGenerator {
+
+    public static final String BASE_PACKAGE = "com.example.bench";
+    public static final String ENTRY_CLASS = BASE_PACKAGE + ".Main";
+
+    private static final int CLASSES_PER_PACKAGE = 50;
+    private static final int PACKAGE_BRANCHING = 8;
+    private static final int BEAN_PROPERTIES = 6;
+
+    private final int fileCount;
+    private final long seed;
+    private int packageDepth = 1;
+    private int fanOut = 3;
+    private double cycleRatio = 0;
+    private double beanRatio = 0;
+    private double otherLanguageRatio = 0;
+    private String allowedExtensions = "java";
+
+    public SyntheticProjectGenerator(int fileCount, long seed) {
+        this.fileCount = fileCount;
+        this.seed = seed;
+    }
+
+    /**
+     * 基础包之下的包层级数，1 表示所有包都直接位于基础包下
+     */
+    public void setPackageDepth(int packageDepth) {
+        this.packageDepth = Math.max(1, packageDepth);
+    }
+
+    /**
+     * 每个类引用的其他类数量
+     */
+    public void setFanOut(int fanOut) {
+        this.fanOut = Math.max(0, fanOut);
+    }
+
+    /**
+     * 额外引用一个编号更小的类的概率，这样的引用会形成循环依赖
+     */
+    public void setCycleRatio(double cycleRatio) {
+        this.cycleRatio = cycleRatio;
+    }
+
+    /**
+     * 生成为 Bean 风格 (私有字段加 getter/setter、equals、hashCode) 的类的比例
+     */
+    public void setBeanRatio(double beanRatio) {
+        this.beanRatio = beanRatio;
+    }
+
+    /**
+     * 非 Java 文件占总文件数的比例，扩展名从 allowedExtensions 中轮流选取
+     */
+    public void setOtherLanguageRatio(double otherLanguageRatio) {
+        this.otherLanguageRatio = otherLanguageRatio;
+    }
+
+    /**
+     * 逗号分隔的扩展名，格式与 directoryAllowedExtensions 相同
+     */
+    public void setAllowedExtensions(String allowedExtensions) {
+        this.allowedExtensions = allowedExtensions;
+    }
+
+    /**
+     * 在 projectRoot/src 下生成源码；已存在相同参数生成的项目时直接复用
+     * @return 源码目录
+     */
+    public File generate(File projectRoot) throws IOException {
+        File sourceRoot = new File(projectRoot, "src");
+        File marker = new File(projectRoot, ".generated");
+        String signature = fileCount + ":" + seed + ":" + packageDepth + ":" + fanOut + ":" + cycleRatio + ":"
+                + beanRatio + ":" + otherLanguageRatio + ":" + allowedExtensions;
+        if (marker.isFile() && signature.equals(new String(Files.readAllBytes(marker.toPath()), StandardCharsets.UTF_8))) {
+            return sourceRoot;
+        }
+        deleteRecursively(projectRoot);
+
+        Random random = new Random(seed);
+        List<String> otherExtensions = otherExtensions();
+        int otherCount = otherExtensions.isEmpty() ? 0 : (int) Math.round(fileCount * otherLanguageRatio);
+        int classCount = Math.max(1, fileCount - otherCount - 1);
+        int packageCount = (classCount + CLASSES_PER_PACKAGE - 1) / CLASSES_PER_PACKAGE;
+        for (int i = 0; i < classCount; i++) {
+            writeClass(sourceRoot, i, classCount, random);
+        }
+        writeEntry(sourceRoot, packageCount);
+        for (int i = 0; i < otherCount; i++) {
+            writeOtherFile(sourceRoot, i, otherExtensions.get(i % otherExtensions.size()), random);
+        }
+        projectRoot.mkdirs();
+        Files.write(marker.toPath(), signature.getBytes(StandardCharsets.UTF_8));
+        return sourceRoot;
+    }
+
+    private List<String> otherExtensions() {
+        List<String> extensions = new ArrayList<>();
+        if (allowedExtensions != null) {
+            for (String extension : allowedExtensions.split(",")) {
+                String trimmed = extension.trim();
+                if (trimmed.startsWith(".")) {
+                    trimmed = trimmed.substring(1);
+                }
+                if (!trimmed.isEmpty() && !"java".equals(trimmed)) {
+                    extensions.add(trimmed);
+                }
+            }
+        }
+        return extensions;
+    }
+
+    /**
+     * 包名：前 packageDepth-1 级按包编号分组，最后一级带完整编号保证唯一
+     */
+    private String packageOf(int index) {
+        int packageIndex = index / CLASSES_PER_PACKAGE;
+        StringBuilder name = new StringBuilder(BASE_PACKAGE);
+        for (int level = packageDepth - 1; level > 0; level--) {
+            name.append(".m").append((packageIndex / (int) Math.pow(PACKAGE_BRANCHING, level)) % PACKAGE_BRANCHING);
+        }
+        return name.append(".p").append(packageIndex).toString();
+    }
+
+    private static String simpleNameOf(int index) {
+        return "Type" + index;
+    }
+
+    private String qualifiedNameOf(int index) {
+        return packageOf(index) + "." + simpleNameOf(index);
+    }
+
+    private void writeClass(File sourceRoot, int index, int classCount, Random random) throws IOException {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageOf(index)).append(";\n\n");
+        source.append("import java.util.ArrayList;\nimport java.util.List;\n\n");
+        source.append("public class ").append(simpleNameOf(index)).append(" {\n\n");
+        source.append("    private final List<String> values = new ArrayList<>();\n");
+        source.append("    private int counter;\n");
+        boolean bean = random.nextDouble() < beanRatio;
+        if (bean) {
+            for (int p = 0; p < BEAN_PROPERTIES; p++) {
+                source.append("    private String property").append(p).append(";\n");
+            }
+        }
+        source.append("\n");
+
+        // 正向引用编号更大的类；按 cycleRatio 额外回向引用编号更小的类
+        List<Integer> targets = new ArrayList<>();
+        int remaining = classCount - index - 1;
+        for (int f = 0; f < fanOut && remaining > 0; f++) {
+            targets.add(index + 1 + random.nextInt(Math.min(CLASSES_PER_PACKAGE, remaining)));
+        }
+        if (index > 0 && random.nextDouble() < cycleRatio) {
+            targets.add(Math.max(0, index - 1 - random.nextInt(Math.min(CLASSES_PER_PACKAGE, index))));
+        }
+        for (int t = 0; t < targets.size(); t++) {
+            String targetName = qualifiedNameOf(targets.get(t));
+            source.append("    public int call").append(t + 1).append("(int input) {\n");
+            source.append("        ").append(targetName).append(" next = new ").append(targetName).append("();\n");
+            source.append("        counter += input;\n");
+            source.append("        return next.compute(counter);\n");
+            source.append("    }\n\n");
+        }
+
+        source.append("    public int compute(int input) {\n");
+        source.append("        int result = input;\n");
+        source.append("        for (String value : values) {\n");
+        source.append("            result += value.length();\n");
+        source.append("        }\n");
+        source.append("        return result * ").append(1 + random.nextInt(7)).append(";\n");
+        source.append("    }\n\n");
+        source.append("    public void add(String value) {\n");
+        source.append("        values.add(value);\n");
+        source.append("    }\n");
+        if (bean) {
+            appendBeanMethods(source, simpleNameOf(index));
+        }
+        source.append("}\n");
+        write(sourceRoot, qualifiedNameOf(index).replace('.', File.separatorChar) + ".java", source);
+    }
+
+    private static void appendBeanMethods(StringBuilder source, String simpleName) {
+        for (int p = 0; p < BEAN_PROPERTIES; p++) {
+            source.append("\n    public String getProperty").append(p).append("() {\n");
+            source.append("        return property").append(p).append(";\n");
+            source.append("    }\n\n");
+            source.append("    public void setProperty").append(p).append("(String property").append(p).append(") {\n");
+            source.append("        this.property").append(p).append(" = property").append(p).append(";\n");
+            source.append("    }\n");
+        }
+        source.append("\n    @Override\n    public boolean equals(Object other) {\n");
+        source.append("        if (!(other instanceof ").append(simpleName).append(")) {\n");
+        source.append("            return false;\n        }\n");
+        source.append("        ").append(simpleName).append(" that = (").append(simpleName).append(") other;\n");
+        source.append("        return java.util.Objects.equals(property0, that.property0);\n    }\n");
+        source.append("\n    @Override\n    public int hashCode() {\n");
+        source.append("        return java.util.Objects.hash(");
+        for (int p = 0; p < BEAN_PROPERTIES; p++) {
+            source.append(p > 0 ? ", " : "").append("property").append(p);
+        }
+        source.append(");\n    }\n");
+    }
+
+    private void writeEntry(File sourceRoot, int packageCount) throws IOException {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(BASE_PACKAGE).append(";\n\n");
+        source.append("public class Main {\n\n");
+        source.append("    public static void main(String[] args) {\n");
+        source.append("        int total = 0;\n");
+        for (int p = 0; p < packageCount; p++) {
+            String target = qualifiedNameOf(p * CLASSES_PER_PACKAGE);
+            source.append("        total += new ").append(target).append("().compute(").append(p).append(");\n");
+        }
+        source.append("        System.out.println(total);\n");
+        source.append("    }\n");
+        source.append("}\n");
+        write(sourceRoot, ENTRY_CLASS.replace('.', File.separatorChar) + ".java", source);
+    }
+
+    /**
+     * 其他语言的文件放在 src/assets/&lt;扩展名&gt;/ 下，内容按语法族生成几个函数
+     */
+    private void writeOtherFile(File sourceRoot, int index, String extension, Random random) throws IOException {
+        StringBuilder source = new StringBuilder();
+        int functions = 2 + random.nextInt(4);
+        switch (extension) {
+            case "py":
+                for (int f = 0; f < functions; f++) {
+                    source.append("def handler_").append(f).append("(value):\n");
+                    source.append("    total = value * ").append(f + 1).append("\n");
+                    source.append("    for item in range(total):\n        total += item\n");
+                    source.append("    return total\n\n\n");
+                }
+                break;
+            case "rb":
+                for (int f = 0; f < functions; f++) {
+                    source.append("def handler_").append(f).append("(value)\n");
+                    source.append("  (0...value).reduce(").append(f).append(") { |sum, item| sum + item }\n");
+                    source.append("end\n\n");
+                }
+                break;
+            case "js":
+            case "ts":
+                for (int f = 0; f < functions; f++) {
+                    source.append("export function handler").append(f).append("(value) {\n");
+                    source.append("  let total = value * ").append(f + 1).append(";\n");
+                    source.append("  for (let i = 0; i < total; i++) {\n    total += i;\n  }\n");
+                    source.append("  return total;\n}\n\n");
+                }
+                break;
+            default:
+                // 其余扩展名都使用 C 风格的花括号语法
+                source.append("// generated ").append(extension).append(" file ").append(index).append("\n\n");
+                for (int f = 0; f < functions; f++) {
+                    source.append("int handler").append(f).append("(int value) {\n");
+                    source.append("    int total = value * ").append(f + 1).append(";\n");
+                    source.append("    for (int i = 0; i < total; i++) {\n        total += i;\n    }\n");
+                    source.append("    return total;\n}\n\n");
+                }
+        }
+        write(sourceRoot, "assets" + File.separator + extension + File.separator + "file" + index + "." + extension, source);
+    }
+
+    private static void write(File sourceRoot, String relativePath, CharSequence source) throws IOException {
+        File file = new File(sourceRoot, relativePath);
+        file.getParentFile().mkdirs();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.append(source);
+        }
+    }
+
+    static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * 参数：--out 目录 (必填)、--files、--seed、--depth、--fan-out、--cycles、--beans、--other-languages、--extensions
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = AnalyzerBenchmarks.parseOptions(args);
+        String out = options.get("out");
+        if (out == null) {
+            System.err.println("用法: SyntheticProjectGenerator --out <目录> [--files 1000] [--depth 1] [--fan-out 3] "
+                    + "[--cycles 0] [--beans 0] [--other-languages 0] [--extensions java,js,py]");
+            System.exit(2);
+        }
+        SyntheticProjectGenerator generator = new SyntheticProjectGenerator(
+                Integer.parseInt(AnalyzerBenchmarks.option(options, "files", "1000")),
+                Long.parseLong(AnalyzerBenchmarks.option(options, "seed", "42")));
+        generator.configure(options);
+        System.out.println("已生成: " + generator.generate(new File(out)).getAbsolutePath());
+    }
+
+    /**
+     * 从命令行参数读取生成选项，未指定的保持当前值
+     */
+    void configure(Map<String, String> options) {
+        setPackageDepth(Integer.parseInt(AnalyzerBenchmarks.option(options, "depth", String.valueOf(packageDepth))));
+        setFanOut(Integer.parseInt(AnalyzerBenchmarks.option(options, "fan-out", String.valueOf(fanOut))));
+        setCycleRatio(Double.parseDouble(AnalyzerBenchmarks.option(options, "cycles", String.valueOf(cycleRatio))));
+        setBeanRatio(Double.parseDouble(AnalyzerBenchmarks.option(options, "beans", String.valueOf(beanRatio))));
+        setOtherLanguageRatio(Double.parseDouble(AnalyzerBenchmarks.option(options, "other-languages", String.valueOf(otherLanguageRatio))));
+        setAllowedExtensions(AnalyzerBenchmarks.option(options, "extensions", allowedExtensions));
+    }
+}
@@ -1,8 +1,15 @@
 package io.github.jitawangzi.jdepend.eclipse;
 
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisExecutors;
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisWatcher;
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalyzerRuntime;
+import io.github.jitawangzi.jdepend.eclipse.analysis.PrewarmJob;
+import io.github.jitawangzi.jdepend.eclipse.service.AnalysisService;
+
 /**
  * The activator class controls the plug-in life cycle
  */
@@ -27,6 +34,8 @@ public class Activator extends AbstractUIPlugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		plugin = this;
+		PrewarmJob.scheduleIfEnabled();
+		AnalysisService.getDefault().applyPreferences();
 	}
 
 	/*
@@ -34,6 +43,11 @@ public class Activator extends AbstractUIPlugin {
 	 * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
 	 */
 	public void stop(BundleContext context) throws Exception {
+		Job.getJobManager().cancel(PrewarmJob.FAMILY);
+		AnalysisService.getDefault().dispose();
+		AnalysisWatcher.getDefault().dispose();
+		AnalyzerRuntime.getDefault().dispose();
+		AnalysisExecutors.getDefault().dispose();
 		plugin = null;
 		super.stop(context);
 	}
@@ -0,0 +1,14 @@
+package io.github.jitawangzi.jdepend.eclipse;
+
+import org.eclipse.ui.IStartup;
+
+/**
+ * 工作台启动完成后激活插件，由 Activator.start 安排后台预热
+ */
+public class Startup implements IStartup {
+
+    @Override
+    public void earlyStartup() {
+        // 加载本类即会激活插件，无需其他操作
+    }
+}
@@ -1,17 +1,26 @@
 package io.github.jitawangzi.jdepend.eclipse.actions;
 
 import java.io.File;
-import java.io.InputStream;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.viewers.ISelection;
@@ -27,6 +36,18 @@ import org.eclipse.ui.console.MessageConsole;
 import org.eclipse.ui.console.MessageConsoleStream;
 
 import io.github.jitawangzi.jdepend.config.AppConfigManager;
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisContext;
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisExecutors;
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisMetrics;
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisWatcher;
+import io.github.jitawangzi.jdepend.eclipse.analysis.CodeBlockSimplifier;
+import io.github.jitawangzi.jdepend.eclipse.analysis.ExternalAnalyzerRunner;
+import io.github.jitawangzi.jdepend.eclipse.analysis.MemoryPressureMonitor;
+import io.github.jitawangzi.jdepend.eclipse.analysis.OutputSharder;
+import io.github.jitawangzi.jdepend.eclipse.analysis.OutputTrimmer;
+import io.github.jitawangzi.jdepend.eclipse.analysis.SourceInputProvider;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisHistory;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisSettings;
 import io.github.jitawangzi.jdepend.eclipse.config.PluginConfig;
 
 /**
@@ -35,6 +56,9 @@ import io.github.jitawangzi.jdepend.eclipse.config.PluginConfig;
  */
 public abstract class AbstractAnalyzerAction implements IObjectActionDelegate {
 
+    // 最近一次通过 AppConfigManager 载入的外部分析器属性，所有动作共用
+    private static Properties loadedEngineProperties;
+
     protected Shell shell;
     protected Object selectedElement;
 
@@ -58,41 +82,160 @@ public abstract class AbstractAnalyzerAction implements IObjectActionDelegate {
     protected abstract void onSelectionChanged(Object firstElement);
 
     /**
-     * 构建特定于模式的系统属性
+     * 补充外部分析器属性中取决于所选资源、无法由配置本身得出的部分
      */
-    protected abstract Properties buildSystemProperties(PluginConfig config);
+    protected void addEngineProperties(Properties props, PluginConfig config) {
+    }
 
     /**
      * 获取分析运行时的工作目录 (user.dir)
      */
-    protected abstract String getWorkingDir(PluginConfig config);
+    protected abstract String getWorkingDir(AnalysisSettings settings);
 
     /**
      * 获取用于查找生成结果的备选目录列表
      */
-    protected abstract File[] getOutputSearchDirectories(PluginConfig config);
+    protected abstract File[] getOutputSearchDirectories(AnalysisSettings settings);
 
     /**
      * 获取日志前缀
      */
     protected abstract String getLogPrefix();
 
+    /**
+     * 要反射调用的分析器主类全限定名
+     */
+    protected abstract String getAnalyzerClassName();
+
+    /**
+     * 是否为类分析模式，决定配置按哪种模式保存
+     */
+    protected abstract boolean isClassMode();
+
+    /**
+     * 根据保存的配置恢复选中对象，供不打开对话框的重新分析使用
+     * @return 对应的类或目录已不存在时返回 false
+     */
+    protected abstract boolean restoreSelection(IProject project, PluginConfig config);
+
+    /**
+     * 监视模式下触发重新分析的范围
+     */
+    protected abstract IContainer getWatchScope(IProject project);
+
+    /**
+     * 监视模式下触发重新分析的文件扩展名 (不含点)
+     */
+    protected abstract Set<String> getWatchExtensions(AnalysisSettings settings);
+
+    /**
+     * 创建同类型的新实例，供监视模式在后台运行，避免与菜单动作共享选中状态
+     */
+    protected abstract AbstractAnalyzerAction createBackgroundInstance();
+
+    /**
+     * 跳过配置对话框，按上次保存的配置重新执行分析
+     * @return 无法恢复上次的分析对象时返回 false
+     */
+    public boolean rerun(Shell parentShell, IProject project, PluginConfig config) {
+        shell = parentShell;
+        if (!restoreSelection(project, config)) {
+            return false;
+        }
+        debugInfo("按上次的配置重新分析: " + project.getName());
+        startAnalysis(project, config);
+        return true;
+    }
+
+    /**
+     * 校验配置后保存本次配置、更新监视状态并开始分析
+     * @throws IllegalArgumentException 配置取值不合法，此时不保存也不开始分析
+     */
+    protected void startAnalysis(IProject project, PluginConfig config) {
+        AnalysisSettings settings = snapshot(config);
+        AnalysisHistory.saveLastRun(project.getName(), isClassMode(), config);
+        updateWatch(project, config, settings);
+        executeAnalysis(settings, getAnalyzerClassName());
+    }
+
+    /**
+     * 生成本次分析的配置快照，包括取决于所选资源的外部分析器属性
+     * @throws IllegalArgumentException 配置取值不合法
+     */
+    private AnalysisSettings snapshot(PluginConfig config) {
+        Properties extras = new Properties();
+        addEngineProperties(extras, config);
+        return AnalysisSettings.of(config, isClassMode(), extras);
+    }
+
+    /**
+     * @param config 监视触发时按它重新生成快照，其余取值都来自 settings
+     */
+    private void updateWatch(IProject project, PluginConfig config, AnalysisSettings settings) {
+        String key = project.getName() + ":" + settings.getWatchTarget();
+        if (!settings.isWatchEnabled()) {
+            if (AnalysisWatcher.getDefault().isWatching(key)) {
+                AnalysisWatcher.getDefault().unwatch(key);
+                debugInfo("已停止监视: " + key);
+            }
+            return;
+        }
+        // 输出文件本身的变化不触发重新分析
+        Set<IPath> ignored = new HashSet<>();
+        File outputFile = new File(settings.getOutputFile());
+        ignored.add(Path.fromOSString(outputFile.getAbsolutePath()));
+        ignored.add(Path.fromOSString(new File(outputFile.getAbsoluteFile().getParentFile(), AnalysisMetrics.METRICS_FILE_NAME).getAbsolutePath()));
+        AnalysisWatcher.getDefault().watch(key, getWatchScope(project), getWatchExtensions(settings), ignored,
+                monitor -> createBackgroundInstance().runInBackground(project, config, monitor));
+        debugInfo("监视模式已开启，保存文件后自动重新分析: " + key);
+    }
+
+    /**
+     * 在当前线程中执行分析，不弹出对话框；供监视模式的后台任务调用
+     */
+    public void runInBackground(IProject project, PluginConfig config, IProgressMonitor monitor) throws Exception {
+        runInBackground(project, config, monitor, "watch");
+    }
+
+    /**
+     * 在当前线程中执行分析，不弹出对话框
+     * @param trigger 记录在指标中的触发方式，如 watch、service
+     * @throws AnalysisTargetNotFoundException 配置中的类或目录在项目中不存在
+     * @throws IllegalArgumentException 配置取值不合法
+     */
+    public void runInBackground(IProject project, PluginConfig config, IProgressMonitor monitor, String trigger) throws Exception {
+        if (!restoreSelection(project, config)) {
+            throw new AnalysisTargetNotFoundException("分析对象已不存在: " + (isClassMode() ? config.getMainClass() : config.getDirectoryPath()));
+        }
+        debugInfo(("watch".equals(trigger) ? "检测到文件保存，重新分析: " : "后台分析 (" + trigger + "): ") + project.getName());
+        AnalysisSettings settings = snapshot(config);
+        AnalysisMetrics metrics = createMetrics(settings);
+        metrics.setAttribute("trigger", trigger);
+        executeAnalysisLogic(settings, getAnalyzerClassName(), metrics, monitor);
+    }
+
+    private AnalysisMetrics createMetrics(AnalysisSettings settings) {
+        AnalysisMetrics metrics = new AnalysisMetrics(getLogPrefix());
+        metrics.setAttribute("engine", settings.isWorkspaceEngine() ? "builtin" : "external");
+        metrics.setAttribute("executor", AnalysisExecutors.getDefault().describe());
+        metrics.setAttribute("outputFile", settings.getOutputFile());
+        return metrics;
+    }
+
     /**
      * 执行分析的核心入口
-     * @param config 配置对象
+     * @param settings 本次分析的配置快照，分析过程只读取快照
      * @param analyzerClassName 要反射调用的主类全限定名
      */
-    protected void executeAnalysis(PluginConfig config, String analyzerClassName) {
+    protected void executeAnalysis(AnalysisSettings settings, String analyzerClassName) {
         debugInfo("开始执行分析，目标类: " + analyzerClassName);
 
-        // 1. 设置系统属性并重载配置
-        Properties systemProperties = buildSystemProperties(config);
-        AppConfigManager.reload(systemProperties);
+        AnalysisMetrics metrics = createMetrics(settings);
 
-        // 2. 在后台线程中执行
+        // 在单独的平台线程中执行：分析过程同步解析签名并设置上下文类加载器，不适合放在虚拟线程或共享的线程池中
         Thread analysisThread = new Thread(() -> {
             try {
-                executeAnalysisLogic(config, analyzerClassName);
+                executeAnalysisLogic(settings, analyzerClassName, metrics, null);
             } catch (Throwable t) {
                 String errorMsg = t.getCause() != null ? t.getCause().getMessage() : t.getMessage();
                 debugError("分析失败（捕获到严重错误）: " + errorMsg, new Exception(t));
@@ -104,114 +247,127 @@ public abstract class AbstractAnalyzerAction implements IObjectActionDelegate {
                 });
             }
         });
-
         analysisThread.setName(getLogPrefix() + "-Thread");
         analysisThread.start();
     }
 
-    private void executeAnalysisLogic(PluginConfig config, String targetClassName) throws Exception {
-        // 1. 准备类加载器
-        ClassLoader pluginClassLoader = this.getClass().getClassLoader();
-        debugInfo("插件类加载器: " + pluginClassLoader.getClass().getName());
+    /**
+     * @param monitor 后台运行时用于取消，交互运行时为 null；不为 null 时不弹出结果对话框
+     */
+    @SuppressWarnings("try")
+    private void executeAnalysisLogic(AnalysisSettings settings, String targetClassName,
+            AnalysisMetrics metrics, IProgressMonitor monitor) throws Exception {
+        // 0. 启用内置引擎时直接基于 JDT 模型在当前进程内分析，内存紧张时逐步降级而不是直接失败
+        if (settings.isWorkspaceEngine()) {
+            try (MemoryPressureMonitor memoryMonitor = new MemoryPressureMonitor().start()) {
+                AnalysisContext context = new AnalysisContext(metrics, memoryMonitor, monitor);
+                context.setOutputListener(this::onPartialOutput);
+                if (runWorkspaceAnalysis(settings, context)) {
+                    for (String note : memoryMonitor.getNotes()) {
+                        metrics.addNote(note);
+                    }
+                    checkAndProcessOutputFile(settings, metrics, monitor == null);
+                    return;
+                }
+            }
+        }
 
-        List<URL> validUrls = scanForLibJars();
-        if (validUrls.isEmpty()) {
-            throw new Exception("没有找到任何必需的JAR文件！请确认插件 lib 目录或 JAR 包结构。");
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.CONFIG_RELOAD)) {
+            loadEngineProperties(settings);
         }
-        debugInfo("共找到 " + validUrls.size() + " 个JAR文件");
-
-        // 2. 构建 URLClassLoader
-        URLClassLoader customClassLoader = new URLClassLoader(validUrls.toArray(new URL[0]), pluginClassLoader);
-        Thread.currentThread().setContextClassLoader(customClassLoader);
-
-        // 3. 加载分析器类
-        Class<?> analyzerClass = customClassLoader.loadClass(targetClassName);
-        debugInfo("成功加载分析器类: " + analyzerClass.getName());
-        java.lang.reflect.Method mainMethod = analyzerClass.getMethod("main", String[].class);
-
-        // 4. 设置工作目录
-        String originalUserDir = System.getProperty("user.dir");
-        String workingDir = getWorkingDir(config);
-        if (workingDir != null && !workingDir.isEmpty()) {
-            System.setProperty("user.dir", workingDir);
-            debugInfo("设置工作目录为: " + workingDir);
+        noteUnsavedEditors(settings, metrics);
+        if (!settings.getOutputFormats().isEmpty()) {
+            String note = "外部分析器只输出 Markdown，其他输出格式 (" + String.join(",", settings.getOutputFormats()) + ") 需要启用内置引擎";
+            debugInfo(note);
+            metrics.addNote(note);
         }
 
-        try {
-            // 5. 调用 main 方法
-            debugInfo("开始执行分析...");
-            mainMethod.invoke(null, (Object) new String[0]);
-            debugInfo("分析执行完成");
-        } catch (Exception e) {
-            debugError("调用分析器main方法时出错", e);
-            throw e;
-        } finally {
-            // 恢复原始工作目录
-            if (originalUserDir != null) {
-                System.setProperty("user.dir", originalUserDir);
-            }
-            debugInfo("恢复工作目录");
-        }
+        // 1-5. 构建类加载器并在工作目录下调用外部分析器
+        URL pluginLocation = getClass().getProtectionDomain().getCodeSource().getLocation();
+        new ExternalAnalyzerRunner(pluginLocation, getClass().getClassLoader(), this::debugInfo)
+                .run(targetClassName, getWorkingDir(settings), metrics);
 
         // 6. 检查结果并处理（包含打开目录逻辑）
-        checkAndProcessOutputFile(config);
+        checkAndProcessOutputFile(settings, metrics, monitor == null);
     }
 
     /**
-     * 扫描插件环境下的 lib JAR 包 (支持目录模式和JAR模式)
+     * 外部分析器只能通过 AppConfigManager 读取配置，属性与上次载入的相同时不再重新载入
      */
-    private List<URL> scanForLibJars() throws Exception {
-        List<URL> validUrls = new ArrayList<>();
-        URL pluginLocation = getClass().getProtectionDomain().getCodeSource().getLocation();
-        debugInfo("插件运行位置: " + pluginLocation);
-
-        File locationFile = new File(pluginLocation.toURI());
-
-        if (locationFile.isDirectory()) {
-            // 目录模式
-            debugInfo("检测到插件以目录形式运行，扫描文件系统...");
-            File pluginRoot = locationFile;
-            if ("bin".equalsIgnoreCase(pluginRoot.getName())
-                    || "target".equalsIgnoreCase(pluginRoot.getName())
-                    || "classes".equalsIgnoreCase(pluginRoot.getName())) {
-                pluginRoot = pluginRoot.getParentFile();
+    private void loadEngineProperties(AnalysisSettings settings) {
+        Properties props = settings.toEngineProperties();
+        synchronized (AbstractAnalyzerAction.class) {
+            if (props.equals(loadedEngineProperties)) {
+                debugInfo("外部分析器配置未变化，沿用已载入的配置");
+                return;
             }
-            File libDir = new File(pluginRoot, "lib");
-            if (libDir.isDirectory()) {
-                File[] jars = libDir.listFiles((dir, name) -> name.endsWith(".jar"));
-                if (jars != null) {
-                    for (File jar : jars) {
-                        validUrls.add(jar.toURI().toURL());
-                    }
-                }
+            debugInfo("载入外部分析器配置:");
+            for (String key : new TreeSet<>(props.stringPropertyNames())) {
+                debugInfo("  " + key + " = " + props.getProperty(key));
             }
-        } else {
-            // JAR 模式
-            debugInfo("检测到插件以JAR形式运行，扫描内部 lib...");
-            try (InputStream jarStream = pluginLocation.openStream();
-                 ZipInputStream zipInput = new ZipInputStream(jarStream)) {
-                ZipEntry entry;
-                while ((entry = zipInput.getNextEntry()) != null) {
-                    String name = entry.getName();
-                    if (name.startsWith("lib/") && name.endsWith(".jar") && !entry.isDirectory()) {
-                        URL innerJarUrl = new URL("jar:" + pluginLocation + "!/" + name);
-                        validUrls.add(innerJarUrl);
-                    }
-                }
+            AppConfigManager.reload(props);
+            loadedEngineProperties = props;
+        }
+    }
+
+    /**
+     * 内置引擎每写完一批小节时回调：第一次提示可以打开查看，之后刷新工作空间中的文件，已打开的编辑器随之更新
+     */
+    private void onPartialOutput(File file, long bytesWritten, boolean first) {
+        if (first) {
+            debugInfo("已写出第一部分结果，分析仍在继续，" + OutputFileLinker.PREFIX + file.getAbsolutePath());
+        }
+        for (IFile resource : ResourcesPlugin.getWorkspace().getRoot().findFilesForLocationURI(file.toURI())) {
+            try {
+                resource.refreshLocal(IResource.DEPTH_ZERO, null);
+            } catch (CoreException e) {
+                debugError("刷新输出文件失败: " + resource.getFullPath(), e);
             }
         }
-        return validUrls;
     }
 
-    private void checkAndProcessOutputFile(PluginConfig config) {
-        String absoluteOutputFile = config.getAbsoluteOutputFile();
+    /**
+     * 外部分析器只能读取磁盘上的文件，工作目录下有未保存的编辑器时在结果中提示
+     */
+    private void noteUnsavedEditors(AnalysisSettings settings, AnalysisMetrics metrics) {
+        String root = getWorkingDir(settings);
+        List<String> names = new ArrayList<>();
+        for (ICompilationUnit unit : SourceInputProvider.findUnsavedUnits(null)) {
+            IResource resource = unit.getResource();
+            if (resource != null && resource.getLocation() != null
+                    && (root == null || resource.getLocation().toFile().getAbsolutePath().startsWith(root))) {
+                names.add(unit.getElementName());
+            }
+        }
+        if (!names.isEmpty()) {
+            String note = "以下文件有未保存的修改，外部分析器读取的是磁盘内容: " + String.join(", ", names)
+                    + " (内置引擎可直接分析编辑器中的内容)";
+            debugInfo(note);
+            metrics.addNote(note);
+        }
+    }
+
+    /**
+     * 使用 IDE 内置的 JDT 模型执行分析，子类不支持时返回 false，回退到外部分析器
+     * @param context 本次运行的指标记录与内存压力监视
+     */
+    protected boolean runWorkspaceAnalysis(AnalysisSettings settings, AnalysisContext context) throws Exception {
+        return false;
+    }
+
+    /**
+     * @param interactive 为 false 时只写日志，不弹出对话框也不打开目录
+     */
+    @SuppressWarnings("try")
+    private void checkAndProcessOutputFile(AnalysisSettings settings, AnalysisMetrics metrics, boolean interactive) {
+        String absoluteOutputFile = settings.getOutputFile();
         File targetFile = new File(absoluteOutputFile);
-        debugInfo("检查输出文件: " + absoluteOutputFile);
+        debugInfo("检查" + OutputFileLinker.PREFIX + absoluteOutputFile);
 
         // 如果目标位置没有文件，检查备选目录
         if (!targetFile.exists()) {
             debugInfo("目标位置没有文件，检查备选目录...");
-            File[] dirsToCheck = getOutputSearchDirectories(config);
+            File[] dirsToCheck = getOutputSearchDirectories(settings);
             String[] possibleFileNames = { "directory-analysis.md", "dependency-analysis.md", "output.md" };
 
             outerLoop:
@@ -220,7 +376,7 @@ public abstract class AbstractAnalyzerAction implements IObjectActionDelegate {
                     for (String possibleName : possibleFileNames) {
                         File candidate = new File(dir, possibleName);
                         if (candidate.exists() && candidate.isFile()) {
-                            try {
+                            try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.WRITE)) {
                                 Files.copy(candidate.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
                                 debugInfo("文件已从 " + candidate.getAbsolutePath() + " 复制到目标位置");
                                 candidate.delete();
@@ -234,18 +390,54 @@ public abstract class AbstractAnalyzerAction implements IObjectActionDelegate {
             }
         }
 
+        if (targetFile.exists() && !isClassMode()) {
+            simplifyCodeBlocks(settings, targetFile, metrics);
+        }
+        if (targetFile.exists() && settings.getTokenBudget() > 0) {
+            trimToTokenBudget(settings, targetFile, metrics);
+        }
+        if (targetFile.exists() && settings.getOutputShardSize() > 0) {
+            shardOutput(settings, targetFile, metrics);
+        }
+
         final boolean fileExists = targetFile.exists();
         final long fileSize = fileExists ? targetFile.length() : 0;
 
+        // 写出指标报告
+        metrics.set(AnalysisMetrics.BYTES_WRITTEN, fileSize);
+        metrics.finish();
+        if (fileExists) {
+            try {
+                File sidecar = metrics.writeSidecar(targetFile);
+                debugInfo("指标报告已写入: " + sidecar.getAbsolutePath());
+            } catch (Exception e) {
+                debugError("写入指标报告失败", e);
+            }
+        }
+        final List<String> notes = metrics.getNotes();
+        final String summary = metrics.summary();
+        debugInfo(summary);
+        if (!interactive) {
+            return;
+        }
+
         // 在 UI 线程中显示结果并打开目录
         shell.getDisplay().asyncExec(() -> {
             if (fileExists) {
                 // 1. 弹出成功提示
-                MessageDialog.openInformation(shell, "Analysis Completed",
-                        "分析完成！\n\n输出文件: " + targetFile.getName() + "\n大小: " + (fileSize / 1024) + " KB\n位置: " + targetFile.getParent());
+                StringBuilder message = new StringBuilder("分析完成！\n\n输出文件: " + targetFile.getName()
+                        + "\n大小: " + (fileSize / 1024) + " KB\n位置: " + targetFile.getParent()
+                        + "\n\n" + summary);
+                if (!notes.isEmpty()) {
+                    message.append("\n\n注意:");
+                    for (String note : notes) {
+                        message.append("\n- ").append(note);
+                    }
+                }
+                MessageDialog.openInformation(shell, "Analysis Completed", message.toString());
                 
                 // 2. 自动打开文件所在目录 (默认开启)
-                if (shouldOpenOutputDirectory(config)) {
+                if (shouldOpenOutputDirectory(settings)) {
                     try {
                         File parentDir = targetFile.getParentFile();
                         if (parentDir != null && parentDir.exists()) {
@@ -268,22 +460,79 @@ public abstract class AbstractAnalyzerAction implements IObjectActionDelegate {
     }
     
     /**
-     * 判断是否需要自动打开输出目录
-     * 默认为 true，如果你在 PluginConfig 中添加了配置项，请在此处修改获取逻辑
+     * 外部分析器只简化 Java 方法，目录模式下其他语言的代码块在这里折叠函数体，并按配置精简注释与空白、合并相同文件；
+     * 超过摘要阈值的文件只保留开头与结尾。都未启用时不读取输出
+     */
+    @SuppressWarnings("try")
+    private void simplifyCodeBlocks(AnalysisSettings settings, File targetFile, AnalysisMetrics metrics) {
+        CodeBlockSimplifier simplifier = new CodeBlockSimplifier(settings.isSimplifyMethods(), settings.getCommentMode(),
+                settings.isStripLicenseHeaders(), settings.isNormalizeWhitespace(), settings.isDeduplicateFiles(),
+                settings.getLargeFileSummaryBytes());
+        if (!simplifier.isEnabled()) {
+            return;
+        }
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.WRITE)) {
+            if (simplifier.simplify(targetFile)) {
+                if (simplifier.getSimplifiedBlocks() > 0) {
+                    metrics.set(AnalysisMetrics.SIMPLIFIED_BLOCKS, simplifier.getSimplifiedBlocks());
+                }
+                if (simplifier.getDuplicateBlocks() > 0) {
+                    metrics.set(AnalysisMetrics.DUPLICATE_FILES, simplifier.getDuplicateBlocks());
+                }
+                debugInfo("代码块后处理完成 (折叠函数体 " + simplifier.getSimplifiedBlocks() + " 个，重复文件 "
+                        + simplifier.getDuplicateBlocks() + " 个，截断超大文件 " + simplifier.getSummarizedBlocks()
+                        + " 个)，字符数 "
+                        + simplifier.getCharsBefore() + " -> " + simplifier.getCharsAfter());
+            }
+        } catch (Exception e) {
+            debugError("折叠非 Java 代码块失败，保留原样输出", e);
+        }
+    }
+
+    /**
+     * 输出超出 token 预算时丢弃末尾的小节；内置引擎已按优先级裁剪，通常不会再触发
      */
-    protected boolean shouldOpenOutputDirectory(PluginConfig config) {
-        return config.isOpenOutputDirectory();
+    @SuppressWarnings("try")
+    private void trimToTokenBudget(AnalysisSettings settings, File targetFile, AnalysisMetrics metrics) {
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.WRITE)) {
+            OutputTrimmer trimmer = new OutputTrimmer(settings.getTokenBudget());
+            if (trimmer.trim(targetFile)) {
+                String note = "超出 token 预算 " + settings.getTokenBudget() + "，末尾 " + trimmer.getDroppedSections()
+                        + " 个小节未输出 (保留约 " + trimmer.getKeptTokens() + " tokens)";
+                debugInfo(note);
+                metrics.addNote(note);
+            }
+        } catch (Exception e) {
+            debugError("按 token 预算截断输出失败，保留完整输出", e);
+        }
     }
 
-    protected void putAndDebugProperty(Properties props, String key, String value) {
-        if (value != null) {
-            props.setProperty(key, value);
-            debugInfo("  " + key + " = " + value);
-        } else {
-            debugInfo("  " + key + " = <null> (跳过设置)");
+    /**
+     * 按配置的大小把输出拆分为分片，原文件改写为分片目录
+     */
+    @SuppressWarnings("try")
+    private void shardOutput(AnalysisSettings settings, File targetFile, AnalysisMetrics metrics) {
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.WRITE)) {
+            int parts = new OutputSharder(settings.getOutputShardSize(), settings.getOutputShardUnit()).shard(targetFile);
+            if (parts > 0) {
+                String note = "输出已拆分为 " + parts + " 个分片 (每片不超过 " + settings.getOutputShardSize() + " "
+                        + settings.getOutputShardUnit() + ")，" + targetFile.getName() + " 为分片目录";
+                debugInfo(note);
+                metrics.addNote(note);
+            }
+        } catch (Exception e) {
+            debugError("拆分输出失败，保留单个文件", e);
         }
     }
 
+    /**
+     * 判断是否需要自动打开输出目录
+     * 默认为 true，如果你在 PluginConfig 中添加了配置项，请在此处修改获取逻辑
+     */
+    protected boolean shouldOpenOutputDirectory(AnalysisSettings settings) {
+        return settings.isOpenOutputDirectory();
+    }
+
     protected void debugInfo(String message) {
         String debugMsg = "[" + getLogPrefix() + "] " + message;
         System.out.println(debugMsg);
@@ -309,6 +558,7 @@ public abstract class AbstractAnalyzerAction implements IObjectActionDelegate {
             }
             if (targetConsole == null) {
                 targetConsole = new MessageConsole("Java Dependency Analyzer", null);
+                targetConsole.addPatternMatchListener(new OutputFileLinker());
                 consoleManager.addConsoles(new IConsole[]{targetConsole});
             }
             MessageConsoleStream stream = targetConsole.newMessageStream();
@@ -317,4 +567,16 @@ public abstract class AbstractAnalyzerAction implements IObjectActionDelegate {
             System.err.println("Failed to write to Eclipse console: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 要分析的类或目录在项目中找不到
+     */
+    public static class AnalysisTargetNotFoundException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        public AnalysisTargetNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
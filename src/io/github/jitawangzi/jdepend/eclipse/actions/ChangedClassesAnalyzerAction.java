@@ -0,0 +1,149 @@
+package io.github.jitawangzi.jdepend.eclipse.actions;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.window.Window;
+
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisContext;
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisMetrics;
+import io.github.jitawangzi.jdepend.eclipse.analysis.WorkspaceClassAnalyzer;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisHistory;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisSettings;
+import io.github.jitawangzi.jdepend.eclipse.config.PluginConfig;
+import io.github.jitawangzi.jdepend.eclipse.dialogs.ConfigurationDialog;
+import io.github.jitawangzi.jdepend.eclipse.utils.EclipseProjectUtils;
+import io.github.jitawangzi.jdepend.eclipse.utils.GitChangeScanner;
+
+/**
+ * 变更分析动作：以自 git 基准版本以来修改过的类为入口，只输出这些类及其 maxDepth 范围内的依赖
+ * 修改的文件由本地 git 工作区得到，每次运行 (包括重新分析和监视模式) 都在后台重新计算；只支持内置引擎。
+ * 没有修改时照常写出只含标题的输出，并在结果提示中说明。
+ */
+public class ChangedClassesAnalyzerAction extends ClassAnalyzerAction {
+
+    private IProject selectedProject;
+    private IJavaProject analysisProject;
+
+    @Override
+    protected String getLogPrefix() {
+        return "ChangedClassesAnalyzer";
+    }
+
+    @Override
+    protected void onSelectionChanged(Object firstElement) {
+        selectedProject = RerunLastAnalysisAction.projectOf(firstElement);
+    }
+
+    @Override
+    public void run(IAction action) {
+        if (selectedProject == null || !JavaCore.create(selectedProject).exists()) {
+            MessageDialog.openError(shell, "Error", "Please select a Java project.");
+            return;
+        }
+
+        try {
+            debugInfo("=== ChangedClassesAnalyzerAction 开始执行 ===");
+
+            String projectRoot = EclipseProjectUtils.getProjectRootPath(selectedProject);
+            PluginConfig config = AnalysisHistory.loadLastRun(selectedProject.getName(), true);
+            if (config == null) {
+                config = new PluginConfig();
+                config.setOutputFileWithProjectPath(projectRoot, "dependency-analysis.md");
+            }
+            if (config.getBaseRevision().isEmpty()) {
+                config.setBaseRevision("HEAD");
+            }
+            config.setProjectRoot(projectRoot);
+            config.setWorkspaceEngine(true);
+
+            ConfigurationDialog dialog = new ConfigurationDialog(shell, config, true, null);
+            if (dialog.open() != Window.OK) {
+                return;
+            }
+            config = dialog.getConfig();
+            config.setMainClass("changes since " + config.getBaseRevision());
+
+            // 修改的类在后台分析时由 git 计算，不在 UI 线程中运行 git
+            analysisProject = JavaCore.create(selectedProject);
+            startAnalysis(selectedProject, config);
+
+        } catch (Exception e) {
+            debugError("Failed to analyze changes: " + e.getMessage(), e);
+            MessageDialog.openError(shell, "Error", "Failed to analyze changes: " + e.getMessage());
+        }
+    }
+
+    @Override
+    protected boolean restoreSelection(IProject project, PluginConfig config) {
+        if (!project.isOpen() || config.getBaseRevision().isEmpty() || !JavaCore.create(project).exists()) {
+            return false;
+        }
+        selectedProject = project;
+        analysisProject = JavaCore.create(project);
+        config.setWorkspaceEngine(true);
+        return true;
+    }
+
+    @Override
+    protected AbstractAnalyzerAction createBackgroundInstance() {
+        return new ChangedClassesAnalyzerAction();
+    }
+
+    @Override
+    @SuppressWarnings("try")
+    protected boolean runWorkspaceAnalysis(AnalysisSettings settings, AnalysisContext context) throws Exception {
+        if (analysisProject == null) {
+            return false;
+        }
+        List<String> changed;
+        try (AnalysisMetrics.Phase phase = context.getMetrics().phase(AnalysisMetrics.FILE_WALK)) {
+            changed = findChangedTypes(analysisProject, settings.getBaseRevision());
+        }
+        if (changed.isEmpty()) {
+            String note = "自 " + settings.getBaseRevision() + " 以来项目 " + analysisProject.getElementName() + " 中没有修改过的 Java 类";
+            debugInfo(note);
+            context.getMetrics().addNote(note);
+        }
+        debugInfo("使用内置引擎分析自 " + settings.getBaseRevision() + " 以来修改的 " + changed.size() + " 个类: "
+                + analysisProject.getElementName());
+        WorkspaceClassAnalyzer analyzer = new WorkspaceClassAnalyzer(settings, analysisProject, context, this::debugInfo);
+        analyzer.setChangeScope(settings.getBaseRevision(), changed);
+        analyzer.analyze(context.getProgressMonitor());
+        return true;
+    }
+
+    /**
+     * 修改过的、位于源码目录中的编译单元里的顶层类型
+     */
+    private List<String> findChangedTypes(IJavaProject project, String baseRevision) throws Exception {
+        List<String> types = new ArrayList<>();
+        File root = project.getProject().getLocation().toFile();
+        for (File file : GitChangeScanner.changedFiles(root, baseRevision, this::debugInfo)) {
+            if (!file.getName().endsWith(".java")) {
+                continue;
+            }
+            IFile resource = ResourcesPlugin.getWorkspace().getRoot().getFileForLocation(Path.fromOSString(file.getAbsolutePath()));
+            IJavaElement element = resource != null ? JavaCore.create(resource) : null;
+            if (!(element instanceof ICompilationUnit) || !element.exists() || !project.isOnClasspath(element)) {
+                continue;
+            }
+            for (IType type : ((ICompilationUnit) element).getTypes()) {
+                types.add(type.getFullyQualifiedName());
+            }
+        }
+        return types;
+    }
+}
@@ -1,15 +1,25 @@
 package io.github.jitawangzi.jdepend.eclipse.actions;
 
 import java.io.File;
-import java.util.Properties;
+import java.util.Collections;
+import java.util.Set;
 
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.window.Window;
 
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisContext;
+import io.github.jitawangzi.jdepend.eclipse.analysis.WorkspaceClassAnalyzer;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisHistory;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisSettings;
 import io.github.jitawangzi.jdepend.eclipse.config.PluginConfig;
 import io.github.jitawangzi.jdepend.eclipse.dialogs.ConfigurationDialog;
 import io.github.jitawangzi.jdepend.eclipse.utils.EclipseProjectUtils;
@@ -20,6 +30,7 @@ import io.github.jitawangzi.jdepend.eclipse.utils.EclipseProjectUtils;
 public class ClassAnalyzerAction extends AbstractAnalyzerAction {
 
     private ICompilationUnit selectedUnit;
+    private IJavaProject analysisProject;
 
     @Override
     protected String getLogPrefix() {
@@ -49,23 +60,31 @@ public class ClassAnalyzerAction extends AbstractAnalyzerAction {
         try {
             debugInfo("=== ClassAnalyzerAction 开始执行 ===");
 
-            PluginConfig config = new PluginConfig();
             String className = EclipseProjectUtils.getFullyQualifiedClassName(selectedUnit);
             String projectRoot = EclipseProjectUtils.getProjectRootPath(selectedUnit.getResource());
             String packagePrefixes = EclipseProjectUtils.inferPackagePrefixes(selectedUnit);
             String sourceDirectories = EclipseProjectUtils.getSourceDirectories(selectedUnit);
 
+            analysisProject = selectedUnit.getJavaProject();
+            String projectName = analysisProject.getElementName();
+
+            // 沿用该项目上次的设置，只替换与当前选中类相关的部分
+            PluginConfig config = AnalysisHistory.loadLastRun(projectName, true);
+            if (config == null) {
+                config = new PluginConfig();
+                config.setProjectPackagePrefixes(packagePrefixes);
+                config.setOutputFileWithProjectPath(projectRoot, "dependency-analysis.md");
+            }
             config.setMainClass(className);
+            config.setBaseRevision("");
             config.setProjectRoot(projectRoot);
-            config.setProjectPackagePrefixes(packagePrefixes);
             config.setSourceDirectories(sourceDirectories);
-            config.setOutputFileWithProjectPath(projectRoot, "dependency-analysis.md");
 
             debugInfo("推断配置: 主类=" + className + ", 项目根=" + projectRoot);
 
             ConfigurationDialog dialog = new ConfigurationDialog(shell, config, true, className);
             if (dialog.open() == Window.OK) {
-                executeAnalysis(dialog.getConfig(), "io.github.jitawangzi.jdepend.ClassAnalyzer");
+                startAnalysis(analysisProject.getProject(), dialog.getConfig());
             }
 
         } catch (Exception e) {
@@ -75,48 +94,65 @@ public class ClassAnalyzerAction extends AbstractAnalyzerAction {
     }
 
     @Override
-    protected String getWorkingDir(PluginConfig config) {
-        // 类模式下，工作目录通常设为项目根目录
-        return config.getProjectRoot();
+    protected String getAnalyzerClassName() {
+        return "io.github.jitawangzi.jdepend.ClassAnalyzer";
     }
 
     @Override
-    protected File[] getOutputSearchDirectories(PluginConfig config) {
-        // 类模式下，主要检查项目根目录
-        return new File[]{ new File(config.getProjectRoot()) };
+    protected boolean isClassMode() {
+        return true;
+    }
+
+    @Override
+    protected boolean restoreSelection(IProject project, PluginConfig config) {
+        try {
+            IType type = JavaCore.create(project).findType(config.getMainClass());
+            if (type == null || type.getCompilationUnit() == null) {
+                return false;
+            }
+            selectedUnit = type.getCompilationUnit();
+            analysisProject = selectedUnit.getJavaProject();
+            return true;
+        } catch (JavaModelException e) {
+            debugError("无法定位上次分析的类: " + config.getMainClass(), e);
+            return false;
+        }
     }
 
     @Override
-    protected Properties buildSystemProperties(PluginConfig config) {
-        Properties props = new Properties();
-
-        // 类分析特定配置
-        putAndDebugProperty(props, "main.class", config.getMainClass());
-        putAndDebugProperty(props, "project.root", config.getProjectRoot());
-        putAndDebugProperty(props, "project.package.prefixes", config.getProjectPackagePrefixes());
-        putAndDebugProperty(props, "method.body.max.depth", String.valueOf(config.getMethodBodyMaxDepth()));
-        putAndDebugProperty(props, "keep.only.referenced.methods", String.valueOf(config.isKeepOnlyReferencedMethods()));
-        putAndDebugProperty(props, "show.removed.methods", String.valueOf(config.isShowRemovedMethods()));
-        putAndDebugProperty(props, "source.directories", config.getSourceDirectories());
-        putAndDebugProperty(props, "directory.mode.enabled", "false");
-
-        // 通用配置
-        addCommonProperties(props, config);
-
-        return props;
+    protected IContainer getWatchScope(IProject project) {
+        return project;
     }
-    
-    private void addCommonProperties(Properties props, PluginConfig config) {
-        putAndDebugProperty(props, "output.file", config.getAbsoluteOutputFile());
-        putAndDebugProperty(props, "max.depth", String.valueOf(config.getMaxDepth()));
-        putAndDebugProperty(props, "excluded.packages", config.getExcludedPackages());
-        putAndDebugProperty(props, "method.exceptions", config.getMethodExceptions());
-        putAndDebugProperty(props, "content.size.threshold", String.valueOf(config.getContentSizeThreshold()));
-        putAndDebugProperty(props, "omit.bean.methods", String.valueOf(config.isOmitBeanMethods()));
-        putAndDebugProperty(props, "show.omitted.accessors", String.valueOf(config.isShowOmittedAccessors()));
-        putAndDebugProperty(props, "import.skip.enabled", String.valueOf(config.isImportSkipEnabled()));
-        putAndDebugProperty(props, "import.skip.prefixes", config.getImportSkipPrefixes());
-        putAndDebugProperty(props, "import.keep.prefixes", config.getImportKeepPrefixes());
-        putAndDebugProperty(props, "show.error.stacktrace", String.valueOf(config.isShowErrorStacktrace()));
+
+    @Override
+    protected Set<String> getWatchExtensions(AnalysisSettings settings) {
+        return Collections.singleton("java");
+    }
+
+    @Override
+    protected AbstractAnalyzerAction createBackgroundInstance() {
+        return new ClassAnalyzerAction();
+    }
+
+    @Override
+    protected boolean runWorkspaceAnalysis(AnalysisSettings settings, AnalysisContext context) throws Exception {
+        if (analysisProject == null) {
+            return false;
+        }
+        debugInfo("使用内置引擎分析 (JDT 模型): " + analysisProject.getElementName());
+        new WorkspaceClassAnalyzer(settings, analysisProject, context, this::debugInfo).analyze(context.getProgressMonitor());
+        return true;
+    }
+
+    @Override
+    protected String getWorkingDir(AnalysisSettings settings) {
+        // 类模式下，工作目录通常设为项目根目录
+        return settings.getProjectRoot();
+    }
+
+    @Override
+    protected File[] getOutputSearchDirectories(AnalysisSettings settings) {
+        // 类模式下，主要检查项目根目录
+        return new File[]{ new File(settings.getProjectRoot()) };
     }
 }
\ No newline at end of file
@@ -1,15 +1,21 @@
 package io.github.jitawangzi.jdepend.eclipse.actions;
 
 import java.io.File;
+import java.util.HashSet;
 import java.util.Properties;
+import java.util.Set;
 
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.window.Window;
 
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisHistory;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisSettings;
 import io.github.jitawangzi.jdepend.eclipse.config.PluginConfig;
 import io.github.jitawangzi.jdepend.eclipse.dialogs.ConfigurationDialog;
 import io.github.jitawangzi.jdepend.eclipse.utils.EclipseProjectUtils;
@@ -44,24 +50,32 @@ public class DirectoryAnalyzerAction extends AbstractAnalyzerAction {
         try {
             debugInfo("=== DirectoryAnalyzerAction 开始执行 ===");
 
-            PluginConfig config = new PluginConfig();
             String directoryPath = EclipseProjectUtils.getResourcePath(selectedResource);
-            config.setDirectoryPath(directoryPath);
-
-            // 设置输出文件
-            File dirFile = new File(directoryPath);
-            File parentDir = dirFile.getParentFile();
-            if (parentDir != null) {
-                config.setOutputFileWithProjectPath(parentDir.getAbsolutePath(), "directory-analysis.md");
-            } else {
-                config.setOutputFileWithProjectPath(directoryPath, "directory-analysis.md");
+            String projectName = selectedResource.getProject().getName();
+
+            // 同一目录沿用上次的设置，其他目录只沿用过滤条件等通用设置
+            PluginConfig config = AnalysisHistory.loadLastRun(projectName, false);
+            if (config == null || !directoryPath.equals(config.getDirectoryPath())) {
+                if (config == null) {
+                    config = new PluginConfig();
+                }
+                config.setDirectoryPath(directoryPath);
+
+                // 设置输出文件
+                File dirFile = new File(directoryPath);
+                File parentDir = dirFile.getParentFile();
+                if (parentDir != null) {
+                    config.setOutputFileWithProjectPath(parentDir.getAbsolutePath(), "directory-analysis.md");
+                } else {
+                    config.setOutputFileWithProjectPath(directoryPath, "directory-analysis.md");
+                }
             }
 
             debugInfo("推断配置: 目录=" + directoryPath + ", 输出=" + config.getAbsoluteOutputFile());
 
             ConfigurationDialog dialog = new ConfigurationDialog(shell, config, false, directoryPath);
             if (dialog.open() == Window.OK) {
-                executeAnalysis(dialog.getConfig(), "io.github.jitawangzi.jdepend.DirectoryAnalyzer");
+                startAnalysis(selectedResource.getProject(), dialog.getConfig());
             }
 
         } catch (Exception e) {
@@ -71,67 +85,97 @@ public class DirectoryAnalyzerAction extends AbstractAnalyzerAction {
     }
 
     @Override
-    protected String getWorkingDir(PluginConfig config) {
+    protected String getAnalyzerClassName() {
+        return "io.github.jitawangzi.jdepend.DirectoryAnalyzer";
+    }
+
+    @Override
+    protected boolean isClassMode() {
+        return false;
+    }
+
+    @Override
+    protected boolean restoreSelection(IProject project, PluginConfig config) {
+        String directoryPath = config.getDirectoryPath();
+        if (directoryPath == null || directoryPath.isEmpty()) {
+            return false;
+        }
+        IContainer[] containers = ResourcesPlugin.getWorkspace().getRoot()
+                .findContainersForLocationURI(new File(directoryPath).toURI());
+        for (IContainer container : containers) {
+            if ((container instanceof IFolder || container instanceof IProject) && container.exists()
+                    && project.equals(container.getProject())) {
+                selectedResource = container;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected IContainer getWatchScope(IProject project) {
+        return (IContainer) selectedResource;
+    }
+
+    @Override
+    protected Set<String> getWatchExtensions(AnalysisSettings settings) {
+        Set<String> extensions = new HashSet<>();
+        String allowed = settings.getDirectoryAllowedExtensions();
+        if (allowed != null) {
+            for (String extension : allowed.split(",")) {
+                extension = extension.trim();
+                if (extension.startsWith(".")) {
+                    extension = extension.substring(1);
+                }
+                if (!extension.isEmpty()) {
+                    extensions.add(extension);
+                }
+            }
+        }
+        return extensions;
+    }
+
+    @Override
+    protected AbstractAnalyzerAction createBackgroundInstance() {
+        return new DirectoryAnalyzerAction();
+    }
+
+    @Override
+    protected String getWorkingDir(AnalysisSettings settings) {
         // 目录模式下，优先使用 project.root，如果未设定则使用目录路径
-        String projectRoot = System.getProperty("project.root");
-        if (projectRoot != null && !projectRoot.isEmpty()) {
+        String projectRoot = settings.getProjectRoot();
+        if (!projectRoot.isEmpty()) {
             return projectRoot;
         }
-        return config.getDirectoryPath();
+        return settings.getDirectoryPath();
     }
 
     @Override
-    protected File[] getOutputSearchDirectories(PluginConfig config) {
+    protected File[] getOutputSearchDirectories(AnalysisSettings settings) {
         // 检查工作目录(目录的父级) 和 项目根目录
-        File workDir = new File(config.getDirectoryPath()).getParentFile();
+        File workDir = new File(settings.getDirectoryPath()).getParentFile();
         File rootDir = new File(EclipseProjectUtils.getProjectRootPath(selectedResource));
         return new File[]{workDir, rootDir};
     }
 
     @Override
-    protected Properties buildSystemProperties(PluginConfig config) {
-        Properties props = new Properties();
+    protected void addEngineProperties(Properties props, PluginConfig config) {
+        props.setProperty("project.root", getEngineProjectRoot(config));
+    }
 
-        // 动态推断是否需要 project.root (如果包含 .java 分析)
+    /**
+     * 外部分析器的 project.root：分析的文件包含 .java 时为所在项目的根目录 (取不到时为目录本身)，否则为空
+     */
+    private String getEngineProjectRoot(PluginConfig config) {
         String extensions = config.getDirectoryAllowedExtensions();
         boolean isJavaAnalysis = extensions != null && extensions.contains(".java");
-        String projectRoot = "";
-        
-        if (isJavaAnalysis) {
-            projectRoot = EclipseProjectUtils.getProjectRootPath(selectedResource);
-            if (projectRoot == null || projectRoot.trim().isEmpty()) {
-                projectRoot = config.getDirectoryPath();
-            }
+        if (!isJavaAnalysis) {
+            return "";
         }
-        putAndDebugProperty(props, "project.root", projectRoot);
-
-        // 目录特定配置
-        putAndDebugProperty(props, "directory.mode.enabled", "true");
-        putAndDebugProperty(props, "directory.path", config.getDirectoryPath());
-        putAndDebugProperty(props, "simplify.methods", String.valueOf(config.isSimplifyMethods()));
-        putAndDebugProperty(props, "directory.include.files", config.getDirectoryIncludeFiles());
-        putAndDebugProperty(props, "directory.exclude.files", config.getDirectoryExcludeFiles());
-        putAndDebugProperty(props, "directory.include.folders", config.getDirectoryIncludeFolders());
-        putAndDebugProperty(props, "directory.exclude.folders", config.getDirectoryExcludeFolders());
-        putAndDebugProperty(props, "directory.allowed.extensions", config.getDirectoryAllowedExtensions());
-
-        // 通用配置
-        addCommonProperties(props, config);
-
-        return props;
-    }
-    
-    private void addCommonProperties(Properties props, PluginConfig config) {
-        putAndDebugProperty(props, "output.file", config.getAbsoluteOutputFile());
-        putAndDebugProperty(props, "max.depth", String.valueOf(config.getMaxDepth()));
-        putAndDebugProperty(props, "excluded.packages", config.getExcludedPackages());
-        putAndDebugProperty(props, "method.exceptions", config.getMethodExceptions());
-        putAndDebugProperty(props, "content.size.threshold", String.valueOf(config.getContentSizeThreshold()));
-        putAndDebugProperty(props, "omit.bean.methods", String.valueOf(config.isOmitBeanMethods()));
-        putAndDebugProperty(props, "show.omitted.accessors", String.valueOf(config.isShowOmittedAccessors()));
-        putAndDebugProperty(props, "import.skip.enabled", String.valueOf(config.isImportSkipEnabled()));
-        putAndDebugProperty(props, "import.skip.prefixes", config.getImportSkipPrefixes());
-        putAndDebugProperty(props, "import.keep.prefixes", config.getImportKeepPrefixes());
-        putAndDebugProperty(props, "show.error.stacktrace", String.valueOf(config.isShowErrorStacktrace()));
+        String projectRoot = EclipseProjectUtils.getProjectRootPath(selectedResource);
+        if (projectRoot == null || projectRoot.trim().isEmpty()) {
+            projectRoot = config.getDirectoryPath();
+        }
+        return projectRoot;
     }
 }
\ No newline at end of file
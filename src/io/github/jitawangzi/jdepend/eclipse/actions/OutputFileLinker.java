@@ -0,0 +1,105 @@
+package io.github.jitawangzi.jdepend.eclipse.actions;
+
+import java.io.File;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.swt.program.Program;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.console.IHyperlink;
+import org.eclipse.ui.console.IPatternMatchListener;
+import org.eclipse.ui.console.PatternMatchEvent;
+import org.eclipse.ui.console.TextConsole;
+import org.eclipse.ui.ide.IDE;
+
+/**
+ * 把控制台中 "输出文件: 路径" 的路径部分变成链接，点击后在编辑器中打开输出文件
+ * 内置引擎边分析边写出，运行过程中打开即可看到已完成的部分
+ */
+class OutputFileLinker implements IPatternMatchListener {
+
+    static final String PREFIX = "输出文件: ";
+
+    private TextConsole console;
+
+    @Override
+    public String getPattern() {
+        return PREFIX + "\\S.*";
+    }
+
+    @Override
+    public int getCompilerFlags() {
+        return 0;
+    }
+
+    @Override
+    public String getLineQualifier() {
+        return PREFIX;
+    }
+
+    @Override
+    public void connect(TextConsole console) {
+        this.console = console;
+    }
+
+    @Override
+    public void disconnect() {
+        console = null;
+    }
+
+    @Override
+    public void matchFound(PatternMatchEvent event) {
+        if (console == null) {
+            return;
+        }
+        try {
+            int offset = event.getOffset() + PREFIX.length();
+            int length = event.getLength() - PREFIX.length();
+            String path = console.getDocument().get(offset, length).trim();
+            console.addHyperlink(new OutputFileLink(new File(path)), offset, path.length());
+        } catch (BadLocationException e) {
+            // 控制台已被清空
+        }
+    }
+
+    private static class OutputFileLink implements IHyperlink {
+        private final File file;
+
+        OutputFileLink(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public void linkEntered() {
+        }
+
+        @Override
+        public void linkExited() {
+        }
+
+        @Override
+        public void linkActivated() {
+            if (!file.isFile()) {
+                return;
+            }
+            try {
+                IFile[] resources = ResourcesPlugin.getWorkspace().getRoot().findFilesForLocationURI(file.toURI());
+                IWorkbenchWindow window = PlatformUI.getWorkbench().getActiveWorkbenchWindow();
+                if (resources.length > 0 && window != null && window.getActivePage() != null) {
+                    IWorkbenchPage page = window.getActivePage();
+                    resources[0].refreshLocal(IResource.DEPTH_ZERO, null);
+                    IDE.openEditor(page, resources[0]);
+                } else {
+                    // 不在工作空间中的文件交给系统默认程序
+                    Program.launch(file.getAbsolutePath());
+                }
+            } catch (Exception e) {
+                System.err.println("无法打开输出文件 " + file + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.jitawangzi.jdepend.eclipse.actions;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.window.Window;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.IObjectActionDelegate;
+import org.eclipse.ui.IWorkbenchPart;
+import org.eclipse.ui.dialogs.ListSelectionDialog;
+
+import io.github.jitawangzi.jdepend.eclipse.result.AnalysisResult;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultCodec;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultRenderer;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultRenderers;
+
+/**
+ * 从保存的结果模型 (*.result.bin) 渲染为选定的格式，不重新分析
+ */
+public class RenderResultAction implements IObjectActionDelegate {
+
+    private Shell shell;
+    private IFile selectedFile;
+
+    @Override
+    public void setActivePart(IAction action, IWorkbenchPart targetPart) {
+        shell = targetPart.getSite().getShell();
+    }
+
+    @Override
+    public void selectionChanged(IAction action, ISelection selection) {
+        selectedFile = null;
+        if (selection instanceof IStructuredSelection) {
+            Object element = ((IStructuredSelection) selection).getFirstElement();
+            if (element instanceof IFile) {
+                selectedFile = (IFile) element;
+            }
+        }
+    }
+
+    @Override
+    public void run(IAction action) {
+        if (selectedFile == null || selectedFile.getLocation() == null) {
+            return;
+        }
+        ListSelectionDialog dialog = ListSelectionDialog.of(ResultRenderers.getAll())
+                .contentProvider(ArrayContentProvider.getInstance())
+                .labelProvider(new LabelProvider() {
+                    @Override
+                    public String getText(Object element) {
+                        ResultRenderer renderer = (ResultRenderer) element;
+                        return renderer.getFormat() + " (." + renderer.getExtension() + ")";
+                    }
+                })
+                .message("Select the formats to render:")
+                .create(shell);
+        dialog.setTitle("Render Analysis Result");
+        if (dialog.open() != Window.OK || dialog.getResult().length == 0) {
+            return;
+        }
+        List<ResultRenderer> renderers = new ArrayList<>();
+        for (Object selected : dialog.getResult()) {
+            renderers.add((ResultRenderer) selected);
+        }
+
+        File binary = selectedFile.getLocation().toFile();
+        String baseName = binary.getName().endsWith(ResultCodec.FILE_SUFFIX)
+                ? binary.getName().substring(0, binary.getName().length() - ResultCodec.FILE_SUFFIX.length())
+                : binary.getName();
+        // 目标文件与分析时的输出同名 (如 markdown 对应主输出)，已存在时先确认再覆盖
+        List<String> existing = new ArrayList<>();
+        for (ResultRenderer renderer : renderers) {
+            File target = new File(binary.getParentFile(), baseName + "." + renderer.getExtension());
+            if (target.exists()) {
+                existing.add(target.getName());
+            }
+        }
+        if (!existing.isEmpty() && !MessageDialog.openQuestion(shell, "Render Analysis Result",
+                "The following files already exist and will be overwritten:\n" + String.join("\n", existing)
+                        + "\n\nContinue?")) {
+            return;
+        }
+        try {
+            AnalysisResult result = ResultCodec.read(binary);
+            List<String> written = new ArrayList<>();
+            for (File file : ResultRenderers.renderAll(result, renderers, binary.getParentFile(), baseName)) {
+                written.add(file.getName());
+            }
+            selectedFile.getParent().refreshLocal(IResource.DEPTH_ONE, null);
+            MessageDialog.openInformation(shell, "Render Analysis Result", "Written: " + String.join(", ", written));
+        } catch (Exception e) {
+            MessageDialog.openError(shell, "Render Analysis Result", "Failed to render " + binary.getName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.jitawangzi.jdepend.eclipse.actions;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.IObjectActionDelegate;
+import org.eclipse.ui.IWorkbenchPart;
+
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisHistory;
+import io.github.jitawangzi.jdepend.eclipse.config.PluginConfig;
+
+/**
+ * 重新执行上次分析的动作
+ * 按选中对象所在项目最近一次的模式和配置直接分析，不打开配置对话框
+ */
+public class RerunLastAnalysisAction implements IObjectActionDelegate {
+
+    private Shell shell;
+    private IProject selectedProject;
+
+    @Override
+    public void setActivePart(IAction action, IWorkbenchPart targetPart) {
+        shell = targetPart.getSite().getShell();
+    }
+
+    @Override
+    public void selectionChanged(IAction action, ISelection selection) {
+        selectedProject = null;
+        if (selection instanceof IStructuredSelection) {
+            selectedProject = projectOf(((IStructuredSelection) selection).getFirstElement());
+        }
+    }
+
+    @Override
+    public void run(IAction action) {
+        rerun(shell, selectedProject);
+    }
+
+    /**
+     * 选中对象所在的项目，无法确定时返回 null
+     */
+    public static IProject projectOf(Object element) {
+        if (element instanceof IResource) {
+            return ((IResource) element).getProject();
+        }
+        if (element instanceof IAdaptable) {
+            IResource resource = ((IAdaptable) element).getAdapter(IResource.class);
+            if (resource != null) {
+                return resource.getProject();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 重新执行项目的上次分析；project 为 null 时使用最近一次分析的项目
+     */
+    public static void rerun(Shell shell, IProject project) {
+        if (project == null || AnalysisHistory.getLastMode(project.getName()) == null) {
+            String lastProject = AnalysisHistory.getLastProject();
+            project = lastProject != null ? ResourcesPlugin.getWorkspace().getRoot().getProject(lastProject) : null;
+        }
+        String mode = project != null ? AnalysisHistory.getLastMode(project.getName()) : null;
+        if (mode == null || !project.isOpen()) {
+            MessageDialog.openInformation(shell, "Re-run Last Analysis", "No previous analysis found. Run an analysis from the context menu first.");
+            return;
+        }
+
+        boolean isClassMode = AnalysisHistory.MODE_CLASS.equals(mode);
+        PluginConfig config = AnalysisHistory.loadLastRun(project.getName(), isClassMode);
+        AbstractAnalyzerAction analyzer = analyzerFor(isClassMode, config);
+        try {
+            if (config == null || !analyzer.rerun(shell, project, config)) {
+                MessageDialog.openError(shell, "Re-run Last Analysis", "The last analyzed "
+                        + (isClassMode ? "class" : "directory") + " no longer exists in project " + project.getName() + ".");
+            }
+        } catch (IllegalArgumentException e) {
+            MessageDialog.openError(shell, "Re-run Last Analysis", "The saved configuration is invalid: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按模式和配置选择执行分析的动作：类分析模式下设置了基准版本时为变更分析
+     */
+    public static AbstractAnalyzerAction analyzerFor(boolean isClassMode, PluginConfig config) {
+        if (!isClassMode) {
+            return new DirectoryAnalyzerAction();
+        }
+        return config != null && !config.getBaseRevision().isEmpty() ? new ChangedClassesAnalyzerAction()
+                : new ClassAnalyzerAction();
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.jitawangzi.jdepend.eclipse.actions;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.ui.IObjectActionDelegate;
+import org.eclipse.ui.IWorkbenchPart;
+import org.eclipse.ui.PartInitException;
+
+import io.github.jitawangzi.jdepend.eclipse.views.DependencyTreeView;
+
+/**
+ * 在依赖树视图中打开保存的结果模型 (*.result.bin)
+ */
+public class ShowDependencyTreeAction implements IObjectActionDelegate {
+
+    private IWorkbenchPart part;
+    private IFile selectedFile;
+
+    @Override
+    public void setActivePart(IAction action, IWorkbenchPart targetPart) {
+        part = targetPart;
+    }
+
+    @Override
+    public void selectionChanged(IAction action, ISelection selection) {
+        selectedFile = null;
+        if (selection instanceof IStructuredSelection) {
+            Object element = ((IStructuredSelection) selection).getFirstElement();
+            if (element instanceof IFile) {
+                selectedFile = (IFile) element;
+            }
+        }
+    }
+
+    @Override
+    public void run(IAction action) {
+        if (part == null || selectedFile == null || selectedFile.getLocation() == null) {
+            return;
+        }
+        try {
+            DependencyTreeView.show(part.getSite().getPage(), selectedFile.getLocation().toFile());
+        } catch (PartInitException e) {
+            MessageDialog.openError(part.getSite().getShell(), "Dependency Tree", "Failed to open the dependency tree view: " + e.getMessage());
+        }
+    }
+}
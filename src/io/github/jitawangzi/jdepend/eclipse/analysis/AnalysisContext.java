@@ -0,0 +1,53 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * 单次分析运行的上下文：指标记录、内存压力监视与取消
+ */
+public class AnalysisContext {
+
+    private final AnalysisMetrics metrics;
+    private final MemoryPressureMonitor memoryMonitor;
+    private final IProgressMonitor progressMonitor;
+    private StreamingMarkdownWriter.FlushListener outputListener;
+
+    public AnalysisContext(AnalysisMetrics metrics, MemoryPressureMonitor memoryMonitor) {
+        this(metrics, memoryMonitor, null);
+    }
+
+    public AnalysisContext(AnalysisMetrics metrics, MemoryPressureMonitor memoryMonitor, IProgressMonitor progressMonitor) {
+        this.metrics = metrics;
+        this.memoryMonitor = memoryMonitor;
+        this.progressMonitor = progressMonitor;
+    }
+
+    public AnalysisMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 可能为 null：外部分析器路径不做内存降级
+     */
+    public MemoryPressureMonitor getMemoryMonitor() {
+        return memoryMonitor;
+    }
+
+    /**
+     * 可能为 null：交互运行不支持取消
+     */
+    public IProgressMonitor getProgressMonitor() {
+        return progressMonitor;
+    }
+
+    /**
+     * 可能为 null：输出有新内容落盘时的回调
+     */
+    public StreamingMarkdownWriter.FlushListener getOutputListener() {
+        return outputListener;
+    }
+
+    public void setOutputListener(StreamingMarkdownWriter.FlushListener outputListener) {
+        this.outputListener = outputListener;
+    }
+}
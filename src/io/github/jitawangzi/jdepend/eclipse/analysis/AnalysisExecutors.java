@@ -0,0 +1,160 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * 分析任务使用的线程池
+ * 插件按 JavaSE-1.8 编译，运行时检测虚拟线程：Java 21 及以上时 I/O 任务 (读写文件) 每个任务一个虚拟线程，
+ * 更早的 JVM 上使用按需创建的平台线程池，阻塞的任务不会占满固定数量的线程。
+ * CPU 任务 (解析) 使用与处理器数量相同的线程池，与 I/O 任务分开，等待 I/O 的任务不占用解析线程。
+ * 分析的调度线程本身同步解析签名，不从这里提交。插件停止时释放。
+ */
+public class AnalysisExecutors {
+
+    private static final AnalysisExecutors INSTANCE = new AnalysisExecutors();
+
+    private ExecutorService io;
+    private ExecutorService cpu;
+    private boolean virtualThreads;
+
+    public static AnalysisExecutors getDefault() {
+        return INSTANCE;
+    }
+
+    /**
+     * I/O 密集的任务
+     */
+    public synchronized ExecutorService io() {
+        if (io == null) {
+            io = newVirtualThreadExecutor();
+            virtualThreads = io != null;
+            if (io == null) {
+                io = Executors.newCachedThreadPool(daemonFactory("jdepend-io"));
+            }
+        }
+        return io;
+    }
+
+    /**
+     * CPU 密集的任务，线程数不超过处理器数量
+     */
+    public synchronized ExecutorService cpu() {
+        if (cpu == null) {
+            io();
+            cpu = virtualThreads ? Executors.newFixedThreadPool(processors(), daemonFactory("jdepend-cpu"))
+                    : newForkJoinPool("jdepend-cpu", processors());
+        }
+        return cpu;
+    }
+
+    /**
+     * 用于日志与指标，如 "virtual+platform(8)"
+     */
+    public synchronized String describe() {
+        io();
+        return (virtualThreads ? "virtual+platform(" : "cached+forkjoin(") + processors() + ")";
+    }
+
+    /**
+     * 并行执行并按提交顺序返回结果；任一任务失败时取消其余任务并抛出其异常
+     */
+    public static <T> List<T> invokeAll(ExecutorService executor, List<? extends Callable<T>> tasks) throws Exception {
+        if (tasks.size() == 1) {
+            return Collections.singletonList(tasks.get(0).call());
+        }
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        } finally {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 关闭线程池，下次使用时重新创建
+     */
+    public synchronized void dispose() {
+        if (io != null) {
+            io.shutdownNow();
+        }
+        if (cpu != null) {
+            cpu.shutdownNow();
+        }
+        io = null;
+        cpu = null;
+        virtualThreads = false;
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() 只在 Java 21 及以上存在，通过反射调用；不可用时返回 null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newForkJoinPool(String prefix, int parallelism) {
+        AtomicInteger counter = new AtomicInteger();
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(prefix + "-" + counter.incrementAndGet());
+            // 工作线程默认使用系统类加载器，分析时需要插件的类加载器
+            thread.setContextClassLoader(AnalysisExecutors.class.getClassLoader());
+            return thread;
+        };
+        return new ForkJoinPool(parallelism, factory, null, true);
+    }
+
+    private static ThreadFactory daemonFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(AnalysisExecutors.class.getClassLoader());
+            return thread;
+        };
+    }
+
+    private static int processors() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+}
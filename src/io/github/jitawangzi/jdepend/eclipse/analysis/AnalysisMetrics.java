@@ -0,0 +1,328 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import io.github.jitawangzi.jdepend.eclipse.utils.JsonUtils;
+
+/**
+ * 单次分析的分阶段耗时与计数
+ * 由分析动作和内置引擎共同记录，结束后写成输出文件旁的 analysis-metrics.json，并在完成对话框中汇总。
+ * 阶段耗时是各线程计时的累加：在线程池中并行计时的阶段记入 parallelPhases，它们的耗时之和可能超过总耗时。
+ */
+public class AnalysisMetrics {
+
+    public static final String METRICS_FILE_NAME = "analysis-metrics.json";
+
+    // 阶段
+    public static final String CLASSLOADER_SETUP = "classloaderSetup";
+    public static final String CONFIG_RELOAD = "configReload";
+    public static final String FILE_WALK = "fileWalk";
+    public static final String PARSE = "parse";
+    public static final String SYMBOL_RESOLUTION = "symbolResolution";
+    public static final String RENDER = "render";
+    public static final String WRITE = "write";
+    public static final String EXTERNAL_ENGINE = "externalEngine";
+    public static final String GRAPH_METRICS = "graphMetrics";
+
+    // 计数
+    public static final String FILES = "files";
+    public static final String TYPES = "types";
+    public static final String METHODS = "methods";
+    public static final String BODIES_PARSED = "bodiesParsed";
+    public static final String BODIES_SKIPPED = "bodiesSkipped";
+    public static final String CACHE_HITS = "cacheHits";
+    public static final String CACHE_MISSES = "cacheMisses";
+    public static final String IN_MEMORY_UNITS = "inMemoryUnits";
+    public static final String BYTES_WRITTEN = "bytesWritten";
+    public static final String FIRST_OUTPUT_MILLIS = "firstOutputMillis";
+    public static final String ESTIMATED_TOKENS = "estimatedTokens";
+    public static final String DEPENDENCY_CYCLES = "dependencyCycles";
+    public static final String PACKAGE_CYCLES = "packageCycles";
+    public static final String LAYER_VIOLATIONS = "layerViolations";
+    // 调度线程与线程池任务分配的字节数之和
+    public static final String ALLOCATED_BYTES = "allocatedBytes";
+    public static final String SIMPLIFIED_BLOCKS = "simplifiedBlocks";
+    public static final String DUPLICATE_FILES = "duplicateFiles";
+    public static final String DEGRADED_FILES = "degradedFiles";
+    public static final String SKIPPED_FILES = "skippedFiles";
+
+    private static final String[][] PHASE_LABELS = {
+            { CLASSLOADER_SETUP, "类加载" }, { CONFIG_RELOAD, "配置" }, { FILE_WALK, "遍历" },
+            { PARSE, "解析" }, { SYMBOL_RESOLUTION, "符号解析" }, { RENDER, "渲染" }, { WRITE, "写入" },
+            { EXTERNAL_ENGINE, "外部分析器" }, { GRAPH_METRICS, "图指标" } };
+
+    private final Map<String, String> attributes = new LinkedHashMap<>();
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+    private final Map<String, Integer> activePhases = new HashMap<>();
+    private final Set<String> parallelPhases = new LinkedHashSet<>();
+    private boolean allocationsIncomplete;
+    private final List<String> notes = new ArrayList<>();
+    private final long startedAt = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private long totalNanos = -1;
+
+    public AnalysisMetrics(String mode) {
+        attributes.put("mode", mode);
+    }
+
+    public synchronized void setAttribute(String name, String value) {
+        attributes.put(name, value);
+    }
+
+    /**
+     * 开始计时一个阶段，配合 try-with-resources 使用；同名阶段多次计时会累加
+     */
+    public Phase phase(String name) {
+        beginPhase(name);
+        return new Phase(name);
+    }
+
+    private synchronized void beginPhase(String name) {
+        Integer active = activePhases.get(name);
+        int count = (active != null ? active : 0) + 1;
+        activePhases.put(name, count);
+        if (count > 1) {
+            parallelPhases.add(name);
+        }
+    }
+
+    private synchronized void endPhase(String name, long nanos) {
+        addNanos(name, nanos);
+        Integer active = activePhases.get(name);
+        if (active != null && active > 1) {
+            activePhases.put(name, active - 1);
+        } else {
+            activePhases.remove(name);
+        }
+    }
+
+    /**
+     * 包装提交到线程池的任务，把任务线程上分配的字节数计入 {@link #ALLOCATED_BYTES}
+     * 在创建包装的线程上直接执行时 (如只有一个任务) 不计入，由该线程自己的统计覆盖
+     */
+    public <T> Callable<T> countAllocations(Callable<T> task) {
+        Thread owner = Thread.currentThread();
+        return () -> {
+            if (Thread.currentThread() == owner) {
+                return task.call();
+            }
+            long before = currentThreadAllocatedBytes();
+            try {
+                return task.call();
+            } finally {
+                long after = currentThreadAllocatedBytes();
+                if (before >= 0 && after >= 0) {
+                    increment(ALLOCATED_BYTES, after - before);
+                } else {
+                    markAllocationsIncomplete();
+                }
+            }
+        };
+    }
+
+    private synchronized void markAllocationsIncomplete() {
+        allocationsIncomplete = true;
+    }
+
+    public synchronized void addNanos(String phase, long nanos) {
+        Long current = phaseNanos.get(phase);
+        phaseNanos.put(phase, (current != null ? current : 0L) + nanos);
+    }
+
+    public synchronized void increment(String counter, long delta) {
+        Long current = counters.get(counter);
+        counters.put(counter, (current != null ? current : 0L) + delta);
+    }
+
+    public synchronized void set(String counter, long value) {
+        counters.put(counter, value);
+    }
+
+    public synchronized long get(String counter) {
+        Long value = counters.get(counter);
+        return value != null ? value : 0L;
+    }
+
+    public synchronized long getPhaseMillis(String phase) {
+        Long nanos = phaseNanos.get(phase);
+        return nanos != null ? nanos / 1_000_000 : 0L;
+    }
+
+    public synchronized void addNote(String note) {
+        notes.add(note);
+    }
+
+    public synchronized List<String> getNotes() {
+        return new ArrayList<>(notes);
+    }
+
+    public synchronized void finish() {
+        if (totalNanos < 0) {
+            totalNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    public synchronized long getTotalMillis() {
+        return (totalNanos >= 0 ? totalNanos : System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public synchronized String toJson() {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"startedAt\": ").append(JsonUtils.quote(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ").format(new Date(startedAt)))).append(",\n");
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            json.append("  ").append(JsonUtils.quote(attribute.getKey())).append(": ").append(JsonUtils.quote(attribute.getValue())).append(",\n");
+        }
+        json.append("  \"totalMillis\": ").append(getTotalMillis()).append(",\n");
+        json.append("  \"phasesMillis\": {");
+        appendNumbers(json, phaseNanos, 1_000_000);
+        json.append("},\n  \"parallelPhases\": [");
+        int index = 0;
+        for (String phase : parallelPhases) {
+            json.append(index++ > 0 ? ", " : "").append(JsonUtils.quote(phase));
+        }
+        json.append("],\n  \"counters\": {");
+        appendNumbers(json, counters, 1);
+        json.append("},\n  \"notes\": [");
+        List<String> allNotes = new ArrayList<>(notes);
+        if (allocationsIncomplete) {
+            allNotes.add("部分任务线程不支持分配统计，" + ALLOCATED_BYTES + " 偏低");
+        }
+        for (int i = 0; i < allNotes.size(); i++) {
+            json.append(i > 0 ? ", " : "").append(JsonUtils.quote(allNotes.get(i)));
+        }
+        return json.append("]\n}\n").toString();
+    }
+
+    private static void appendNumbers(StringBuilder json, Map<String, Long> values, long divisor) {
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            json.append(first ? "\n" : ",\n");
+            json.append("    ").append(JsonUtils.quote(entry.getKey())).append(": ").append(entry.getValue() / divisor);
+            first = false;
+        }
+        if (!first) {
+            json.append("\n  ");
+        }
+    }
+
+    /**
+     * 写出到输出文件所在目录下的 analysis-metrics.json
+     */
+    public File writeSidecar(File outputFile) throws IOException {
+        File directory = outputFile.getAbsoluteFile().getParentFile();
+        File sidecar = new File(directory, METRICS_FILE_NAME);
+        try (Writer writer = Files.newBufferedWriter(sidecar.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+        return sidecar;
+    }
+
+    /**
+     * 完成对话框中展示的简要汇总
+     */
+    public synchronized String summary() {
+        StringBuilder text = new StringBuilder("耗时: 总计 ").append(getTotalMillis()).append(" ms");
+        StringBuilder phases = new StringBuilder();
+        for (String[] label : PHASE_LABELS) {
+            long millis = getPhaseMillis(label[0]);
+            if (phaseNanos.containsKey(label[0])) {
+                phases.append(phases.length() > 0 ? ", " : "").append(label[1]).append(' ').append(millis);
+                if (parallelPhases.contains(label[0])) {
+                    phases.append('*');
+                }
+            }
+        }
+        if (phases.length() > 0) {
+            text.append(" (").append(phases).append(')');
+        }
+        if (!parallelPhases.isEmpty()) {
+            text.append("\n* 并行执行，为各线程耗时之和");
+        }
+        text.append("\n统计: 文件 ").append(get(FILES))
+                .append(", 类型 ").append(get(TYPES))
+                .append(", 方法 ").append(get(METHODS))
+                .append(", 缓存命中 ").append(get(CACHE_HITS))
+                .append(", 写入 ").append(get(BYTES_WRITTEN) / 1024).append(" KB");
+        if (counters.containsKey(DEPENDENCY_CYCLES)) {
+            text.append("\n依赖图: 环 ").append(get(DEPENDENCY_CYCLES))
+                    .append(", 包环 ").append(get(PACKAGE_CYCLES))
+                    .append(", 分层违规 ").append(get(LAYER_VIOLATIONS));
+        }
+        if (counters.containsKey(ESTIMATED_TOKENS)) {
+            text.append("\n预计 token: ").append(get(ESTIMATED_TOKENS));
+        }
+        if (counters.containsKey(FIRST_OUTPUT_MILLIS)) {
+            text.append("\n首次输出: ").append(get(FIRST_OUTPUT_MILLIS)).append(" ms");
+        }
+        if (counters.containsKey(SIMPLIFIED_BLOCKS)) {
+            text.append("\n折叠函数体的代码块: ").append(get(SIMPLIFIED_BLOCKS));
+        }
+        if (counters.containsKey(DUPLICATE_FILES)) {
+            text.append("\n合并的重复文件: ").append(get(DUPLICATE_FILES));
+        }
+        if (counters.containsKey(DEGRADED_FILES)) {
+            text.append("\n超出时间预算的文件: 降级 ").append(get(DEGRADED_FILES)).append(", 跳过 ").append(get(SKIPPED_FILES));
+        }
+        if (counters.containsKey(BODIES_SKIPPED)) {
+            text.append("\n方法体: 解析 ").append(get(BODIES_PARSED)).append(", 跳过 ").append(get(BODIES_SKIPPED));
+        }
+        return text.toString();
+    }
+
+    /**
+     * 当前线程自 JVM 启动以来分配的字节数；com.sun.management.ThreadMXBean 不是所有 JVM 都有，不支持时返回 -1
+     * 优先使用 Java 14 起的 getCurrentThreadAllocatedBytes，较新的 JVM 上它也支持虚拟线程
+     */
+    public static long currentThreadAllocatedBytes() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            Class<?> extended = Class.forName("com.sun.management.ThreadMXBean");
+            if (!extended.isInstance(bean)) {
+                return -1;
+            }
+            try {
+                return (Long) extended.getMethod("getCurrentThreadAllocatedBytes").invoke(bean);
+            } catch (NoSuchMethodException e) {
+                Method method = extended.getMethod("getThreadAllocatedBytes", long.class);
+                return (Long) method.invoke(bean, Thread.currentThread().getId());
+            }
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 一次阶段计时
+     */
+    public class Phase implements AutoCloseable {
+        private final String name;
+        private final long start = System.nanoTime();
+
+        private Phase(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void close() {
+            endPhase(name, System.nanoTime() - start);
+        }
+    }
+}
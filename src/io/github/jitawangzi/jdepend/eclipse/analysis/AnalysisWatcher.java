@@ -0,0 +1,183 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+/**
+ * 监视模式：分析范围内的文件保存后自动重新分析
+ * 通过资源变更监听收集保存事件，在防抖窗口内的多次保存合并为一次低优先级的后台运行；
+ * 新的保存到来时取消正在进行的运行，由最新一次取代。
+ */
+public class AnalysisWatcher implements IResourceChangeListener {
+
+    /**
+     * 防抖窗口，窗口内的连续保存合并为一次运行
+     */
+    public static final long DEBOUNCE_MILLIS = 1500;
+
+    private static final AnalysisWatcher INSTANCE = new AnalysisWatcher();
+
+    /**
+     * 一次重新分析，需要响应进度监视器的取消
+     */
+    public interface Rerun {
+        void run(IProgressMonitor monitor) throws Exception;
+    }
+
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+    private boolean listening;
+
+    public static AnalysisWatcher getDefault() {
+        return INSTANCE;
+    }
+
+    /**
+     * 开始或更新对一个分析目标的监视
+     * @param key 分析目标的标识，同一目标再次注册时替换原有设置
+     * @param scope 监视的目录或项目
+     * @param extensions 触发重新分析的文件扩展名 (不含点)
+     * @param ignored 忽略的文件位置，通常为输出文件本身
+     */
+    public synchronized void watch(String key, IContainer scope, Set<String> extensions, Set<IPath> ignored, Rerun rerun) {
+        Target previous = targets.put(key, new Target(key, scope, extensions, ignored, rerun));
+        if (previous != null) {
+            previous.job.cancel();
+        }
+        if (!listening) {
+            ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+            listening = true;
+        }
+    }
+
+    public synchronized void unwatch(String key) {
+        Target target = targets.remove(key);
+        if (target != null) {
+            target.job.cancel();
+        }
+        if (targets.isEmpty()) {
+            stopListening();
+        }
+    }
+
+    public boolean isWatching(String key) {
+        return targets.containsKey(key);
+    }
+
+    /**
+     * 插件停止时调用
+     */
+    public synchronized void dispose() {
+        for (Target target : targets.values()) {
+            target.job.cancel();
+        }
+        targets.clear();
+        stopListening();
+    }
+
+    private void stopListening() {
+        if (listening) {
+            ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+            listening = false;
+        }
+    }
+
+    @Override
+    public void resourceChanged(IResourceChangeEvent event) {
+        IResourceDelta delta = event.getDelta();
+        if (delta == null) {
+            return;
+        }
+        for (Target target : targets.values()) {
+            IResourceDelta scopeDelta = delta.findMember(target.scope.getFullPath());
+            if (scopeDelta != null && target.isAffectedBy(scopeDelta)) {
+                target.trigger();
+            }
+        }
+    }
+
+    /**
+     * 一个被监视的分析目标
+     */
+    private static class Target {
+        private final IContainer scope;
+        private final Set<String> extensions;
+        private final Set<IPath> ignored;
+        private final Job job;
+
+        Target(String key, IContainer scope, Set<String> extensions, Set<IPath> ignored, Rerun rerun) {
+            this.scope = scope;
+            this.extensions = extensions;
+            this.ignored = ignored;
+            this.job = new Job("Re-analyzing " + key) {
+                @Override
+                protected IStatus run(IProgressMonitor monitor) {
+                    try {
+                        rerun.run(monitor);
+                    } catch (OperationCanceledException e) {
+                        return Status.CANCEL_STATUS;
+                    } catch (Exception e) {
+                        System.err.println("[Watch] 重新分析失败 " + key + ": " + e);
+                    }
+                    return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+                }
+            };
+            job.setPriority(Job.DECORATE);
+        }
+
+        /**
+         * 取消等待中或正在运行的一次，重新开始防抖计时；
+         * 正在运行的任务会在响应取消后按新的延迟再次运行
+         */
+        void trigger() {
+            job.cancel();
+            job.schedule(DEBOUNCE_MILLIS);
+        }
+
+        boolean isAffectedBy(IResourceDelta scopeDelta) {
+            final boolean[] affected = { false };
+            try {
+                scopeDelta.accept(child -> {
+                    if (affected[0]) {
+                        return false;
+                    }
+                    IResource resource = child.getResource();
+                    if (resource instanceof IFile && isRelevant((IFile) resource, child)) {
+                        affected[0] = true;
+                    }
+                    return true;
+                });
+            } catch (CoreException e) {
+                return false;
+            }
+            return affected[0];
+        }
+
+        private boolean isRelevant(IFile file, IResourceDelta delta) {
+            if (delta.getKind() == IResourceDelta.CHANGED && (delta.getFlags() & IResourceDelta.CONTENT) == 0) {
+                // 只有标记或属性变化
+                return false;
+            }
+            String extension = file.getFileExtension();
+            if (extension == null || !extensions.contains(extension)) {
+                return false;
+            }
+            return file.getLocation() == null || !ignored.contains(file.getLocation());
+        }
+    }
+}
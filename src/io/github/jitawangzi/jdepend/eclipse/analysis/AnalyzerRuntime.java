@@ -0,0 +1,68 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.function.Consumer;
+
+import io.github.jitawangzi.jdepend.eclipse.utils.LibJarScanner;
+
+/**
+ * 外部分析器的运行环境：lib 扫描结果与类加载器在会话内只构建一次
+ * 由后台预热任务或第一次分析创建，之后的分析直接复用，插件停止时释放。
+ */
+public class AnalyzerRuntime {
+
+    private static final AnalyzerRuntime INSTANCE = new AnalyzerRuntime();
+
+    private URL pluginLocation;
+    private ClassLoader parentClassLoader;
+    private URLClassLoader classLoader;
+
+    public static AnalyzerRuntime getDefault() {
+        return INSTANCE;
+    }
+
+    /**
+     * 返回分析器类加载器，位置和父加载器与已构建的相同时直接复用
+     */
+    public synchronized URLClassLoader getClassLoader(URL location, ClassLoader parent, Consumer<String> log) throws Exception {
+        if (classLoader != null && location.equals(pluginLocation) && parent == parentClassLoader) {
+            log.accept("复用已准备好的分析器类加载器");
+            return classLoader;
+        }
+        dispose();
+
+        List<URL> validUrls = LibJarScanner.scan(location, log);
+        if (validUrls.isEmpty()) {
+            throw new Exception("没有找到任何必需的JAR文件！请确认插件 lib 目录或 JAR 包结构。");
+        }
+        log.accept("共找到 " + validUrls.size() + " 个JAR文件");
+
+        classLoader = new URLClassLoader(validUrls.toArray(new URL[0]), parent);
+        pluginLocation = location;
+        parentClassLoader = parent;
+        return classLoader;
+    }
+
+    public synchronized boolean isPrepared() {
+        return classLoader != null;
+    }
+
+    /**
+     * 关闭类加载器，下次使用时重新构建
+     */
+    public synchronized void dispose() {
+        if (classLoader != null) {
+            try {
+                classLoader.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close analyzer class loader: " + e.getMessage());
+            }
+        }
+        classLoader = null;
+        pluginLocation = null;
+        parentClassLoader = null;
+    }
+}
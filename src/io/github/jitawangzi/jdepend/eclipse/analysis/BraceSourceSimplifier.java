@@ -0,0 +1,598 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+/**
+ * 花括号语言 (JS/TS、C/C++/C#、Go、Rust、Kotlin/Scala/Groovy、PHP) 的函数体折叠
+ * 单遍扫描：字符串、注释、模板字符串、正则字面量等整体跳过，其余字符累积为当前语句的"头部"。
+ * 遇到 { 时根据头部判断是否为函数：以 => 结尾，或最内层的片段带有圆括号、且不以控制语句开头 (跳过语句标签)、不含类型声明关键字。
+ * 函数体替换为 { ... }，类、命名空间、对象字面量等其他块原样保留并继续向内扫描。
+ */
+final class BraceSourceSimplifier extends SourceSimplifier {
+
+    private static final int TEMPLATE_LITERALS = 1;
+    private static final int REGEX_LITERALS = 1 << 1;
+    private static final int RAW_BACKTICK = 1 << 2;
+    private static final int CHAR_LITERALS = 1 << 3;
+    private static final int TRIPLE_QUOTES = 1 << 4;
+    private static final int INTERPOLATION = 1 << 5;
+    private static final int HASH_COMMENTS = 1 << 6;
+    private static final int PREPROCESSOR = 1 << 7;
+    private static final int RUST_RAW_STRINGS = 1 << 8;
+    private static final int CPP_RAW_STRINGS = 1 << 9;
+
+    static final BraceSourceSimplifier SCRIPT = new BraceSourceSimplifier(TEMPLATE_LITERALS | REGEX_LITERALS);
+    static final BraceSourceSimplifier C_FAMILY = new BraceSourceSimplifier(CHAR_LITERALS | PREPROCESSOR | CPP_RAW_STRINGS);
+    static final BraceSourceSimplifier GO = new BraceSourceSimplifier(CHAR_LITERALS | RAW_BACKTICK);
+    static final BraceSourceSimplifier RUST = new BraceSourceSimplifier(CHAR_LITERALS | RUST_RAW_STRINGS);
+    static final BraceSourceSimplifier JVM = new BraceSourceSimplifier(CHAR_LITERALS | TRIPLE_QUOTES | INTERPOLATION);
+    static final BraceSourceSimplifier GROOVY = new BraceSourceSimplifier(TRIPLE_QUOTES | INTERPOLATION);
+    static final BraceSourceSimplifier PHP = new BraceSourceSimplifier(HASH_COMMENTS);
+
+    private static final String PLACEHOLDER = "{ ... }";
+
+    /** 头部超过该长度时只保留末尾部分，判断只依赖最内层的片段 */
+    private static final int MAX_HEADER = 4096;
+
+    private static final String[] CONTROL_KEYWORDS = { "if", "else", "elif", "elseif", "for", "foreach", "while", "do",
+            "switch", "case", "default", "try", "catch", "finally", "with", "using", "lock", "synchronized", "fixed",
+            "checked", "unchecked", "unsafe", "match", "when", "loop", "select", "return" };
+
+    private static final String[] TYPE_KEYWORDS = { "class", "interface", "struct", "enum", "union", "trait", "impl",
+            "object", "namespace", "record", "module", "extension", "package" };
+
+    private static final String REGEX_KEYWORDS = " return typeof case in of new delete void throw yield await instanceof ";
+
+    private final int features;
+
+    private BraceSourceSimplifier(int features) {
+        this.features = features;
+    }
+
+    private boolean has(int feature) {
+        return (features & feature) != 0;
+    }
+
+    @Override
+    public void simplify(CharSequence source, StringBuilder out) {
+        int length = source.length();
+        StringBuilder header = new StringBuilder();
+        int copied = 0;
+        int depth = 0;        // 头部中未闭合的圆括号与方括号
+        int headerBraces = 0; // 头部中未闭合的花括号 (参数里的对象字面量、类型字面量等)
+        char previous = 0;    // 上一个有效字符，用于区分正则与除号
+        int i = 0;
+        while (i < length) {
+            int end = skipCommentOrLiteral(source, i, previous);
+            if (end > i) {
+                if (!isComment(source, i)) {
+                    header.append("\"\"");
+                    previous = '"';
+                }
+                i = end;
+                continue;
+            }
+            char c = source.charAt(i);
+            switch (c) {
+                case '(':
+                case '[':
+                    depth++;
+                    header.append(c);
+                    break;
+                case ')':
+                case ']':
+                    depth = Math.max(0, depth - 1);
+                    header.append(c);
+                    break;
+                case '{':
+                    if (isFunctionHeader(header)) {
+                        int close = skipBlock(source, i + 1);
+                        out.append(source, copied, i).append(PLACEHOLDER);
+                        copied = close;
+                        i = close;
+                        if (depth == 0 && headerBraces == 0) {
+                            header.setLength(0);
+                        } else {
+                            header.append("{}");
+                        }
+                        previous = '}';
+                        continue;
+                    }
+                    if (depth > 0 || headerBraces > 0) {
+                        headerBraces++;
+                        header.append(c);
+                    } else {
+                        header.setLength(0);
+                    }
+                    break;
+                case '}':
+                    if (headerBraces > 0) {
+                        headerBraces--;
+                        header.append(c);
+                    } else {
+                        // 块结束，借此从不配对的括号中恢复
+                        header.setLength(0);
+                        depth = 0;
+                    }
+                    break;
+                case ';':
+                    if (depth == 0 && headerBraces == 0) {
+                        header.setLength(0);
+                    } else {
+                        header.append(c);
+                    }
+                    break;
+                default:
+                    if (!Character.isWhitespace(c)) {
+                        header.append(c);
+                    } else if (header.length() > 0 && header.charAt(header.length() - 1) != ' ') {
+                        header.append(' ');
+                    }
+            }
+            if (!Character.isWhitespace(c)) {
+                previous = c;
+            }
+            if (header.length() > MAX_HEADER) {
+                header.delete(0, header.length() - MAX_HEADER / 4);
+            }
+            i++;
+        }
+        out.append(source, copied, length);
+    }
+
+    /**
+     * 跳过从 from 开始的块内容，返回配对的 } 之后的位置；没有配对时返回末尾
+     */
+    private int skipBlock(CharSequence source, int from) {
+        int length = source.length();
+        int braces = 1;
+        char previous = '{';
+        int i = from;
+        while (i < length) {
+            int end = skipCommentOrLiteral(source, i, previous);
+            if (end > i) {
+                if (!isComment(source, i)) {
+                    previous = '"';
+                }
+                i = end;
+                continue;
+            }
+            char c = source.charAt(i);
+            if (c == '{') {
+                braces++;
+            } else if (c == '}' && --braces == 0) {
+                return i + 1;
+            }
+            if (!Character.isWhitespace(c)) {
+                previous = c;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    /**
+     * i 处开始注释或字面量时返回其结束位置，否则返回 i
+     */
+    private int skipCommentOrLiteral(CharSequence source, int i, char previous) {
+        int length = source.length();
+        char c = source.charAt(i);
+        char next = i + 1 < length ? source.charAt(i + 1) : 0;
+        switch (c) {
+            case '/':
+                if (next == '/') {
+                    return lineEnd(source, i);
+                }
+                if (next == '*') {
+                    int close = indexOf(source, "*/", i + 2);
+                    return close < 0 ? length : close + 2;
+                }
+                if (has(REGEX_LITERALS) && startsRegex(source, i, previous)) {
+                    return skipRegex(source, i);
+                }
+                return i;
+            case '#':
+                if (has(HASH_COMMENTS) && next != '[') {
+                    return lineEnd(source, i);
+                }
+                if (has(PREPROCESSOR) && atLineStart(source, i)) {
+                    return preprocessorEnd(source, i);
+                }
+                return i;
+            case '"':
+                if (has(TRIPLE_QUOTES) && startsWith(source, i, "\"\"\"")) {
+                    int close = indexOf(source, "\"\"\"", i + 3);
+                    return close < 0 ? length : close + 3;
+                }
+                return skipString(source, i, '"', has(INTERPOLATION), false);
+            case '\'':
+                if (has(CHAR_LITERALS)) {
+                    return skipCharLiteral(source, i);
+                }
+                if (has(TRIPLE_QUOTES) && startsWith(source, i, "'''")) {
+                    int close = indexOf(source, "'''", i + 3);
+                    return close < 0 ? length : close + 3;
+                }
+                return skipString(source, i, '\'', false, false);
+            case '`':
+                if (has(TEMPLATE_LITERALS)) {
+                    return skipString(source, i, '`', true, true);
+                }
+                if (has(RAW_BACKTICK)) {
+                    int close = indexOf(source, "`", i + 1);
+                    return close < 0 ? length : close + 1;
+                }
+                return i;
+            case 'r':
+            case 'b':
+                return has(RUST_RAW_STRINGS) && !precededByIdentifier(source, i) ? skipRustRawString(source, i) : i;
+            case 'R':
+                return has(CPP_RAW_STRINGS) && next == '"' && !precededByIdentifier(source, i)
+                        ? skipCppRawString(source, i) : i;
+            case '@':
+                return has(CPP_RAW_STRINGS) && next == '"' ? skipVerbatimString(source, i) : i;
+            default:
+                return i;
+        }
+    }
+
+    private static boolean isComment(CharSequence source, int i) {
+        char c = source.charAt(i);
+        if (c == '#') {
+            return true;
+        }
+        if (c != '/' || i + 1 >= source.length()) {
+            return false;
+        }
+        char next = source.charAt(i + 1);
+        return next == '/' || next == '*';
+    }
+
+    /**
+     * 普通字符串；不允许跨行的字符串遇到换行即结束，避免未闭合的引号吞掉后面的代码
+     */
+    private int skipString(CharSequence source, int i, char quote, boolean interpolation, boolean multiline) {
+        int length = source.length();
+        int j = i + 1;
+        while (j < length) {
+            char c = source.charAt(j);
+            if (c == '\\') {
+                j += 2;
+            } else if (c == quote) {
+                return j + 1;
+            } else if (c == '\n' && !multiline) {
+                return j;
+            } else if (interpolation && c == '$' && j + 1 < length && source.charAt(j + 1) == '{') {
+                j = skipBlock(source, j + 2);
+            } else {
+                j++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 字符字面量只有单个字符或以反斜杠开头的转义，其他情况 (Rust 生命周期、Scala 符号) 不当作字面量
+     */
+    private static int skipCharLiteral(CharSequence source, int i) {
+        int length = source.length();
+        if (i + 1 < length && source.charAt(i + 1) == '\\') {
+            for (int j = i + 2; j < length && j < i + 14; j++) {
+                char c = source.charAt(j);
+                if (c == '\'') {
+                    return j + 1;
+                }
+                if (c == '\n') {
+                    break;
+                }
+            }
+            return i;
+        }
+        if (i + 2 < length && source.charAt(i + 2) == '\'' && source.charAt(i + 1) != '\n') {
+            return i + 3;
+        }
+        if (i + 3 < length && Character.isHighSurrogate(source.charAt(i + 1)) && source.charAt(i + 3) == '\'') {
+            return i + 4;
+        }
+        return i;
+    }
+
+    /**
+     * Rust 的 r"..."、r#"..."#、br"..."；r#ident 这样的原始标识符不是字符串
+     */
+    private static int skipRustRawString(CharSequence source, int i) {
+        int length = source.length();
+        int j = i;
+        if (source.charAt(j) == 'b') {
+            j++;
+        }
+        if (j >= length || source.charAt(j) != 'r') {
+            return i;
+        }
+        j++;
+        int hashes = 0;
+        while (j < length && source.charAt(j) == '#') {
+            hashes++;
+            j++;
+        }
+        if (j >= length || source.charAt(j) != '"') {
+            return i;
+        }
+        for (int k = j + 1; k < length; k++) {
+            if (source.charAt(k) == '"') {
+                int h = 0;
+                while (h < hashes && k + 1 + h < length && source.charAt(k + 1 + h) == '#') {
+                    h++;
+                }
+                if (h == hashes) {
+                    return k + 1 + hashes;
+                }
+            }
+        }
+        return length;
+    }
+
+    /**
+     * C++ 的 R"delim(...)delim"
+     */
+    private static int skipCppRawString(CharSequence source, int i) {
+        int length = source.length();
+        int open = i + 2;
+        while (open < length && open < i + 20 && source.charAt(open) != '(') {
+            char c = source.charAt(open);
+            if (c == '"' || c == '\n' || c == ' ' || c == ')' || c == '\\') {
+                return i;
+            }
+            open++;
+        }
+        if (open >= length || source.charAt(open) != '(') {
+            return i;
+        }
+        String closing = ")" + source.subSequence(i + 2, open) + "\"";
+        int close = indexOf(source, closing, open + 1);
+        return close < 0 ? length : close + closing.length();
+    }
+
+    /**
+     * C# 的 @"..."，两个连续引号表示一个引号
+     */
+    private static int skipVerbatimString(CharSequence source, int i) {
+        int length = source.length();
+        int j = i + 2;
+        while (j < length) {
+            if (source.charAt(j) == '"') {
+                if (j + 1 < length && source.charAt(j + 1) == '"') {
+                    j += 2;
+                    continue;
+                }
+                return j + 1;
+            }
+            j++;
+        }
+        return length;
+    }
+
+    /**
+     * / 出现在运算符、左括号、语句开头或 return 等关键字之后时是正则字面量，否则是除号
+     */
+    private static boolean startsRegex(CharSequence source, int i, char previous) {
+        if (previous == 0 || "(,=:[!&|?{};+-*%<>~^".indexOf(previous) >= 0) {
+            return true;
+        }
+        if (!isIdentifierChar(previous)) {
+            return false;
+        }
+        int end = i;
+        while (end > 0 && Character.isWhitespace(source.charAt(end - 1))) {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && isIdentifierChar(source.charAt(start - 1))) {
+            start--;
+        }
+        return end - start > 1 && REGEX_KEYWORDS.contains(" " + source.subSequence(start, end) + " ");
+    }
+
+    /**
+     * 正则字面量，字符类中的 / 不结束；遇到换行说明不是正则，返回 i
+     */
+    private static int skipRegex(CharSequence source, int i) {
+        int length = source.length();
+        boolean inClass = false;
+        int j = i + 1;
+        while (j < length) {
+            char c = source.charAt(j);
+            if (c == '\\') {
+                j += 2;
+                continue;
+            }
+            if (c == '\n') {
+                return i;
+            }
+            if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                j++;
+                while (j < length && Character.isLetter(source.charAt(j))) {
+                    j++;
+                }
+                return j;
+            }
+            j++;
+        }
+        return i;
+    }
+
+    /**
+     * 预处理指令到行尾，行尾为反斜杠时延续到下一行
+     */
+    private static int preprocessorEnd(CharSequence source, int i) {
+        int end = lineEnd(source, i);
+        while (end < source.length() && end > i && (source.charAt(end - 1) == '\\'
+                || (source.charAt(end - 1) == '\r' && end > i + 1 && source.charAt(end - 2) == '\\'))) {
+            end = lineEnd(source, end + 1);
+        }
+        return end;
+    }
+
+    /**
+     * 头部是否声明了一个函数；只看最内层未闭合括号或逗号之后的片段，使回调、对象字面量中的方法也能识别
+     */
+    private static boolean isFunctionHeader(CharSequence header) {
+        int end = header.length();
+        while (end > 0 && header.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end >= 2 && header.charAt(end - 1) == '>' && header.charAt(end - 2) == '=') {
+            return true;
+        }
+        int start = innermostStart(header, end);
+        boolean parentheses = false;
+        boolean first = true;
+        int nesting = 0;
+        int angles = 0;
+        int i = start;
+        while (i < end) {
+            char c = header.charAt(i);
+            if (c == '(' || c == '[') {
+                parentheses |= nesting == 0 && c == '(';
+                nesting++;
+            } else if (c == ')' || c == ']') {
+                nesting = Math.max(0, nesting - 1);
+            } else if (nesting == 0 && c == '<') {
+                angles++;
+            } else if (nesting == 0 && c == '>' && !isArrow(header, i)) {
+                angles = Math.max(0, angles - 1);
+            } else if (nesting == 0 && angles == 0 && isIdentifierChar(c)) {
+                int wordEnd = i;
+                while (wordEnd < end && isIdentifierChar(header.charAt(wordEnd))) {
+                    wordEnd++;
+                }
+                if (first && matchesAny(header, i, wordEnd, CONTROL_KEYWORDS)) {
+                    return false;
+                }
+                if (matchesAny(header, i, wordEnd, TYPE_KEYWORDS)) {
+                    return false;
+                }
+                int labelEnd = first ? labelEnd(header, wordEnd, end) : -1;
+                if (labelEnd >= 0) {
+                    // label: for (...) 中的控制语句在标签之后
+                    i = labelEnd;
+                    continue;
+                }
+                first = false;
+                i = wordEnd;
+                continue;
+            }
+            i++;
+        }
+        return parentheses;
+    }
+
+    /**
+     * 从末尾向前找到最内层片段的起点：未闭合的 ( [ { 之后，或同层最后一个逗号、分号之后
+     */
+    private static int innermostStart(CharSequence header, int end) {
+        int closers = 0;
+        int angles = 0;
+        for (int i = end - 1; i >= 0; i--) {
+            char c = header.charAt(i);
+            if (c == ')' || c == ']' || c == '}') {
+                closers++;
+            } else if (c == '(' || c == '[' || c == '{') {
+                if (closers == 0) {
+                    return i + 1;
+                }
+                closers--;
+            } else if (closers == 0 && c == '>' && !isArrow(header, i)) {
+                angles++;
+            } else if (closers == 0 && c == '<' && angles > 0) {
+                angles--;
+            } else if (closers == 0 && angles == 0 && (c == ',' || c == ';')) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 开头的单词后紧跟单个冒号时为语句标签 (或 C++ 的访问修饰符)，返回冒号之后的位置，否则返回 -1；:: 不是标签
+     */
+    private static int labelEnd(CharSequence header, int wordEnd, int end) {
+        int i = wordEnd;
+        while (i < end && header.charAt(i) == ' ') {
+            i++;
+        }
+        if (i < end && header.charAt(i) == ':' && (i + 1 >= end || header.charAt(i + 1) != ':')) {
+            return i + 1;
+        }
+        return -1;
+    }
+
+    private static boolean isArrow(CharSequence text, int i) {
+        return i > 0 && (text.charAt(i - 1) == '-' || text.charAt(i - 1) == '=');
+    }
+
+    private static boolean matchesAny(CharSequence text, int start, int end, String[] words) {
+        for (String word : words) {
+            if (word.length() != end - start) {
+                continue;
+            }
+            int k = 0;
+            while (k < word.length() && text.charAt(start + k) == word.charAt(k)) {
+                k++;
+            }
+            if (k == word.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean precededByIdentifier(CharSequence source, int i) {
+        return i > 0 && isIdentifierChar(source.charAt(i - 1));
+    }
+
+    private static boolean atLineStart(CharSequence source, int i) {
+        for (int j = i - 1; j >= 0; j--) {
+            char c = source.charAt(j);
+            if (c == '\n') {
+                return true;
+            }
+            if (c != ' ' && c != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lineEnd(CharSequence source, int i) {
+        int length = source.length();
+        while (i < length && source.charAt(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsWith(CharSequence source, int i, String prefix) {
+        if (i + prefix.length() > source.length()) {
+            return false;
+        }
+        for (int k = 0; k < prefix.length(); k++) {
+            if (source.charAt(i + k) != prefix.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence source, String target, int from) {
+        int last = source.length() - target.length();
+        for (int i = from; i <= last; i++) {
+            if (startsWith(source, i, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
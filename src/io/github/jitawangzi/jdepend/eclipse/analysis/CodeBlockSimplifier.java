@@ -0,0 +1,582 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 目录模式输出中代码块的后处理：折叠非 Java 代码的函数体，精简注释与空白，合并内容相同的文件，截断超大文件
+ * 外部分析器只对 Java 简化方法，其他语言原样输出；这里按代码块的语言标记选择 {@link SourceSimplifier}，
+ * 没有标记时使用前一个标题中文件名的扩展名。不支持的语言不折叠。
+ * 输出文件按内存映射读取，不改动的行与代码块直接在通道间复制，只有需要改写的代码块才解码为字符；
+ * 只精简时逐行解码，折叠函数体时解码单个代码块。
+ * 去重先按长度加 64 位 FNV-1a 风格的哈希筛选，命中后再逐字节比较确认，重复的代码块替换为指向第一次出现位置的引用，文末列出重复的文件。
+ * 超过大小上限的代码块只保留开头与结尾的窗口，不解码中间部分。
+ */
+public class CodeBlockSimplifier {
+
+    private static final Pattern FILE_EXTENSION = Pattern.compile("\\.([A-Za-z0-9+]+)\\b");
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** 超大代码块保留的开头与结尾字节数 */
+    private static final int SUMMARY_WINDOW = 4096;
+    /** 输出缓冲区大小，更长的原样区间直接在通道间传输 */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final boolean simplifyMethods;
+    private final String commentMode;
+    private final boolean stripLicenseHeaders;
+    private final boolean normalizeWhitespace;
+    private final boolean deduplicate;
+    private final int maxBlockBytes;
+    private final boolean minify;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final StringBuilder simplified = new StringBuilder();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final Writer writer = new EncodingWriter();
+    private CharBuffer chars;
+
+    private MappedByteBuffer source;
+    private FileChannel input;
+    private FileChannel output;
+    /** 尚未写出的原样复制区间 [copyFrom, copyTo) */
+    private int copyFrom;
+    private int copyTo;
+
+    private String heading;
+    private String headingLanguage;
+    private int fenceStart;
+    private int contentStart;
+    private String info;
+
+    /** 长度 -> 该长度下已出现过的代码块，长度不同的代码块不必比较哈希 */
+    private final Map<Integer, List<Seen>> seen = new HashMap<>();
+    private final Map<String, List<String>> duplicates = new LinkedHashMap<>();
+
+    private int simplifiedBlocks;
+    private int duplicateBlocks;
+    private int summarizedBlocks;
+    private long charsBefore;
+    private long charsAfter;
+
+    /**
+     * @param commentMode {@link CommentMinifier#COMMENTS_KEEP} 等
+     * @param maxBlockBytes 代码块超过该字节数时只保留开头与结尾，不大于 0 时不限制
+     */
+    public CodeBlockSimplifier(boolean simplifyMethods, String commentMode, boolean stripLicenseHeaders,
+            boolean normalizeWhitespace, boolean deduplicate, int maxBlockBytes) {
+        this.simplifyMethods = simplifyMethods;
+        this.commentMode = commentMode;
+        this.stripLicenseHeaders = stripLicenseHeaders;
+        this.normalizeWhitespace = normalizeWhitespace;
+        this.deduplicate = deduplicate;
+        this.maxBlockBytes = maxBlockBytes;
+        this.minify = CommentMinifier.isEnabled(commentMode, stripLicenseHeaders, normalizeWhitespace);
+    }
+
+    /**
+     * @return 是否启用了任一后处理，未启用时 {@link #simplify(File)} 不读取输出
+     */
+    public boolean isEnabled() {
+        return simplifyMethods || minify || deduplicate || maxBlockBytes > 0;
+    }
+
+    /**
+     * @return 输出是否有改动
+     */
+    public boolean simplify(File file) throws IOException {
+        if (!file.isFile() || !isEnabled()) {
+            return false;
+        }
+        File temp = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".simplify");
+        boolean changed;
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (in.size() > Integer.MAX_VALUE) {
+                // 超过单次映射上限的输出不做后处理
+                changed = false;
+            } else {
+                input = in;
+                output = out;
+                source = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                buffer.clear();
+                process();
+                writeDuplicateList();
+                flushCopy();
+                drain();
+                changed = charsBefore != charsAfter || duplicateBlocks > 0 || summarizedBlocks > 0;
+            }
+        } finally {
+            MappedByteBuffer mapped = source;
+            source = null;
+            if (mapped != null) {
+                unmap(mapped);
+            }
+            input = null;
+            output = null;
+        }
+        if (!changed) {
+            temp.delete();
+            return false;
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    private void process() throws IOException {
+        int limit = source.limit();
+        int fence = 0;
+        int position = 0;
+        while (position < limit) {
+            int end = position;
+            while (end < limit && source.get(end) != '\n') {
+                end++;
+            }
+            int next = end < limit ? end + 1 : limit;
+            if (fence == 0) {
+                int ticks = countTicks(position, end);
+                if (ticks >= 3) {
+                    fence = ticks;
+                    fenceStart = position;
+                    contentStart = next;
+                    info = decode(position + ticks, end).toString().trim().split("\\s", 2)[0];
+                } else {
+                    if (source.get(position) == '#') {
+                        String line = decode(position, end).toString();
+                        headingLanguage = lastExtension(line);
+                        heading = line.replaceFirst("^#+\\s*", "").replace("`", "").trim();
+                    }
+                    copy(position, next);
+                }
+            } else if (countTicks(position, end) == fence && isBlank(position + fence, end)) {
+                closeBlock(position, next);
+                fence = 0;
+            }
+            position = next;
+        }
+        if (fence != 0) {
+            // 未闭合的代码块原样写出
+            copy(fenceStart, limit);
+        }
+    }
+
+    private void closeBlock(int contentEnd, int next) throws IOException {
+        int length = contentEnd - contentStart;
+        if (deduplicate && heading != null) {
+            String original = findDuplicate(contentStart, length, hash(contentStart, contentEnd));
+            if (original != null) {
+                String reference = "> Identical to `" + original + "`, content omitted.\n";
+                if (reference.length() < length) {
+                    text().write(reference);
+                    duplicateBlocks++;
+                    duplicates.computeIfAbsent(original, key -> new ArrayList<>()).add(heading);
+                    return;
+                }
+            }
+        }
+        copy(fenceStart, contentStart);
+        if (maxBlockBytes > 0 && length > maxBlockBytes) {
+            summarize(contentEnd);
+            copy(contentEnd, next);
+            return;
+        }
+        String language = info.isEmpty() ? headingLanguage : info;
+        SourceSimplifier simplifier = simplifyMethods ? SourceSimplifier.forLanguage(language) : null;
+        if (simplifier == null && simplifyMethods && !info.isEmpty()) {
+            simplifier = SourceSimplifier.forLanguage(headingLanguage);
+        }
+        if (simplifier == null && !minify) {
+            copy(contentStart, next);
+            return;
+        }
+        Writer text = text();
+        CommentMinifier minifier = minify
+                ? new CommentMinifier(language, commentMode, stripLicenseHeaders, normalizeWhitespace, text)
+                : null;
+        if (simplifier != null) {
+            CharBuffer block = decode(contentStart, contentEnd);
+            charsBefore += block.length();
+            simplified.setLength(0);
+            simplifier.simplify(block, simplified);
+            if (simplified.length() < block.length()) {
+                simplifiedBlocks++;
+            }
+            if (minifier == null) {
+                text.append(simplified);
+                charsAfter += simplified.length();
+            } else {
+                int start = 0;
+                for (int i = 0; i < simplified.length(); i++) {
+                    if (simplified.charAt(i) == '\n') {
+                        minifier.line(simplified.subSequence(start, i));
+                        start = i + 1;
+                    }
+                }
+            }
+        } else {
+            // 只精简时逐行解码，不解码整个代码块
+            int start = contentStart;
+            while (start < contentEnd) {
+                int end = start;
+                while (end < contentEnd && source.get(end) != '\n') {
+                    end++;
+                }
+                CharBuffer line = decode(start, end);
+                charsBefore += line.length() + 1;
+                minifier.line(line);
+                start = end + 1;
+            }
+        }
+        if (minifier != null) {
+            minifier.finish();
+            charsAfter += minifier.getWrittenChars();
+        }
+        copy(contentEnd, next);
+    }
+
+    /**
+     * 超大代码块保留开头与结尾的窗口，尽量在行边界截断，中间替换为省略说明
+     */
+    private void summarize(int contentEnd) throws IOException {
+        int window = Math.min(SUMMARY_WINDOW, maxBlockBytes / 2);
+        int headEnd = contentStart + window;
+        int newline = lastIndexOf('\n', contentStart, headEnd);
+        headEnd = newline >= 0 ? newline + 1 : charBoundary(headEnd);
+        int tailStart = contentEnd - window;
+        newline = indexOf('\n', tailStart - 1, contentEnd - 1);
+        tailStart = newline >= 0 ? newline + 1 : charBoundary(tailStart);
+        if (headEnd <= contentStart || tailStart <= headEnd) {
+            copy(contentStart, contentEnd);
+            return;
+        }
+        copy(contentStart, headEnd);
+        Writer text = text();
+        if (source.get(headEnd - 1) != '\n') {
+            text.write('\n');
+        }
+        text.write("... " + (tailStart - headEnd) + " bytes omitted ...\n");
+        copy(tailStart, contentEnd);
+        if (source.get(contentEnd - 1) != '\n') {
+            text().write('\n');
+        }
+        summarizedBlocks++;
+    }
+
+    private int indexOf(char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (source.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 在 [from, to) 中从后向前查找字节
+     */
+    private int lastIndexOf(char c, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (source.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 退到 UTF-8 字符的起始字节，避免截断多字节字符
+     */
+    private int charBoundary(int position) {
+        while (position > contentStart && (source.get(position) & 0xC0) == 0x80) {
+            position--;
+        }
+        return position;
+    }
+
+    /**
+     * FNV-1a 的变体，每次处理 8 字节，剩余部分逐字节处理；只用于判断相同内容，不要求与标准 FNV-1a 一致
+     */
+    private long hash(int start, int end) {
+        long hash = FNV_OFFSET;
+        int i = start;
+        for (; i + 8 <= end; i += 8) {
+            hash = (hash ^ source.getLong(i)) * FNV_PRIME;
+            hash ^= hash >>> 29;
+        }
+        for (; i < end; i++) {
+            hash = (hash ^ (source.get(i) & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * 查找内容相同的已出现代码块，没有时记录当前代码块；哈希相同时逐字节比较，避免碰撞时误删内容
+     * @return 第一次出现时所在小节的标题
+     */
+    private String findDuplicate(int start, int length, long hash) {
+        List<Seen> sameLength = seen.computeIfAbsent(length, key -> new ArrayList<>(1));
+        for (Seen candidate : sameLength) {
+            if (candidate.hash == hash && sameBytes(candidate.start, start, length)) {
+                return candidate.heading;
+            }
+        }
+        sameLength.add(new Seen(hash, start, heading));
+        return null;
+    }
+
+    private boolean sameBytes(int first, int second, int length) {
+        ByteBuffer a = source.duplicate();
+        a.limit(first + length);
+        a.position(first);
+        ByteBuffer b = source.duplicate();
+        b.limit(second + length);
+        b.position(second);
+        return a.equals(b);
+    }
+
+    private void writeDuplicateList() throws IOException {
+        if (duplicates.isEmpty()) {
+            return;
+        }
+        Writer text = text();
+        text.write("\n## Duplicate Files\n\n");
+        for (Map.Entry<String, List<String>> entry : duplicates.entrySet()) {
+            text.write("- `" + entry.getKey() + "`: `" + String.join("`, `", entry.getValue()) + "`\n");
+        }
+    }
+
+    /**
+     * 原样复制输入中的区间；相邻区间合并，较短的经缓冲区写出，较长的在通道间传输
+     */
+    private void copy(int start, int end) throws IOException {
+        if (start == end) {
+            return;
+        }
+        if (start != copyTo) {
+            flushCopy();
+            copyFrom = start;
+        }
+        copyTo = end;
+    }
+
+    private void flushCopy() throws IOException {
+        if (copyFrom == copyTo) {
+            return;
+        }
+        int length = copyTo - copyFrom;
+        if (length <= BUFFER_SIZE) {
+            if (length > buffer.remaining()) {
+                drain();
+            }
+            ByteBuffer bytes = source.duplicate();
+            bytes.limit(copyTo);
+            bytes.position(copyFrom);
+            buffer.put(bytes);
+        } else {
+            drain();
+            long position = copyFrom;
+            while (position < copyTo) {
+                position += input.transferTo(position, copyTo - position, output);
+            }
+        }
+        copyFrom = copyTo;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 写出改写的文本前先写出之前的原样区间
+     */
+    private Writer text() throws IOException {
+        flushCopy();
+        return writer;
+    }
+
+    /**
+     * 把 [start, end) 解码到复用的缓冲区，下次解码前有效
+     */
+    private CharBuffer decode(int start, int end) {
+        int length = end - start;
+        if (chars == null || chars.capacity() < length) {
+            chars = CharBuffer.allocate(Math.max(length, 1024));
+        }
+        ByteBuffer bytes = source.duplicate();
+        bytes.limit(end);
+        bytes.position(start);
+        chars.clear();
+        decoder.reset();
+        decoder.decode(bytes, chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        return chars;
+    }
+
+    /**
+     * 立即释放映射，Windows 上映射未释放时无法替换原文件；无法释放时等待 GC 回收
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                // Java 8
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+                return;
+            }
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (Exception e) {
+            // 忽略
+        }
+    }
+
+    private int countTicks(int start, int end) {
+        int ticks = 0;
+        while (start + ticks < end && source.get(start + ticks) == '`') {
+            ticks++;
+        }
+        return ticks;
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (source.get(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String lastExtension(String line) {
+        String extension = null;
+        Matcher matcher = FILE_EXTENSION.matcher(line);
+        while (matcher.find()) {
+            extension = matcher.group(1);
+        }
+        return extension;
+    }
+
+    public int getSimplifiedBlocks() {
+        return simplifiedBlocks;
+    }
+
+    public int getDuplicateBlocks() {
+        return duplicateBlocks;
+    }
+
+    public int getSummarizedBlocks() {
+        return summarizedBlocks;
+    }
+
+    public long getCharsBefore() {
+        return charsBefore;
+    }
+
+    public long getCharsAfter() {
+        return charsAfter;
+    }
+
+    /**
+     * 把改写的文本编码到输出缓冲区
+     */
+    private class EncodingWriter extends Writer {
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            encode(CharBuffer.wrap(cbuf, off, len));
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            encode(CharBuffer.wrap(str, off, off + len));
+        }
+
+        @Override
+        public Writer append(CharSequence csq, int start, int end) throws IOException {
+            encode(CharBuffer.wrap(csq, start, end));
+            return this;
+        }
+
+        @Override
+        public Writer append(CharSequence csq) throws IOException {
+            encode(CharBuffer.wrap(csq));
+            return this;
+        }
+
+        private void encode(CharBuffer text) throws IOException {
+            encoder.reset();
+            CoderResult result;
+            while ((result = encoder.encode(text, buffer, true)).isOverflow()) {
+                drain();
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class Seen {
+        final long hash;
+        /** 内容在输入中的起始偏移 */
+        final int start;
+        final String heading;
+
+        Seen(long hash, int start, String heading) {
+            this.hash = hash;
+            this.start = start;
+            this.heading = heading;
+        }
+    }
+}
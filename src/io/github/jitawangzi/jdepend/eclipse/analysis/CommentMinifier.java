@@ -0,0 +1,438 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * 代码块的注释与空白精简，逐行流式处理，每个代码块 (即一个源文件) 使用一个实例
+ * 跨行状态只有未闭合的块注释、多行字符串和待定的空行，除开头的许可证注释外不缓冲整块内容。
+ * <ul>
+ * <li>许可证头：文件开头第一个注释中含有 copyright 或 license 时整体删除</li>
+ * <li>注释：保留、只保留第一行 (连续的行注释只保留第一条)，或全部删除；只剩注释的行随之删除，首行的 #! 不当作注释</li>
+ * <li>空白：去掉行尾空白，连续空行合并为一行，去掉开头和结尾的空行</li>
+ * </ul>
+ */
+public class CommentMinifier {
+
+    public static final String COMMENTS_KEEP = "keep";
+    public static final String COMMENTS_FIRST_LINE = "firstLine";
+    public static final String COMMENTS_DROP = "drop";
+
+    private static final int SLASH_COMMENTS = 1;
+    private static final int HASH_COMMENTS = 1 << 1;
+
+    /** 开头注释超过该行数仍未结束时不再当作许可证头 */
+    private static final int MAX_LICENSE_LINES = 200;
+
+    private static final int LICENSE_LOOKING = 0;
+    private static final int LICENSE_BUFFERING = 1;
+    private static final int LICENSE_DONE = 2;
+
+    private final Writer out;
+    private final int syntax;
+    private final String commentMode;
+    private final boolean normalizeWhitespace;
+
+    private final StringBuilder line = new StringBuilder();
+    private boolean inBlockComment;
+    private boolean firstCommentLineWritten;
+    private boolean deferred;
+    private char stringQuote;
+    private boolean tripleQuoted;
+    private boolean previousLineComment;
+    private int blankLines;
+    private boolean wroteLine;
+    private boolean firstLine = true;
+    private long written;
+
+    private int licenseState;
+    private boolean licenseBlockComment;
+    private boolean licenseFound;
+    private final StringBuilder licenseLines = new StringBuilder();
+    private int licenseLineCount;
+
+    /**
+     * @param language 代码块的语言或文件扩展名，用于确定注释语法；未知语言只精简空白
+     */
+    public CommentMinifier(String language, String commentMode, boolean stripLicenseHeaders, boolean normalizeWhitespace,
+            Writer out) {
+        this.out = out;
+        this.syntax = syntaxOf(language);
+        this.commentMode = commentMode == null ? COMMENTS_KEEP : commentMode;
+        this.normalizeWhitespace = normalizeWhitespace;
+        this.licenseState = stripLicenseHeaders && syntax != 0 ? LICENSE_LOOKING : LICENSE_DONE;
+    }
+
+    public static boolean isEnabled(String commentMode, boolean stripLicenseHeaders, boolean normalizeWhitespace) {
+        return stripLicenseHeaders || normalizeWhitespace || (commentMode != null && !COMMENTS_KEEP.equals(commentMode));
+    }
+
+    private static int syntaxOf(String language) {
+        if (language == null) {
+            return 0;
+        }
+        switch (language.toLowerCase(Locale.ROOT)) {
+            case "py":
+            case "python":
+            case "rb":
+            case "ruby":
+            case "sh":
+            case "bash":
+            case "yaml":
+            case "yml":
+            case "toml":
+            case "properties":
+                return HASH_COMMENTS;
+            case "php":
+                return SLASH_COMMENTS | HASH_COMMENTS;
+            default:
+                return SourceSimplifier.forLanguage(language) != null || "java".equalsIgnoreCase(language)
+                        ? SLASH_COMMENTS : 0;
+        }
+    }
+
+    /**
+     * 处理一行输入 (不含换行符)
+     */
+    public void line(CharSequence input) throws IOException {
+        if (licenseState != LICENSE_DONE && bufferLicense(input)) {
+            return;
+        }
+        process(input);
+    }
+
+    /**
+     * 代码块结束；未闭合的开头注释按普通注释输出，结尾的空行在精简空白时丢弃
+     */
+    public void finish() throws IOException {
+        if (licenseState == LICENSE_BUFFERING) {
+            replayLicenseLines();
+        }
+        if (deferred) {
+            emit(false);
+        }
+        if (!normalizeWhitespace) {
+            flushBlankLines();
+        }
+    }
+
+    public long getWrittenChars() {
+        return written;
+    }
+
+    /**
+     * 开头的第一个注释先缓冲，结束时判断是否为许可证头
+     * @return 该行已被缓冲或丢弃
+     */
+    private boolean bufferLicense(CharSequence input) throws IOException {
+        if (licenseState == LICENSE_LOOKING) {
+            int start = firstNonWhitespace(input);
+            if (start == input.length() || startsWith(input, start, "#!")) {
+                return false;
+            }
+            boolean block = has(SLASH_COMMENTS) && startsWith(input, start, "/*");
+            boolean lineComment = (has(SLASH_COMMENTS) && startsWith(input, start, "//"))
+                    || (has(HASH_COMMENTS) && input.charAt(start) == '#');
+            if (!block && !lineComment) {
+                licenseState = LICENSE_DONE;
+                return false;
+            }
+            licenseState = LICENSE_BUFFERING;
+            licenseBlockComment = block;
+            return appendLicenseLine(input, block && indexOf(input, "*/", start + 2) >= 0);
+        }
+        if (licenseBlockComment) {
+            return appendLicenseLine(input, indexOf(input, "*/", 0) >= 0);
+        }
+        int start = firstNonWhitespace(input);
+        boolean lineComment = start < input.length() && ((has(SLASH_COMMENTS) && startsWith(input, start, "//"))
+                || (has(HASH_COMMENTS) && input.charAt(start) == '#'));
+        if (lineComment) {
+            return appendLicenseLine(input, false);
+        }
+        // 连续的行注释结束，当前行按普通内容处理
+        endLicense();
+        return false;
+    }
+
+    private boolean appendLicenseLine(CharSequence input, boolean last) throws IOException {
+        licenseLines.append(input).append('\n');
+        licenseLineCount++;
+        licenseFound |= containsLicenseKeyword(input);
+        if (last || licenseLineCount >= MAX_LICENSE_LINES) {
+            endLicense();
+        }
+        return true;
+    }
+
+    private void endLicense() throws IOException {
+        if (licenseFound && licenseLineCount < MAX_LICENSE_LINES) {
+            licenseLines.setLength(0);
+            licenseState = LICENSE_DONE;
+        } else {
+            replayLicenseLines();
+        }
+    }
+
+    private void replayLicenseLines() throws IOException {
+        licenseState = LICENSE_DONE;
+        int start = 0;
+        for (int i = 0; i < licenseLines.length(); i++) {
+            if (licenseLines.charAt(i) == '\n') {
+                process(licenseLines.subSequence(start, i));
+                start = i + 1;
+            }
+        }
+        licenseLines.setLength(0);
+    }
+
+    private static boolean containsLicenseKeyword(CharSequence input) {
+        String text = input.toString().toLowerCase(Locale.ROOT);
+        return text.contains("copyright") || text.contains("license") || text.contains("licence");
+    }
+
+    private void process(CharSequence input) throws IOException {
+        boolean blank = firstNonWhitespace(input) == input.length() && !inBlockComment && stringQuote == 0;
+        boolean commentOnly = true;
+        boolean lineComment = false;
+        int length = input.length();
+        int i = 0;
+        if (!deferred) {
+            line.setLength(0);
+        }
+        while (i < length) {
+            if (inBlockComment) {
+                i = skipSpaceAfterDroppedComment(input, blockCommentRest(input, i));
+                continue;
+            }
+            if (stringQuote != 0) {
+                i = stringRest(input, i);
+                commentOnly = false;
+                continue;
+            }
+            char c = input.charAt(i);
+            if (has(SLASH_COMMENTS) && c == '/' && i + 1 < length && input.charAt(i + 1) == '*') {
+                i = skipSpaceAfterDroppedComment(input, openBlockComment(input, i));
+                continue;
+            }
+            char next = i + 1 < length ? input.charAt(i + 1) : 0;
+            if ((has(SLASH_COMMENTS) && c == '/' && next == '/')
+                    || (has(HASH_COMMENTS) && c == '#' && next != '[' && !(firstLine && i == 0 && next == '!'))) {
+                lineComment = true;
+                appendLineComment(input, i, commentOnly);
+                break;
+            }
+            if (syntax != 0 && (c == '"' || c == '\'' || c == '`')) {
+                tripleQuoted = i + 2 < length && input.charAt(i + 1) == c && input.charAt(i + 2) == c;
+                stringQuote = c;
+                int open = tripleQuoted ? 3 : 1;
+                line.append(input, i, i + open);
+                i = stringRest(input, i + open);
+                commentOnly = false;
+                continue;
+            }
+            if (!Character.isWhitespace(c)) {
+                commentOnly = false;
+            }
+            line.append(c);
+            i++;
+        }
+        if (stringQuote != 0 && !tripleQuoted && stringQuote != '`') {
+            // 普通字符串不跨行
+            stringQuote = 0;
+        }
+        previousLineComment = lineComment && commentOnly;
+        firstLine = false;
+        if (deferred) {
+            return;
+        }
+        if (!blank && isWhitespace(line)) {
+            // 只有注释的行在删除注释后不再输出
+            if (COMMENTS_KEEP.equals(commentMode)) {
+                emit(false);
+            }
+            return;
+        }
+        emit(blank);
+    }
+
+    private int openBlockComment(CharSequence input, int i) {
+        inBlockComment = true;
+        firstCommentLineWritten = false;
+        int openerEnd = i + 2;
+        if (openerEnd < input.length() && input.charAt(openerEnd) == '*') {
+            openerEnd++;
+        }
+        if (COMMENTS_DROP.equals(commentMode)) {
+            return blockCommentRest(input, openerEnd);
+        }
+        line.append(input, i, openerEnd);
+        return blockCommentRest(input, openerEnd);
+    }
+
+    /**
+     * 块注释内的部分，返回注释结束后的位置或行尾
+     * 只保留第一行时，找到第一行有内容的注释后立即补上结束标记，其余注释行不再输出
+     */
+    private int blockCommentRest(CharSequence input, int i) {
+        int close = indexOf(input, "*/", i);
+        int end = close < 0 ? input.length() : close;
+        int next = close < 0 ? input.length() : close + 2;
+        if (COMMENTS_KEEP.equals(commentMode)) {
+            line.append(input, i, next);
+        } else if (COMMENTS_FIRST_LINE.equals(commentMode) && !firstCommentLineWritten) {
+            int start = i;
+            while (start < end && (Character.isWhitespace(input.charAt(start)) || input.charAt(start) == '*')) {
+                start++;
+            }
+            int contentEnd = end;
+            while (contentEnd > start && Character.isWhitespace(input.charAt(contentEnd - 1))) {
+                contentEnd--;
+            }
+            if (contentEnd > start || close >= 0) {
+                if (contentEnd > start) {
+                    line.append(' ').append(input, start, contentEnd);
+                }
+                line.append(" */");
+                firstCommentLineWritten = true;
+                deferred = false;
+            } else {
+                // 注释第一行没有内容，本行留到找到内容后一起输出
+                deferred = true;
+            }
+        }
+        if (close >= 0) {
+            inBlockComment = false;
+        }
+        return next;
+    }
+
+    /**
+     * 删除的块注释结束后，若其前面是行首或空白，跳过紧随的空白，避免留下多余的空格
+     */
+    private int skipSpaceAfterDroppedComment(CharSequence input, int i) {
+        if (!COMMENTS_DROP.equals(commentMode) || inBlockComment
+                || (line.length() > 0 && !Character.isWhitespace(line.charAt(line.length() - 1)))) {
+            return i;
+        }
+        while (i < input.length() && Character.isWhitespace(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private int stringRest(CharSequence input, int i) {
+        int length = input.length();
+        int j = i;
+        while (j < length) {
+            char c = input.charAt(j);
+            if (c == '\\') {
+                j = Math.min(length, j + 2);
+                continue;
+            }
+            if (c == stringQuote) {
+                if (!tripleQuoted) {
+                    j++;
+                    stringQuote = 0;
+                    break;
+                }
+                if (j + 2 < length && input.charAt(j + 1) == c && input.charAt(j + 2) == c) {
+                    j += 3;
+                    stringQuote = 0;
+                    break;
+                }
+            }
+            j++;
+        }
+        line.append(input, i, j);
+        return j;
+    }
+
+    private void appendLineComment(CharSequence input, int i, boolean commentOnly) {
+        if (COMMENTS_KEEP.equals(commentMode)) {
+            line.append(input, i, input.length());
+        } else if (COMMENTS_FIRST_LINE.equals(commentMode) && !(commentOnly && previousLineComment)) {
+            line.append(input, i, input.length());
+        }
+    }
+
+    /**
+     * 输出当前行；精简空白时去掉行尾空白并合并空行
+     */
+    private void emit(boolean blank) throws IOException {
+        deferred = false;
+        if (!normalizeWhitespace) {
+            if (blank) {
+                blankLines++;
+                return;
+            }
+            flushBlankLines();
+            write(line);
+            return;
+        }
+        int end = line.length();
+        while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+            end--;
+        }
+        line.setLength(end);
+        if (end == 0) {
+            blankLines++;
+            return;
+        }
+        if (blankLines > 0 && wroteLine) {
+            write("");
+        }
+        blankLines = 0;
+        write(line);
+    }
+
+    private void flushBlankLines() throws IOException {
+        for (; blankLines > 0; blankLines--) {
+            write("");
+        }
+    }
+
+    private void write(CharSequence text) throws IOException {
+        out.append(text).append('\n');
+        written += text.length() + 1;
+        wroteLine = true;
+    }
+
+    private boolean has(int flag) {
+        return (syntax & flag) != 0;
+    }
+
+    private static boolean isWhitespace(CharSequence text) {
+        return firstNonWhitespace(text) == text.length();
+    }
+
+    private static int firstNonWhitespace(CharSequence text) {
+        int i = 0;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsWith(CharSequence text, int i, String prefix) {
+        if (i + prefix.length() > text.length()) {
+            return false;
+        }
+        for (int k = 0; k < prefix.length(); k++) {
+            if (text.charAt(i + k) != prefix.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(CharSequence text, String target, int from) {
+        for (int i = Math.max(0, from); i + target.length() <= text.length(); i++) {
+            if (startsWith(text, i, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
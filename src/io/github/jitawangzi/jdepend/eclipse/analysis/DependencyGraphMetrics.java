@@ -0,0 +1,289 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.github.jitawangzi.jdepend.eclipse.utils.PrefixMatcher;
+
+/**
+ * 类型依赖图的结构指标：依赖环 (强连通分量)、每个类型的扇入扇出、包之间的环与分层违规
+ * 图以压缩邻接数组 (CSR) 存储，强连通分量用非递归的 Tarjan 算法，全部计算与点数加边数成线性关系，
+ * 十万条边以上的图也不会栈溢出。
+ * 分层按 projectPackagePrefixes 的顺序从上到下：下层的类型依赖上层的类型即为违规。
+ */
+public class DependencyGraphMetrics {
+
+    private final String[] names;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] fanIn;
+
+    private final List<int[]> cycles;
+    private final List<List<String>> packageCycles;
+    private final List<int[]> layerViolations = new ArrayList<>();
+    private final String[] layers;
+
+    /**
+     * @param names 类型全名，下标即节点编号
+     * @param dependencies 每个节点依赖的节点编号，不应包含重复和自身
+     * @param layerPrefixes 包前缀，从上层到下层
+     */
+    public DependencyGraphMetrics(String[] names, int[][] dependencies, List<String> layerPrefixes) {
+        this.names = names;
+        this.offsets = new int[names.length + 1];
+        for (int i = 0; i < names.length; i++) {
+            offsets[i + 1] = offsets[i] + dependencies[i].length;
+        }
+        this.targets = new int[offsets[names.length]];
+        this.fanIn = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            System.arraycopy(dependencies[i], 0, targets, offsets[i], dependencies[i].length);
+            for (int target : dependencies[i]) {
+                fanIn[target]++;
+            }
+        }
+        this.cycles = stronglyConnectedComponents(names.length, offsets, targets);
+        this.packageCycles = computePackageCycles();
+        this.layers = layerPrefixes.toArray(new String[0]);
+        computeLayerViolations();
+    }
+
+    public int getNodeCount() {
+        return names.length;
+    }
+
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    public int getFanIn(int node) {
+        return fanIn[node];
+    }
+
+    public int getFanOut(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * 包含两个及以上类型的强连通分量，每个为节点编号数组
+     */
+    public List<int[]> getCycles() {
+        return cycles;
+    }
+
+    public List<List<String>> getPackageCycles() {
+        return packageCycles;
+    }
+
+    /**
+     * 违规的依赖边 {from, to}
+     */
+    public List<int[]> getLayerViolations() {
+        return layerViolations;
+    }
+
+    /**
+     * 非递归 Tarjan：显式维护调用栈和每个节点的边游标
+     */
+    static List<int[]> stronglyConnectedComponents(int nodeCount, int[] offsets, int[] targets) {
+        int[] index = new int[nodeCount];
+        int[] low = new int[nodeCount];
+        int[] cursor = new int[nodeCount];
+        int[] stack = new int[nodeCount];
+        int[] callStack = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        Arrays.fill(index, -1);
+        List<int[]> components = new ArrayList<>();
+        int nextIndex = 0;
+        int stackSize = 0;
+        for (int start = 0; start < nodeCount; start++) {
+            if (index[start] >= 0) {
+                continue;
+            }
+            int callSize = 0;
+            callStack[callSize++] = start;
+            index[start] = low[start] = nextIndex++;
+            cursor[start] = offsets[start];
+            stack[stackSize++] = start;
+            onStack[start] = true;
+            while (callSize > 0) {
+                int node = callStack[callSize - 1];
+                if (cursor[node] < offsets[node + 1]) {
+                    int target = targets[cursor[node]++];
+                    if (index[target] < 0) {
+                        index[target] = low[target] = nextIndex++;
+                        cursor[target] = offsets[target];
+                        stack[stackSize++] = target;
+                        onStack[target] = true;
+                        callStack[callSize++] = target;
+                    } else if (onStack[target]) {
+                        low[node] = Math.min(low[node], index[target]);
+                    }
+                    continue;
+                }
+                callSize--;
+                if (callSize > 0) {
+                    int parent = callStack[callSize - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+                if (low[node] == index[node]) {
+                    int size = 0;
+                    while (stack[stackSize - 1 - size] != node) {
+                        size++;
+                    }
+                    size++;
+                    int[] component = Arrays.copyOfRange(stack, stackSize - size, stackSize);
+                    for (int member : component) {
+                        onStack[member] = false;
+                    }
+                    stackSize -= size;
+                    if (size > 1) {
+                        components.add(component);
+                    }
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * 把类型图收缩为包图再求强连通分量
+     */
+    private List<List<String>> computePackageCycles() {
+        Map<String, Integer> packageIds = new HashMap<>();
+        List<String> packages = new ArrayList<>();
+        int[] packageOf = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            String packageName = packageOf(names[i]);
+            Integer id = packageIds.get(packageName);
+            if (id == null) {
+                id = packages.size();
+                packageIds.put(packageName, id);
+                packages.add(packageName);
+            }
+            packageOf[i] = id;
+        }
+        List<Set<Integer>> packageEdges = new ArrayList<>();
+        for (int i = 0; i < packages.size(); i++) {
+            packageEdges.add(new HashSet<>());
+        }
+        for (int node = 0; node < names.length; node++) {
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                int from = packageOf[node];
+                int to = packageOf[targets[e]];
+                if (from != to) {
+                    packageEdges.get(from).add(to);
+                }
+            }
+        }
+        int[] packageOffsets = new int[packages.size() + 1];
+        for (int i = 0; i < packages.size(); i++) {
+            packageOffsets[i + 1] = packageOffsets[i] + packageEdges.get(i).size();
+        }
+        int[] packageTargets = new int[packageOffsets[packages.size()]];
+        for (int i = 0; i < packages.size(); i++) {
+            int position = packageOffsets[i];
+            for (int target : packageEdges.get(i)) {
+                packageTargets[position++] = target;
+            }
+        }
+        List<List<String>> result = new ArrayList<>();
+        for (int[] component : stronglyConnectedComponents(packages.size(), packageOffsets, packageTargets)) {
+            List<String> members = new ArrayList<>();
+            for (int member : component) {
+                members.add(packages.get(member));
+            }
+            result.add(members);
+        }
+        return result;
+    }
+
+    private void computeLayerViolations() {
+        if (layers.length < 2) {
+            return;
+        }
+        int[] layerOf = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            layerOf[i] = layerOf(names[i]);
+        }
+        for (int node = 0; node < names.length; node++) {
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                int target = targets[e];
+                if (layerOf[node] >= 0 && layerOf[target] >= 0 && layerOf[target] < layerOf[node]) {
+                    layerViolations.add(new int[] { node, target });
+                }
+            }
+        }
+    }
+
+    /**
+     * 最长匹配的前缀所在的层，不属于任何层时返回 -1
+     */
+    private int layerOf(String name) {
+        int layer = -1;
+        int matched = -1;
+        for (int i = 0; i < layers.length; i++) {
+            if (name.startsWith(layers[i]) && layers[i].length() > matched) {
+                layer = i;
+                matched = layers[i].length();
+            }
+        }
+        return layer;
+    }
+
+    private static String packageOf(String qualifiedName) {
+        int dot = qualifiedName.lastIndexOf('.');
+        return dot > 0 ? qualifiedName.substring(0, dot) : "";
+    }
+
+    /**
+     * 输出中的指标小节，每个列表最多 limit 项
+     */
+    public String toMarkdown(int limit) {
+        StringBuilder out = new StringBuilder("## Dependency Metrics\n\n");
+        out.append(names.length).append(" types, ").append(targets.length).append(" dependencies.\n\n");
+
+        out.append("### Cycles (").append(cycles.size()).append(")\n\n");
+        List<int[]> sortedCycles = new ArrayList<>(cycles);
+        sortedCycles.sort((a, b) -> b.length - a.length);
+        for (int i = 0; i < Math.min(limit, sortedCycles.size()); i++) {
+            int[] cycle = sortedCycles.get(i);
+            out.append("- ").append(cycle.length).append(" types: ");
+            for (int j = 0; j < Math.min(limit, cycle.length); j++) {
+                out.append(j > 0 ? ", " : "").append('`').append(names[cycle[j]]).append('`');
+            }
+            out.append(cycle.length > limit ? ", ...\n" : "\n");
+        }
+        for (List<String> cycle : packageCycles.subList(0, Math.min(limit, packageCycles.size()))) {
+            out.append("- package cycle: `").append(String.join("`, `", cycle)).append("`\n");
+        }
+        out.append('\n');
+
+        out.append("### Fan-in / Fan-out\n\n| Type | Fan-in | Fan-out |\n|---|---|---|\n");
+        Integer[] order = new Integer[names.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(fanIn[b] + getFanOut(b), fanIn[a] + getFanOut(a)));
+        for (int i = 0; i < Math.min(limit, order.length); i++) {
+            out.append("| `").append(names[order[i]]).append("` | ").append(fanIn[order[i]]).append(" | ")
+                    .append(getFanOut(order[i])).append(" |\n");
+        }
+        out.append('\n');
+
+        if (layers.length >= 2) {
+            out.append("### Layering Violations (").append(layerViolations.size()).append(")\n\n");
+            out.append("Layers, top to bottom: `").append(String.join("` > `", layers)).append("`\n\n");
+            for (int[] violation : layerViolations.subList(0, Math.min(limit, layerViolations.size()))) {
+                out.append("- `").append(names[violation[0]]).append("` -> `").append(names[violation[1]]).append("`\n");
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.function.Consumer;
+
+/**
+ * 调用外部分析器 JAR 的流程：取得 {@link AnalyzerRuntime} 的类加载器，在指定工作目录下反射调用分析器的 main
+ * 调用前需要已经通过 AppConfigManager.reload 载入配置；不依赖工作台，可在无界面环境中使用。
+ */
+public class ExternalAnalyzerRunner {
+
+    private final URL pluginLocation;
+    private final ClassLoader parentClassLoader;
+    private final Consumer<String> log;
+
+    /**
+     * @param pluginLocation 插件代码所在位置，用于查找 lib 下的 JAR
+     * @param parentClassLoader 分析器类加载器的父加载器
+     * @param log 调试日志输出
+     */
+    public ExternalAnalyzerRunner(URL pluginLocation, ClassLoader parentClassLoader, Consumer<String> log) {
+        this.pluginLocation = pluginLocation;
+        this.parentClassLoader = parentClassLoader;
+        this.log = log;
+    }
+
+    @SuppressWarnings("try")
+    public void run(String analyzerClassName, String workingDir, AnalysisMetrics metrics) throws Exception {
+        Method mainMethod;
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.CLASSLOADER_SETUP)) {
+            // 1. 准备类加载器
+            log.accept("插件类加载器: " + parentClassLoader.getClass().getName());
+            log.accept("插件运行位置: " + pluginLocation);
+
+            // 2. 构建或复用 URLClassLoader
+            URLClassLoader customClassLoader = AnalyzerRuntime.getDefault().getClassLoader(pluginLocation, parentClassLoader, log);
+            Thread.currentThread().setContextClassLoader(customClassLoader);
+
+            // 3. 加载分析器类
+            Class<?> analyzerClass = customClassLoader.loadClass(analyzerClassName);
+            log.accept("成功加载分析器类: " + analyzerClass.getName());
+            mainMethod = analyzerClass.getMethod("main", String[].class);
+        }
+
+        // 4. 设置工作目录
+        String originalUserDir = System.getProperty("user.dir");
+        if (workingDir != null && !workingDir.isEmpty()) {
+            System.setProperty("user.dir", workingDir);
+            log.accept("设置工作目录为: " + workingDir);
+        }
+
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.EXTERNAL_ENGINE)) {
+            // 5. 调用 main 方法；外部分析器内部的解析、渲染阶段无法单独计时
+            log.accept("开始执行分析...");
+            mainMethod.invoke(null, (Object) new String[0]);
+            log.accept("分析执行完成");
+        } catch (Exception e) {
+            log.accept("调用分析器main方法时出错: " + e);
+            throw e;
+        } finally {
+            // 恢复原始工作目录
+            if (originalUserDir != null) {
+                System.setProperty("user.dir", originalUserDir);
+            }
+            log.accept("恢复工作目录");
+        }
+    }
+}
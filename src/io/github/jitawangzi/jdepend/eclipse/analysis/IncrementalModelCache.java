@@ -0,0 +1,148 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.github.jitawangzi.jdepend.eclipse.Activator;
+
+/**
+ * 增量模型缓存
+ * 按项目保存各编译单元的 {@link UnitModel}，以资源修改戳判断是否失效。
+ * 会话内常驻内存，运行结束后持久化到插件状态目录，下次启动可直接复用。
+ */
+public class IncrementalModelCache {
+
+    private static final int FORMAT_VERSION = 3;
+    private static final Map<String, IncrementalModelCache> CACHES = new ConcurrentHashMap<>();
+
+    private final String projectName;
+    private final Map<String, UnitModel> units = new HashMap<>();
+    private boolean loaded;
+    private boolean dirty;
+
+    private IncrementalModelCache(String projectName) {
+        this.projectName = projectName;
+    }
+
+    public static IncrementalModelCache forProject(String projectName) {
+        return CACHES.computeIfAbsent(projectName, IncrementalModelCache::new);
+    }
+
+    /**
+     * 获取缓存的单元模型，修改戳不一致时视为未命中
+     */
+    public synchronized UnitModel get(String unitId, long modificationStamp) {
+        ensureLoaded();
+        UnitModel model = units.get(unitId);
+        if (model != null && modificationStamp >= 0 && model.getModificationStamp() == modificationStamp) {
+            return model;
+        }
+        return null;
+    }
+
+    public synchronized void put(String unitId, UnitModel model) {
+        ensureLoaded();
+        if (model.getModificationStamp() < 0) {
+            // 未保存的工作副本不进入缓存
+            units.remove(unitId);
+            return;
+        }
+        units.put(unitId, model);
+        dirty = true;
+    }
+
+    /**
+     * 预先从磁盘加载缓存，供后台预热调用
+     * @return 已加载的单元数量
+     */
+    public synchronized int preload() {
+        ensureLoaded();
+        return units.size();
+    }
+
+    /**
+     * 已缓存的单元模型被补充了方法体信息后调用，确保下次保存时写回
+     */
+    public synchronized void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * 内存紧张时调用：先写回磁盘再清空内存中的单元模型，正在使用的模型不受影响；下次访问时从磁盘重新加载
+     * 调用方在本次运行余下部分应不再读写缓存，同时进行的其他运行不受影响
+     */
+    public synchronized void releaseMemory() {
+        try {
+            save();
+        } catch (IOException e) {
+            System.err.println("Failed to save model cache for " + projectName + ": " + e.getMessage());
+        }
+        units.clear();
+        loaded = false;
+    }
+
+    /**
+     * 将缓存写入插件状态目录
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        File file = getCacheFile();
+        if (file == null) {
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(units.size());
+            for (Map.Entry<String, UnitModel> entry : units.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().write(out);
+            }
+        }
+        dirty = false;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        File file = getCacheFile();
+        if (file == null || !file.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String unitId = in.readUTF();
+                units.put(unitId, UnitModel.read(in));
+            }
+        } catch (IOException e) {
+            // 缓存损坏时直接丢弃，下次运行重新构建
+            units.clear();
+            System.err.println("Failed to load model cache for " + projectName + ": " + e.getMessage());
+        }
+    }
+
+    private File getCacheFile() {
+        Activator activator = Activator.getDefault();
+        if (activator == null) {
+            return null;
+        }
+        String safeName = projectName.replaceAll("[^A-Za-z0-9._-]", "_");
+        return activator.getStateLocation().append("model-" + safeName + ".bin").toFile();
+    }
+}
@@ -0,0 +1,199 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+/**
+ * 缩进语言 (Python) 的函数体折叠
+ * 逐行扫描，跟踪跨行的三引号字符串与括号续行；def 头部结束于同层的行尾冒号，
+ * 之后缩进更深的行都属于函数体：保留开头的文档字符串，其余替换为一行 ...，类体原样保留。
+ * 函数体中的空行和顶格注释先暂存，后面还有函数体时一并折叠，函数体结束时原样输出。
+ */
+final class IndentSourceSimplifier extends SourceSimplifier {
+
+    static final IndentSourceSimplifier PYTHON = new IndentSourceSimplifier();
+
+    private static final int NORMAL = 0;
+    private static final int HEADER = 1;
+    private static final int BODY = 2;
+
+    private IndentSourceSimplifier() {
+    }
+
+    @Override
+    public void simplify(CharSequence source, StringBuilder out) {
+        int length = source.length();
+        LineState state = new LineState();
+        int mode = NORMAL;
+        int defIndent = 0;
+        boolean firstBodyLine = false;
+        boolean placeholder = false;
+        boolean docstring = false;
+        StringBuilder pending = new StringBuilder();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && source.charAt(end) != '\n') {
+                end++;
+            }
+            int next = Math.min(end + 1, length);
+            boolean continued = state.continued();
+            int indent = 0;
+            while (start + indent < end && (source.charAt(start + indent) == ' ' || source.charAt(start + indent) == '\t')) {
+                indent++;
+            }
+            boolean blank = start + indent == end || (start + indent == end - 1 && source.charAt(end - 1) == '\r');
+
+            if (mode == BODY) {
+                if (!continued && blank) {
+                    pending.append('\n');
+                    start = next;
+                    continue;
+                }
+                if (!continued && indent <= defIndent && start + indent < end && source.charAt(start + indent) == '#') {
+                    // 顶格注释不一定结束函数体
+                    pending.append(source, start, next);
+                    start = next;
+                    continue;
+                }
+                if (continued || indent > defIndent) {
+                    if (docstring || (firstBodyLine && startsString(source, start + indent, end))) {
+                        out.append(source, start, next);
+                        state.scan(source, start, end);
+                        docstring = state.quote != 0;
+                    } else {
+                        if (!placeholder) {
+                            out.append(source, start, start + indent).append("...\n");
+                            placeholder = true;
+                        }
+                        state.scan(source, start, end);
+                    }
+                    firstBodyLine = false;
+                    pending.setLength(0);
+                    start = next;
+                    continue;
+                }
+                // 缩进回到 def 所在层级，函数体结束
+                out.append(pending);
+                pending.setLength(0);
+                mode = NORMAL;
+            }
+
+            if (mode == NORMAL && !continued && isDef(source, start + indent, end)) {
+                mode = HEADER;
+                defIndent = indent;
+            }
+            out.append(source, start, next);
+            int last = state.scan(source, start, end);
+            if (mode == HEADER && !state.continued()) {
+                if (last >= 0 && source.charAt(last) == ':') {
+                    mode = BODY;
+                    firstBodyLine = true;
+                    placeholder = false;
+                    docstring = false;
+                } else {
+                    // 单行函数 def f(): return x
+                    mode = NORMAL;
+                }
+            }
+            start = next;
+        }
+        out.append(pending);
+    }
+
+    private static boolean isDef(CharSequence source, int start, int end) {
+        if (startsWithWord(source, start, end, "async")) {
+            start += 5;
+            while (start < end && (source.charAt(start) == ' ' || source.charAt(start) == '\t')) {
+                start++;
+            }
+        }
+        return startsWithWord(source, start, end, "def");
+    }
+
+    private static boolean startsWithWord(CharSequence source, int start, int end, String word) {
+        if (start + word.length() >= end) {
+            return false;
+        }
+        for (int k = 0; k < word.length(); k++) {
+            if (source.charAt(start + k) != word.charAt(k)) {
+                return false;
+            }
+        }
+        char after = source.charAt(start + word.length());
+        return after == ' ' || after == '\t';
+    }
+
+    /**
+     * 是否以字符串字面量开头，允许 r、b、u、f 等前缀
+     */
+    private static boolean startsString(CharSequence source, int start, int end) {
+        int i = start;
+        while (i < end && i < start + 2 && "rRbBuUfF".indexOf(source.charAt(i)) >= 0) {
+            i++;
+        }
+        return i < end && (source.charAt(i) == '"' || source.charAt(i) == '\'');
+    }
+
+    /**
+     * 跨行的词法状态：未闭合的字符串、括号深度、反斜杠续行
+     */
+    private static final class LineState {
+        char quote;
+        boolean triple;
+        int depth;
+        boolean backslash;
+
+        boolean continued() {
+            return quote != 0 || depth > 0 || backslash;
+        }
+
+        /**
+         * 扫描一行并更新状态
+         * @return 行内最后一个有效代码字符的位置 (不含注释与空白)，没有时返回 -1
+         */
+        int scan(CharSequence source, int start, int end) {
+            int last = -1;
+            backslash = false;
+            int i = start;
+            while (i < end) {
+                char c = source.charAt(i);
+                if (quote != 0) {
+                    if (c == '\\') {
+                        i += 2;
+                        continue;
+                    }
+                    if (c == quote && (!triple || (i + 2 < end && source.charAt(i + 1) == c && source.charAt(i + 2) == c))) {
+                        i += triple ? 3 : 1;
+                        quote = 0;
+                        last = i - 1;
+                        continue;
+                    }
+                    i++;
+                    continue;
+                }
+                if (c == '#') {
+                    break;
+                }
+                if (c == '"' || c == '\'') {
+                    triple = i + 2 < end && source.charAt(i + 1) == c && source.charAt(i + 2) == c;
+                    quote = c;
+                    i += triple ? 3 : 1;
+                    continue;
+                }
+                if (c == '(' || c == '[' || c == '{') {
+                    depth++;
+                } else if (c == ')' || c == ']' || c == '}') {
+                    depth = Math.max(0, depth - 1);
+                }
+                if (!Character.isWhitespace(c)) {
+                    last = i;
+                }
+                i++;
+            }
+            if (quote != 0 && !triple) {
+                // 单引号字符串不跨行 (行尾反斜杠续行的字符串极少见)
+                quote = 0;
+            }
+            backslash = quote == 0 && last >= 0 && source.charAt(last) == '\\';
+            return last;
+        }
+    }
+}
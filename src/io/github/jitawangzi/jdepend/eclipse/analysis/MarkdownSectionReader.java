@@ -0,0 +1,87 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.regex.Pattern;
+
+/**
+ * 按小节逐个读取 Markdown 输出
+ * 二、三级标题 (文件或类的边界) 开始一个新小节，代码块内的标题不算；第一个标题之前的内容作为没有键的开头小节。
+ * 每次只在内存中保留一个小节。
+ */
+class MarkdownSectionReader implements Closeable {
+
+    private static final Pattern SECTION_HEADING = Pattern.compile("^#{2,3} .*");
+    private static final Pattern DEPTH_SUFFIX = Pattern.compile(" \\(depth \\d+\\)$");
+
+    private final BufferedReader reader;
+    private final StringBuilder text = new StringBuilder();
+    private String key;
+    private String pendingHeading;
+    private boolean finished;
+
+    MarkdownSectionReader(File file) throws IOException {
+        this.reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 读取下一个小节
+     * @return 没有更多内容时返回 false
+     */
+    boolean next() throws IOException {
+        text.setLength(0);
+        key = null;
+        if (finished) {
+            return false;
+        }
+        if (pendingHeading != null) {
+            key = keyOf(pendingHeading);
+            text.append(pendingHeading).append('\n');
+            pendingHeading = null;
+        }
+        boolean inFence = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("```")) {
+                inFence = !inFence;
+            } else if (!inFence && SECTION_HEADING.matcher(line).matches()) {
+                if (text.length() > 0) {
+                    pendingHeading = line;
+                    return true;
+                }
+                key = keyOf(line);
+            }
+            text.append(line).append('\n');
+        }
+        finished = true;
+        return text.length() > 0;
+    }
+
+    /**
+     * 小节标题中的类名或路径，开头小节为 null
+     */
+    String getKey() {
+        return key;
+    }
+
+    CharSequence getText() {
+        return text;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 去掉标题标记、反引号和内置引擎附加的深度
+     */
+    private static String keyOf(String heading) {
+        String key = heading.replaceFirst("^#+\\s*", "").replace("`", "").trim();
+        return DEPTH_SUFFIX.matcher(key).replaceFirst("");
+    }
+}
@@ -0,0 +1,229 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+/**
+ * 堆内存压力监视器
+ * 通过 MemoryPoolMXBean 的回收后使用阈值 (collection usage threshold) 感知内存压力，只看 GC 之后仍存活的对象，
+ * 不会被两次回收之间尚未清理的垃圾误触发；分级通知分析过程逐步降级，以部分输出代替 OutOfMemoryError。
+ * <p>
+ * 阈值和通知监听器是 JVM 全局的，同时进行的多次分析 (交互、监视、服务) 共享一份注册：
+ * 每次运行持有自己的监视器和降级等级，第一个运行开始时设置阈值，最后一个运行结束时恢复原值，
+ * 阈值通知分发给所有正在进行的运行。
+ */
+public class MemoryPressureMonitor implements AutoCloseable {
+
+    /**
+     * 降级等级，逐级加重
+     */
+    public enum Level {
+        NORMAL(0),
+        DROP_CACHES(0.70),
+        SIGNATURES_ONLY(0.80),
+        CUT_OFF(0.90);
+
+        private final double ratio;
+
+        Level(double ratio) {
+            this.ratio = ratio;
+        }
+    }
+
+    // 以下共享状态由类锁保护
+    private static final Set<MemoryPressureMonitor> ACTIVE = new LinkedHashSet<>();
+    private static final Map<MemoryPoolMXBean, Long> ORIGINAL_THRESHOLDS = new HashMap<>();
+    private static final NotificationListener LISTENER = (notification, handback) -> dispatch(notification);
+    private static boolean listenerRegistered;
+
+    private final List<Runnable> dropCacheListeners = new CopyOnWriteArrayList<>();
+    private final List<String> notes = new CopyOnWriteArrayList<>();
+    private volatile Level level = Level.NORMAL;
+    private boolean started;
+
+    /**
+     * 加入共享监视；已有运行时沿用当前的注册，并按当前回收后的使用率确定本次运行的起始等级
+     */
+    public MemoryPressureMonitor start() {
+        if (!started) {
+            started = true;
+            escalate(attach(this));
+        }
+        return this;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public boolean isAtLeast(Level target) {
+        return level.compareTo(target) >= 0;
+    }
+
+    /**
+     * 进入 DROP_CACHES 等级时回调，用于释放可重建的缓存；已处于该等级时立即回调
+     */
+    public void onDropCaches(Runnable listener) {
+        dropCacheListeners.add(listener);
+        if (isAtLeast(Level.DROP_CACHES)) {
+            listener.run();
+        }
+    }
+
+    /**
+     * 记录一条降级说明，最终写入输出文件
+     */
+    public void addNote(String note) {
+        notes.add(note);
+    }
+
+    public List<String> getNotes() {
+        return new ArrayList<>(notes);
+    }
+
+    private void escalate(double ratio) {
+        Level previous;
+        Level target;
+        synchronized (this) {
+            previous = level;
+            target = previous;
+            for (Level candidate : Level.values()) {
+                if (candidate != Level.NORMAL && ratio >= candidate.ratio && candidate.compareTo(target) > 0) {
+                    target = candidate;
+                }
+            }
+            if (target == previous) {
+                return;
+            }
+            level = target;
+        }
+        System.err.println("[MemoryPressure] 回收后堆使用率 " + Math.round(ratio * 100) + "%，降级到 " + target);
+        if (previous.compareTo(Level.DROP_CACHES) < 0) {
+            for (Runnable listener : dropCacheListeners) {
+                listener.run();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (started) {
+            started = false;
+            detach(this);
+        }
+    }
+
+    /**
+     * 加入正在进行的运行；第一个运行设置阈值并注册监听器
+     * @return 当前回收后的使用率
+     */
+    private static synchronized double attach(MemoryPressureMonitor monitor) {
+        if (ACTIVE.isEmpty()) {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()
+                        && pool.getUsage().getMax() > 0) {
+                    ORIGINAL_THRESHOLDS.put(pool, pool.getCollectionUsageThreshold());
+                }
+            }
+            if (!ORIGINAL_THRESHOLDS.isEmpty()) {
+                ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(LISTENER, null, null);
+                listenerRegistered = true;
+            }
+        }
+        ACTIVE.add(monitor);
+        updateThresholds();
+        return collectionRatio();
+    }
+
+    /**
+     * 移除结束的运行；最后一个运行恢复原有阈值并注销监听器
+     */
+    private static synchronized void detach(MemoryPressureMonitor monitor) {
+        ACTIVE.remove(monitor);
+        if (!ACTIVE.isEmpty()) {
+            updateThresholds();
+            return;
+        }
+        if (listenerRegistered) {
+            try {
+                ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(LISTENER);
+            } catch (ListenerNotFoundException e) {
+                // 已被移除
+            }
+            listenerRegistered = false;
+        }
+        for (Map.Entry<MemoryPoolMXBean, Long> entry : ORIGINAL_THRESHOLDS.entrySet()) {
+            entry.getKey().setCollectionUsageThreshold(entry.getValue());
+        }
+        ORIGINAL_THRESHOLDS.clear();
+    }
+
+    private static void dispatch(Notification notification) {
+        if (!MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+            return;
+        }
+        List<MemoryPressureMonitor> targets;
+        double ratio;
+        synchronized (MemoryPressureMonitor.class) {
+            targets = new ArrayList<>(ACTIVE);
+            ratio = collectionRatio();
+        }
+        // 回调可能释放缓存，不在类锁内执行
+        for (MemoryPressureMonitor monitor : targets) {
+            monitor.escalate(ratio);
+        }
+        synchronized (MemoryPressureMonitor.class) {
+            updateThresholds();
+        }
+    }
+
+    /**
+     * 阈值设为各运行下一等级中最低的一档；所有运行都已到最高等级时关闭阈值检查
+     */
+    private static void updateThresholds() {
+        Level lowest = null;
+        for (MemoryPressureMonitor monitor : ACTIVE) {
+            Level next = nextLevel(monitor.level);
+            if (next != null && (lowest == null || next.compareTo(lowest) < 0)) {
+                lowest = next;
+            }
+        }
+        for (MemoryPoolMXBean pool : ORIGINAL_THRESHOLDS.keySet()) {
+            pool.setCollectionUsageThreshold(lowest != null ? (long) (pool.getUsage().getMax() * lowest.ratio) : 0);
+        }
+    }
+
+    /**
+     * 各堆内存池最近一次回收后的最高使用率
+     */
+    private static double collectionRatio() {
+        double ratio = 0;
+        for (MemoryPoolMXBean pool : ORIGINAL_THRESHOLDS.keySet()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null && usage.getMax() > 0) {
+                ratio = Math.max(ratio, (double) usage.getUsed() / usage.getMax());
+            }
+        }
+        return ratio;
+    }
+
+    private static Level nextLevel(Level current) {
+        Level[] levels = Level.values();
+        return current.ordinal() + 1 < levels.length ? levels[current.ordinal() + 1] : null;
+    }
+}
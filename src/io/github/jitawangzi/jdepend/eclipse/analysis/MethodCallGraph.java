@@ -0,0 +1,100 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 方法级调用图
+ * 节点为方法键 (声明类#方法名(参数类型))，边为调用关系。
+ * 可达性以线性时间一次算出，被多条路径引用的工具类方法只访问一次，之后按集合查询即可。
+ */
+public class MethodCallGraph {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+    private final List<int[]> edges = new ArrayList<>();
+    private final List<Integer> edgeCounts = new ArrayList<>();
+
+    public int addMethod(String key) {
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        id = keys.size();
+        ids.put(key, id);
+        keys.add(key);
+        edges.add(new int[4]);
+        edgeCounts.add(0);
+        return id;
+    }
+
+    public void addCall(String caller, String callee) {
+        int from = addMethod(caller);
+        int to = addMethod(callee);
+        int count = edgeCounts.get(from);
+        int[] targets = edges.get(from);
+        for (int i = 0; i < count; i++) {
+            if (targets[i] == to) {
+                return;
+            }
+        }
+        if (count == targets.length) {
+            int[] grown = new int[count * 2];
+            System.arraycopy(targets, 0, grown, 0, count);
+            targets = grown;
+            edges.set(from, targets);
+        }
+        targets[count] = to;
+        edgeCounts.set(from, count + 1);
+    }
+
+    public boolean contains(String key) {
+        return ids.containsKey(key);
+    }
+
+    public int getMethodCount() {
+        return keys.size();
+    }
+
+    /**
+     * 计算从给定根方法出发可达的全部方法 (包含根方法本身)
+     * 一次广度优先遍历，每个方法和每条边只访问一次
+     */
+    public Set<String> reachableFrom(Collection<String> roots) {
+        BitSet visited = new BitSet(keys.size());
+        int[] queue = new int[keys.size()];
+        int head = 0;
+        int tail = 0;
+        for (String root : roots) {
+            Integer id = ids.get(root);
+            if (id != null && !visited.get(id)) {
+                visited.set(id);
+                queue[tail++] = id;
+            }
+        }
+        while (head < tail) {
+            int current = queue[head++];
+            int[] targets = edges.get(current);
+            int count = edgeCounts.get(current);
+            for (int i = 0; i < count; i++) {
+                int target = targets[i];
+                if (!visited.get(target)) {
+                    visited.set(target);
+                    queue[tail++] = target;
+                }
+            }
+        }
+        Set<String> result = new HashSet<>(tail * 2);
+        for (int i = 0; i < tail; i++) {
+            result.add(keys.get(queue[i]));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+}
@@ -0,0 +1,160 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import io.github.jitawangzi.jdepend.eclipse.utils.JsonUtils;
+import io.github.jitawangzi.jdepend.eclipse.utils.TokenEstimator;
+
+/**
+ * 把一个大的 Markdown 输出按大小拆成编号的分片
+ * 只在二、三级标题处切分 (即文件或类的边界，代码块内的标题不算)，一个小节不会被拆开；单个小节超出预算时独占一个分片。
+ * 原输出文件改写为目录，列出每个分片包含的小节，同时写出 .index.json 供工具按需加载。
+ */
+public class OutputSharder {
+
+    public static final String UNIT_KB = "KB";
+    public static final String UNIT_TOKENS = "tokens";
+
+    private final long budget;
+    private final boolean tokens;
+
+    /**
+     * @param size 每个分片的上限，单位为 KB 或 token
+     * @param unit {@link #UNIT_KB} 或 {@link #UNIT_TOKENS}
+     */
+    public OutputSharder(int size, String unit) {
+        this.tokens = UNIT_TOKENS.equalsIgnoreCase(unit);
+        this.budget = tokens ? size : size * 1024L;
+    }
+
+    /**
+     * 拆分输出文件；内容不超过一个分片时不做任何改动
+     * @return 写出的分片数，未拆分时返回 0
+     */
+    public int shard(File output) throws IOException {
+        if (budget <= 0 || !output.isFile()) {
+            return 0;
+        }
+        if (!tokens && output.length() <= budget) {
+            return 0;
+        }
+        String base = baseName(output);
+        File directory = output.getAbsoluteFile().getParentFile();
+        deleteOldParts(directory, base);
+
+        List<Shard> shards = new ArrayList<>();
+        Shard current = null;
+        try (MarkdownSectionReader sections = new MarkdownSectionReader(output)) {
+            while (sections.next()) {
+                current = addSection(shards, current, sections.getText(), sections.getKey(), directory, base);
+            }
+        } finally {
+            if (current != null) {
+                current.close();
+            }
+        }
+        if (shards.size() <= 1) {
+            // 总量没有超出预算 (按 token 计时只有读完才知道)
+            for (Shard shard : shards) {
+                shard.file.delete();
+            }
+            return 0;
+        }
+        writeIndex(output, base, shards);
+        return shards.size();
+    }
+
+    private Shard addSection(List<Shard> shards, Shard current, CharSequence section, String key, File directory,
+            String base) throws IOException {
+        long size = tokens ? TokenEstimator.estimate(section) : section.toString().getBytes(StandardCharsets.UTF_8).length;
+        if (current == null || (current.size > 0 && current.size + size > budget)) {
+            if (current != null) {
+                current.close();
+            }
+            current = new Shard(new File(directory, String.format("%s.part-%03d.md", base, shards.size() + 1)));
+            shards.add(current);
+        }
+        current.writer.append(section);
+        current.size += size;
+        if (key != null) {
+            current.keys.add(key);
+        }
+        return current;
+    }
+
+    private void writeIndex(File output, String base, List<Shard> shards) throws IOException {
+        String unitLabel = tokens ? "tokens" : "bytes";
+        try (Writer writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("# Output Index\n\n");
+            writer.write("Output split into " + shards.size() + " parts of at most " + budget + " " + unitLabel + ".\n\n");
+            for (Shard shard : shards) {
+                writer.write("## [" + shard.file.getName() + "](" + shard.file.getName() + ")\n\n");
+                for (String key : shard.keys) {
+                    writer.write("- `" + key + "`\n");
+                }
+                writer.write("\n");
+            }
+        }
+        File json = new File(output.getAbsoluteFile().getParentFile(), base + ".index.json");
+        try (Writer writer = Files.newBufferedWriter(json.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("{\n  \"unit\": " + JsonUtils.quote(unitLabel) + ",\n  \"budget\": " + budget + ",\n  \"shards\": [");
+            for (int i = 0; i < shards.size(); i++) {
+                Shard shard = shards.get(i);
+                writer.write(i > 0 ? ",\n" : "\n");
+                writer.write("    { \"file\": " + JsonUtils.quote(shard.file.getName()) + ", \"size\": " + shard.size + " }");
+            }
+            writer.write("\n  ],\n  \"entries\": {");
+            boolean first = true;
+            for (Shard shard : shards) {
+                for (String key : shard.keys) {
+                    writer.write(first ? "\n" : ",\n");
+                    writer.write("    " + JsonUtils.quote(key) + ": " + JsonUtils.quote(shard.file.getName()));
+                    first = false;
+                }
+            }
+            writer.write(first ? "}\n}\n" : "\n  }\n}\n");
+        }
+    }
+
+    private static String baseName(File output) {
+        String name = output.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    /**
+     * 删除上次运行留下的分片，避免分片数变少时残留
+     */
+    private static void deleteOldParts(File directory, String base) {
+        Pattern part = Pattern.compile(Pattern.quote(base) + "\\.part-\\d+\\.md");
+        File[] files = directory.listFiles((dir, name) -> part.matcher(name).matches());
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    private static class Shard {
+        final File file;
+        final Writer writer;
+        final List<String> keys = new ArrayList<>();
+        long size;
+
+        Shard(File file) throws IOException {
+            this.file = file;
+            this.writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        }
+
+        void close() throws IOException {
+            writer.close();
+        }
+    }
+}
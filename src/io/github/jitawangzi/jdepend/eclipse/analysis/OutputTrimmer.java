@@ -0,0 +1,67 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import io.github.jitawangzi.jdepend.eclipse.utils.TokenEstimator;
+
+/**
+ * 按 token 预算截断输出：按顺序保留小节，放不下的小节及之后的内容全部丢弃
+ * 外部分析器和内置引擎都按由浅到深的顺序输出，丢弃末尾即优先丢弃最深的层级。
+ * 内置引擎已按优先级裁剪过，这里只作为最后的硬性上限。
+ */
+public class OutputTrimmer {
+
+    private final long budget;
+    private long keptTokens;
+    private int droppedSections;
+
+    public OutputTrimmer(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @return 是否有内容被丢弃
+     */
+    public boolean trim(File output) throws IOException {
+        if (budget <= 0 || !output.isFile()) {
+            return false;
+        }
+        File temp = new File(output.getAbsoluteFile().getParentFile(), output.getName() + ".trim");
+        boolean full = false;
+        try (MarkdownSectionReader sections = new MarkdownSectionReader(output);
+             Writer writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+            while (sections.next()) {
+                long tokens = TokenEstimator.estimate(sections.getText());
+                if (!full && keptTokens + tokens <= budget) {
+                    writer.append(sections.getText());
+                    keptTokens += tokens;
+                } else {
+                    full = true;
+                    droppedSections++;
+                }
+            }
+            if (droppedSections > 0) {
+                writer.write("> 超出 token 预算 " + budget + "，末尾 " + droppedSections + " 个小节未输出\n");
+            }
+        }
+        if (droppedSections == 0) {
+            temp.delete();
+            return false;
+        }
+        Files.move(temp.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    public long getKeptTokens() {
+        return keptTokens;
+    }
+
+    public int getDroppedSections() {
+        return droppedSections;
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+
+import com.github.javaparser.JavaParser;
+
+import io.github.jitawangzi.jdepend.eclipse.Activator;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisHistory;
+import io.github.jitawangzi.jdepend.eclipse.preferences.PreferenceConstants;
+
+/**
+ * 后台预热任务
+ * 工作台空闲后以最低优先级构建分析器运行环境、加载并初始化常用类、用小段代码让解析器完成 JIT 预热，
+ * 再加载最近分析过的项目的模型缓存，使会话中的第一次分析不必承担这些开销。
+ */
+public class PrewarmJob extends Job {
+
+    public static final Object FAMILY = PrewarmJob.class;
+
+    private static final long STARTUP_DELAY = 10_000;
+    private static final int PARSE_ROUNDS = 20;
+
+    private static final String[] ANALYZER_CLASSES = {
+            "io.github.jitawangzi.jdepend.ClassAnalyzer",
+            "io.github.jitawangzi.jdepend.DirectoryAnalyzer" };
+
+    private static final String[] HOT_CLASSES = {
+            "com.github.javaparser.StaticJavaParser",
+            "com.github.javaparser.ParserConfiguration",
+            "com.github.javaparser.ast.CompilationUnit",
+            "com.github.javaparser.symbolsolver.JavaSymbolSolver",
+            "com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver",
+            "com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver",
+            "com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver" };
+
+    private static final String WARMUP_SOURCE = "package warmup;\n"
+            + "import java.util.*;\n"
+            + "public class Warmup<T extends Comparable<T>> implements Runnable {\n"
+            + "    private final List<T> values = new ArrayList<>();\n"
+            + "    private int count;\n"
+            + "    public int getCount() { return count; }\n"
+            + "    public void setCount(int count) { this.count = count; }\n"
+            + "    @Override public void run() {\n"
+            + "        for (T value : values) { if (value.compareTo(values.get(0)) > 0) { count++; } }\n"
+            + "        values.sort(Comparator.naturalOrder());\n"
+            + "        Runnable task = () -> System.out.println(count);\n"
+            + "        task.run();\n"
+            + "    }\n"
+            + "}\n";
+
+    public PrewarmJob() {
+        super("Pre-warming Java Dependency Analyzer");
+        setSystem(true);
+        setPriority(Job.DECORATE);
+    }
+
+    /**
+     * 首选项允许时安排预热，由 Activator.start 调用
+     */
+    public static void scheduleIfEnabled() {
+        Activator activator = Activator.getDefault();
+        if (activator == null || !activator.getPreferenceStore().getBoolean(PreferenceConstants.PREWARM_ENABLED)) {
+            return;
+        }
+        new PrewarmJob().schedule(STARTUP_DELAY);
+    }
+
+    @Override
+    public boolean belongsTo(Object family) {
+        return family == FAMILY;
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        long start = System.currentTimeMillis();
+        try {
+            // 1. 分析器运行环境
+            URL pluginLocation = getClass().getProtectionDomain().getCodeSource().getLocation();
+            ClassLoader analyzerLoader = AnalyzerRuntime.getDefault()
+                    .getClassLoader(pluginLocation, getClass().getClassLoader(), message -> { });
+            for (String className : ANALYZER_CLASSES) {
+                loadQuietly(className, false, analyzerLoader);
+            }
+            if (monitor.isCanceled()) {
+                return Status.CANCEL_STATUS;
+            }
+
+            // 2. 常用类初始化与解析器 JIT 预热
+            for (String className : HOT_CLASSES) {
+                loadQuietly(className, true, analyzerLoader);
+            }
+            JavaParser javaParser = new JavaParser();
+            Map<String, String> options = new HashMap<>(JavaCore.getOptions());
+            for (int i = 0; i < PARSE_ROUNDS && !monitor.isCanceled(); i++) {
+                javaParser.parse(WARMUP_SOURCE);
+                ASTParser astParser = ASTParser.newParser(AST.getJLSLatest());
+                astParser.setKind(ASTParser.K_COMPILATION_UNIT);
+                astParser.setCompilerOptions(options);
+                astParser.setSource(WARMUP_SOURCE.toCharArray());
+                astParser.createAST(null);
+            }
+
+            // 3. 最近分析过的项目的模型缓存
+            int units = 0;
+            for (String projectName : AnalysisHistory.getRecentProjects()) {
+                if (monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
+                if (project.isOpen()) {
+                    units += IncrementalModelCache.forProject(projectName).preload();
+                }
+            }
+            System.out.println("[Prewarm] 预热完成，耗时 " + (System.currentTimeMillis() - start) + " ms，预加载模型 " + units + " 个单元");
+        } catch (Exception | LinkageError e) {
+            // 预热失败不影响正常分析，第一次分析时会重新构建
+            System.err.println("[Prewarm] 预热失败: " + e);
+        }
+        return Status.OK_STATUS;
+    }
+
+    private static void loadQuietly(String className, boolean initialize, ClassLoader loader) {
+        try {
+            Class.forName(className, initialize, loader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            System.err.println("[Prewarm] 无法加载 " + className + ": " + e);
+        }
+    }
+}
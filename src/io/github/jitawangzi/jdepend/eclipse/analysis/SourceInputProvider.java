@@ -0,0 +1,139 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IBuffer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaModelStatusConstants;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+/**
+ * 编译单元源码的来源
+ * 在编辑器中打开的单元 (工作副本) 直接取 IBuffer 中的内容，包括未保存的修改；其余单元直接按文件编码读取磁盘内容，
+ * 不经过 JDT 的缓冲区。两种内容都在第一次取得时固定为本次运行的快照，保证签名解析、方法体解析与输出使用同一份内容，
+ * 运行中文件被修改也不会错位。多个线程可以同时读取不同的单元。
+ */
+public class SourceInputProvider {
+
+    private final ConcurrentMap<String, char[]> snapshots = new ConcurrentHashMap<>();
+    private final AtomicInteger inMemoryUnits = new AtomicInteger();
+    private final AtomicInteger diskUnits = new AtomicInteger();
+
+    /**
+     * 编译单元在本次运行中的内容
+     */
+    public char[] getContents(ICompilationUnit unit) throws JavaModelException {
+        try {
+            return snapshots.computeIfAbsent(unit.getHandleIdentifier(), handle -> {
+                try {
+                    return load(unit);
+                } catch (JavaModelException e) {
+                    throw new UncheckedJavaModelException(e);
+                }
+            });
+        } catch (UncheckedJavaModelException e) {
+            throw e.getCause();
+        }
+    }
+
+    public String getSource(ICompilationUnit unit) throws JavaModelException {
+        return new String(getContents(unit));
+    }
+
+    /**
+     * 本次运行中从编辑器缓冲区取得内容的单元数量
+     */
+    public int getInMemoryUnits() {
+        return inMemoryUnits.get();
+    }
+
+    public int getDiskUnits() {
+        return diskUnits.get();
+    }
+
+    private char[] load(ICompilationUnit unit) throws JavaModelException {
+        if (unit.isWorkingCopy()) {
+            IBuffer buffer = unit.getBuffer();
+            char[] characters = buffer != null ? buffer.getCharacters() : null;
+            if (characters != null) {
+                // IBuffer 返回的数组可能被编辑器继续修改，复制一份作为快照
+                inMemoryUnits.incrementAndGet();
+                return Arrays.copyOf(characters, characters.length);
+            }
+        }
+        diskUnits.incrementAndGet();
+        return readFromDisk(unit);
+    }
+
+    private static char[] readFromDisk(ICompilationUnit unit) throws JavaModelException {
+        if (!(unit.getResource() instanceof IFile)) {
+            return unit.getSource().toCharArray();
+        }
+        IFile file = (IFile) unit.getResource();
+        try (InputStream in = file.getContents(true);
+             Reader reader = new InputStreamReader(in, file.getCharset())) {
+            char[] buffer = new char[8192];
+            StringBuilder content = new StringBuilder();
+            int read;
+            while ((read = reader.read(buffer)) > 0) {
+                content.append(buffer, 0, read);
+            }
+            char[] contents = new char[content.length()];
+            content.getChars(0, contents.length, contents, 0);
+            return contents;
+        } catch (CoreException e) {
+            throw new JavaModelException(e);
+        } catch (IOException e) {
+            throw new JavaModelException(e, IJavaModelStatusConstants.IO_EXCEPTION);
+        }
+    }
+
+    /**
+     * 编辑器中存在未保存修改的编译单元
+     * @param project 只返回该项目中的单元，为 null 时返回全部
+     */
+    public static List<ICompilationUnit> findUnsavedUnits(IJavaProject project) {
+        List<ICompilationUnit> units = new ArrayList<>();
+        for (ICompilationUnit workingCopy : JavaCore.getWorkingCopies(null)) {
+            try {
+                if (workingCopy.hasUnsavedChanges()
+                        && (project == null || project.equals(workingCopy.getJavaProject()))) {
+                    units.add(workingCopy);
+                }
+            } catch (JavaModelException e) {
+                // 工作副本已关闭
+            }
+        }
+        return units;
+    }
+
+    /**
+     * 在 computeIfAbsent 中传递读取失败
+     */
+    private static class UncheckedJavaModelException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        UncheckedJavaModelException(JavaModelException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized JavaModelException getCause() {
+            return (JavaModelException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.util.Locale;
+
+/**
+ * 基于词法扫描的函数体折叠，用于外部分析器原样输出的非 Java 源码
+ * 不做完整语法分析，只单遍扫描识别字符串、注释、模板字符串等，把函数体替换为占位符，保留签名与注释。
+ * 按语言族分为花括号语言和缩进语言两种实现，实例无状态，可复用。
+ */
+public abstract class SourceSimplifier {
+
+    /**
+     * 把 source 中的函数体折叠后追加到 out
+     */
+    public abstract void simplify(CharSequence source, StringBuilder out);
+
+    /**
+     * 按文件扩展名或代码块的语言标记选择实现；Java 由外部分析器处理，不支持的语言返回 null
+     */
+    public static SourceSimplifier forLanguage(String language) {
+        if (language == null) {
+            return null;
+        }
+        switch (language.toLowerCase(Locale.ROOT)) {
+            case "js":
+            case "jsx":
+            case "mjs":
+            case "javascript":
+            case "ts":
+            case "tsx":
+            case "typescript":
+                return BraceSourceSimplifier.SCRIPT;
+            case "c":
+            case "h":
+            case "cc":
+            case "cpp":
+            case "cxx":
+            case "hpp":
+            case "c++":
+            case "cs":
+            case "csharp":
+                return BraceSourceSimplifier.C_FAMILY;
+            case "go":
+            case "golang":
+                return BraceSourceSimplifier.GO;
+            case "rs":
+            case "rust":
+                return BraceSourceSimplifier.RUST;
+            case "kt":
+            case "kts":
+            case "kotlin":
+            case "scala":
+                return BraceSourceSimplifier.JVM;
+            case "groovy":
+            case "gradle":
+                return BraceSourceSimplifier.GROOVY;
+            case "php":
+                return BraceSourceSimplifier.PHP;
+            case "py":
+            case "python":
+                return IndentSourceSimplifier.PYTHON;
+            default:
+                return null;
+        }
+    }
+
+    static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
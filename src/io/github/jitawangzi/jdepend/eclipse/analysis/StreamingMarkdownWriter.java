@@ -0,0 +1,108 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 边分析边写出的 Markdown 输出
+ * 内容经固定大小的缓冲区直接写入目标文件，内存占用与输出总量无关；
+ * 每写完一批完整的小节调用 {@link #flushSection()}，文件中即可看到已完成的部分。
+ */
+public class StreamingMarkdownWriter implements Closeable {
+
+    /**
+     * 写缓冲区大小 (字符)
+     */
+    public static final int BUFFER_CHARS = 64 * 1024;
+
+    /**
+     * 每次有新内容落盘时回调，可用于刷新编辑器或提示用户
+     */
+    public interface FlushListener {
+        /**
+         * @param first 是否为第一次落盘
+         */
+        void flushed(File file, long bytesWritten, boolean first);
+    }
+
+    private final File file;
+    private final AnalysisMetrics metrics;
+    private final FlushListener listener;
+    private final CountingOutputStream counter;
+    private final Writer writer;
+    private boolean flushedOnce;
+
+    public StreamingMarkdownWriter(File file, AnalysisMetrics metrics, FlushListener listener) throws IOException {
+        this.file = file;
+        this.metrics = metrics;
+        this.listener = listener;
+        this.counter = new CountingOutputStream(new FileOutputStream(file));
+        this.writer = new BufferedWriter(new OutputStreamWriter(counter, StandardCharsets.UTF_8), BUFFER_CHARS);
+    }
+
+    public void write(CharSequence text) throws IOException {
+        write(text, 0, text.length());
+    }
+
+    @SuppressWarnings("try")
+    public void write(CharSequence text, int start, int end) throws IOException {
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.WRITE)) {
+            writer.append(text, start, end);
+        }
+    }
+
+    /**
+     * 把已写入的完整小节落盘并通知监听者
+     */
+    @SuppressWarnings("try")
+    public void flushSection() throws IOException {
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.WRITE)) {
+            writer.flush();
+        }
+        boolean first = !flushedOnce;
+        if (first) {
+            flushedOnce = true;
+            metrics.set(AnalysisMetrics.FIRST_OUTPUT_MILLIS, metrics.getTotalMillis());
+        }
+        if (listener != null) {
+            listener.flushed(file, counter.count, first);
+        }
+    }
+
+    public long getBytesWritten() {
+        return counter.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
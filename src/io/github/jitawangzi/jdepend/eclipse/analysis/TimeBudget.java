@@ -0,0 +1,64 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+
+/**
+ * 单个文件与整次分析的时间预算
+ * 通过协作式取消生效：每个文件的解析使用 {@link #forFile} 返回的进度监视器，JDT 解析器、符号解析和收集循环
+ * 定期检查 isCanceled()，超时后抛出 OperationCanceledException，由调用方改走更便宜的路径。
+ * 整次预算由遍历与输出循环通过 {@link #isRunExpired()} 检查；整次超时同样会取消正在解析的文件，
+ * 调用方据此区分：单个文件超时只影响该文件，整次超时则停止遍历，不把当前文件记为跳过。
+ */
+public class TimeBudget {
+
+    private final long fileNanos;
+    private final long runDeadline;
+
+    /**
+     * @param fileMillis 单个文件的预算，0 表示不限制
+     * @param runMillis 整次分析的预算，从创建时开始计算，0 表示不限制
+     */
+    public TimeBudget(long fileMillis, long runMillis) {
+        this.fileNanos = fileMillis > 0 ? fileMillis * 1_000_000L : 0;
+        this.runDeadline = runMillis > 0 ? System.nanoTime() + runMillis * 1_000_000L : 0;
+    }
+
+    public boolean isRunExpired() {
+        return runDeadline != 0 && System.nanoTime() - runDeadline > 0;
+    }
+
+    /**
+     * 为一个文件的解析创建监视器，预算从此刻开始计算；用户取消、文件超时或整次超时时 isCanceled() 返回 true
+     */
+    public FileMonitor forFile(IProgressMonitor parent) {
+        return new FileMonitor(parent != null ? parent : new NullProgressMonitor(),
+                fileNanos != 0 ? System.nanoTime() + fileNanos : 0);
+    }
+
+    public class FileMonitor extends ProgressMonitorWrapper {
+
+        private final long deadline;
+
+        private FileMonitor(IProgressMonitor parent, long deadline) {
+            super(parent);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return super.isCanceled() || isExpired() || isRunExpired();
+        }
+
+        /**
+         * 是否因超出单文件预算而取消；用户取消时返回 false，整次预算由 {@link TimeBudget#isRunExpired()} 单独判断
+         */
+        public boolean isExpired() {
+            if (getWrappedProgressMonitor().isCanceled()) {
+                return false;
+            }
+            return deadline != 0 && System.nanoTime() - deadline > 0;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 单个编译单元的分析结果
+ * 记录类型、成员的源码位置、引用到的类型和方法调用边，可在源码未变化时跨次复用。
+ * 签名部分一次建好，方法体相关信息 (调用边、方法体引用的类型) 按需补齐
+ */
+public class UnitModel {
+
+    private final long modificationStamp;
+    private final String packageDeclaration;
+    private final List<String> imports = new ArrayList<>();
+    private final List<TypeModel> types = new ArrayList<>();
+
+    public UnitModel(long modificationStamp, String packageDeclaration) {
+        this.modificationStamp = modificationStamp;
+        this.packageDeclaration = packageDeclaration;
+    }
+
+    public long getModificationStamp() {
+        return modificationStamp;
+    }
+
+    public String getPackageDeclaration() {
+        return packageDeclaration;
+    }
+
+    public List<String> getImports() {
+        return imports;
+    }
+
+    public List<TypeModel> getTypes() {
+        return types;
+    }
+
+    public TypeModel findType(String qualifiedName) {
+        for (TypeModel type : types) {
+            if (type.getQualifiedName().equals(qualifiedName)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeLong(modificationStamp);
+        out.writeUTF(packageDeclaration);
+        writeStrings(out, imports);
+        out.writeInt(types.size());
+        for (TypeModel type : types) {
+            type.write(out);
+        }
+    }
+
+    static UnitModel read(DataInputStream in) throws IOException {
+        UnitModel unit = new UnitModel(in.readLong(), in.readUTF());
+        readStrings(in, unit.imports);
+        int typeCount = in.readInt();
+        for (int i = 0; i < typeCount; i++) {
+            unit.types.add(TypeModel.read(in));
+        }
+        return unit;
+    }
+
+    static void writeStrings(DataOutputStream out, java.util.Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    static void readStrings(DataInputStream in, java.util.Collection<String> target) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            target.add(in.readUTF());
+        }
+    }
+
+    /**
+     * 顶层类型：源码范围及成员
+     */
+    public static class TypeModel {
+        private final String qualifiedName;
+        private final int start;
+        private final int length;
+        private final List<MemberModel> members = new ArrayList<>();
+        private final Set<String> referencedTypes = new LinkedHashSet<>();
+
+        public TypeModel(String qualifiedName, int start, int length) {
+            this.qualifiedName = qualifiedName;
+            this.start = start;
+            this.length = length;
+        }
+
+        public String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public List<MemberModel> getMembers() {
+            return members;
+        }
+
+        public Set<String> getReferencedTypes() {
+            return referencedTypes;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeUTF(qualifiedName);
+            out.writeInt(start);
+            out.writeInt(length);
+            writeStrings(out, referencedTypes);
+            out.writeInt(members.size());
+            for (MemberModel member : members) {
+                member.write(out);
+            }
+        }
+
+        static TypeModel read(DataInputStream in) throws IOException {
+            TypeModel type = new TypeModel(in.readUTF(), in.readInt(), in.readInt());
+            readStrings(in, type.referencedTypes);
+            int memberCount = in.readInt();
+            for (int i = 0; i < memberCount; i++) {
+                type.members.add(MemberModel.read(in));
+            }
+            return type;
+        }
+    }
+
+    /**
+     * 方法成员：源码范围、方法体范围、是否为 Bean 访问器以及调用到的方法
+     */
+    public static class MemberModel {
+        private final String key;
+        private final String name;
+        private final int start;
+        private final int length;
+        private final int bodyStart;
+        private final int bodyLength;
+        private final boolean accessor;
+        private final Set<String> callees = new LinkedHashSet<>();
+        private final Set<String> overridden = new LinkedHashSet<>();
+        private final Set<String> bodyReferencedTypes = new LinkedHashSet<>();
+        private boolean bodyResolved;
+
+        public MemberModel(String key, String name, int start, int length, int bodyStart, int bodyLength, boolean accessor) {
+            this.key = key;
+            this.name = name;
+            this.start = start;
+            this.length = length;
+            this.bodyStart = bodyStart;
+            this.bodyLength = bodyLength;
+            this.accessor = accessor;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public int getBodyStart() {
+            return bodyStart;
+        }
+
+        public int getBodyLength() {
+            return bodyLength;
+        }
+
+        public boolean hasBody() {
+            return bodyStart >= 0;
+        }
+
+        public boolean isAccessor() {
+            return accessor;
+        }
+
+        public Set<String> getCallees() {
+            return callees;
+        }
+
+        public Set<String> getOverridden() {
+            return overridden;
+        }
+
+        /**
+         * 方法体内引用的类型，仅在方法体被解析后才有值
+         */
+        public Set<String> getBodyReferencedTypes() {
+            return bodyReferencedTypes;
+        }
+
+        public boolean isBodyResolved() {
+            return bodyResolved;
+        }
+
+        void markBodyResolved() {
+            bodyResolved = true;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeUTF(key);
+            out.writeUTF(name);
+            out.writeInt(start);
+            out.writeInt(length);
+            out.writeInt(bodyStart);
+            out.writeInt(bodyLength);
+            out.writeBoolean(accessor);
+            writeStrings(out, callees);
+            writeStrings(out, overridden);
+            writeStrings(out, bodyReferencedTypes);
+            out.writeBoolean(bodyResolved);
+        }
+
+        static MemberModel read(DataInputStream in) throws IOException {
+            MemberModel member = new MemberModel(in.readUTF(), in.readUTF(), in.readInt(), in.readInt(),
+                    in.readInt(), in.readInt(), in.readBoolean());
+            readStrings(in, member.callees);
+            readStrings(in, member.overridden);
+            readStrings(in, member.bodyReferencedTypes);
+            member.bodyResolved = in.readBoolean();
+            return member;
+        }
+    }
+}
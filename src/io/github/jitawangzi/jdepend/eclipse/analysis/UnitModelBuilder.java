@@ -0,0 +1,523 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ConstructorInvocation;
+import org.eclipse.jdt.core.dom.CreationReference;
+import org.eclipse.jdt.core.dom.EnumConstantDeclaration;
+import org.eclipse.jdt.core.dom.EnumDeclaration;
+import org.eclipse.jdt.core.dom.ExpressionMethodReference;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.LambdaExpression;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SuperConstructorInvocation;
+import org.eclipse.jdt.core.dom.SuperMethodInvocation;
+import org.eclipse.jdt.core.dom.SuperMethodReference;
+import org.eclipse.jdt.core.dom.TypeMethodReference;
+
+/**
+ * 基于 JDT AST 构建 {@link UnitModel}
+ */
+public class UnitModelBuilder {
+
+    /**
+     * 成员外代码 (字段初始化、初始化块、枚举常量，包括成员类型中的) 的调用归到该伪方法上
+     * 成员类型的方法作为所在顶层类型的成员，方法键仍以成员类型的全名开头
+     */
+    public static final String TYPE_LEVEL_MEMBER = "<type>";
+
+    private static final Pattern GETTER_BODY = Pattern.compile("\\{\\s*return\\s+(this\\s*\\.\\s*)?\\w+\\s*;\\s*\\}");
+    private static final Pattern SETTER_BODY = Pattern.compile(
+            "\\{\\s*(this\\s*\\.\\s*)?\\w+\\s*=\\s*\\w+\\s*;\\s*\\}");
+
+    private final AnalysisMetrics metrics;
+    private final SourceInputProvider sources;
+
+    public UnitModelBuilder(AnalysisMetrics metrics, SourceInputProvider sources) {
+        this.metrics = metrics;
+        this.sources = sources;
+    }
+
+    /**
+     * 编译单元的修改戳；存在未保存修改时返回 -1，表示不可缓存
+     */
+    public static long stampOf(ICompilationUnit unit) throws JavaModelException {
+        if (unit.hasUnsavedChanges()) {
+            return -1;
+        }
+        IResource resource = unit.getResource();
+        return resource != null ? resource.getModificationStamp() : -1;
+    }
+
+    /**
+     * 第一阶段：只解析类型与成员签名，跳过全部方法体
+     * 方法体的源码范围仍然保留，供输出与第二阶段按需解析使用
+     */
+    public UnitModel buildSignatures(ICompilationUnit unit, IProgressMonitor monitor) throws JavaModelException {
+        return buildSignatures(unit, monitor, true);
+    }
+
+    /**
+     * 不解析绑定的签名解析，只做语法分析，用于解析超出时间预算的文件
+     * 得到的模型没有引用类型、覆盖关系和调用边，方法键不含参数类型，不应写入缓存
+     */
+    public UnitModel buildUnresolvedSignatures(ICompilationUnit unit, IProgressMonitor monitor) throws JavaModelException {
+        return buildSignatures(unit, monitor, false);
+    }
+
+    @SuppressWarnings("try")
+    private UnitModel buildSignatures(ICompilationUnit unit, IProgressMonitor monitor, boolean resolveBindings)
+            throws JavaModelException {
+        long stamp = stampOf(unit);
+
+        char[] contents = sources.getContents(unit);
+        ASTParser parser = newParser(unit, contents);
+        parser.setIgnoreMethodBodies(true);
+        parser.setResolveBindings(resolveBindings);
+        parser.setBindingsRecovery(resolveBindings);
+        CompilationUnit ast;
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.PARSE)) {
+            ast = (CompilationUnit) parser.createAST(monitor);
+        }
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.SYMBOL_RESOLUTION)) {
+            return collectSignatures(ast, new String(contents), stamp, monitor);
+        }
+    }
+
+    private UnitModel collectSignatures(CompilationUnit ast, String source, long stamp, IProgressMonitor monitor) {
+
+        String packageDeclaration = ast.getPackage() != null
+                ? "package " + ast.getPackage().getName().getFullyQualifiedName() + ";"
+                : "";
+        UnitModel model = new UnitModel(stamp, packageDeclaration);
+        for (Object importObj : ast.imports()) {
+            ImportDeclaration importDecl = (ImportDeclaration) importObj;
+            model.getImports().add(source.substring(importDecl.getStartPosition(),
+                    importDecl.getStartPosition() + importDecl.getLength()));
+        }
+
+        for (Object typeObj : ast.types()) {
+            AbstractTypeDeclaration typeDecl = (AbstractTypeDeclaration) typeObj;
+            ITypeBinding typeBinding = typeDecl.resolveBinding();
+            String qualifiedName = typeBinding != null ? typeBinding.getQualifiedName()
+                    : qualify(packageDeclaration, typeDecl.getName().getIdentifier());
+            int start = ast.getExtendedStartPosition(typeDecl);
+            UnitModel.TypeModel type = new UnitModel.TypeModel(qualifiedName, start, ast.getExtendedLength(typeDecl));
+            model.getTypes().add(type);
+
+            // 初始化块、匿名类与 lambda 的方法体在第一阶段被跳过，含有这些代码时成员外代码留到第二阶段补齐，
+            // 此时以整个类型的范围作为它的"方法体"
+            boolean deferred = hasSkippedCode(typeDecl);
+            UnitModel.MemberModel typeLevel = new UnitModel.MemberModel(qualifiedName + "#" + TYPE_LEVEL_MEMBER,
+                    TYPE_LEVEL_MEMBER, -1, 0, deferred ? typeDecl.getStartPosition() : -1,
+                    deferred ? typeDecl.getLength() : 0, false);
+            type.getMembers().add(typeLevel);
+            collectMembers(ast, source, typeDecl, qualifiedName, type, typeLevel, monitor);
+            if (!deferred) {
+                typeLevel.markBodyResolved();
+            }
+            collectReferencedTypes(typeDecl, qualifiedName, type.getReferencedTypes());
+        }
+        return model;
+    }
+
+    /**
+     * 收集类型及其成员类型的方法，成员外代码的调用记到 typeLevel 上
+     */
+    private void collectMembers(CompilationUnit ast, String source, AbstractTypeDeclaration typeDecl, String ownerName,
+            UnitModel.TypeModel type, UnitModel.MemberModel typeLevel, IProgressMonitor monitor) {
+        for (Object bodyObj : typeDecl.bodyDeclarations()) {
+            checkCanceled(monitor);
+            BodyDeclaration body = (BodyDeclaration) bodyObj;
+            if (body instanceof MethodDeclaration) {
+                MethodDeclaration method = (MethodDeclaration) body;
+                UnitModel.MemberModel member = buildMember(ast, source, method, ownerName);
+                type.getMembers().add(member);
+                collectOverridden(method.resolveBinding(), member.getOverridden());
+            } else if (body instanceof AbstractTypeDeclaration) {
+                AbstractTypeDeclaration nested = (AbstractTypeDeclaration) body;
+                collectMembers(ast, source, nested, ownerName + "." + nested.getName().getIdentifier(), type, typeLevel,
+                        monitor);
+            } else {
+                collectCalls(body, typeLevel.getCallees());
+            }
+        }
+        if (typeDecl instanceof EnumDeclaration) {
+            for (Object constant : ((EnumDeclaration) typeDecl).enumConstants()) {
+                collectCalls((ASTNode) constant, typeLevel.getCallees());
+            }
+        }
+    }
+
+    /**
+     * 成员外代码中是否有第一阶段跳过的代码：初始化块，或字段初始化、枚举常量中的匿名类与 lambda
+     */
+    private static boolean hasSkippedCode(AbstractTypeDeclaration typeDecl) {
+        final boolean[] found = { false };
+        ASTVisitor visitor = new ASTVisitor() {
+            @Override
+            public boolean visit(AnonymousClassDeclaration node) {
+                found[0] = true;
+                return false;
+            }
+
+            @Override
+            public boolean visit(LambdaExpression node) {
+                found[0] = true;
+                return false;
+            }
+        };
+        for (Object bodyObj : typeDecl.bodyDeclarations()) {
+            if (bodyObj instanceof Initializer) {
+                return true;
+            }
+            if (bodyObj instanceof AbstractTypeDeclaration) {
+                if (hasSkippedCode((AbstractTypeDeclaration) bodyObj)) {
+                    return true;
+                }
+            } else if (!(bodyObj instanceof MethodDeclaration)) {
+                ((ASTNode) bodyObj).accept(visitor);
+            }
+        }
+        if (typeDecl instanceof EnumDeclaration) {
+            for (Object constant : ((EnumDeclaration) typeDecl).enumConstants()) {
+                ((ASTNode) constant).accept(visitor);
+            }
+        }
+        return found[0];
+    }
+
+    /**
+     * 第二阶段：只为指定的方法解析方法体，收集调用边与方法体内引用的类型
+     * 仅有一个方法需要展开时使用焦点解析，编译器会跳过同一文件中其余方法体
+     *
+     * @return 本次实际解析的方法体数量
+     */
+    @SuppressWarnings("try")
+    public int resolveBodies(ICompilationUnit unit, UnitModel model, Set<String> memberKeys, IProgressMonitor monitor)
+            throws JavaModelException {
+        Map<String, UnitModel.MemberModel> pending = new HashMap<>();
+        for (UnitModel.TypeModel type : model.getTypes()) {
+            for (UnitModel.MemberModel member : type.getMembers()) {
+                if (memberKeys.contains(member.getKey()) && member.hasBody() && !member.isBodyResolved()) {
+                    pending.put(member.getKey(), member);
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        ASTParser parser = newParser(unit, sources.getContents(unit));
+        // 焦点解析只保留焦点所在的方法体，成员外代码待补齐时不能使用
+        if (pending.size() == 1 && !pending.values().iterator().next().getName().equals(TYPE_LEVEL_MEMBER)) {
+            parser.setFocalPosition(pending.values().iterator().next().getBodyStart());
+        }
+        CompilationUnit ast;
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.PARSE)) {
+            ast = (CompilationUnit) parser.createAST(monitor);
+        }
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.SYMBOL_RESOLUTION)) {
+            return collectBodies(ast, pending, monitor);
+        }
+    }
+
+    private int collectBodies(CompilationUnit ast, Map<String, UnitModel.MemberModel> pending, IProgressMonitor monitor) {
+        int resolved = 0;
+        for (Object typeObj : ast.types()) {
+            AbstractTypeDeclaration typeDecl = (AbstractTypeDeclaration) typeObj;
+            String selfName = typeDecl.resolveBinding() != null ? typeDecl.resolveBinding().getQualifiedName() : "";
+            UnitModel.MemberModel typeLevel = pending.remove(selfName + "#" + TYPE_LEVEL_MEMBER);
+            resolved += collectBodies(typeDecl, selfName, typeLevel, pending, monitor);
+            if (typeLevel != null) {
+                typeLevel.markBodyResolved();
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * 解析类型及其成员类型中待处理的方法体；typeLevel 不为 null 时同时补齐成员外代码
+     */
+    private int collectBodies(AbstractTypeDeclaration typeDecl, String selfName, UnitModel.MemberModel typeLevel,
+            Map<String, UnitModel.MemberModel> pending, IProgressMonitor monitor) {
+        int resolved = 0;
+        for (Object bodyObj : typeDecl.bodyDeclarations()) {
+            checkCanceled(monitor);
+            if (bodyObj instanceof AbstractTypeDeclaration) {
+                resolved += collectBodies((AbstractTypeDeclaration) bodyObj, selfName, typeLevel, pending, monitor);
+                continue;
+            }
+            if (!(bodyObj instanceof MethodDeclaration)) {
+                if (typeLevel != null) {
+                    collectCalls((ASTNode) bodyObj, typeLevel.getCallees());
+                    collectReferencedTypes((ASTNode) bodyObj, selfName, typeLevel.getBodyReferencedTypes());
+                }
+                continue;
+            }
+            MethodDeclaration method = (MethodDeclaration) bodyObj;
+            IMethodBinding binding = method.resolveBinding();
+            UnitModel.MemberModel member = binding != null ? pending.remove(methodKey(binding)) : null;
+            if (member == null || method.getBody() == null) {
+                continue;
+            }
+            collectCalls(method.getBody(), member.getCallees());
+            collectReferencedTypes(method.getBody(), selfName, member.getBodyReferencedTypes());
+            member.markBodyResolved();
+            resolved++;
+        }
+        if (typeLevel != null && typeDecl instanceof EnumDeclaration) {
+            for (Object constant : ((EnumDeclaration) typeDecl).enumConstants()) {
+                collectCalls((ASTNode) constant, typeLevel.getCallees());
+                collectReferencedTypes((ASTNode) constant, selfName, typeLevel.getBodyReferencedTypes());
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * 收集循环中的协作式取消检查，绑定解析可能在这里而不是 createAST 中耗时
+     */
+    private static void checkCanceled(IProgressMonitor monitor) {
+        if (monitor != null && monitor.isCanceled()) {
+            throw new OperationCanceledException();
+        }
+    }
+
+    /**
+     * 直接解析内存中的内容；设置项目与单元路径后绑定解析与 setSource(ICompilationUnit) 一致
+     */
+    private ASTParser newParser(ICompilationUnit unit, char[] contents) {
+        ASTParser parser = ASTParser.newParser(AST.getJLSLatest());
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setSource(contents);
+        parser.setProject(unit.getJavaProject());
+        parser.setUnitName(unit.getPath().toString());
+        parser.setResolveBindings(true);
+        parser.setBindingsRecovery(true);
+        return parser;
+    }
+
+    private UnitModel.MemberModel buildMember(CompilationUnit ast, String source, MethodDeclaration method,
+            String ownerName) {
+        IMethodBinding binding = method.resolveBinding();
+        String key = binding != null ? methodKey(binding) : ownerName + "#" + method.getName().getIdentifier() + "(?)";
+        int bodyStart = method.getBody() != null ? method.getBody().getStartPosition() : -1;
+        int bodyLength = method.getBody() != null ? method.getBody().getLength() : 0;
+        boolean accessor = bodyStart >= 0 && !method.isConstructor()
+                && isAccessor(method.getName().getIdentifier(), method.parameters().size(),
+                        source.substring(bodyStart, bodyStart + bodyLength));
+        return new UnitModel.MemberModel(key, method.getName().getIdentifier(),
+                ast.getExtendedStartPosition(method), ast.getExtendedLength(method),
+                bodyStart, bodyLength, accessor);
+    }
+
+    /**
+     * 方法键：声明类的擦除全名#方法名(参数擦除类型)
+     */
+    public static String methodKey(IMethodBinding binding) {
+        IMethodBinding declaration = binding.getMethodDeclaration();
+        ITypeBinding owner = declaration.getDeclaringClass();
+        StringBuilder key = new StringBuilder();
+        key.append(owner != null ? owner.getErasure().getQualifiedName() : "?");
+        key.append('#').append(declaration.isConstructor() ? "<init>" : declaration.getName()).append('(');
+        ITypeBinding[] parameters = declaration.getParameterTypes();
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(parameters[i].getErasure().getQualifiedName());
+        }
+        return key.append(')').toString();
+    }
+
+    private void collectCalls(ASTNode node, final Set<String> callees) {
+        node.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(MethodInvocation invocation) {
+                add(invocation.resolveMethodBinding());
+                return true;
+            }
+
+            @Override
+            public boolean visit(SuperMethodInvocation invocation) {
+                add(invocation.resolveMethodBinding());
+                return true;
+            }
+
+            @Override
+            public boolean visit(ClassInstanceCreation creation) {
+                add(creation.resolveConstructorBinding());
+                return true;
+            }
+
+            @Override
+            public boolean visit(ConstructorInvocation invocation) {
+                add(invocation.resolveConstructorBinding());
+                return true;
+            }
+
+            @Override
+            public boolean visit(EnumConstantDeclaration constant) {
+                add(constant.resolveConstructorBinding());
+                return true;
+            }
+
+            @Override
+            public boolean visit(SuperConstructorInvocation invocation) {
+                add(invocation.resolveConstructorBinding());
+                return true;
+            }
+
+            @Override
+            public boolean visit(ExpressionMethodReference reference) {
+                add(reference.resolveMethodBinding());
+                return true;
+            }
+
+            @Override
+            public boolean visit(TypeMethodReference reference) {
+                add(reference.resolveMethodBinding());
+                return true;
+            }
+
+            @Override
+            public boolean visit(SuperMethodReference reference) {
+                add(reference.resolveMethodBinding());
+                return true;
+            }
+
+            @Override
+            public boolean visit(CreationReference reference) {
+                add(reference.resolveMethodBinding());
+                return true;
+            }
+
+            private void add(IMethodBinding binding) {
+                if (binding != null && binding.getDeclaringClass() != null && binding.getDeclaringClass().isFromSource()) {
+                    callees.add(methodKey(binding));
+                }
+            }
+        });
+    }
+
+    /**
+     * 收集被当前方法覆盖的源码内父方法，构图时补充"父方法 -> 子方法"的边，使接口调用能到达实现类
+     */
+    private void collectOverridden(IMethodBinding binding, Set<String> overridden) {
+        if (binding == null || binding.isConstructor()) {
+            return;
+        }
+        collectOverridden(binding, binding.getDeclaringClass(), new HashSet<ITypeBinding>(), overridden);
+    }
+
+    private void collectOverridden(IMethodBinding binding, ITypeBinding type, Set<ITypeBinding> visited,
+            Set<String> overridden) {
+        if (type == null) {
+            return;
+        }
+        ITypeBinding superclass = type.getSuperclass();
+        ITypeBinding[] interfaces = type.getInterfaces();
+        ITypeBinding[] supertypes = new ITypeBinding[interfaces.length + 1];
+        supertypes[0] = superclass;
+        System.arraycopy(interfaces, 0, supertypes, 1, interfaces.length);
+        for (ITypeBinding supertype : supertypes) {
+            if (supertype == null || !visited.add(supertype.getErasure())) {
+                continue;
+            }
+            if (supertype.isFromSource()) {
+                for (IMethodBinding candidate : supertype.getDeclaredMethods()) {
+                    if (binding.overrides(candidate)) {
+                        overridden.add(methodKey(candidate));
+                    }
+                }
+            }
+            collectOverridden(binding, supertype, visited, overridden);
+        }
+    }
+
+    private void collectReferencedTypes(ASTNode node, final String selfName, final Set<String> referenced) {
+        node.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(SimpleName name) {
+                IBinding binding = name.resolveBinding();
+                ITypeBinding type = null;
+                if (binding instanceof ITypeBinding) {
+                    type = (ITypeBinding) binding;
+                } else if (binding instanceof IMethodBinding) {
+                    type = ((IMethodBinding) binding).getDeclaringClass();
+                } else if (binding instanceof IVariableBinding && ((IVariableBinding) binding).isField()) {
+                    type = ((IVariableBinding) binding).getDeclaringClass();
+                }
+                add(type);
+                return true;
+            }
+
+            private void add(ITypeBinding type) {
+                if (type == null) {
+                    return;
+                }
+                if (type.isArray()) {
+                    type = type.getElementType();
+                }
+                if (type.isPrimitive() || type.isTypeVariable() || !type.isFromSource()) {
+                    return;
+                }
+                type = type.getErasure();
+                while (type.getDeclaringClass() != null) {
+                    type = type.getDeclaringClass();
+                }
+                String name = type.getQualifiedName();
+                if (!name.isEmpty() && !name.equals(selfName)) {
+                    referenced.add(name);
+                }
+            }
+        });
+    }
+
+    /**
+     * 判断是否为简单的 getter/setter：方法体只有一条返回字段或给字段赋值的语句
+     * 第一阶段不解析方法体，这里直接按源码文本匹配
+     */
+    private boolean isAccessor(String name, int parameterCount, String body) {
+        if ((name.startsWith("get") || name.startsWith("is")) && parameterCount == 0) {
+            return GETTER_BODY.matcher(body).matches();
+        }
+        if (name.startsWith("set") && parameterCount == 1) {
+            return SETTER_BODY.matcher(body).matches();
+        }
+        return false;
+    }
+
+    private static String qualify(String packageDeclaration, String simpleName) {
+        if (packageDeclaration.isEmpty()) {
+            return simpleName;
+        }
+        return packageDeclaration.substring("package ".length(), packageDeclaration.length() - 1) + "." + simpleName;
+    }
+}
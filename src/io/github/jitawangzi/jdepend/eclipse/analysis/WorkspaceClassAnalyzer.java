@@ -0,0 +1,1012 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaModelStatusConstants;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaModelException;
+
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisSettings;
+import io.github.jitawangzi.jdepend.eclipse.result.AnalysisResult;
+import io.github.jitawangzi.jdepend.eclipse.result.MarkdownResultRenderer;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultCodec;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultRenderer;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultRenderers;
+import io.github.jitawangzi.jdepend.eclipse.utils.PrefixMatcher;
+import io.github.jitawangzi.jdepend.eclipse.utils.TokenEstimator;
+
+/**
+ * 基于 Eclipse JDT 模型的类依赖分析
+ * 在 IDE 进程内完成类型遍历、方法可达性计算与 Markdown 输出，单元模型通过 {@link IncrementalModelCache} 跨次复用。
+ * 先只解析签名，方法体仅在该方法确定保留且需要输出时才解析。
+ * 遍历按深度逐层推进，输出按深度分节流式写出：主类最先落盘，之后每完成一层追加一层，不必等整个分析结束。
+ * 设置了 token 预算时，遍历结束后按优先级裁剪再写出。
+ * 启用图指标时在输出末尾附加依赖环、扇入扇出与分层违规。
+ * 启用保存结果模型或选择了其他输出格式时，同时收集结果模型，结束后保存为二进制文件并渲染为这些格式。
+ * 变更分析时以自基准版本以来修改过的全部类型为深度 0 的入口，代替主类。
+ * 解析超出单文件时间预算的文件改走更便宜的路径：签名退回不解析绑定的语法分析，方法体按原文输出、不再展开；
+ * 超出整次时间预算后停止遍历，已发现的类型照常输出，尚未写出的部分只输出签名。
+ */
+public class WorkspaceClassAnalyzer {
+
+    // 输出中每个指标列表的最大项数
+    private static final int GRAPH_METRICS_LIMIT = 20;
+
+    private final AnalysisSettings config;
+    private final IJavaProject project;
+    private final Consumer<String> log;
+    private final MemoryPressureMonitor memoryMonitor;
+    private final AnalysisMetrics metrics;
+    private final IncrementalModelCache cache;
+    private final UnitModelBuilder builder;
+    private final SourceInputProvider sources = new SourceInputProvider();
+    private final StreamingMarkdownWriter.FlushListener outputListener;
+
+    private final PrefixMatcher projectPrefixes;
+    private final PrefixMatcher excludedPackages;
+    private final PrefixMatcher importSkipPrefixes;
+    private final PrefixMatcher importKeepPrefixes;
+    private final Set<String> methodExceptions;
+
+    // 遍历结果：类型全名 -> 节点，按发现顺序
+    private final Map<String, TypeNode> nodes = new LinkedHashMap<>();
+    // 待处理的类型，浅层优先
+    private final PriorityQueue<TypeNode> typeQueue = new PriorityQueue<>(
+            Comparator.comparingInt((TypeNode node) -> node.depth).thenComparingInt(node -> node.order));
+    private final Deque<String> methodQueue = new ArrayDeque<>();
+    private final Set<String> reached = new HashSet<>();
+    private final Map<String, List<String>> overridersByMethod = new HashMap<>();
+    // 方法键 -> 所在的顶层类型；成员类型的方法键以成员类型全名开头，不能从键中直接取得
+    private final Map<String, TypeNode> ownersByMethod = new HashMap<>();
+    private final MethodCallGraph callGraph = new MethodCallGraph();
+
+    // 内存压力下逐步收紧的深度限制
+    private int bodyDepthLimit;
+    private int depthLimit;
+
+    // 流式输出：已写出 [0, writtenLevels) 层
+    private StreamingMarkdownWriter output;
+    private Set<String> reachable;
+    private int writtenLevels;
+
+    // token 预算下的裁剪：只输出 [0, budgetDepth) 层，深度 >= budgetBodyDepth 的类型只输出签名
+    private int budgetDepth = Integer.MAX_VALUE;
+    private int budgetBodyDepth = Integer.MAX_VALUE;
+    private boolean pruneAccessors;
+    private final List<String> pruned = new ArrayList<>();
+
+    // 其他输出格式；既不保存结果模型也没有其他格式时不收集
+    private final List<ResultRenderer> extraRenderers = new ArrayList<>();
+    private AnalysisResult.Builder resultBuilder;
+    private DependencyGraphMetrics graphMetrics;
+
+    // 变更分析的基准版本与入口类型，未设置时从主类开始
+    private String baseRevision;
+    private List<String> rootTypes;
+
+    // 时间预算：超时降级的文件 (文件名 -> 原因)、放弃的文件，以及不再解析方法体的单元模型
+    private TimeBudget timeBudget;
+    private IProgressMonitor monitor;
+    private final Map<String, UnitModel> unresolvedModels = new HashMap<>();
+    private final Set<String> skippedUnits = new HashSet<>();
+    private final Set<UnitModel> bodiesTimedOut = Collections.synchronizedSet(new HashSet<>());
+    private final Map<String, String> degradedFiles = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final List<String> skippedFiles = new ArrayList<>();
+    private final List<String> budgetNotes = new ArrayList<>();
+    private boolean signaturesOnly;
+    // 本次运行因内存压力释放了模型缓存，余下部分不再读写缓存；只影响本次运行
+    private volatile boolean cacheReleased;
+    private int cacheHits;
+    private int cacheMisses;
+
+    public WorkspaceClassAnalyzer(AnalysisSettings config, IJavaProject project, AnalysisContext context,
+            Consumer<String> log) {
+        this.config = config;
+        this.project = project;
+        this.memoryMonitor = context.getMemoryMonitor();
+        this.metrics = context.getMetrics();
+        this.outputListener = context.getOutputListener();
+        this.builder = new UnitModelBuilder(metrics, sources);
+        this.log = log;
+        this.cache = IncrementalModelCache.forProject(project.getElementName());
+        this.bodyDepthLimit = config.getMethodBodyMaxDepth();
+        this.depthLimit = config.getMaxDepth();
+        if (memoryMonitor != null) {
+            memoryMonitor.onDropCaches(() -> {
+                cacheReleased = true;
+                cache.releaseMemory();
+                memoryMonitor.addNote("内存压力：已释放模型缓存，本次未变化的文件下次需要重新解析");
+            });
+        }
+        this.projectPrefixes = config.getProjectPrefixMatcher();
+        this.excludedPackages = config.getExcludedPackageMatcher();
+        this.importSkipPrefixes = config.getImportSkipMatcher();
+        this.importKeepPrefixes = config.getImportKeepMatcher();
+        this.methodExceptions = config.getMethodExceptions();
+        for (String format : config.getOutputFormats()) {
+            ResultRenderer renderer = ResultRenderers.get(format);
+            // Markdown 即主输出，不需要再渲染一次
+            if (!MarkdownResultRenderer.FORMAT.equals(renderer.getFormat())) {
+                extraRenderers.add(renderer);
+            }
+        }
+    }
+
+    /**
+     * 以修改过的类型代替主类作为入口，输出限于这些类型及其 maxDepth 范围内的依赖
+     */
+    public void setChangeScope(String baseRevision, List<String> rootTypes) {
+        this.baseRevision = baseRevision;
+        this.rootTypes = new ArrayList<>(rootTypes);
+    }
+
+    public void analyze(IProgressMonitor monitor) throws JavaModelException, IOException {
+        long allocatedAtStart = AnalysisMetrics.currentThreadAllocatedBytes();
+        this.monitor = monitor;
+        this.timeBudget = new TimeBudget(config.getFileTimeBudgetMillis(), config.getRunTimeBudgetSeconds() * 1000L);
+        if (config.isResultModelEnabled() || !extraRenderers.isEmpty()) {
+            resultBuilder = new AnalysisResult.Builder(rootTypes != null ? "changes since " + baseRevision : config.getMainClass());
+        }
+        try (StreamingMarkdownWriter out = new StreamingMarkdownWriter(new File(config.getOutputFile()), metrics, outputListener)) {
+            output = out;
+            out.write(header());
+            try {
+                traverse(rootTypes != null ? rootTypes : Collections.singletonList(config.getMainClass()), monitor);
+            } catch (OperationCanceledException e) {
+                out.write("> 分析已取消，以上为部分结果\n");
+                throw e;
+            }
+            log.accept("类型遍历完成，共 " + nodes.size() + " 个类型 (缓存命中 " + cacheHits + "，重新解析 " + cacheMisses + ")");
+
+            if (config.isKeepOnlyReferencedMethods()) {
+                reachable = callGraph.reachableFrom(collectRoots());
+                log.accept("方法可达性计算完成，调用图 " + callGraph.getMethodCount() + " 个方法，可达 " + reachable.size() + " 个");
+            }
+            if (config.isGraphMetricsEnabled()) {
+                graphMetrics = computeGraphMetrics();
+            }
+            if (config.getTokenBudget() > 0) {
+                applyTokenBudget(config.getTokenBudget());
+            }
+            writeLevelsBelow(budgetDepth);
+            if (graphMetrics != null) {
+                out.write(graphMetrics.toMarkdown(GRAPH_METRICS_LIMIT));
+            }
+            writeNotes();
+        } finally {
+            output = null;
+        }
+        if (resultBuilder != null) {
+            writeResult(resultBuilder.build());
+        }
+        recordCounters(allocatedAtStart);
+        if (!cacheReleased) {
+            cache.save();
+        }
+    }
+
+    public MethodCallGraph getCallGraph() {
+        return callGraph;
+    }
+
+    private void recordCounters(long allocatedAtStart) {
+        Set<ICompilationUnit> units = new HashSet<>();
+        int methods = 0;
+        int bodies = 0;
+        for (TypeNode node : nodes.values()) {
+            units.add(node.unit);
+            for (UnitModel.MemberModel member : node.type.getMembers()) {
+                if (member.getStart() >= 0) {
+                    methods++;
+                    if (member.hasBody()) {
+                        bodies++;
+                    }
+                }
+            }
+        }
+        metrics.set(AnalysisMetrics.FILES, units.size());
+        metrics.set(AnalysisMetrics.TYPES, nodes.size());
+        metrics.set(AnalysisMetrics.METHODS, methods);
+        metrics.set(AnalysisMetrics.BODIES_SKIPPED, Math.max(0, bodies - metrics.get(AnalysisMetrics.BODIES_PARSED)));
+        metrics.set(AnalysisMetrics.CACHE_HITS, cacheHits);
+        metrics.set(AnalysisMetrics.CACHE_MISSES, cacheMisses);
+        metrics.set(AnalysisMetrics.IN_MEMORY_UNITS, sources.getInMemoryUnits());
+        if (!degradedFiles.isEmpty() || !skippedFiles.isEmpty()) {
+            metrics.set(AnalysisMetrics.DEGRADED_FILES, degradedFiles.size());
+            metrics.set(AnalysisMetrics.SKIPPED_FILES, skippedFiles.size());
+        }
+        long allocatedNow = AnalysisMetrics.currentThreadAllocatedBytes();
+        if (allocatedAtStart >= 0 && allocatedNow >= 0) {
+            // 线程池任务的分配已由 countAllocations 计入，这里加上调度线程自己的
+            metrics.increment(AnalysisMetrics.ALLOCATED_BYTES, allocatedNow - allocatedAtStart);
+        }
+        log.accept("方法体解析 " + metrics.get(AnalysisMetrics.BODIES_PARSED) + "/" + bodies + " 个，跳过 "
+                + metrics.get(AnalysisMetrics.BODIES_SKIPPED) + " 个");
+    }
+
+    /**
+     * 两阶段遍历：类型只做签名解析；方法只有在被判定保留且所在类型需要输出方法体时才解析方法体，
+     * 方法体中新发现的调用和类型再回到工作队列。每轮只处理最浅一层的待办，处理完后写出已经确定的层
+     */
+    private void traverse(List<String> roots, IProgressMonitor monitor) throws JavaModelException, IOException {
+        for (String root : roots) {
+            // 入口类型不受项目包前缀限制
+            if (!nodes.containsKey(root) && resolve(root, 0)) {
+                typeQueue.add(nodes.get(root));
+            }
+        }
+        while (!typeQueue.isEmpty() || !methodQueue.isEmpty()) {
+            if (monitor != null && monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            if (timeBudget.isRunExpired()) {
+                stopTraversal();
+                break;
+            }
+            int level = pendingLevel();
+            while (!typeQueue.isEmpty() && typeQueue.peek().depth <= level) {
+                processType(typeQueue.poll());
+            }
+            expandPendingBodies(level);
+
+            // 新的类型只会出现在待办最浅一层的下一层，因此该层及以上已经确定；
+            // 只保留被引用方法时，除主类外的内容要等可达性计算完成；有 token 预算时全部等裁剪方案确定
+            if (config.getTokenBudget() <= 0) {
+                int pending = pendingLevel();
+                writeLevelsBelow(config.isKeepOnlyReferencedMethods() ? Math.min(1, pending) : pending);
+            }
+        }
+    }
+
+    /**
+     * 超出整次时间预算：丢弃待办，已加入的类型仍然输出，但不再跟踪它们的依赖和方法体
+     */
+    private void stopTraversal() {
+        String note = "超出整次时间预算 " + config.getRunTimeBudgetSeconds() + " s，遍历提前结束：" + typeQueue.size()
+                + " 个类型的依赖与 " + methodQueue.size() + " 个方法体未展开";
+        budgetNotes.add(note);
+        metrics.addNote(note);
+        log.accept(note);
+        typeQueue.clear();
+        methodQueue.clear();
+    }
+
+    /**
+     * 待处理类型与方法体中最浅的深度，没有待办时返回 Integer.MAX_VALUE
+     */
+    private int pendingLevel() {
+        int level = typeQueue.isEmpty() ? Integer.MAX_VALUE : typeQueue.peek().depth;
+        for (String methodKey : methodQueue) {
+            level = Math.min(level, ownersByMethod.get(methodKey).depth);
+        }
+        return level;
+    }
+
+    private void discover(String qualifiedName, int depth) throws JavaModelException {
+        if (depth > depthLimit || nodes.containsKey(qualifiedName) || !isProjectType(qualifiedName)
+                || timeBudget.isRunExpired()) {
+            return;
+        }
+        if (resolve(qualifiedName, depth)) {
+            typeQueue.add(nodes.get(qualifiedName));
+        }
+    }
+
+    @SuppressWarnings("try")
+    private boolean resolve(String qualifiedName, int depth) throws JavaModelException {
+        ICompilationUnit unit;
+        // 在项目的源码目录中定位类型所在的编译单元
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.FILE_WALK)) {
+            IType type = project.findType(qualifiedName);
+            unit = type != null ? type.getCompilationUnit() : null;
+        }
+        if (unit == null) {
+            return false;
+        }
+        String unitId = unit.getHandleIdentifier();
+        if (skippedUnits.contains(unitId)) {
+            return false;
+        }
+        UnitModel model = unresolvedModels.get(unitId);
+        if (model == null && !cacheReleased) {
+            model = cache.get(unitId, UnitModelBuilder.stampOf(unit));
+            if (model != null) {
+                cacheHits++;
+            }
+        }
+        if (model == null) {
+            cacheMisses++;
+        }
+        if (model == null) {
+            model = parseSignatures(unit, unitId);
+            if (model == null) {
+                return false;
+            }
+        }
+        UnitModel.TypeModel typeModel = model.findType(qualifiedName);
+        if (typeModel == null) {
+            return false;
+        }
+        nodes.put(qualifiedName, new TypeNode(qualifiedName, unit, model, typeModel, depth, nodes.size()));
+        return true;
+    }
+
+    /**
+     * 在单文件时间预算内解析签名；超时则退回不解析绑定的语法分析，该文件的类型照常输出，但不跟踪其依赖；
+     * 仍然超时则放弃该文件。超出整次预算时直接返回 null，由遍历循环停止，该文件不记为跳过
+     */
+    private UnitModel parseSignatures(ICompilationUnit unit, String unitId) throws JavaModelException {
+        TimeBudget.FileMonitor fileMonitor = timeBudget.forFile(monitor);
+        try {
+            UnitModel model = builder.buildSignatures(unit, fileMonitor);
+            if (!cacheReleased) {
+                cache.put(unitId, model);
+            }
+            return model;
+        } catch (OperationCanceledException e) {
+            if (isStoppedByRunBudget()) {
+                return null;
+            }
+            if (!fileMonitor.isExpired()) {
+                throw e;
+            }
+        }
+        fileMonitor = timeBudget.forFile(monitor);
+        try {
+            // 不解析绑定的模型不完整，不写入缓存
+            UnitModel model = builder.buildUnresolvedSignatures(unit, fileMonitor);
+            unresolvedModels.put(unitId, model);
+            degrade(unit, "签名未解析绑定，依赖未跟踪");
+            return model;
+        } catch (OperationCanceledException e) {
+            if (isStoppedByRunBudget()) {
+                return null;
+            }
+            if (!fileMonitor.isExpired()) {
+                throw e;
+            }
+        }
+        skippedUnits.add(unitId);
+        skippedFiles.add(unit.getElementName());
+        log.accept("文件解析超出时间预算，已跳过: " + unit.getElementName());
+        return null;
+    }
+
+    /**
+     * 在单文件时间预算内解析方法体；超时后这些方法体按原文输出，其中的调用和引用的类型不再展开，
+     * 同一文件之后也不再尝试。超出整次预算时不标记该文件，之后写出的类型只输出签名。在 CPU 线程池中调用
+     */
+    private int resolveBodies(ICompilationUnit unit, UnitModel model, Set<String> memberKeys) throws JavaModelException {
+        TimeBudget.FileMonitor fileMonitor = timeBudget.forFile(monitor);
+        try {
+            return builder.resolveBodies(unit, model, memberKeys, fileMonitor);
+        } catch (OperationCanceledException e) {
+            if (isStoppedByRunBudget()) {
+                return 0;
+            }
+            if (!fileMonitor.isExpired()) {
+                throw e;
+            }
+            bodiesTimedOut.add(model);
+            degrade(unit, "方法体未展开");
+            return 0;
+        }
+    }
+
+    /**
+     * 解析因超出整次预算而取消，而不是用户取消
+     */
+    private boolean isStoppedByRunBudget() {
+        return timeBudget.isRunExpired() && (monitor == null || !monitor.isCanceled());
+    }
+
+    private void degrade(ICompilationUnit unit, String reason) {
+        degradedFiles.putIfAbsent(unit.getElementName(), reason);
+        log.accept("文件解析超出时间预算 (" + reason + "): " + unit.getElementName());
+    }
+
+    /**
+     * 签名解析超时、未解析绑定的类型：方法键不含参数类型，无法参与可达性计算，全部成员保留
+     */
+    private boolean isUnresolved(TypeNode node) {
+        return unresolvedModels.get(node.unit.getHandleIdentifier()) == node.model;
+    }
+
+    private boolean isProjectType(String qualifiedName) {
+        if (excludedPackages.matches(qualifiedName)) {
+            return false;
+        }
+        return projectPrefixes.isEmpty() || projectPrefixes.matches(qualifiedName);
+    }
+
+    /**
+     * 处理新加入的类型：签名中引用的类型入队，登记覆盖关系，并确定哪些方法需要展开方法体
+     */
+    private void processType(TypeNode node) throws JavaModelException {
+        applyMemoryPressure(node.depth);
+        for (String referenced : node.type.getReferencedTypes()) {
+            discover(referenced, node.depth + 1);
+            addDependency(node, referenced);
+        }
+        boolean keepAll = node.depth == 0 || !config.isKeepOnlyReferencedMethods() || isUnresolved(node);
+        for (UnitModel.MemberModel member : node.type.getMembers()) {
+            ownersByMethod.put(member.getKey(), node);
+            callGraph.addMethod(member.getKey());
+            for (String overridden : member.getOverridden()) {
+                callGraph.addCall(overridden, member.getKey());
+                List<String> overriders = overridersByMethod.get(overridden);
+                if (overriders == null) {
+                    overriders = new ArrayList<>();
+                    overridersByMethod.put(overridden, overriders);
+                }
+                overriders.add(member.getKey());
+                if (reached.contains(overridden)) {
+                    markReached(member.getKey());
+                }
+            }
+            if (reached.contains(member.getKey())) {
+                // 类型加入之前就已被调用到的方法，此时才能排入展开队列
+                enqueueBody(node, member.getKey());
+            } else if (keepAll || isRoot(node, member)) {
+                markReached(member.getKey());
+            }
+        }
+    }
+
+    /**
+     * 在遍历得到的完整依赖图上计算结构指标，不受 token 预算裁剪的影响
+     */
+    @SuppressWarnings("try")
+    private DependencyGraphMetrics computeGraphMetrics() {
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.GRAPH_METRICS)) {
+            String[] names = nodes.keySet().toArray(new String[0]);
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < names.length; i++) {
+                index.put(names[i], i);
+            }
+            int[][] dependencies = new int[names.length][];
+            for (int i = 0; i < names.length; i++) {
+                Set<String> targets = nodes.get(names[i]).dependencies;
+                dependencies[i] = new int[targets.size()];
+                int j = 0;
+                for (String target : targets) {
+                    dependencies[i][j++] = index.get(target);
+                }
+            }
+            DependencyGraphMetrics graph = new DependencyGraphMetrics(names, dependencies, config.getProjectPackagePrefixes());
+            metrics.set(AnalysisMetrics.DEPENDENCY_CYCLES, graph.getCycles().size());
+            metrics.set(AnalysisMetrics.PACKAGE_CYCLES, graph.getPackageCycles().size());
+            metrics.set(AnalysisMetrics.LAYER_VIOLATIONS, graph.getLayerViolations().size());
+            log.accept("依赖图 " + graph.getNodeCount() + " 个类型、" + graph.getEdgeCount() + " 条依赖: 环 "
+                    + graph.getCycles().size() + " 个，包环 " + graph.getPackageCycles().size() + " 个，分层违规 "
+                    + graph.getLayerViolations().size() + " 处");
+            return graph;
+        }
+    }
+
+    /**
+     * 记录类型之间的依赖边，只记录遍历范围内的类型
+     */
+    private void addDependency(TypeNode node, String referenced) {
+        if (!referenced.equals(node.name) && nodes.containsKey(referenced)) {
+            node.dependencies.add(referenced);
+        }
+    }
+
+    /**
+     * 标记方法可达；所在类型已加入且需要输出方法体时，排入方法体展开队列
+     */
+    private void markReached(String methodKey) {
+        if (!reached.add(methodKey)) {
+            return;
+        }
+        TypeNode owner = ownersByMethod.get(methodKey);
+        if (owner != null) {
+            enqueueBody(owner, methodKey);
+        }
+        List<String> overriders = overridersByMethod.get(methodKey);
+        if (overriders != null) {
+            for (String overrider : overriders) {
+                markReached(overrider);
+            }
+        }
+    }
+
+    private void enqueueBody(TypeNode owner, String methodKey) {
+        if (owner.depth < bodyDepthLimit) {
+            methodQueue.add(methodKey);
+        }
+    }
+
+    /**
+     * 按编译单元分批展开深度不超过 level 的待处理方法体，同一文件只解析一次；更深的留到之后的轮次
+     * 各编译单元在 CPU 线程池中并行解析，解析结果按原顺序串行合并到遍历状态
+     */
+    private void expandPendingBodies(int level) throws JavaModelException {
+        Map<TypeNode, Set<String>> batches = new LinkedHashMap<>();
+        List<String> deferred = new ArrayList<>();
+        while (!methodQueue.isEmpty()) {
+            String methodKey = methodQueue.poll();
+            TypeNode owner = ownersByMethod.get(methodKey);
+            if (owner.depth > level) {
+                deferred.add(methodKey);
+                continue;
+            }
+            Set<String> batch = batches.get(owner);
+            if (batch == null) {
+                batch = new HashSet<>();
+                batches.put(owner, batch);
+            }
+            batch.add(methodKey);
+        }
+        methodQueue.addAll(deferred);
+
+        // 同一编译单元中的多个类型共享一个单元模型，合并为一个解析任务，避免并发修改同一模型
+        List<Map.Entry<TypeNode, Set<String>>> expanded = new ArrayList<>();
+        Map<UnitModel, Set<String>> unresolvedByModel = new HashMap<>();
+        Map<UnitModel, ICompilationUnit> units = new LinkedHashMap<>();
+        for (Map.Entry<TypeNode, Set<String>> batch : batches.entrySet()) {
+            TypeNode node = batch.getKey();
+            applyMemoryPressure(node.depth);
+            if (node.depth >= bodyDepthLimit) {
+                continue;
+            }
+            expanded.add(batch);
+            if (isUnresolved(node) || bodiesTimedOut.contains(node.model)) {
+                continue;
+            }
+            for (UnitModel.MemberModel member : node.type.getMembers()) {
+                if (batch.getValue().contains(member.getKey()) && member.hasBody() && !member.isBodyResolved()) {
+                    unresolvedByModel.computeIfAbsent(node.model, key -> new HashSet<>()).add(member.getKey());
+                    units.putIfAbsent(node.model, node.unit);
+                }
+            }
+        }
+        if (!unresolvedByModel.isEmpty()) {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (Map.Entry<UnitModel, ICompilationUnit> unit : units.entrySet()) {
+                Set<String> unresolved = unresolvedByModel.get(unit.getKey());
+                tasks.add(metrics.countAllocations(() -> resolveBodies(unit.getValue(), unit.getKey(), unresolved)));
+            }
+            int parsed = 0;
+            try {
+                for (int count : AnalysisExecutors.invokeAll(AnalysisExecutors.getDefault().cpu(), tasks)) {
+                    parsed += count;
+                }
+            } catch (JavaModelException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new JavaModelException(e, IJavaModelStatusConstants.CORE_EXCEPTION);
+            }
+            metrics.increment(AnalysisMetrics.BODIES_PARSED, parsed);
+            if (!cacheReleased) {
+                cache.markDirty();
+            }
+        }
+
+        for (Map.Entry<TypeNode, Set<String>> batch : expanded) {
+            TypeNode node = batch.getKey();
+            for (UnitModel.MemberModel member : node.type.getMembers()) {
+                if (!batch.getValue().contains(member.getKey())) {
+                    continue;
+                }
+                for (String callee : member.getCallees()) {
+                    callGraph.addCall(member.getKey(), callee);
+                    markReached(callee);
+                }
+                for (String referenced : member.getBodyReferencedTypes()) {
+                    discover(referenced, node.depth + 1);
+                    addDependency(node, referenced);
+                }
+            }
+        }
+    }
+
+    /**
+     * 根据内存压力等级收紧限制：先让当前深度之后的类型只输出签名，再在当前深度截断遍历
+     */
+    private void applyMemoryPressure(int currentDepth) {
+        if (memoryMonitor == null) {
+            return;
+        }
+        if (memoryMonitor.isAtLeast(MemoryPressureMonitor.Level.SIGNATURES_ONLY) && bodyDepthLimit > Math.max(1, currentDepth)) {
+            bodyDepthLimit = Math.max(1, currentDepth);
+            memoryMonitor.addNote("内存压力：深度 >= " + bodyDepthLimit + " 的类型只输出方法签名");
+            log.accept("内存压力，深度 >= " + bodyDepthLimit + " 的类型改为只输出签名");
+        }
+        if (memoryMonitor.isAtLeast(MemoryPressureMonitor.Level.CUT_OFF) && depthLimit > currentDepth) {
+            depthLimit = currentDepth;
+            memoryMonitor.addNote("内存压力：遍历在深度 " + depthLimit + " 处截断，更深的依赖未输出");
+            log.accept("内存压力，遍历在深度 " + depthLimit + " 处截断");
+        }
+    }
+
+    private static String ownerOf(String methodKey) {
+        int hash = methodKey.indexOf('#');
+        return hash >= 0 ? methodKey.substring(0, hash) : methodKey;
+    }
+
+    /**
+     * 总是保留的成员：成员外代码、例外方法，以及成员类型的方法
+     * 成员类型的方法常被框架或 JDK 回调，源码中找不到调用方，与成员外代码一样整体保留
+     */
+    private boolean isRoot(TypeNode node, UnitModel.MemberModel member) {
+        return member.getStart() < 0 || methodExceptions.contains(member.getName())
+                || !ownerOf(member.getKey()).equals(node.name);
+    }
+
+    /**
+     * 可达性根：主类的全部方法，以及所有输出类型的成员外代码、例外方法和成员类型的方法
+     */
+    private List<String> collectRoots() {
+        List<String> roots = new ArrayList<>();
+        for (TypeNode node : nodes.values()) {
+            for (UnitModel.MemberModel member : node.type.getMembers()) {
+                if (node.depth == 0 || isRoot(node, member)) {
+                    roots.add(member.getKey());
+                }
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * 按深度写出 [writtenLevels, level) 层，每层写完落盘一次
+     */
+    private void writeLevelsBelow(int level) throws JavaModelException, IOException {
+        int deepest = -1;
+        for (TypeNode node : nodes.values()) {
+            deepest = Math.max(deepest, node.depth);
+        }
+        int last = Math.min(level - 1, deepest);
+        for (int depth = writtenLevels; depth <= last; depth++) {
+            for (Map.Entry<String, TypeNode> entry : nodes.entrySet()) {
+                if (entry.getValue().depth == depth) {
+                    checkRenderBudget();
+                    writeSection(entry.getKey(), entry.getValue());
+                }
+            }
+            output.flushSection();
+        }
+        writtenLevels = Math.max(writtenLevels, last + 1);
+    }
+
+    private void writeSection(String qualifiedName, TypeNode node) throws JavaModelException, IOException {
+        String code = renderCode(node);
+        output.write(MarkdownResultRenderer.section(qualifiedName, node.depth, code));
+        if (resultBuilder != null) {
+            resultBuilder.addType(qualifiedName, node.depth, code, node.dependencies);
+        }
+    }
+
+    private String renderSection(String qualifiedName, TypeNode node) throws JavaModelException {
+        return MarkdownResultRenderer.section(qualifiedName, node.depth, renderCode(node));
+    }
+
+    @SuppressWarnings("try")
+    private String renderCode(TypeNode node) throws JavaModelException {
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.RENDER)) {
+            return renderType(node, reachable);
+        }
+    }
+
+    private String header() {
+        if (rootTypes != null) {
+            return MarkdownResultRenderer.changesHeader(baseRevision, rootTypes);
+        }
+        return MarkdownResultRenderer.header(config.getMainClass());
+    }
+
+    /**
+     * 保存结果模型并渲染为其他格式，文件与主输出同名、扩展名不同；各文件互不依赖，在 I/O 线程池中并行写出
+     */
+    @SuppressWarnings("try")
+    private void writeResult(AnalysisResult result) throws IOException {
+        File outputFile = new File(config.getOutputFile()).getAbsoluteFile();
+        String name = outputFile.getName();
+        String baseName = name.lastIndexOf('.') > 0 ? name.substring(0, name.lastIndexOf('.')) : name;
+        File directory = outputFile.getParentFile();
+        try (AnalysisMetrics.Phase phase = metrics.phase(AnalysisMetrics.WRITE)) {
+            File binary = new File(directory, baseName + ResultCodec.FILE_SUFFIX);
+            List<Callable<File>> tasks = new ArrayList<>();
+            tasks.add(metrics.countAllocations(() -> {
+                ResultCodec.write(result, binary);
+                return binary;
+            }));
+            for (ResultRenderer renderer : extraRenderers) {
+                tasks.add(metrics.countAllocations(() -> ResultRenderers.render(result, renderer, directory, baseName)));
+            }
+            List<String> written = new ArrayList<>();
+            for (File file : invokeAll(AnalysisExecutors.getDefault().io(), tasks)) {
+                if (file != binary) {
+                    written.add(file.getName());
+                }
+            }
+            log.accept("结果模型已保存到 " + binary.getName() + "，并输出: " + String.join(", ", written));
+        }
+    }
+
+    private static <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks) throws IOException {
+        try {
+            return AnalysisExecutors.invokeAll(executor, tasks);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * 内存压力提示、时间预算的降级和 token 预算的裁剪汇总在运行过程中产生，放在输出末尾
+     */
+    private void writeNotes() throws IOException {
+        List<String> notes = new ArrayList<>();
+        if (memoryMonitor != null) {
+            notes.addAll(memoryMonitor.getNotes());
+        }
+        notes.addAll(budgetNotes);
+        if (!degradedFiles.isEmpty()) {
+            List<String> files = new ArrayList<>();
+            synchronized (degradedFiles) {
+                for (Map.Entry<String, String> file : degradedFiles.entrySet()) {
+                    files.add(file.getKey() + " (" + file.getValue() + ")");
+                }
+            }
+            notes.add("超出单文件时间预算 " + config.getFileTimeBudgetMillis() + " ms 而降级: " + String.join("; ", files));
+        }
+        if (!skippedFiles.isEmpty()) {
+            notes.add("超出单文件时间预算 " + config.getFileTimeBudgetMillis() + " ms 而未输出: " + String.join(", ", skippedFiles));
+        }
+        if (!pruned.isEmpty()) {
+            notes.add("按 token 预算 " + config.getTokenBudget() + " 裁剪 (预计 " + metrics.get(AnalysisMetrics.ESTIMATED_TOKENS)
+                    + " tokens)，未输出: " + String.join("; ", pruned));
+        }
+        if (notes.isEmpty()) {
+            return;
+        }
+        for (String note : notes) {
+            output.write(MarkdownResultRenderer.note(note));
+            if (resultBuilder != null) {
+                resultBuilder.addNote(note);
+            }
+        }
+        output.write("\n");
+    }
+
+    /**
+     * 按 token 预算从价值最低的内容开始裁剪，每一步都按实际渲染结果重新估算：
+     * 先由深到浅丢弃层级 (保留主类和直接依赖)，再省略访问器，再由深到浅改为只输出签名，最后丢弃直接依赖
+     */
+    private void applyTokenBudget(long budget) throws JavaModelException {
+        long total = estimateTotal();
+        int deepest = 0;
+        for (TypeNode node : nodes.values()) {
+            deepest = Math.max(deepest, node.depth);
+        }
+        budgetDepth = deepest + 1;
+        while (total > budget && budgetDepth > 2) {
+            budgetDepth--;
+            total = estimateTotal();
+        }
+        if (budgetDepth <= deepest) {
+            pruned.add("深度 >= " + budgetDepth + " 的 " + countFrom(budgetDepth) + " 个类型");
+        }
+        if (total > budget) {
+            pruneAccessors = true;
+            long reduced = estimateTotal();
+            if (reduced < total) {
+                pruned.add("访问器");
+            }
+            total = reduced;
+        }
+        budgetBodyDepth = Math.min(bodyDepthLimit, budgetDepth);
+        int bodiesFrom = budgetBodyDepth;
+        while (total > budget && budgetBodyDepth > 0) {
+            budgetBodyDepth--;
+            total = estimateTotal();
+        }
+        if (budgetBodyDepth < bodiesFrom) {
+            pruned.add("深度 >= " + budgetBodyDepth + " 的方法体");
+        }
+        if (total > budget && budgetDepth > 1) {
+            budgetDepth = 1;
+            total = estimateTotal();
+            pruned.add("全部依赖类型，只保留主类");
+        }
+        metrics.set(AnalysisMetrics.ESTIMATED_TOKENS, total);
+        if (!pruned.isEmpty()) {
+            String note = "按 token 预算裁剪，未输出: " + String.join("; ", pruned);
+            metrics.addNote(note);
+            log.accept(note);
+        }
+        if (total > budget) {
+            metrics.addNote("裁剪后仍超出 token 预算 (预计 " + total + ")，末尾内容将被截断");
+        }
+    }
+
+    /**
+     * 当前裁剪设置下的预计 token 数；每个类型在每种渲染方式下只渲染一次
+     */
+    private long estimateTotal() throws JavaModelException {
+        long total = TokenEstimator.estimate(header());
+        for (Map.Entry<String, TypeNode> entry : nodes.entrySet()) {
+            TypeNode node = entry.getValue();
+            if (node.depth >= budgetDepth) {
+                continue;
+            }
+            int variant = (pruneAccessors ? 2 : 0) + (withBodies(node) ? 1 : 0);
+            if (node.estimatedTokens[variant] < 0) {
+                node.estimatedTokens[variant] = TokenEstimator.estimate(renderSection(entry.getKey(), node));
+            }
+            total += node.estimatedTokens[variant];
+        }
+        return total;
+    }
+
+    /**
+     * 超出整次时间预算后，尚未写出的类型改为只输出签名
+     */
+    private void checkRenderBudget() {
+        if (!signaturesOnly && timeBudget.isRunExpired()) {
+            signaturesOnly = true;
+            String note = "超出整次时间预算 " + config.getRunTimeBudgetSeconds() + " s，之后写出的类型只输出方法签名";
+            budgetNotes.add(note);
+            metrics.addNote(note);
+            log.accept(note);
+        }
+    }
+
+    private int countFrom(int depth) {
+        int count = 0;
+        for (TypeNode node : nodes.values()) {
+            if (node.depth >= depth) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean withBodies(TypeNode node) {
+        return !signaturesOnly && node.depth < Math.min(bodyDepthLimit, budgetBodyDepth);
+    }
+
+    private String renderType(TypeNode node, Set<String> reachable) throws JavaModelException {
+        String source = sources.getSource(node.unit);
+        StringBuilder out = new StringBuilder();
+        if (!node.model.getPackageDeclaration().isEmpty()) {
+            out.append(node.model.getPackageDeclaration()).append("\n\n");
+        }
+        boolean anyImport = false;
+        for (String importLine : node.model.getImports()) {
+            if (keepImport(importLine)) {
+                out.append(importLine).append('\n');
+                anyImport = true;
+            }
+        }
+        if (anyImport) {
+            out.append('\n');
+        }
+
+        int typeStart = node.type.getStart();
+        String typeSource = source.substring(typeStart, typeStart + node.type.getLength());
+        List<UnitModel.MemberModel> members = new ArrayList<>(node.type.getMembers());
+        Collections.sort(members, Comparator.comparingInt(UnitModel.MemberModel::getStart));
+
+        boolean withBodies = withBodies(node);
+        List<String> removed = new ArrayList<>();
+        List<String> omittedAccessors = new ArrayList<>();
+        StringBuilder body = new StringBuilder();
+        int cursor = 0;
+        for (UnitModel.MemberModel member : members) {
+            if (member.getStart() < 0) {
+                continue;
+            }
+            int start = member.getStart() - typeStart;
+            int end = start + member.getLength();
+            boolean exception = methodExceptions.contains(member.getName());
+            if (!exception && member.isAccessor() && (pruneAccessors || config.isOmitBeanMethods() && node.depth > 0)) {
+                omittedAccessors.add(member.getName());
+                cursor = cut(typeSource, body, cursor, start, end);
+            } else if (!exception && reachable != null && node.depth > 0 && !isUnresolved(node)
+                    && !reachable.contains(member.getKey())) {
+                removed.add(member.getName());
+                cursor = cut(typeSource, body, cursor, start, end);
+            } else if (!withBodies && member.hasBody()) {
+                int bodyStart = member.getBodyStart() - typeStart;
+                body.append(typeSource, cursor, bodyStart).append("{ /* ... */ }");
+                cursor = bodyStart + member.getBodyLength();
+            }
+        }
+        body.append(typeSource, cursor, typeSource.length());
+
+        int closing = body.lastIndexOf("}");
+        if (closing >= 0) {
+            StringBuilder notes = new StringBuilder();
+            if (config.isShowOmittedAccessors() && !omittedAccessors.isEmpty()) {
+                notes.append("    // 省略的访问器: ").append(String.join(", ", omittedAccessors)).append('\n');
+            }
+            if (config.isShowRemovedMethods() && !removed.isEmpty()) {
+                notes.append("    // 未被引用而移除的方法: ").append(String.join(", ", removed)).append('\n');
+            }
+            body.insert(closing, notes);
+        }
+        return out.append(body).toString();
+    }
+
+    /**
+     * 复制 cursor 到 start 之间的内容并跳过 [start, end)，连同成员所在行的缩进和换行一起移除
+     */
+    private int cut(String source, StringBuilder out, int cursor, int start, int end) {
+        int lineStart = start;
+        while (lineStart > cursor && (source.charAt(lineStart - 1) == ' ' || source.charAt(lineStart - 1) == '\t')) {
+            lineStart--;
+        }
+        int lineEnd = end;
+        while (lineEnd < source.length() && (source.charAt(lineEnd) == ' ' || source.charAt(lineEnd) == '\t')) {
+            lineEnd++;
+        }
+        if (lineEnd < source.length() && source.charAt(lineEnd) == '\r') {
+            lineEnd++;
+        }
+        if (lineEnd < source.length() && source.charAt(lineEnd) == '\n') {
+            lineEnd++;
+        }
+        out.append(source, cursor, lineStart);
+        return lineEnd;
+    }
+
+    private boolean keepImport(String importLine) {
+        if (!config.isImportSkipEnabled()) {
+            return true;
+        }
+        String name = importLine.replaceFirst("^import\\s+(static\\s+)?", "");
+        if (importKeepPrefixes.matches(name)) {
+            return true;
+        }
+        return importSkipPrefixes.isEmpty() || !importSkipPrefixes.matches(name);
+    }
+
+    private static class TypeNode {
+        final String name;
+        final ICompilationUnit unit;
+        final UnitModel model;
+        final UnitModel.TypeModel type;
+        final int depth;
+        final int order;
+        // 四种渲染方式 (是否省略访问器 x 是否输出方法体) 下的预计 token 数，-1 表示尚未估算
+        final long[] estimatedTokens = { -1, -1, -1, -1 };
+
+        // 遍历范围内直接依赖的类型，按发现顺序
+        final Set<String> dependencies = new LinkedHashSet<>();
+
+        TypeNode(String name, ICompilationUnit unit, UnitModel model, UnitModel.TypeModel type, int depth, int order) {
+            this.name = name;
+            this.unit = unit;
+            this.model = model;
+            this.type = type;
+            this.depth = depth;
+            this.order = order;
+        }
+    }
+}
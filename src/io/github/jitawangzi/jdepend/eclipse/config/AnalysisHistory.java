@@ -0,0 +1,119 @@
+package io.github.jitawangzi.jdepend.eclipse.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.eclipse.jface.dialogs.IDialogSettings;
+
+import io.github.jitawangzi.jdepend.eclipse.Activator;
+import io.github.jitawangzi.jdepend.eclipse.utils.ConfigMapper;
+
+/**
+ * 分析历史，保存在插件的 IDialogSettings 中，随工作台关闭写回
+ * 包括最近分析过的项目，以及每个项目在类模式和目录模式下最后一次使用的配置。
+ */
+public class AnalysisHistory {
+
+    public static final String MODE_CLASS = "class";
+    public static final String MODE_DIRECTORY = "directory";
+
+    private static final String SECTION = "analysisHistory";
+    private static final String RECENT_PROJECTS = "recentProjects";
+    private static final String LAST_MODE_PREFIX = "lastMode.";
+    private static final String LAST_RUN_PREFIX = "lastRun.";
+    private static final int MAX_RECENT_PROJECTS = 5;
+
+    /**
+     * 记录最近分析过的项目，最新的排在最前
+     */
+    public static synchronized void recordProject(String projectName) {
+        IDialogSettings section = getSection();
+        if (section == null) {
+            return;
+        }
+        List<String> projects = getRecentProjects();
+        projects.remove(projectName);
+        projects.add(0, projectName);
+        while (projects.size() > MAX_RECENT_PROJECTS) {
+            projects.remove(projects.size() - 1);
+        }
+        section.put(RECENT_PROJECTS, projects.toArray(new String[0]));
+    }
+
+    public static synchronized List<String> getRecentProjects() {
+        IDialogSettings section = getSection();
+        String[] projects = section != null ? section.getArray(RECENT_PROJECTS) : null;
+        return projects != null ? new ArrayList<>(Arrays.asList(projects)) : new ArrayList<>();
+    }
+
+    /**
+     * 最近一次分析的项目，没有记录时返回 null
+     */
+    public static synchronized String getLastProject() {
+        List<String> projects = getRecentProjects();
+        return projects.isEmpty() ? null : projects.get(0);
+    }
+
+    /**
+     * 保存项目在该模式下最后一次使用的配置，并记为该项目最近一次的模式
+     */
+    public static synchronized void saveLastRun(String projectName, boolean isClassMode, PluginConfig config) {
+        IDialogSettings section = getSection();
+        if (section == null) {
+            return;
+        }
+        String mode = isClassMode ? MODE_CLASS : MODE_DIRECTORY;
+        String runName = LAST_RUN_PREFIX + mode + "." + projectName;
+        IDialogSettings run = section.getSection(runName);
+        if (run == null) {
+            run = section.addNewSection(runName);
+        }
+        Properties props = ConfigMapper.mapToProperties(config, isClassMode);
+        for (String key : props.stringPropertyNames()) {
+            run.put(key, props.getProperty(key));
+        }
+        section.put(LAST_MODE_PREFIX + projectName, mode);
+        recordProject(projectName);
+    }
+
+    /**
+     * 项目在该模式下最后一次使用的配置，没有记录时返回 null
+     */
+    public static synchronized PluginConfig loadLastRun(String projectName, boolean isClassMode) {
+        IDialogSettings section = getSection();
+        IDialogSettings run = section != null
+                ? section.getSection(LAST_RUN_PREFIX + (isClassMode ? MODE_CLASS : MODE_DIRECTORY) + "." + projectName)
+                : null;
+        if (run == null) {
+            return null;
+        }
+        Properties props = new Properties();
+        for (String key : ConfigMapper.mapToProperties(new PluginConfig(), isClassMode).stringPropertyNames()) {
+            String value = run.get(key);
+            if (value != null) {
+                props.setProperty(key, value);
+            }
+        }
+        return ConfigMapper.fromProperties(props, isClassMode);
+    }
+
+    /**
+     * 项目最近一次分析使用的模式 ({@link #MODE_CLASS} 或 {@link #MODE_DIRECTORY})，没有记录时返回 null
+     */
+    public static synchronized String getLastMode(String projectName) {
+        IDialogSettings section = getSection();
+        return section != null ? section.get(LAST_MODE_PREFIX + projectName) : null;
+    }
+
+    static IDialogSettings getSection() {
+        Activator activator = Activator.getDefault();
+        if (activator == null) {
+            return null;
+        }
+        IDialogSettings settings = activator.getDialogSettings();
+        IDialogSettings section = settings.getSection(SECTION);
+        return section != null ? section : settings.addNewSection(SECTION);
+    }
+}
@@ -0,0 +1,463 @@
+package io.github.jitawangzi.jdepend.eclipse.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import io.github.jitawangzi.jdepend.eclipse.analysis.CommentMinifier;
+import io.github.jitawangzi.jdepend.eclipse.analysis.OutputSharder;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultRenderers;
+import io.github.jitawangzi.jdepend.eclipse.utils.PrefixMatcher;
+
+/**
+ * 一次分析使用的配置快照，由 {@link PluginConfig} 在开始分析时生成
+ * 生成时校验取值 (包括从属性恢复配置时无法解析的取值)，并预先拆分好前缀列表、方法例外和输出格式，内置引擎直接使用这些结构，不再逐次解析字符串。
+ * 外部分析器需要的属性也在此一并生成，输出的后处理 (精简、裁剪、分片)、输出路径与监视设置同样取自快照，
+ * 分析开始后修改配置不影响正在进行的分析。对象不可变，equals/hashCode 覆盖全部取值，可以用作缓存的键。
+ */
+public final class AnalysisSettings {
+
+    private final boolean classMode;
+    private final boolean workspaceEngine;
+    private final String mainClass;
+    private final String baseRevision;
+    private final String outputFile;
+    private final String projectRoot;
+    private final String directoryPath;
+    private final String directoryAllowedExtensions;
+
+    private final int maxDepth;
+    private final int methodBodyMaxDepth;
+    private final int tokenBudget;
+    private final int fileTimeBudgetMillis;
+    private final int runTimeBudgetSeconds;
+    private final int contentSizeThreshold;
+    private final int outputShardSize;
+    private final String outputShardUnit;
+
+    private final boolean keepOnlyReferencedMethods;
+    private final boolean showRemovedMethods;
+    private final boolean graphMetricsEnabled;
+    private final boolean resultModelEnabled;
+    private final boolean omitBeanMethods;
+    private final boolean showOmittedAccessors;
+    private final boolean importSkipEnabled;
+    private final boolean openOutputDirectory;
+    private final boolean watchEnabled;
+
+    // 目录模式输出的后处理
+    private final boolean simplifyMethods;
+    private final String commentMode;
+    private final boolean stripLicenseHeaders;
+    private final boolean normalizeWhitespace;
+    private final boolean deduplicateFiles;
+    private final int largeFileSummaryBytes;
+
+    private final List<String> projectPackagePrefixes;
+    private final List<String> excludedPackages;
+    private final List<String> importSkipPrefixes;
+    private final List<String> importKeepPrefixes;
+    private final Set<String> methodExceptions;
+    private final List<String> outputFormats;
+    private final Properties engineProperties;
+
+    // 由上面的列表预先构建
+    private final PrefixMatcher projectPrefixMatcher;
+    private final PrefixMatcher excludedPackageMatcher;
+    private final PrefixMatcher importSkipMatcher;
+    private final PrefixMatcher importKeepMatcher;
+
+    private final List<Object> key;
+
+    private AnalysisSettings(PluginConfig config, boolean classMode, Properties engineExtras) {
+        this.classMode = classMode;
+        this.workspaceEngine = classMode && config.isWorkspaceEngine();
+        this.mainClass = nullToEmpty(config.getMainClass()).trim();
+        this.baseRevision = nullToEmpty(config.getBaseRevision()).trim();
+        this.outputFile = config.getAbsoluteOutputFile();
+        this.engineProperties = buildEngineProperties(config, classMode);
+        if (engineExtras != null) {
+            engineProperties.putAll(engineExtras);
+        }
+        this.projectRoot = nullToEmpty(engineProperties.getProperty("project.root"));
+        this.directoryPath = classMode ? "" : nullToEmpty(config.getDirectoryPath()).trim();
+        this.directoryAllowedExtensions = classMode ? "" : nullToEmpty(config.getDirectoryAllowedExtensions());
+
+        this.maxDepth = config.getMaxDepth();
+        this.methodBodyMaxDepth = config.getMethodBodyMaxDepth();
+        this.tokenBudget = config.getTokenBudget();
+        this.fileTimeBudgetMillis = config.getFileTimeBudgetMillis();
+        this.runTimeBudgetSeconds = config.getRunTimeBudgetSeconds();
+        this.contentSizeThreshold = config.getContentSizeThreshold();
+        this.outputShardSize = config.getOutputShardSize();
+        this.outputShardUnit = OutputSharder.UNIT_TOKENS.equalsIgnoreCase(nullToEmpty(config.getOutputShardUnit()).trim())
+                ? OutputSharder.UNIT_TOKENS : nullToEmpty(config.getOutputShardUnit()).trim();
+
+        this.keepOnlyReferencedMethods = config.isKeepOnlyReferencedMethods();
+        this.showRemovedMethods = config.isShowRemovedMethods();
+        this.graphMetricsEnabled = config.isGraphMetricsEnabled();
+        this.resultModelEnabled = config.isResultModelEnabled();
+        this.omitBeanMethods = config.isOmitBeanMethods();
+        this.showOmittedAccessors = config.isShowOmittedAccessors();
+        this.importSkipEnabled = config.isImportSkipEnabled();
+        this.openOutputDirectory = config.isOpenOutputDirectory();
+        this.watchEnabled = config.isWatchEnabled();
+
+        // 类分析不做代码块后处理
+        this.simplifyMethods = !classMode && config.isSimplifyMethods();
+        this.commentMode = classMode || config.getCommentMode() == null ? CommentMinifier.COMMENTS_KEEP : config.getCommentMode();
+        this.stripLicenseHeaders = !classMode && config.isStripLicenseHeaders();
+        this.normalizeWhitespace = !classMode && config.isNormalizeWhitespace();
+        this.deduplicateFiles = !classMode && config.isDeduplicateFiles();
+        this.largeFileSummaryBytes = classMode ? 0 : config.getLargeFileSummaryBytes();
+
+        this.projectPackagePrefixes = Collections.unmodifiableList(PrefixMatcher.split(config.getProjectPackagePrefixes()));
+        this.excludedPackages = Collections.unmodifiableList(PrefixMatcher.split(config.getExcludedPackages()));
+        this.importSkipPrefixes = Collections.unmodifiableList(PrefixMatcher.split(config.getImportSkipPrefixes()));
+        this.importKeepPrefixes = Collections.unmodifiableList(PrefixMatcher.split(config.getImportKeepPrefixes()));
+        this.methodExceptions = Collections.unmodifiableSet(new LinkedHashSet<>(PrefixMatcher.split(config.getMethodExceptions())));
+        List<String> formats = new ArrayList<>();
+        for (String format : PrefixMatcher.split(config.getOutputFormats())) {
+            String normalized = format.toLowerCase(Locale.ROOT);
+            if (!formats.contains(normalized)) {
+                formats.add(normalized);
+            }
+        }
+        this.outputFormats = Collections.unmodifiableList(formats);
+
+        this.projectPrefixMatcher = new PrefixMatcher(projectPackagePrefixes);
+        this.excludedPackageMatcher = new PrefixMatcher(excludedPackages);
+        this.importSkipMatcher = new PrefixMatcher(importSkipPrefixes);
+        this.importKeepMatcher = new PrefixMatcher(importKeepPrefixes);
+
+        this.key = Arrays.asList(classMode, workspaceEngine, mainClass, baseRevision, outputFile, projectRoot, directoryPath,
+                directoryAllowedExtensions, maxDepth, methodBodyMaxDepth, tokenBudget, fileTimeBudgetMillis, runTimeBudgetSeconds,
+                contentSizeThreshold, outputShardSize, outputShardUnit, keepOnlyReferencedMethods, showRemovedMethods,
+                graphMetricsEnabled, resultModelEnabled, omitBeanMethods, showOmittedAccessors, importSkipEnabled,
+                openOutputDirectory, watchEnabled, simplifyMethods, commentMode, stripLicenseHeaders, normalizeWhitespace,
+                deduplicateFiles, largeFileSummaryBytes, projectPackagePrefixes, excludedPackages, importSkipPrefixes,
+                importKeepPrefixes, methodExceptions, outputFormats, engineProperties);
+    }
+
+    /**
+     * 校验并生成快照，之后对 config 的修改不影响快照
+     * @throws IllegalArgumentException 取值不合法，消息说明是哪一项
+     */
+    public static AnalysisSettings of(PluginConfig config, boolean classMode) {
+        return of(config, classMode, null);
+    }
+
+    /**
+     * @param engineExtras 取决于所选资源的外部分析器属性 (如目录模式的 project.root)，覆盖由配置生成的同名属性，可以为 null
+     */
+    public static AnalysisSettings of(PluginConfig config, boolean classMode, Properties engineExtras) {
+        AnalysisSettings settings = new AnalysisSettings(config, classMode, engineExtras);
+        settings.validate(config);
+        return settings;
+    }
+
+    private void validate(PluginConfig config) {
+        if (!config.getInvalidValues().isEmpty()) {
+            // 快照中的对应字段已是默认值，只能在这里按原始取值报告
+            Map.Entry<String, String> invalid = config.getInvalidValues().entrySet().iterator().next();
+            throw new IllegalArgumentException(invalid.getKey() + " 的取值无法解析: " + invalid.getValue());
+        }
+        if (nullToEmpty(config.getOutputFile()).trim().isEmpty()) {
+            throw new IllegalArgumentException("未设置输出文件");
+        }
+        if (classMode && mainClass.isEmpty() && baseRevision.isEmpty()) {
+            throw new IllegalArgumentException("类分析需要主类或 git 基准版本");
+        }
+        if (!classMode && directoryPath.isEmpty()) {
+            throw new IllegalArgumentException("未设置要分析的目录");
+        }
+        requireNonNegative("max.depth", maxDepth);
+        requireNonNegative("method.body.max.depth", methodBodyMaxDepth);
+        requireNonNegative("content.size.threshold", contentSizeThreshold);
+        requireNonNegative("directory.large.file.summary.bytes", largeFileSummaryBytes);
+        requireNonNegative("token.budget", tokenBudget);
+        requireNonNegative("file.time.budget.millis", fileTimeBudgetMillis);
+        requireNonNegative("run.time.budget.seconds", runTimeBudgetSeconds);
+        requireNonNegative("output.shard.size", outputShardSize);
+        if (!OutputSharder.UNIT_KB.equals(outputShardUnit) && !OutputSharder.UNIT_TOKENS.equals(outputShardUnit)) {
+            throw new IllegalArgumentException("output.shard.unit 只能是 " + OutputSharder.UNIT_KB + " 或 "
+                    + OutputSharder.UNIT_TOKENS + ": " + outputShardUnit);
+        }
+        if (!CommentMinifier.COMMENTS_KEEP.equals(commentMode) && !CommentMinifier.COMMENTS_FIRST_LINE.equals(commentMode)
+                && !CommentMinifier.COMMENTS_DROP.equals(commentMode)) {
+            throw new IllegalArgumentException("未知的注释处理方式: " + commentMode);
+        }
+        for (String format : outputFormats) {
+            if (ResultRenderers.get(format) == null) {
+                throw new IllegalArgumentException("未知的输出格式: " + format);
+            }
+        }
+    }
+
+    private static void requireNonNegative(String name, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " 不能为负数: " + value);
+        }
+    }
+
+    /**
+     * 外部分析器通过 AppConfigManager 读取的属性；目录模式的 project.root 取决于所选资源，由调用方补充
+     */
+    private static Properties buildEngineProperties(PluginConfig config, boolean classMode) {
+        Properties props = new Properties();
+        if (classMode) {
+            put(props, "main.class", config.getMainClass());
+            put(props, "project.root", config.getProjectRoot());
+            put(props, "project.package.prefixes", config.getProjectPackagePrefixes());
+            put(props, "method.body.max.depth", String.valueOf(config.getMethodBodyMaxDepth()));
+            put(props, "keep.only.referenced.methods", String.valueOf(config.isKeepOnlyReferencedMethods()));
+            put(props, "show.removed.methods", String.valueOf(config.isShowRemovedMethods()));
+            put(props, "source.directories", config.getSourceDirectories());
+            put(props, "directory.mode.enabled", "false");
+        } else {
+            put(props, "directory.mode.enabled", "true");
+            put(props, "directory.path", config.getDirectoryPath());
+            put(props, "simplify.methods", String.valueOf(config.isSimplifyMethods()));
+            put(props, "directory.include.files", config.getDirectoryIncludeFiles());
+            put(props, "directory.exclude.files", config.getDirectoryExcludeFiles());
+            put(props, "directory.include.folders", config.getDirectoryIncludeFolders());
+            put(props, "directory.exclude.folders", config.getDirectoryExcludeFolders());
+            put(props, "directory.allowed.extensions", config.getDirectoryAllowedExtensions());
+        }
+
+        // 通用配置
+        put(props, "output.file", config.getAbsoluteOutputFile());
+        put(props, "max.depth", String.valueOf(config.getMaxDepth()));
+        put(props, "excluded.packages", config.getExcludedPackages());
+        put(props, "method.exceptions", config.getMethodExceptions());
+        put(props, "content.size.threshold", String.valueOf(config.getContentSizeThreshold()));
+        put(props, "omit.bean.methods", String.valueOf(config.isOmitBeanMethods()));
+        put(props, "show.omitted.accessors", String.valueOf(config.isShowOmittedAccessors()));
+        put(props, "import.skip.enabled", String.valueOf(config.isImportSkipEnabled()));
+        put(props, "import.skip.prefixes", config.getImportSkipPrefixes());
+        put(props, "import.keep.prefixes", config.getImportKeepPrefixes());
+        put(props, "show.error.stacktrace", String.valueOf(config.isShowErrorStacktrace()));
+        return props;
+    }
+
+    private static void put(Properties props, String key, String value) {
+        if (value != null) {
+            props.setProperty(key, value);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * @return 外部分析器属性的副本，调用方可以继续补充
+     */
+    public Properties toEngineProperties() {
+        Properties props = new Properties();
+        props.putAll(engineProperties);
+        return props;
+    }
+
+    public boolean isClassMode() {
+        return classMode;
+    }
+
+    public boolean isWorkspaceEngine() {
+        return workspaceEngine;
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public String getBaseRevision() {
+        return baseRevision;
+    }
+
+    /**
+     * 输出文件的绝对路径
+     */
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * 外部分析器的 project.root，同时是类分析的工作目录；目录模式下未分析 Java 文件时为空
+     */
+    public String getProjectRoot() {
+        return projectRoot;
+    }
+
+    /**
+     * 目录分析的目录，类分析时为空
+     */
+    public String getDirectoryPath() {
+        return directoryPath;
+    }
+
+    /**
+     * 目录分析允许的扩展名，逗号分隔，原样保留配置中的写法
+     */
+    public String getDirectoryAllowedExtensions() {
+        return directoryAllowedExtensions;
+    }
+
+    /**
+     * 监视模式下标识本次分析对象的键
+     */
+    public String getWatchTarget() {
+        return classMode ? mainClass : directoryPath;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMethodBodyMaxDepth() {
+        return methodBodyMaxDepth;
+    }
+
+    public int getTokenBudget() {
+        return tokenBudget;
+    }
+
+    public int getFileTimeBudgetMillis() {
+        return fileTimeBudgetMillis;
+    }
+
+    public int getRunTimeBudgetSeconds() {
+        return runTimeBudgetSeconds;
+    }
+
+    public int getContentSizeThreshold() {
+        return contentSizeThreshold;
+    }
+
+    /**
+     * 每个分片的上限，0 表示不拆分
+     */
+    public int getOutputShardSize() {
+        return outputShardSize;
+    }
+
+    /**
+     * {@link OutputSharder#UNIT_KB} 或 {@link OutputSharder#UNIT_TOKENS}
+     */
+    public String getOutputShardUnit() {
+        return outputShardUnit;
+    }
+
+    public boolean isKeepOnlyReferencedMethods() {
+        return keepOnlyReferencedMethods;
+    }
+
+    public boolean isShowRemovedMethods() {
+        return showRemovedMethods;
+    }
+
+    public boolean isGraphMetricsEnabled() {
+        return graphMetricsEnabled;
+    }
+
+    public boolean isResultModelEnabled() {
+        return resultModelEnabled;
+    }
+
+    public boolean isOmitBeanMethods() {
+        return omitBeanMethods;
+    }
+
+    public boolean isShowOmittedAccessors() {
+        return showOmittedAccessors;
+    }
+
+    public boolean isImportSkipEnabled() {
+        return importSkipEnabled;
+    }
+
+    public boolean isOpenOutputDirectory() {
+        return openOutputDirectory;
+    }
+
+    public boolean isWatchEnabled() {
+        return watchEnabled;
+    }
+
+    public boolean isSimplifyMethods() {
+        return simplifyMethods;
+    }
+
+    public String getCommentMode() {
+        return commentMode;
+    }
+
+    public boolean isStripLicenseHeaders() {
+        return stripLicenseHeaders;
+    }
+
+    public boolean isNormalizeWhitespace() {
+        return normalizeWhitespace;
+    }
+
+    public boolean isDeduplicateFiles() {
+        return deduplicateFiles;
+    }
+
+    /**
+     * 超过该字节数的文件只保留开头与结尾，0 表示不截断
+     */
+    public int getLargeFileSummaryBytes() {
+        return largeFileSummaryBytes;
+    }
+
+    /**
+     * 项目包前缀，按配置顺序，同时作为从上层到下层的分层
+     */
+    public List<String> getProjectPackagePrefixes() {
+        return projectPackagePrefixes;
+    }
+
+    public PrefixMatcher getProjectPrefixMatcher() {
+        return projectPrefixMatcher;
+    }
+
+    public PrefixMatcher getExcludedPackageMatcher() {
+        return excludedPackageMatcher;
+    }
+
+    public PrefixMatcher getImportSkipMatcher() {
+        return importSkipMatcher;
+    }
+
+    public PrefixMatcher getImportKeepMatcher() {
+        return importKeepMatcher;
+    }
+
+    public Set<String> getMethodExceptions() {
+        return methodExceptions;
+    }
+
+    /**
+     * 额外的输出格式，小写、去重，均为已知格式
+     */
+    public List<String> getOutputFormats() {
+        return outputFormats;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || obj instanceof AnalysisSettings && key.equals(((AnalysisSettings) obj).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+}
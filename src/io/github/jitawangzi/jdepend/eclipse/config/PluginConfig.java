@@ -1,5 +1,9 @@
 package io.github.jitawangzi.jdepend.eclipse.config;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * 插件配置类
  */
@@ -11,6 +15,10 @@ public class PluginConfig {
     private String excludedPackages = "";
     private String methodExceptions = "";
     private int contentSizeThreshold = 1000000;
+    private int outputShardSize = 0; // 每个分片的上限，0 表示不拆分
+    private String outputShardUnit = "KB"; // KB 或 tokens
+    private int tokenBudget = 0; // 输出的 token 上限，0 表示不限制
+    private String outputFormats = ""; // Markdown 之外的输出格式，逗号分隔：json,dot,graphml
     private boolean omitBeanMethods = false;
     private boolean showOmittedAccessors = false;
     private boolean importSkipEnabled = false;
@@ -19,6 +27,7 @@ public class PluginConfig {
     private boolean showErrorStacktrace = false;
     private boolean isJavaAnalysis = true;
     private boolean openOutputDirectory = true; // 默认为 true
+    private boolean watchEnabled = false; // 保存文件后自动重新分析
     
     // 类分析配置
     private String mainClass = "";
@@ -28,16 +37,30 @@ public class PluginConfig {
     private boolean keepOnlyReferencedMethods = true;
     private boolean showRemovedMethods = false;
     private String sourceDirectories = "src";
+    private boolean workspaceEngine = false; // 使用内置 JDT 模型分析，而非外部分析器
+    private boolean graphMetricsEnabled = false; // 输出依赖环、扇入扇出与分层违规 (内置引擎)
+    private boolean resultModelEnabled = true; // 在输出旁保存结果模型 *.result.bin (内置引擎)
+    private String baseRevision = ""; // 变更分析的 git 基准版本，为空时按主类分析
+    private int fileTimeBudgetMillis = 10000; // 单个文件解析的时间上限 (内置引擎)，0 表示不限制
+    private int runTimeBudgetSeconds = 0; // 整次分析的时间上限 (内置引擎)，0 表示不限制
     
     // 目录分析配置
     private String directoryPath = "";
     private boolean simplifyMethods = false;
+    private String commentMode = "keep"; // 代码块中的注释：keep、firstLine 或 drop
+    private boolean stripLicenseHeaders = false; // 删除文件开头的许可证注释
+    private boolean normalizeWhitespace = false; // 去掉行尾空白并合并连续空行
+    private boolean deduplicateFiles = false; // 内容相同的文件只输出一次，其余列为引用
+    private int largeFileSummaryBytes = 0; // 超过该字节数的文件只保留开头与结尾，0 表示不截断
     private String directoryIncludeFiles = "";
     private String directoryExcludeFiles = "";
     private String directoryIncludeFolders = "";
     private String directoryExcludeFolders = "";
     private String directoryAllowedExtensions = "java,js,ts,py,cpp,c,h,hpp,cs,php,rb,go,rs,kt,scala,groovy";
     
+    // 从属性恢复时无法解析的取值 (键 -> 原始值)，对应的字段保持默认值
+    private final Map<String, String> invalidValues = new LinkedHashMap<>();
+    
     // 默认构造函数
     public PluginConfig() {
     }
@@ -113,6 +136,38 @@ public class PluginConfig {
         this.contentSizeThreshold = contentSizeThreshold;
     }
     
+    public int getOutputShardSize() {
+        return outputShardSize;
+    }
+    
+    public void setOutputShardSize(int outputShardSize) {
+        this.outputShardSize = outputShardSize;
+    }
+    
+    public String getOutputShardUnit() {
+        return outputShardUnit;
+    }
+    
+    public void setOutputShardUnit(String outputShardUnit) {
+        this.outputShardUnit = outputShardUnit;
+    }
+    
+    public int getTokenBudget() {
+        return tokenBudget;
+    }
+    
+    public void setTokenBudget(int tokenBudget) {
+        this.tokenBudget = tokenBudget;
+    }
+    
+    public String getOutputFormats() {
+        return outputFormats;
+    }
+    
+    public void setOutputFormats(String outputFormats) {
+        this.outputFormats = outputFormats;
+    }
+    
     public boolean isOmitBeanMethods() {
         return omitBeanMethods;
     }
@@ -217,6 +272,54 @@ public class PluginConfig {
         this.sourceDirectories = sourceDirectories;
     }
     
+    public boolean isWorkspaceEngine() {
+        return workspaceEngine;
+    }
+    
+    public void setWorkspaceEngine(boolean workspaceEngine) {
+        this.workspaceEngine = workspaceEngine;
+    }
+    
+    public boolean isGraphMetricsEnabled() {
+        return graphMetricsEnabled;
+    }
+    
+    public void setGraphMetricsEnabled(boolean graphMetricsEnabled) {
+        this.graphMetricsEnabled = graphMetricsEnabled;
+    }
+    
+    public boolean isResultModelEnabled() {
+        return resultModelEnabled;
+    }
+    
+    public void setResultModelEnabled(boolean resultModelEnabled) {
+        this.resultModelEnabled = resultModelEnabled;
+    }
+    
+    public String getBaseRevision() {
+        return baseRevision;
+    }
+    
+    public void setBaseRevision(String baseRevision) {
+        this.baseRevision = baseRevision;
+    }
+    
+    public int getFileTimeBudgetMillis() {
+        return fileTimeBudgetMillis;
+    }
+    
+    public void setFileTimeBudgetMillis(int fileTimeBudgetMillis) {
+        this.fileTimeBudgetMillis = fileTimeBudgetMillis;
+    }
+    
+    public int getRunTimeBudgetSeconds() {
+        return runTimeBudgetSeconds;
+    }
+    
+    public void setRunTimeBudgetSeconds(int runTimeBudgetSeconds) {
+        this.runTimeBudgetSeconds = runTimeBudgetSeconds;
+    }
+    
     public String getDirectoryPath() {
         return directoryPath;
     }
@@ -233,6 +336,46 @@ public class PluginConfig {
         this.simplifyMethods = simplifyMethods;
     }
     
+    public String getCommentMode() {
+        return commentMode;
+    }
+    
+    public void setCommentMode(String commentMode) {
+        this.commentMode = commentMode;
+    }
+    
+    public boolean isStripLicenseHeaders() {
+        return stripLicenseHeaders;
+    }
+    
+    public void setStripLicenseHeaders(boolean stripLicenseHeaders) {
+        this.stripLicenseHeaders = stripLicenseHeaders;
+    }
+    
+    public boolean isNormalizeWhitespace() {
+        return normalizeWhitespace;
+    }
+    
+    public void setNormalizeWhitespace(boolean normalizeWhitespace) {
+        this.normalizeWhitespace = normalizeWhitespace;
+    }
+    
+    public boolean isDeduplicateFiles() {
+        return deduplicateFiles;
+    }
+    
+    public void setDeduplicateFiles(boolean deduplicateFiles) {
+        this.deduplicateFiles = deduplicateFiles;
+    }
+    
+    public int getLargeFileSummaryBytes() {
+        return largeFileSummaryBytes;
+    }
+    
+    public void setLargeFileSummaryBytes(int largeFileSummaryBytes) {
+        this.largeFileSummaryBytes = largeFileSummaryBytes;
+    }
+    
     public String getDirectoryIncludeFiles() {
         return directoryIncludeFiles;
     }
@@ -287,6 +430,25 @@ public class PluginConfig {
 	public void setOpenOutputDirectory(boolean openOutputDirectory) {
 	    this.openOutputDirectory = openOutputDirectory;
 	}
+
+    public boolean isWatchEnabled() {
+        return watchEnabled;
+    }
+
+    public void setWatchEnabled(boolean watchEnabled) {
+        this.watchEnabled = watchEnabled;
+    }
+
+    /**
+     * 从属性恢复配置时无法解析的取值，键为属性名，值为原始取值
+     */
+    public Map<String, String> getInvalidValues() {
+        return Collections.unmodifiableMap(invalidValues);
+    }
+
+    public void addInvalidValue(String key, String value) {
+        invalidValues.put(key, value);
+    }
     
 }
 
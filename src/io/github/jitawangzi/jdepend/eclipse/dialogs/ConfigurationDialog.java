@@ -1,36 +1,61 @@
 package io.github.jitawangzi.jdepend.eclipse.dialogs;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.*;
+import io.github.jitawangzi.jdepend.eclipse.analysis.CommentMinifier;
+import io.github.jitawangzi.jdepend.eclipse.analysis.OutputSharder;
 import io.github.jitawangzi.jdepend.eclipse.config.PluginConfig;
+import io.github.jitawangzi.jdepend.eclipse.result.MarkdownResultRenderer;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultRenderer;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultRenderers;
+import io.github.jitawangzi.jdepend.eclipse.utils.GitChangeScanner;
 
 /**
  * 配置对话框
  */
 public class ConfigurationDialog extends Dialog {
     
+    private static final String[] COMMENT_MODES = { CommentMinifier.COMMENTS_KEEP, CommentMinifier.COMMENTS_FIRST_LINE,
+            CommentMinifier.COMMENTS_DROP };
+    private static final String[] COMMENT_MODE_LABELS = { "Keep", "First Line Only", "Drop" };
+    
     private PluginConfig config;
     private boolean isClassMode;
     private String presetValue;
     
     // 控件
     private Text mainClassText;
+    private Text baseRevisionText;
     private Text projectRootText;
     private Text projectPackagePrefixesText;
     private Text methodBodyMaxDepthText;
     private Button keepOnlyReferencedMethodsCheck;
     private Button showRemovedMethodsCheck;
     private Text sourceDirectoriesText;
+    private Button workspaceEngineCheck;
+    private Button graphMetricsCheck;
+    private Button resultModelCheck;
+    private Text fileTimeBudgetText;
+    private Text runTimeBudgetText;
     
     private Text outputFileText;
     private Text maxDepthText;
     private Text excludedPackagesText;
     private Text methodExceptionsText;
     private Text contentSizeThresholdText;
+    private Text outputShardSizeText;
+    private Combo outputShardUnitCombo;
+    private Text tokenBudgetText;
+    private List<Button> outputFormatChecks = new ArrayList<>();
     private Button omitBeanMethodsCheck;
     private Button showOmittedAccessorsCheck;
     private Button importSkipEnabledCheck;
@@ -40,15 +65,21 @@ public class ConfigurationDialog extends Dialog {
     
     private Text directoryPathText;
     private Button simplifyMethodsCheck;
+    private Combo commentModeCombo;
+    private Button stripLicenseHeadersCheck;
+    private Button normalizeWhitespaceCheck;
     private Text directoryIncludeFilesText;
     private Text directoryExcludeFilesText;
     private Text directoryIncludeFoldersText;
     private Text directoryExcludeFoldersText;
     private Text directoryAllowedExtensionsText;
+    private Button deduplicateFilesCheck;
+    private Text largeFileSummaryBytesText;
     
     // 新添加：Checkbox 用于选择是否作为 Java 工程分析
     private Button isJavaProjectCheck;
     private Button openOutputDirectoryCheck;
+    private Button watchEnabledCheck;
     
     public ConfigurationDialog(Shell parentShell, PluginConfig config, boolean isClassMode, String presetValue) {
         super(parentShell);
@@ -108,11 +139,19 @@ public class ConfigurationDialog extends Dialog {
         classComposite.setLayout(new GridLayout(2, false));
         classTab.setControl(classComposite);
         
-        // 主类
-        new Label(classComposite, SWT.NONE).setText("Main Class:");
-        mainClassText = new Text(classComposite, SWT.BORDER);
-        mainClassText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
-        mainClassText.setText(config.getMainClass());
+        // 主类；变更分析时改为基准版本
+        if (config.getBaseRevision().isEmpty()) {
+            new Label(classComposite, SWT.NONE).setText("Main Class:");
+            mainClassText = new Text(classComposite, SWT.BORDER);
+            mainClassText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+            mainClassText.setText(config.getMainClass());
+        } else {
+            new Label(classComposite, SWT.NONE).setText("Base Revision:");
+            baseRevisionText = new Text(classComposite, SWT.BORDER);
+            baseRevisionText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+            baseRevisionText.setText(config.getBaseRevision());
+            baseRevisionText.setToolTipText("Analyze the classes changed since this git revision (branch, tag or commit), e.g. HEAD, main or HEAD~3.");
+        }
         
         // 项目根目录
         new Label(classComposite, SWT.NONE).setText("Project Root:");
@@ -147,6 +186,42 @@ public class ConfigurationDialog extends Dialog {
         sourceDirectoriesText = new Text(classComposite, SWT.BORDER);
         sourceDirectoriesText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
         sourceDirectoriesText.setText(config.getSourceDirectories());
+        
+        // 内置引擎
+        new Label(classComposite, SWT.NONE).setText("Use Built-in Engine (JDT Model):");
+        workspaceEngineCheck = new Button(classComposite, SWT.CHECK);
+        workspaceEngineCheck.setSelection(config.isWorkspaceEngine());
+        workspaceEngineCheck.setToolTipText("Analyze inside the IDE using the JDT model with cached method reachability, instead of the external analyzer.");
+        if (baseRevisionText != null) {
+            // 外部分析器只支持单个主类
+            workspaceEngineCheck.setSelection(true);
+            workspaceEngineCheck.setEnabled(false);
+        }
+        
+        // 依赖图指标
+        new Label(classComposite, SWT.NONE).setText("Report Graph Metrics:");
+        graphMetricsCheck = new Button(classComposite, SWT.CHECK);
+        graphMetricsCheck.setSelection(config.isGraphMetricsEnabled());
+        graphMetricsCheck.setToolTipText("Append dependency cycles, fan-in/fan-out and layering violations (Package Prefixes in order, top layer first) to the output. Built-in engine only.");
+        
+        // 结果模型
+        new Label(classComposite, SWT.NONE).setText("Save Result Model:");
+        resultModelCheck = new Button(classComposite, SWT.CHECK);
+        resultModelCheck.setSelection(config.isResultModelEnabled());
+        resultModelCheck.setToolTipText("Save the analysis result next to the output (*.result.bin) for the Dependency Tree view and for rendering other formats later. Built-in engine only.");
+        
+        // 时间预算
+        new Label(classComposite, SWT.NONE).setText("Per-File Time Budget (ms):");
+        fileTimeBudgetText = new Text(classComposite, SWT.BORDER);
+        fileTimeBudgetText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        fileTimeBudgetText.setText(String.valueOf(config.getFileTimeBudgetMillis()));
+        fileTimeBudgetText.setToolTipText("A file whose parsing takes longer falls back to an unresolved parse (no dependencies followed) or keeps its method bodies unexpanded. 0 means unlimited. Built-in engine only.");
+        
+        new Label(classComposite, SWT.NONE).setText("Run Time Budget (s):");
+        runTimeBudgetText = new Text(classComposite, SWT.BORDER);
+        runTimeBudgetText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        runTimeBudgetText.setText(String.valueOf(config.getRunTimeBudgetSeconds()));
+        runTimeBudgetText.setToolTipText("Stop discovering dependencies after this long and write what was found so far, remaining sections as signatures only. 0 means unlimited. Built-in engine only.");
     }
     
     private void createCommonTab(TabFolder tabFolder) {
@@ -161,6 +236,22 @@ public class ConfigurationDialog extends Dialog {
         new Label(commonComposite, SWT.NONE).setText("Simplify Methods:");
         simplifyMethodsCheck = new Button(commonComposite, SWT.CHECK);
         simplifyMethodsCheck.setSelection(config.isSimplifyMethods());
+        simplifyMethodsCheck.setToolTipText("Collapse method bodies to signatures. In directory mode this also applies to JS/TS, C/C++/C#, Go, Rust, Kotlin, Scala, Groovy, PHP and Python files.");
+        
+        // 注释与空白精简 (目录模式)
+        new Label(commonComposite, SWT.NONE).setText("Comments:");
+        commentModeCombo = new Combo(commonComposite, SWT.READ_ONLY);
+        commentModeCombo.setItems(COMMENT_MODE_LABELS);
+        commentModeCombo.select(Math.max(0, Arrays.asList(COMMENT_MODES).indexOf(config.getCommentMode())));
+        commentModeCombo.setToolTipText("Directory mode: keep comments, keep only the first line of each comment, or drop them.");
+        new Label(commonComposite, SWT.NONE).setText("Strip License Headers:");
+        stripLicenseHeadersCheck = new Button(commonComposite, SWT.CHECK);
+        stripLicenseHeadersCheck.setSelection(config.isStripLicenseHeaders());
+        stripLicenseHeadersCheck.setToolTipText("Directory mode: drop the first comment of a file when it mentions a copyright or license.");
+        new Label(commonComposite, SWT.NONE).setText("Normalize Whitespace:");
+        normalizeWhitespaceCheck = new Button(commonComposite, SWT.CHECK);
+        normalizeWhitespaceCheck.setSelection(config.isNormalizeWhitespace());
+        normalizeWhitespaceCheck.setToolTipText("Directory mode: trim trailing whitespace and collapse runs of blank lines in code blocks.");
         // 输出文件
         new Label(commonComposite, SWT.NONE).setText("Output File:");
         outputFileText = new Text(commonComposite, SWT.BORDER);
@@ -191,6 +282,32 @@ public class ConfigurationDialog extends Dialog {
         contentSizeThresholdText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
         contentSizeThresholdText.setText(String.valueOf(config.getContentSizeThreshold()));
         
+        // 分片输出
+        new Label(commonComposite, SWT.NONE).setText("Split Output Into Parts Of:");
+        Composite shardComposite = new Composite(commonComposite, SWT.NONE);
+        GridLayout shardLayout = new GridLayout(2, false);
+        shardLayout.marginWidth = 0;
+        shardLayout.marginHeight = 0;
+        shardComposite.setLayout(shardLayout);
+        shardComposite.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        outputShardSizeText = new Text(shardComposite, SWT.BORDER);
+        outputShardSizeText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        outputShardSizeText.setText(String.valueOf(config.getOutputShardSize()));
+        outputShardSizeText.setToolTipText("Roll over to numbered part files at this size, splitting only between files or classes. 0 writes a single file.");
+        outputShardUnitCombo = new Combo(shardComposite, SWT.READ_ONLY);
+        outputShardUnitCombo.setItems(new String[] { OutputSharder.UNIT_KB, OutputSharder.UNIT_TOKENS });
+        outputShardUnitCombo.select(OutputSharder.UNIT_TOKENS.equalsIgnoreCase(config.getOutputShardUnit()) ? 1 : 0);
+        
+        // token 预算
+        new Label(commonComposite, SWT.NONE).setText("Token Budget:");
+        tokenBudgetText = new Text(commonComposite, SWT.BORDER);
+        tokenBudgetText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        tokenBudgetText.setText(String.valueOf(config.getTokenBudget()));
+        tokenBudgetText.setToolTipText("Estimated token limit for the output; 0 means unlimited. The built-in engine drops the deepest levels, then accessors, then method bodies until it fits; other output is cut at the last section that fits.");
+        
+        // 其他输出格式
+        createOutputFormatChecks(commonComposite);
+        
         // 省略Bean方法
         new Label(commonComposite, SWT.NONE).setText("Omit Bean Methods:");
         omitBeanMethodsCheck = new Button(commonComposite, SWT.CHECK);
@@ -230,9 +347,39 @@ public class ConfigurationDialog extends Dialog {
         openOutputDirectoryCheck.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
         openOutputDirectoryCheck.setToolTipText("");
 
+        // 保存后自动重新分析
+        new Label(commonComposite, SWT.NONE).setText("Watch (Re-run on Save):");
+        watchEnabledCheck = new Button(commonComposite, SWT.CHECK);
+        watchEnabledCheck.setSelection(config.isWatchEnabled());
+        watchEnabledCheck.setToolTipText("Re-run this analysis in the background when files in its scope are saved. Run again with this unchecked to stop.");
+
         
     }
     
+    /**
+     * Markdown 之外的输出格式，每种一个复选框
+     */
+    private void createOutputFormatChecks(Composite commonComposite) {
+        new Label(commonComposite, SWT.NONE).setText("Additional Formats:");
+        Composite formatComposite = new Composite(commonComposite, SWT.NONE);
+        GridLayout formatLayout = new GridLayout(ResultRenderers.getAll().size(), false);
+        formatLayout.marginWidth = 0;
+        formatLayout.marginHeight = 0;
+        formatComposite.setLayout(formatLayout);
+        List<ResultRenderer> selected = ResultRenderers.parse(config.getOutputFormats());
+        for (ResultRenderer renderer : ResultRenderers.getAll()) {
+            if (MarkdownResultRenderer.FORMAT.equals(renderer.getFormat())) {
+                continue;
+            }
+            Button check = new Button(formatComposite, SWT.CHECK);
+            check.setText(renderer.getExtension().toUpperCase());
+            check.setData(renderer.getFormat());
+            check.setSelection(selected.contains(renderer));
+            check.setToolTipText("Also write the result as ." + renderer.getExtension() + " next to the output file (built-in engine only). The result model is saved as well, so more formats can be rendered later without re-analyzing.");
+            outputFormatChecks.add(check);
+        }
+    }
+    
     private void createDirectoryAnalysisTab(TabFolder tabFolder) {
         TabItem dirTab = new TabItem(tabFolder, SWT.NONE);
         dirTab.setText("Directory Analysis");
@@ -283,6 +430,17 @@ public class ConfigurationDialog extends Dialog {
         directoryAllowedExtensionsText = new Text(dirComposite, SWT.BORDER);
         directoryAllowedExtensionsText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
         directoryAllowedExtensionsText.setText(config.getDirectoryAllowedExtensions());
+        
+        new Label(dirComposite, SWT.NONE).setText("Deduplicate Identical Files:");
+        deduplicateFilesCheck = new Button(dirComposite, SWT.CHECK);
+        deduplicateFilesCheck.setSelection(config.isDeduplicateFiles());
+        deduplicateFilesCheck.setToolTipText("Emit the content of identical files once and reference it from the other paths.");
+        
+        new Label(dirComposite, SWT.NONE).setText("Summarize Files Larger Than (bytes):");
+        largeFileSummaryBytesText = new Text(dirComposite, SWT.BORDER);
+        largeFileSummaryBytesText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        largeFileSummaryBytesText.setText(String.valueOf(config.getLargeFileSummaryBytes()));
+        largeFileSummaryBytesText.setToolTipText("Files larger than this many bytes keep only their first and last lines; 0 keeps every file whole.");
     }
     
     @Override
@@ -295,7 +453,16 @@ public class ConfigurationDialog extends Dialog {
     protected void okPressed() {
         // 保存配置
         if (isClassMode) {
-            config.setMainClass(mainClassText.getText());
+            if (baseRevisionText != null) {
+                String revision = baseRevisionText.getText().trim();
+                if (!GitChangeScanner.isValidRevision(revision)) {
+                    MessageDialog.openError(getShell(), "Invalid Revision", "Enter a git revision such as HEAD, main or HEAD~3.");
+                    return;
+                }
+                config.setBaseRevision(revision);
+            } else {
+                config.setMainClass(mainClassText.getText());
+            }
             config.setProjectRoot(projectRootText.getText());
             config.setProjectPackagePrefixes(projectPackagePrefixesText.getText());
             try {
@@ -306,6 +473,19 @@ public class ConfigurationDialog extends Dialog {
             config.setKeepOnlyReferencedMethods(keepOnlyReferencedMethodsCheck.getSelection());
             config.setShowRemovedMethods(showRemovedMethodsCheck.getSelection());
             config.setSourceDirectories(sourceDirectoriesText.getText());
+            config.setWorkspaceEngine(workspaceEngineCheck.getSelection());
+            config.setGraphMetricsEnabled(graphMetricsCheck.getSelection());
+            config.setResultModelEnabled(resultModelCheck.getSelection());
+            try {
+                config.setFileTimeBudgetMillis(Math.max(0, Integer.parseInt(fileTimeBudgetText.getText().trim())));
+            } catch (NumberFormatException e) {
+                config.setFileTimeBudgetMillis(10000);
+            }
+            try {
+                config.setRunTimeBudgetSeconds(Math.max(0, Integer.parseInt(runTimeBudgetText.getText().trim())));
+            } catch (NumberFormatException e) {
+                config.setRunTimeBudgetSeconds(0);
+            }
         }
         
         config.setOutputFile(outputFileText.getText());
@@ -321,21 +501,50 @@ public class ConfigurationDialog extends Dialog {
         } catch (NumberFormatException e) {
             config.setContentSizeThreshold(100000);
         }
+        try {
+            config.setOutputShardSize(Math.max(0, Integer.parseInt(outputShardSizeText.getText().trim())));
+        } catch (NumberFormatException e) {
+            config.setOutputShardSize(0);
+        }
+        config.setOutputShardUnit(outputShardUnitCombo.getText());
+        List<String> formats = new ArrayList<>();
+        for (Button check : outputFormatChecks) {
+            if (check.getSelection()) {
+                formats.add((String) check.getData());
+            }
+        }
+        config.setOutputFormats(String.join(",", formats));
+        try {
+            config.setTokenBudget(Math.max(0, Integer.parseInt(tokenBudgetText.getText().trim())));
+        } catch (NumberFormatException e) {
+            config.setTokenBudget(0);
+        }
         config.setOmitBeanMethods(omitBeanMethodsCheck.getSelection());
         config.setShowOmittedAccessors(showOmittedAccessorsCheck.getSelection());
         config.setImportSkipEnabled(importSkipEnabledCheck.getSelection());
         config.setImportSkipPrefixes(importSkipPrefixesText.getText());
         config.setImportKeepPrefixes(importKeepPrefixesText.getText());
         config.setShowErrorStacktrace(showErrorStacktraceCheck.getSelection());
+        config.setOpenOutputDirectory(openOutputDirectoryCheck.getSelection());
+        config.setWatchEnabled(watchEnabledCheck.getSelection());
         
         if (!isClassMode) {
             config.setDirectoryPath(directoryPathText.getText());
             config.setSimplifyMethods(simplifyMethodsCheck.getSelection());
+            config.setCommentMode(COMMENT_MODES[Math.max(0, commentModeCombo.getSelectionIndex())]);
+            config.setStripLicenseHeaders(stripLicenseHeadersCheck.getSelection());
+            config.setNormalizeWhitespace(normalizeWhitespaceCheck.getSelection());
             config.setDirectoryIncludeFiles(directoryIncludeFilesText.getText());
             config.setDirectoryExcludeFiles(directoryExcludeFilesText.getText());
             config.setDirectoryIncludeFolders(directoryIncludeFoldersText.getText());
             config.setDirectoryExcludeFolders(directoryExcludeFoldersText.getText());
             config.setDirectoryAllowedExtensions(directoryAllowedExtensionsText.getText());
+            config.setDeduplicateFiles(deduplicateFilesCheck.getSelection());
+            try {
+                config.setLargeFileSummaryBytes(Math.max(0, Integer.parseInt(largeFileSummaryBytesText.getText().trim())));
+            } catch (NumberFormatException e) {
+                config.setLargeFileSummaryBytes(0);
+            }
             
             // 新添加：保存 Checkbox 状态
             config.setJavaAnalysis(isJavaProjectCheck.getSelection());
@@ -0,0 +1,33 @@
+package io.github.jitawangzi.jdepend.eclipse.handlers;
+
+import org.eclipse.core.commands.AbstractHandler;
+import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.ui.IEditorInput;
+import org.eclipse.ui.handlers.HandlerUtil;
+
+import io.github.jitawangzi.jdepend.eclipse.actions.RerunLastAnalysisAction;
+
+/**
+ * 快捷键触发的重新分析：优先使用当前选中对象或活动编辑器所在的项目，否则使用最近一次分析的项目
+ */
+public class RerunLastAnalysisHandler extends AbstractHandler {
+
+    @Override
+    public Object execute(ExecutionEvent event) throws ExecutionException {
+        IProject project = null;
+        ISelection selection = HandlerUtil.getCurrentSelection(event);
+        if (selection instanceof IStructuredSelection) {
+            project = RerunLastAnalysisAction.projectOf(((IStructuredSelection) selection).getFirstElement());
+        }
+        if (project == null) {
+            IEditorInput input = HandlerUtil.getActiveEditorInput(event);
+            project = RerunLastAnalysisAction.projectOf(input);
+        }
+        RerunLastAnalysisAction.rerun(HandlerUtil.getActiveShell(event), project);
+        return null;
+    }
+}
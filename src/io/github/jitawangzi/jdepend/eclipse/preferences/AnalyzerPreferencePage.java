@@ -0,0 +1,47 @@
+package io.github.jitawangzi.jdepend.eclipse.preferences;
+
+import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+
+import io.github.jitawangzi.jdepend.eclipse.Activator;
+import io.github.jitawangzi.jdepend.eclipse.service.AnalysisService;
+
+/**
+ * Window > Preferences > Java Dependency Analyzer
+ */
+public class AnalyzerPreferencePage extends FieldEditorPreferencePage implements IWorkbenchPreferencePage {
+
+    public AnalyzerPreferencePage() {
+        super(GRID);
+        setPreferenceStore(Activator.getDefault().getPreferenceStore());
+        setDescription("Settings for the Java Dependency Analyzer plugin.");
+    }
+
+    @Override
+    public void init(IWorkbench workbench) {
+    }
+
+    @Override
+    protected void createFieldEditors() {
+        addField(new BooleanFieldEditor(PreferenceConstants.PREWARM_ENABLED,
+                "Pre-warm the analyzer in the background after startup (uses extra memory)",
+                getFieldEditorParent()));
+        addField(new BooleanFieldEditor(PreferenceConstants.SERVICE_ENABLED,
+                "Run a local analysis service on 127.0.0.1 for scripts and tools (port and token in the plugin state folder, service.properties)",
+                getFieldEditorParent()));
+        IntegerFieldEditor port = new IntegerFieldEditor(PreferenceConstants.SERVICE_PORT,
+                "Local service port (0 picks a free port):", getFieldEditorParent());
+        port.setValidRange(0, 65535);
+        addField(port);
+    }
+
+    @Override
+    public boolean performOk() {
+        boolean ok = super.performOk();
+        AnalysisService.getDefault().applyPreferences();
+        return ok;
+    }
+}
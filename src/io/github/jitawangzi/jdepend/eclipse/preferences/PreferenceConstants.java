@@ -0,0 +1,22 @@
+package io.github.jitawangzi.jdepend.eclipse.preferences;
+
+/**
+ * 插件首选项的键
+ */
+public class PreferenceConstants {
+
+    /**
+     * 工作台启动后在后台预热分析器运行环境
+     */
+    public static final String PREWARM_ENABLED = "prewarm.enabled";
+
+    /**
+     * 在本机回环地址上运行分析服务，供脚本和本地工具调用
+     */
+    public static final String SERVICE_ENABLED = "service.enabled";
+
+    /**
+     * 分析服务的端口，0 表示由系统分配
+     */
+    public static final String SERVICE_PORT = "service.port";
+}
@@ -0,0 +1,20 @@
+package io.github.jitawangzi.jdepend.eclipse.preferences;
+
+import org.eclipse.core.runtime.preferences.AbstractPreferenceInitializer;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import io.github.jitawangzi.jdepend.eclipse.Activator;
+
+/**
+ * 首选项默认值
+ */
+public class PreferenceInitializer extends AbstractPreferenceInitializer {
+
+    @Override
+    public void initializeDefaultPreferences() {
+        IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+        store.setDefault(PreferenceConstants.PREWARM_ENABLED, true);
+        store.setDefault(PreferenceConstants.SERVICE_ENABLED, false);
+        store.setDefault(PreferenceConstants.SERVICE_PORT, 0);
+    }
+}
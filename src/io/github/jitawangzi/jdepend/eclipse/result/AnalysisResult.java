@@ -0,0 +1,134 @@
+package io.github.jitawangzi.jdepend.eclipse.result;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次分析的结果模型：输出的类型、各自的代码与相互之间的依赖
+ * 各种输出格式都从这里渲染，也可以序列化为二进制文件 (见 {@link ResultCodec})，之后无需重新分析即可渲染为其他格式。
+ */
+public class AnalysisResult {
+
+    private final String mainClass;
+    private final long createdAt;
+    private final List<TypeEntry> types;
+    private final List<String> notes;
+
+    public AnalysisResult(String mainClass, long createdAt, List<TypeEntry> types, List<String> notes) {
+        this.mainClass = mainClass;
+        this.createdAt = createdAt;
+        this.types = Collections.unmodifiableList(new ArrayList<>(types));
+        this.notes = Collections.unmodifiableList(new ArrayList<>(notes));
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * 按输出顺序排列
+     */
+    public List<TypeEntry> getTypes() {
+        return types;
+    }
+
+    public List<String> getNotes() {
+        return notes;
+    }
+
+    /**
+     * 一个输出的类型
+     */
+    public static class TypeEntry {
+        private final String name;
+        private final int depth;
+        private final String code;
+        private final int[] dependencies;
+
+        public TypeEntry(String name, int depth, String code, int[] dependencies) {
+            this.name = name;
+            this.depth = depth;
+            this.code = code;
+            this.dependencies = dependencies;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * 依赖的类型在 {@link AnalysisResult#getTypes()} 中的下标
+         */
+        public int[] getDependencies() {
+            return dependencies;
+        }
+    }
+
+    /**
+     * 分析过程中逐个添加类型，结束时把依赖的类型名解析为下标；不在结果中的依赖被忽略
+     */
+    public static class Builder {
+        private final String mainClass;
+        private final List<String> names = new ArrayList<>();
+        private final List<Integer> depths = new ArrayList<>();
+        private final List<String> codes = new ArrayList<>();
+        private final List<Collection<String>> dependencies = new ArrayList<>();
+        private final List<String> notes = new ArrayList<>();
+
+        public Builder(String mainClass) {
+            this.mainClass = mainClass;
+        }
+
+        public Builder addType(String name, int depth, String code, Collection<String> dependencyNames) {
+            names.add(name);
+            depths.add(depth);
+            codes.add(code);
+            dependencies.add(new ArrayList<>(dependencyNames));
+            return this;
+        }
+
+        public Builder addNote(String note) {
+            notes.add(note);
+            return this;
+        }
+
+        public AnalysisResult build() {
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                index.put(names.get(i), i);
+            }
+            List<TypeEntry> types = new ArrayList<>(names.size());
+            for (int i = 0; i < names.size(); i++) {
+                List<Integer> resolved = new ArrayList<>();
+                for (String dependency : dependencies.get(i)) {
+                    Integer target = index.get(dependency);
+                    if (target != null && target != i) {
+                        resolved.add(target);
+                    }
+                }
+                int[] targets = new int[resolved.size()];
+                for (int j = 0; j < targets.length; j++) {
+                    targets[j] = resolved.get(j);
+                }
+                types.add(new TypeEntry(names.get(i), depths.get(i), codes.get(i), targets));
+            }
+            return new AnalysisResult(mainClass, System.currentTimeMillis(), types, notes);
+        }
+    }
+}
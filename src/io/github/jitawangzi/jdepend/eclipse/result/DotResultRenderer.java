@@ -0,0 +1,41 @@
+package io.github.jitawangzi.jdepend.eclipse.result;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Graphviz DOT 格式的依赖图，节点标注深度，主类加粗
+ */
+public class DotResultRenderer implements ResultRenderer {
+
+    @Override
+    public String getFormat() {
+        return "dot";
+    }
+
+    @Override
+    public String getExtension() {
+        return "dot";
+    }
+
+    @Override
+    public void render(AnalysisResult result, Writer out) throws IOException {
+        out.write("digraph dependencies {\n");
+        out.write("  rankdir=LR;\n  node [shape=box, fontname=\"monospace\"];\n");
+        for (AnalysisResult.TypeEntry type : result.getTypes()) {
+            String simpleName = type.getName().substring(type.getName().lastIndexOf('.') + 1);
+            out.write("  " + quote(type.getName()) + " [label=" + quote(simpleName + "\n(depth " + type.getDepth() + ")")
+                    + (type.getDepth() == 0 ? ", style=bold" : "") + "];\n");
+        }
+        for (AnalysisResult.TypeEntry type : result.getTypes()) {
+            for (int dependency : type.getDependencies()) {
+                out.write("  " + quote(type.getName()) + " -> " + quote(result.getTypes().get(dependency).getName()) + ";\n");
+            }
+        }
+        out.write("}\n");
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.jitawangzi.jdepend.eclipse.result;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * GraphML 格式的依赖图，可导入 yEd、Gephi 等工具
+ */
+public class GraphMlResultRenderer implements ResultRenderer {
+
+    @Override
+    public String getFormat() {
+        return "graphml";
+    }
+
+    @Override
+    public String getExtension() {
+        return "graphml";
+    }
+
+    @Override
+    public void render(AnalysisResult result, Writer out) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+        out.write("  <key id=\"name\" for=\"node\" attr.name=\"name\" attr.type=\"string\"/>\n");
+        out.write("  <key id=\"depth\" for=\"node\" attr.name=\"depth\" attr.type=\"int\"/>\n");
+        out.write("  <graph id=\"dependencies\" edgedefault=\"directed\">\n");
+        for (int i = 0; i < result.getTypes().size(); i++) {
+            AnalysisResult.TypeEntry type = result.getTypes().get(i);
+            out.write("    <node id=\"n" + i + "\">\n");
+            out.write("      <data key=\"name\">" + escape(type.getName()) + "</data>\n");
+            out.write("      <data key=\"depth\">" + type.getDepth() + "</data>\n");
+            out.write("    </node>\n");
+        }
+        int edge = 0;
+        for (int i = 0; i < result.getTypes().size(); i++) {
+            for (int dependency : result.getTypes().get(i).getDependencies()) {
+                out.write("    <edge id=\"e" + edge++ + "\" source=\"n" + i + "\" target=\"n" + dependency + "\"/>\n");
+            }
+        }
+        out.write("  </graph>\n</graphml>\n");
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
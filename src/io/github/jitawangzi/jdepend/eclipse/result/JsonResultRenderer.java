@@ -0,0 +1,47 @@
+package io.github.jitawangzi.jdepend.eclipse.result;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import io.github.jitawangzi.jdepend.eclipse.utils.JsonUtils;
+
+/**
+ * JSON 输出，供其他工具读取；依赖以类型全名列出
+ */
+public class JsonResultRenderer implements ResultRenderer {
+
+    @Override
+    public String getFormat() {
+        return "json";
+    }
+
+    @Override
+    public String getExtension() {
+        return "json";
+    }
+
+    @Override
+    public void render(AnalysisResult result, Writer out) throws IOException {
+        out.write("{\n  \"mainClass\": " + JsonUtils.quote(result.getMainClass()) + ",\n");
+        out.write("  \"createdAt\": " + result.getCreatedAt() + ",\n");
+        out.write("  \"types\": [");
+        for (int i = 0; i < result.getTypes().size(); i++) {
+            AnalysisResult.TypeEntry type = result.getTypes().get(i);
+            out.write(i > 0 ? ",\n" : "\n");
+            out.write("    {\n      \"name\": " + JsonUtils.quote(type.getName()) + ",\n");
+            out.write("      \"depth\": " + type.getDepth() + ",\n");
+            out.write("      \"dependencies\": [");
+            int[] dependencies = type.getDependencies();
+            for (int j = 0; j < dependencies.length; j++) {
+                out.write((j > 0 ? ", " : "") + JsonUtils.quote(result.getTypes().get(dependencies[j]).getName()));
+            }
+            out.write("],\n      \"code\": " + JsonUtils.quote(type.getCode()) + "\n    }");
+        }
+        out.write(result.getTypes().isEmpty() ? "],\n" : "\n  ],\n");
+        out.write("  \"notes\": [");
+        for (int i = 0; i < result.getNotes().size(); i++) {
+            out.write((i > 0 ? ", " : "") + JsonUtils.quote(result.getNotes().get(i)));
+        }
+        out.write("]\n}\n");
+    }
+}
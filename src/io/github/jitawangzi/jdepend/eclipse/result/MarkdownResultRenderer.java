@@ -0,0 +1,54 @@
+package io.github.jitawangzi.jdepend.eclipse.result;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Markdown 输出；内置引擎流式写出时也使用这里的格式，保证两条路径的输出一致
+ */
+public class MarkdownResultRenderer implements ResultRenderer {
+
+    public static final String FORMAT = "markdown";
+
+    @Override
+    public String getFormat() {
+        return FORMAT;
+    }
+
+    @Override
+    public String getExtension() {
+        return "md";
+    }
+
+    @Override
+    public void render(AnalysisResult result, Writer out) throws IOException {
+        out.write(header(result.getMainClass()));
+        for (AnalysisResult.TypeEntry type : result.getTypes()) {
+            out.write(section(type.getName(), type.getDepth(), type.getCode()));
+        }
+        if (!result.getNotes().isEmpty()) {
+            for (String note : result.getNotes()) {
+                out.write(note(note));
+            }
+            out.write("\n");
+        }
+    }
+
+    public static String header(String mainClass) {
+        return "# Class Dependency Analysis\n\nMain class: `" + mainClass + "`\n\n";
+    }
+
+    public static String changesHeader(String baseRevision, List<String> changedTypes) {
+        return "# Class Dependency Analysis\n\nChanged since `" + baseRevision + "`: "
+                + (changedTypes.isEmpty() ? "none" : "`" + String.join("`, `", changedTypes) + "`") + "\n\n";
+    }
+
+    public static String section(String name, int depth, String code) {
+        return "## " + name + " (depth " + depth + ")\n\n```java\n" + code + "\n```\n\n";
+    }
+
+    public static String note(String note) {
+        return "> " + note + "\n";
+    }
+}
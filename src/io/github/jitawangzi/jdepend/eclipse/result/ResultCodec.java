@@ -0,0 +1,262 @@
+package io.github.jitawangzi.jdepend.eclipse.result;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * 结果模型的二进制格式
+ * 文件头为魔数与版本，之后是各类型的代码，每段单独用 Deflate 压缩；随后是 GZIP 压缩的索引
+ * (名称、深度、依赖下标和代码的偏移与长度)，文件末尾 8 字节为索引的偏移。
+ * 只需要浏览依赖树时用 {@link #readIndex(File)} 读取索引，代码按需读取；字符串为 UTF-8 字节加长度前缀。
+ * 仍可读取第 1 版 (整个文件 GZIP 压缩、代码内联) 的文件，此时代码随索引一次读入。
+ */
+public class ResultCodec {
+
+    /**
+     * 结果文件的后缀，与输出文件同名
+     */
+    public static final String FILE_SUFFIX = ".result.bin";
+
+    private static final int MAGIC = 0x4A444152; // "JDAR"
+    private static final int VERSION = 2;
+    private static final int VERSION_INLINE = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int TRAILER_BYTES = 8;
+
+    private ResultCodec() {
+    }
+
+    public static void write(AnalysisResult result, File file) throws IOException {
+        List<AnalysisResult.TypeEntry> types = result.getTypes();
+        long[] offsets = new long[types.size()];
+        int[] lengths = new int[types.size()];
+        int[] rawLengths = new int[types.size()];
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            long position = HEADER_BYTES;
+            Deflater deflater = new Deflater();
+            try {
+                byte[] buffer = new byte[8192];
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                for (int i = 0; i < types.size(); i++) {
+                    byte[] code = types.get(i).getCode().getBytes(StandardCharsets.UTF_8);
+                    deflater.reset();
+                    deflater.setInput(code);
+                    deflater.finish();
+                    compressed.reset();
+                    while (!deflater.finished()) {
+                        compressed.write(buffer, 0, deflater.deflate(buffer));
+                    }
+                    offsets[i] = position;
+                    lengths[i] = compressed.size();
+                    rawLengths[i] = code.length;
+                    compressed.writeTo(out);
+                    position += compressed.size();
+                }
+            } finally {
+                deflater.end();
+            }
+
+            ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+            try (DataOutputStream index = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(indexBytes)))) {
+                writeString(index, result.getMainClass());
+                index.writeLong(result.getCreatedAt());
+                index.writeInt(types.size());
+                for (int i = 0; i < types.size(); i++) {
+                    AnalysisResult.TypeEntry type = types.get(i);
+                    writeString(index, type.getName());
+                    index.writeInt(type.getDepth());
+                    index.writeLong(offsets[i]);
+                    index.writeInt(lengths[i]);
+                    index.writeInt(rawLengths[i]);
+                    index.writeInt(type.getDependencies().length);
+                    for (int dependency : type.getDependencies()) {
+                        index.writeInt(dependency);
+                    }
+                }
+                index.writeInt(result.getNotes().size());
+                for (String note : result.getNotes()) {
+                    writeString(index, note);
+                }
+            }
+            indexBytes.writeTo(out);
+            out.writeLong(position);
+        }
+    }
+
+    /**
+     * 读取完整的结果，包括全部代码，用于渲染为其他格式
+     */
+    public static AnalysisResult read(File file) throws IOException {
+        ResultIndex index = readIndex(file);
+        List<ResultIndex.Entry> entries = index.getTypes();
+        String[] codes = new String[entries.size()];
+        if (index.isInline()) {
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = index.readCode(i);
+            }
+        } else {
+            try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+                for (int i = 0; i < codes.length; i++) {
+                    codes[i] = readCode(in, entries.get(i));
+                }
+            }
+        }
+        List<AnalysisResult.TypeEntry> types = new ArrayList<>(entries.size());
+        for (int i = 0; i < codes.length; i++) {
+            ResultIndex.Entry entry = entries.get(i);
+            types.add(new AnalysisResult.TypeEntry(entry.getName(), entry.getDepth(), codes[i], entry.getDependencies()));
+        }
+        return new AnalysisResult(index.getMainClass(), index.getCreatedAt(), types, index.getNotes());
+    }
+
+    /**
+     * 只读取索引，代码通过 {@link ResultIndex#readCode(int)} 按需读取
+     */
+    public static ResultIndex readIndex(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            if (in.length() >= HEADER_BYTES + TRAILER_BYTES && in.readInt() == MAGIC) {
+                return readIndexed(file, in);
+            }
+        }
+        // 第 1 版整个文件经过 GZIP 压缩，开头不是魔数
+        return readInline(file);
+    }
+
+    private static ResultIndex readIndexed(File file, RandomAccessFile in) throws IOException {
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("不支持的结果文件版本 " + version + ": " + file);
+        }
+        in.seek(in.length() - TRAILER_BYTES);
+        long indexOffset = in.readLong();
+        long indexLength = in.length() - TRAILER_BYTES - indexOffset;
+        if (indexOffset < HEADER_BYTES || indexLength <= 0 || indexLength > Integer.MAX_VALUE) {
+            throw new IOException("结果文件已损坏: " + file);
+        }
+        byte[] indexBytes = new byte[(int) indexLength];
+        in.seek(indexOffset);
+        in.readFully(indexBytes);
+        try (DataInputStream index = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(indexBytes))))) {
+            String mainClass = readString(index);
+            long createdAt = index.readLong();
+            int typeCount = index.readInt();
+            List<ResultIndex.Entry> types = new ArrayList<>(typeCount);
+            for (int i = 0; i < typeCount; i++) {
+                String name = readString(index);
+                int depth = index.readInt();
+                long offset = index.readLong();
+                int length = index.readInt();
+                int rawLength = index.readInt();
+                int[] dependencies = new int[index.readInt()];
+                for (int j = 0; j < dependencies.length; j++) {
+                    dependencies[j] = index.readInt();
+                }
+                types.add(new ResultIndex.Entry(name, depth, dependencies, offset, length, rawLength));
+            }
+            return new ResultIndex(file, mainClass, createdAt, types, readNotes(index), null);
+        }
+    }
+
+    /**
+     * 第 1 版：整个文件 GZIP 压缩，代码内联在各类型中
+     */
+    private static ResultIndex readInline(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("不是分析结果文件: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION_INLINE) {
+                throw new IOException("不支持的结果文件版本 " + version + ": " + file);
+            }
+            String mainClass = readString(in);
+            long createdAt = in.readLong();
+            int typeCount = in.readInt();
+            List<ResultIndex.Entry> types = new ArrayList<>(typeCount);
+            String[] codes = new String[typeCount];
+            for (int i = 0; i < typeCount; i++) {
+                String name = readString(in);
+                int depth = in.readInt();
+                codes[i] = readString(in);
+                int[] dependencies = new int[in.readInt()];
+                for (int j = 0; j < dependencies.length; j++) {
+                    dependencies[j] = in.readInt();
+                }
+                types.add(new ResultIndex.Entry(name, depth, dependencies, 0, 0, 0));
+            }
+            return new ResultIndex(file, mainClass, createdAt, types, readNotes(in), codes);
+        } catch (ZipException e) {
+            throw new IOException("不是分析结果文件: " + file, e);
+        }
+    }
+
+    static String readCode(RandomAccessFile in, ResultIndex.Entry entry) throws IOException {
+        byte[] compressed = new byte[entry.getCodeLength()];
+        in.seek(entry.getCodeOffset());
+        in.readFully(compressed);
+        byte[] code = new byte[entry.getRawCodeLength()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int read = 0;
+            while (read < code.length && !inflater.finished()) {
+                int count = inflater.inflate(code, read, code.length - read);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += count;
+            }
+            if (read != code.length) {
+                throw new IOException("代码数据不完整: " + entry.getName());
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("代码数据已损坏: " + entry.getName(), e);
+        } finally {
+            inflater.end();
+        }
+        return new String(code, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readNotes(DataInputStream in) throws IOException {
+        int noteCount = in.readInt();
+        List<String> notes = new ArrayList<>(noteCount);
+        for (int i = 0; i < noteCount; i++) {
+            notes.add(readString(in));
+        }
+        return notes;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.jitawangzi.jdepend.eclipse.result;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 结果文件的索引：类型名称、深度与依赖，不含代码
+ * 浏览依赖树只需要索引，选中类型时再通过 {@link #readCode(int)} 从文件中读取该类型的代码，
+ * 打开很大的结果文件时不必把全部代码读入内存。由 {@link ResultCodec#readIndex(File)} 创建。
+ */
+public class ResultIndex {
+
+    private final File file;
+    private final String mainClass;
+    private final long createdAt;
+    private final List<Entry> types;
+    private final List<String> notes;
+    // 第 1 版文件的代码内联在索引中，随索引一次读入；新版本为 null
+    private final String[] inlineCodes;
+
+    ResultIndex(File file, String mainClass, long createdAt, List<Entry> types, List<String> notes, String[] inlineCodes) {
+        this.file = file;
+        this.mainClass = mainClass;
+        this.createdAt = createdAt;
+        this.types = Collections.unmodifiableList(new ArrayList<>(types));
+        this.notes = Collections.unmodifiableList(new ArrayList<>(notes));
+        this.inlineCodes = inlineCodes;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * 按输出顺序排列
+     */
+    public List<Entry> getTypes() {
+        return types;
+    }
+
+    public List<String> getNotes() {
+        return notes;
+    }
+
+    boolean isInline() {
+        return inlineCodes != null;
+    }
+
+    /**
+     * 从结果文件中读取一个类型的代码，每次调用都读取文件；可以在后台线程中调用
+     */
+    public String readCode(int index) throws IOException {
+        if (inlineCodes != null) {
+            return inlineCodes[index];
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            return ResultCodec.readCode(in, types.get(index));
+        }
+    }
+
+    /**
+     * 一个输出的类型，代码在结果文件中的位置
+     */
+    public static class Entry {
+        private final String name;
+        private final int depth;
+        private final int[] dependencies;
+        private final long codeOffset;
+        private final int codeLength;
+        private final int rawCodeLength;
+
+        Entry(String name, int depth, int[] dependencies, long codeOffset, int codeLength, int rawCodeLength) {
+            this.name = name;
+            this.depth = depth;
+            this.dependencies = dependencies;
+            this.codeOffset = codeOffset;
+            this.codeLength = codeLength;
+            this.rawCodeLength = rawCodeLength;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * 依赖的类型在 {@link ResultIndex#getTypes()} 中的下标
+         */
+        public int[] getDependencies() {
+            return dependencies;
+        }
+
+        long getCodeOffset() {
+            return codeOffset;
+        }
+
+        /**
+         * 压缩后的字节数
+         */
+        int getCodeLength() {
+            return codeLength;
+        }
+
+        /**
+         * 解压后的 UTF-8 字节数
+         */
+        int getRawCodeLength() {
+            return rawCodeLength;
+        }
+    }
+}
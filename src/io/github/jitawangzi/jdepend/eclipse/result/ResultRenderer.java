@@ -0,0 +1,22 @@
+package io.github.jitawangzi.jdepend.eclipse.result;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 把结果模型渲染为一种输出格式
+ */
+public interface ResultRenderer {
+
+    /**
+     * 格式标识，用于配置
+     */
+    String getFormat();
+
+    /**
+     * 输出文件扩展名 (不含点)
+     */
+    String getExtension();
+
+    void render(AnalysisResult result, Writer out) throws IOException;
+}
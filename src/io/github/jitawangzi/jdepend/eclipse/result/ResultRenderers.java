@@ -0,0 +1,82 @@
+package io.github.jitawangzi.jdepend.eclipse.result;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 已知的输出格式
+ */
+public class ResultRenderers {
+
+    private static final List<ResultRenderer> RENDERERS = Collections.unmodifiableList(Arrays.asList(
+            new MarkdownResultRenderer(), new JsonResultRenderer(), new DotResultRenderer(), new GraphMlResultRenderer()));
+
+    private ResultRenderers() {
+    }
+
+    public static List<ResultRenderer> getAll() {
+        return RENDERERS;
+    }
+
+    /**
+     * 未知格式返回 null
+     */
+    public static ResultRenderer get(String format) {
+        for (ResultRenderer renderer : RENDERERS) {
+            if (renderer.getFormat().equalsIgnoreCase(format.trim())) {
+                return renderer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解析逗号分隔的格式列表，忽略未知格式
+     */
+    public static List<ResultRenderer> parse(String formats) {
+        List<ResultRenderer> renderers = new ArrayList<>();
+        if (formats == null) {
+            return renderers;
+        }
+        for (String format : formats.split(",")) {
+            ResultRenderer renderer = format.trim().isEmpty() ? null : get(format);
+            if (renderer != null && !renderers.contains(renderer)) {
+                renderers.add(renderer);
+            }
+        }
+        return renderers;
+    }
+
+    /**
+     * 渲染为 directory 下的 baseName.扩展名
+     * @return 写出的文件
+     */
+    public static List<File> renderAll(AnalysisResult result, Collection<ResultRenderer> renderers, File directory,
+            String baseName) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (ResultRenderer renderer : renderers) {
+            files.add(render(result, renderer, directory, baseName));
+        }
+        return files;
+    }
+
+    /**
+     * 渲染单个格式，不同格式之间没有共享状态，可以并行调用
+     */
+    public static File render(AnalysisResult result, ResultRenderer renderer, File directory, String baseName)
+            throws IOException {
+        File file = new File(directory, baseName + "." + renderer.getExtension());
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            renderer.render(result, writer);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,330 @@
+package io.github.jitawangzi.jdepend.eclipse.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import io.github.jitawangzi.jdepend.eclipse.Activator;
+import io.github.jitawangzi.jdepend.eclipse.actions.AbstractAnalyzerAction;
+import io.github.jitawangzi.jdepend.eclipse.actions.RerunLastAnalysisAction;
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisExecutors;
+import io.github.jitawangzi.jdepend.eclipse.analysis.AnalysisMetrics;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisHistory;
+import io.github.jitawangzi.jdepend.eclipse.config.AnalysisSettings;
+import io.github.jitawangzi.jdepend.eclipse.config.PluginConfig;
+import io.github.jitawangzi.jdepend.eclipse.preferences.PreferenceConstants;
+import io.github.jitawangzi.jdepend.eclipse.utils.ConfigMapper;
+import io.github.jitawangzi.jdepend.eclipse.utils.EclipseProjectUtils;
+import io.github.jitawangzi.jdepend.eclipse.utils.GitChangeScanner;
+import io.github.jitawangzi.jdepend.eclipse.utils.JsonUtils;
+import io.github.jitawangzi.jdepend.eclipse.utils.LoopbackHttpServer;
+
+/**
+ * 本机分析服务，供脚本和本地工具在 IDE 内触发分析，复用已预热的分析器、模型缓存和 JDT 模型
+ * 默认关闭，在首选项中开启；只监听 127.0.0.1，每次启动生成新的 token，与端口一起写入插件状态目录下的
+ * service.properties (只有当前用户可读)。
+ *
+ * <pre>
+ * GET  /status                                    服务状态与打开的项目
+ * POST /analyze?project=名称&amp;mode=class|directory[&amp;format=json]
+ * </pre>
+ *
+ * 请求体为 Properties 格式，键与保存的分析配置相同 (如 main.class、max.depth、token.budget、directory.path)，
+ * 未给出的键沿用该项目在该模式下最近一次的配置；类分析未指定引擎时使用内置引擎。分析在同一时间只运行一个，
+ * 完成后返回 Markdown 输出，format=json 时返回输出文件路径和指标报告。例如：
+ *
+ * <pre>
+ * curl -H "Authorization: Bearer $TOKEN" --data-binary "main.class=com.example.App" \
+ *      "http://127.0.0.1:$PORT/analyze?project=demo&amp;mode=class"
+ * </pre>
+ */
+public class AnalysisService {
+
+    public static final String STATE_FILE_NAME = "service.properties";
+
+    private static final AnalysisService INSTANCE = new AnalysisService();
+
+    private final Object analysisLock = new Object();
+    private LoopbackHttpServer server;
+    private int port;
+    private File stateFile;
+    private volatile IProgressMonitor running;
+
+    public static AnalysisService getDefault() {
+        return INSTANCE;
+    }
+
+    /**
+     * 按首选项启动、重启或停止服务，由 Activator.start 和首选项页调用
+     */
+    public synchronized void applyPreferences() {
+        Activator activator = Activator.getDefault();
+        if (activator == null) {
+            return;
+        }
+        IPreferenceStore store = activator.getPreferenceStore();
+        boolean enabled = store.getBoolean(PreferenceConstants.SERVICE_ENABLED);
+        int requestedPort = store.getInt(PreferenceConstants.SERVICE_PORT);
+        if (server != null && (!enabled || requestedPort != 0 && requestedPort != port)) {
+            dispose();
+        }
+        if (!enabled || server != null) {
+            return;
+        }
+        String token = newToken();
+        LoopbackHttpServer candidate = new LoopbackHttpServer(token, this::handle, "jdepend-service");
+        try {
+            port = candidate.start(requestedPort);
+            server = candidate;
+            stateFile = activator.getStateLocation().append(STATE_FILE_NAME).toFile();
+            writeStateFile(stateFile, port, token);
+            System.out.println("[Service] 本机分析服务已启动: http://127.0.0.1:" + port + "/，token 见 " + stateFile);
+        } catch (IOException e) {
+            candidate.stop();
+            server = null;
+            System.err.println("[Service] 本机分析服务启动失败 (端口 " + requestedPort + "): " + e.getMessage());
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * 停止服务并取消正在进行的分析，插件停止时调用
+     */
+    public synchronized void dispose() {
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+        IProgressMonitor monitor = running;
+        if (monitor != null) {
+            monitor.setCanceled(true);
+        }
+        if (stateFile != null) {
+            stateFile.delete();
+            stateFile = null;
+        }
+        port = 0;
+    }
+
+    private void handle(LoopbackHttpServer.Request request, LoopbackHttpServer.Response response) throws Exception {
+        if ("/status".equals(request.getPath())) {
+            if (!"GET".equals(request.getMethod())) {
+                response.sendError(405, "use GET");
+                return;
+            }
+            response.send(200, "application/json", status());
+        } else if ("/analyze".equals(request.getPath())) {
+            if (!"POST".equals(request.getMethod())) {
+                response.sendError(405, "use POST");
+                return;
+            }
+            analyze(request, response);
+        } else {
+            response.sendError(404, "unknown path " + request.getPath());
+        }
+    }
+
+    private String status() {
+        List<String> projects = new ArrayList<>();
+        for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+            if (project.isOpen()) {
+                projects.add(JsonUtils.quote(project.getName()));
+            }
+        }
+        return "{\"status\": \"ok\", \"busy\": " + (running != null) + ", \"executor\": "
+                + JsonUtils.quote(AnalysisExecutors.getDefault().describe()) + ", \"projects\": [" + String.join(", ", projects) + "]}\n";
+    }
+
+    private void analyze(LoopbackHttpServer.Request request, LoopbackHttpServer.Response response) throws Exception {
+        String projectName = request.getParameter("project");
+        if (projectName == null || projectName.isEmpty()) {
+            response.sendError(400, "missing project parameter");
+            return;
+        }
+        IProject project;
+        try {
+            project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
+        } catch (IllegalArgumentException e) {
+            response.sendError(400, "invalid project name: " + projectName);
+            return;
+        }
+        if (!project.isOpen()) {
+            response.sendError(404, "project not found or closed: " + projectName);
+            return;
+        }
+        String mode = request.getParameter("mode") != null ? request.getParameter("mode") : AnalysisHistory.MODE_CLASS;
+        if (!AnalysisHistory.MODE_CLASS.equals(mode) && !AnalysisHistory.MODE_DIRECTORY.equals(mode)) {
+            response.sendError(400, "mode must be " + AnalysisHistory.MODE_CLASS + " or " + AnalysisHistory.MODE_DIRECTORY);
+            return;
+        }
+        boolean isClassMode = AnalysisHistory.MODE_CLASS.equals(mode);
+
+        Properties requested = new Properties();
+        try {
+            requested.load(new InputStreamReader(new ByteArrayInputStream(request.getBody()), StandardCharsets.UTF_8));
+        } catch (IOException | IllegalArgumentException e) {
+            response.sendError(400, "request body is not in properties format: " + e.getMessage());
+            return;
+        }
+        PluginConfig config = buildConfig(project, isClassMode, requested);
+        if (isClassMode && !config.getBaseRevision().isEmpty() && !GitChangeScanner.isValidRevision(config.getBaseRevision())) {
+            response.sendError(400, "invalid base.revision: " + config.getBaseRevision());
+            return;
+        }
+        try {
+            AnalysisSettings.of(config, isClassMode);
+        } catch (IllegalArgumentException e) {
+            response.sendError(400, "invalid configuration: " + e.getMessage());
+            return;
+        }
+
+        AbstractAnalyzerAction analyzer = RerunLastAnalysisAction.analyzerFor(isClassMode, config);
+        File output = new File(config.getAbsoluteOutputFile());
+        FileTime previous;
+        synchronized (analysisLock) {
+            // 分析失败时可能留下上一次的输出，按修改时间判断输出是否由本次分析写出
+            previous = lastModified(output);
+            NullProgressMonitor monitor = new NullProgressMonitor();
+            running = monitor;
+            try {
+                analyzer.runInBackground(project, config, monitor, "service");
+            } catch (AbstractAnalyzerAction.AnalysisTargetNotFoundException e) {
+                response.sendError(422, e.getMessage());
+                return;
+            } catch (OperationCanceledException e) {
+                response.sendError(503, "analysis canceled");
+                return;
+            } finally {
+                running = null;
+            }
+        }
+
+        FileTime current = lastModified(output);
+        if (current == null) {
+            response.sendError(500, "analysis finished but produced no output at " + output.getAbsolutePath());
+            return;
+        }
+        if (current.equals(previous)) {
+            response.sendError(500, "analysis finished but did not update the output at " + output.getAbsolutePath()
+                    + ", see the Eclipse console for errors");
+            return;
+        }
+        File metricsFile = new File(output.getAbsoluteFile().getParentFile(), AnalysisMetrics.METRICS_FILE_NAME);
+        if ("json".equals(request.getParameter("format"))) {
+            String metrics = metricsFile.isFile() ? new String(Files.readAllBytes(metricsFile.toPath()), StandardCharsets.UTF_8).trim() : "null";
+            response.send(200, "application/json", "{\"outputFile\": " + JsonUtils.quote(output.getAbsolutePath())
+                    + ", \"bytes\": " + output.length() + ", \"metrics\": " + metrics + "}\n");
+            return;
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("X-Output-File", output.getAbsolutePath());
+        response.sendFile(200, "text/markdown; charset=UTF-8", output, headers);
+    }
+
+    /**
+     * 文件的修改时间，不存在时返回 null；使用文件系统提供的完整精度
+     */
+    private static FileTime lastModified(File file) {
+        try {
+            return file.isFile() ? Files.getLastModifiedTime(file.toPath()) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 以项目在该模式下最近一次的配置为基础，用请求中给出的键覆盖
+     */
+    private PluginConfig buildConfig(IProject project, boolean isClassMode, Properties requested) {
+        String projectRoot = EclipseProjectUtils.getProjectRootPath(project);
+        PluginConfig base = AnalysisHistory.loadLastRun(project.getName(), isClassMode);
+        if (base == null) {
+            base = new PluginConfig();
+            if (isClassMode) {
+                base.setOutputFileWithProjectPath(projectRoot, "dependency-analysis.md");
+            }
+        }
+        Properties merged = ConfigMapper.mapToProperties(base, isClassMode);
+        merged.putAll(requested);
+        PluginConfig config = ConfigMapper.fromProperties(merged, isClassMode);
+
+        if (isClassMode) {
+            // 只给出主类时是普通的类分析，不沿用上次变更分析的基准版本
+            if (requested.containsKey("main.class") && !requested.containsKey("base.revision")) {
+                config.setBaseRevision("");
+            }
+            if (config.getProjectRoot().trim().isEmpty()) {
+                config.setProjectRoot(projectRoot);
+            }
+            // 服务的意义在于复用 IDE 中已加载的模型，未指定时使用内置引擎
+            if (!requested.containsKey("workspace.engine.enabled") || !config.getBaseRevision().isEmpty()) {
+                config.setWorkspaceEngine(true);
+            }
+            if (!config.getBaseRevision().isEmpty()) {
+                config.setMainClass("changes since " + config.getBaseRevision());
+            }
+        } else {
+            String directoryPath = config.getDirectoryPath().trim();
+            File directory = directoryPath.isEmpty() ? new File(projectRoot) : new File(directoryPath);
+            if (!directory.isAbsolute()) {
+                directory = new File(projectRoot, directoryPath);
+            }
+            config.setDirectoryPath(directory.getAbsolutePath());
+            if (!requested.containsKey("output.file") && !config.getDirectoryPath().equals(base.getDirectoryPath())) {
+                File parent = directory.getAbsoluteFile().getParentFile();
+                config.setOutputFileWithProjectPath((parent != null ? parent : directory).getAbsolutePath(), "directory-analysis.md");
+            }
+        }
+        return config;
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            token.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return token.toString();
+    }
+
+    /**
+     * 写入端口与 token，支持 POSIX 权限的文件系统上先把文件设为只有当前用户可读写再写入内容
+     */
+    private static void writeStateFile(File file, int port, String token) throws IOException {
+        Files.deleteIfExists(file.toPath());
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(file.toPath(), PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        Properties props = new Properties();
+        props.setProperty("port", String.valueOf(port));
+        props.setProperty("token", token);
+        props.setProperty("url", "http://127.0.0.1:" + port + "/");
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            props.store(writer, "Java Dependency Analyzer local service");
+        }
+    }
+}
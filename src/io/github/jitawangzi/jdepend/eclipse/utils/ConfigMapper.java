@@ -1,6 +1,5 @@
 package io.github.jitawangzi.jdepend.eclipse.utils;
 
-import java.lang.reflect.Field;
 import java.util.Properties;
 import io.github.jitawangzi.jdepend.eclipse.config.PluginConfig;
 
@@ -24,6 +23,12 @@ public class ConfigMapper {
             props.setProperty("keep.only.referenced.methods", String.valueOf(config.isKeepOnlyReferencedMethods()));
             props.setProperty("show.removed.methods", String.valueOf(config.isShowRemovedMethods()));
             props.setProperty("source.directories", config.getSourceDirectories());
+            props.setProperty("workspace.engine.enabled", String.valueOf(config.isWorkspaceEngine()));
+            props.setProperty("graph.metrics.enabled", String.valueOf(config.isGraphMetricsEnabled()));
+            props.setProperty("result.model.enabled", String.valueOf(config.isResultModelEnabled()));
+            props.setProperty("base.revision", config.getBaseRevision());
+            props.setProperty("file.time.budget.millis", String.valueOf(config.getFileTimeBudgetMillis()));
+            props.setProperty("run.time.budget.seconds", String.valueOf(config.getRunTimeBudgetSeconds()));
         } else {
             // 目录模式配置
             props.setProperty("directory.path", config.getDirectoryPath());
@@ -32,6 +37,11 @@ public class ConfigMapper {
             props.setProperty("directory.include.folders", config.getDirectoryIncludeFolders());
             props.setProperty("directory.exclude.folders", config.getDirectoryExcludeFolders());
             props.setProperty("directory.allowed.extensions", config.getDirectoryAllowedExtensions());
+            props.setProperty("comment.mode", config.getCommentMode());
+            props.setProperty("strip.license.headers", String.valueOf(config.isStripLicenseHeaders()));
+            props.setProperty("normalize.whitespace", String.valueOf(config.isNormalizeWhitespace()));
+            props.setProperty("directory.deduplicate.files", String.valueOf(config.isDeduplicateFiles()));
+            props.setProperty("directory.large.file.summary.bytes", String.valueOf(config.getLargeFileSummaryBytes()));
         }
         
         // 通用配置
@@ -41,75 +51,105 @@ public class ConfigMapper {
         props.setProperty("excluded.packages", config.getExcludedPackages());
         props.setProperty("method.exceptions", config.getMethodExceptions());
         props.setProperty("content.size.threshold", String.valueOf(config.getContentSizeThreshold()));
+        props.setProperty("output.shard.size", String.valueOf(config.getOutputShardSize()));
+        props.setProperty("output.shard.unit", config.getOutputShardUnit());
+        props.setProperty("token.budget", String.valueOf(config.getTokenBudget()));
+        props.setProperty("output.formats", config.getOutputFormats());
         props.setProperty("omit.bean.methods", String.valueOf(config.isOmitBeanMethods()));
         props.setProperty("show.omitted.accessors", String.valueOf(config.isShowOmittedAccessors()));
         props.setProperty("import.skip.enabled", String.valueOf(config.isImportSkipEnabled()));
         props.setProperty("import.skip.prefixes", config.getImportSkipPrefixes());
         props.setProperty("import.keep.prefixes", config.getImportKeepPrefixes());
         props.setProperty("show.error.stacktrace", String.valueOf(config.isShowErrorStacktrace()));
+        props.setProperty("open.output.directory", String.valueOf(config.isOpenOutputDirectory()));
+        props.setProperty("watch.enabled", String.valueOf(config.isWatchEnabled()));
         
         return props;
     }
     
     /**
-     * 通过反射设置原始AppConfig的值
-     * 这里假设你的原始AppConfig有类似的setter方法或可访问的字段
+     * {@link #mapToProperties} 的逆过程，用于恢复保存的配置；缺失的键保持默认值
+     * 无法解析的数值和布尔值不会悄悄换成默认值，而是记入 {@link PluginConfig#getInvalidValues()}，由调用方报告
      */
-    public static void applyToAppConfig(Object appConfig, PluginConfig pluginConfig, boolean isClassMode) {
-        try {
-            Class<?> appConfigClass = appConfig.getClass();
-            
-            if (isClassMode) {
-                setFieldValue(appConfig, appConfigClass, "mainClass", pluginConfig.getMainClass());
-                setFieldValue(appConfig, appConfigClass, "projectRoot", pluginConfig.getProjectRoot());
-                setFieldValue(appConfig, appConfigClass, "projectPackagePrefixes", pluginConfig.getProjectPackagePrefixes());
-                setFieldValue(appConfig, appConfigClass, "methodBodyMaxDepth", pluginConfig.getMethodBodyMaxDepth());
-                setFieldValue(appConfig, appConfigClass, "keepOnlyReferencedMethods", pluginConfig.isKeepOnlyReferencedMethods());
-                setFieldValue(appConfig, appConfigClass, "showRemovedMethods", pluginConfig.isShowRemovedMethods());
-                setFieldValue(appConfig, appConfigClass, "sourceDirectories", pluginConfig.getSourceDirectories());
-            } else {
-                setFieldValue(appConfig, appConfigClass, "directoryPath", pluginConfig.getDirectoryPath());
-                setFieldValue(appConfig, appConfigClass, "simplifyMethods", pluginConfig.isSimplifyMethods());
-                setFieldValue(appConfig, appConfigClass, "directoryIncludeFiles", pluginConfig.getDirectoryIncludeFiles());
-                setFieldValue(appConfig, appConfigClass, "directoryExcludeFiles", pluginConfig.getDirectoryExcludeFiles());
-                setFieldValue(appConfig, appConfigClass, "directoryIncludeFolders", pluginConfig.getDirectoryIncludeFolders());
-                setFieldValue(appConfig, appConfigClass, "directoryExcludeFolders", pluginConfig.getDirectoryExcludeFolders());
-                setFieldValue(appConfig, appConfigClass, "directoryAllowedExtensions", pluginConfig.getDirectoryAllowedExtensions());
-            }
-            
-            // 通用配置
-            setFieldValue(appConfig, appConfigClass, "outputFile", pluginConfig.getOutputFile());
-            setFieldValue(appConfig, appConfigClass, "maxDepth", pluginConfig.getMaxDepth());
-            setFieldValue(appConfig, appConfigClass, "excludedPackages", pluginConfig.getExcludedPackages());
-            setFieldValue(appConfig, appConfigClass, "methodExceptions", pluginConfig.getMethodExceptions());
-            setFieldValue(appConfig, appConfigClass, "contentSizeThreshold", pluginConfig.getContentSizeThreshold());
-            setFieldValue(appConfig, appConfigClass, "omitBeanMethods", pluginConfig.isOmitBeanMethods());
-            setFieldValue(appConfig, appConfigClass, "showOmittedAccessors", pluginConfig.isShowOmittedAccessors());
-            setFieldValue(appConfig, appConfigClass, "importSkipEnabled", pluginConfig.isImportSkipEnabled());
-            setFieldValue(appConfig, appConfigClass, "importSkipPrefixes", pluginConfig.getImportSkipPrefixes());
-            setFieldValue(appConfig, appConfigClass, "importKeepPrefixes", pluginConfig.getImportKeepPrefixes());
-            setFieldValue(appConfig, appConfigClass, "showErrorStacktrace", pluginConfig.isShowErrorStacktrace());
-            
-        } catch (Exception e) {
-            e.printStackTrace();
+    public static PluginConfig fromProperties(Properties props, boolean isClassMode) {
+        PluginConfig config = new PluginConfig();
+        
+        if (isClassMode) {
+            config.setMainClass(props.getProperty("main.class", config.getMainClass()));
+            config.setProjectRoot(props.getProperty("project.root", config.getProjectRoot()));
+            config.setProjectPackagePrefixes(props.getProperty("project.package.prefixes", config.getProjectPackagePrefixes()));
+            config.setMethodBodyMaxDepth(getInt(config, props, "method.body.max.depth", config.getMethodBodyMaxDepth()));
+            config.setKeepOnlyReferencedMethods(getBoolean(config, props, "keep.only.referenced.methods", config.isKeepOnlyReferencedMethods()));
+            config.setShowRemovedMethods(getBoolean(config, props, "show.removed.methods", config.isShowRemovedMethods()));
+            config.setSourceDirectories(props.getProperty("source.directories", config.getSourceDirectories()));
+            config.setWorkspaceEngine(getBoolean(config, props, "workspace.engine.enabled", config.isWorkspaceEngine()));
+            config.setGraphMetricsEnabled(getBoolean(config, props, "graph.metrics.enabled", config.isGraphMetricsEnabled()));
+            config.setResultModelEnabled(getBoolean(config, props, "result.model.enabled", config.isResultModelEnabled()));
+            config.setBaseRevision(props.getProperty("base.revision", config.getBaseRevision()));
+            config.setFileTimeBudgetMillis(getInt(config, props, "file.time.budget.millis", config.getFileTimeBudgetMillis()));
+            config.setRunTimeBudgetSeconds(getInt(config, props, "run.time.budget.seconds", config.getRunTimeBudgetSeconds()));
+        } else {
+            config.setDirectoryPath(props.getProperty("directory.path", config.getDirectoryPath()));
+            config.setDirectoryIncludeFiles(props.getProperty("directory.include.files", config.getDirectoryIncludeFiles()));
+            config.setDirectoryExcludeFiles(props.getProperty("directory.exclude.files", config.getDirectoryExcludeFiles()));
+            config.setDirectoryIncludeFolders(props.getProperty("directory.include.folders", config.getDirectoryIncludeFolders()));
+            config.setDirectoryExcludeFolders(props.getProperty("directory.exclude.folders", config.getDirectoryExcludeFolders()));
+            config.setDirectoryAllowedExtensions(props.getProperty("directory.allowed.extensions", config.getDirectoryAllowedExtensions()));
+            config.setCommentMode(props.getProperty("comment.mode", config.getCommentMode()));
+            config.setStripLicenseHeaders(getBoolean(config, props, "strip.license.headers", config.isStripLicenseHeaders()));
+            config.setNormalizeWhitespace(getBoolean(config, props, "normalize.whitespace", config.isNormalizeWhitespace()));
+            config.setDeduplicateFiles(getBoolean(config, props, "directory.deduplicate.files", config.isDeduplicateFiles()));
+            config.setLargeFileSummaryBytes(getInt(config, props, "directory.large.file.summary.bytes", config.getLargeFileSummaryBytes()));
         }
+        
+        // 通用配置
+        config.setSimplifyMethods(getBoolean(config, props, "simplify.methods", config.isSimplifyMethods()));
+        config.setOutputFile(props.getProperty("output.file", config.getOutputFile()));
+        config.setMaxDepth(getInt(config, props, "max.depth", config.getMaxDepth()));
+        config.setExcludedPackages(props.getProperty("excluded.packages", config.getExcludedPackages()));
+        config.setMethodExceptions(props.getProperty("method.exceptions", config.getMethodExceptions()));
+        config.setContentSizeThreshold(getInt(config, props, "content.size.threshold", config.getContentSizeThreshold()));
+        config.setOutputShardSize(getInt(config, props, "output.shard.size", config.getOutputShardSize()));
+        config.setOutputShardUnit(props.getProperty("output.shard.unit", config.getOutputShardUnit()));
+        config.setTokenBudget(getInt(config, props, "token.budget", config.getTokenBudget()));
+        config.setOutputFormats(props.getProperty("output.formats", config.getOutputFormats()));
+        config.setOmitBeanMethods(getBoolean(config, props, "omit.bean.methods", config.isOmitBeanMethods()));
+        config.setShowOmittedAccessors(getBoolean(config, props, "show.omitted.accessors", config.isShowOmittedAccessors()));
+        config.setImportSkipEnabled(getBoolean(config, props, "import.skip.enabled", config.isImportSkipEnabled()));
+        config.setImportSkipPrefixes(props.getProperty("import.skip.prefixes", config.getImportSkipPrefixes()));
+        config.setImportKeepPrefixes(props.getProperty("import.keep.prefixes", config.getImportKeepPrefixes()));
+        config.setShowErrorStacktrace(getBoolean(config, props, "show.error.stacktrace", config.isShowErrorStacktrace()));
+        config.setOpenOutputDirectory(getBoolean(config, props, "open.output.directory", config.isOpenOutputDirectory()));
+        config.setWatchEnabled(getBoolean(config, props, "watch.enabled", config.isWatchEnabled()));
+        
+        return config;
     }
     
-    private static void setFieldValue(Object target, Class<?> clazz, String fieldName, Object value) {
+    private static int getInt(PluginConfig config, Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
         try {
-            Field field = clazz.getDeclaredField(fieldName);
-            field.setAccessible(true);
-            field.set(target, value);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            // 尝试查找对应的setter方法
-            try {
-                String setterName = "set" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
-                java.lang.reflect.Method setter = clazz.getMethod(setterName, value.getClass());
-                setter.invoke(target, value);
-            } catch (Exception ex) {
-                System.err.println("Failed to set field " + fieldName + ": " + ex.getMessage());
-            }
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            config.addInvalidValue(key, value);
+            return defaultValue;
         }
     }
+    
+    private static boolean getBoolean(PluginConfig config, Properties props, String key, boolean defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if ("true".equalsIgnoreCase(value.trim())) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value.trim())) {
+            return false;
+        }
+        config.addInvalidValue(key, value);
+        return defaultValue;
+    }
 }
-
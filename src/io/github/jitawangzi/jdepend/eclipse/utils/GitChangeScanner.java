@@ -0,0 +1,120 @@
+package io.github.jitawangzi.jdepend.eclipse.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 通过本地 git 命令列出自某个版本以来修改过的文件，不访问网络
+ * 包括已提交、已暂存和工作区中的修改，以及未被忽略的新文件；已删除的文件不列出。
+ */
+public class GitChangeScanner {
+
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private GitChangeScanner() {
+    }
+
+    /**
+     * @param directory 工作区中的目录，只列出该目录下的文件
+     * @param baseRevision 基准版本，如 HEAD、main、HEAD~3 或提交哈希
+     * @return 修改过的文件，按 git 输出顺序
+     */
+    public static List<File> changedFiles(File directory, String baseRevision, Consumer<String> log) throws IOException {
+        String revision = baseRevision == null ? "" : baseRevision.trim();
+        if (!isValidRevision(revision)) {
+            throw new IOException("无效的基准版本: " + baseRevision);
+        }
+        Set<String> paths = new LinkedHashSet<>();
+        // --relative 使路径相对于 directory，并只列出其中的文件
+        paths.addAll(run(directory, log, "diff", "--name-only", "--relative", "-z", "--diff-filter=ACMR", revision, "--"));
+        paths.addAll(run(directory, log, "ls-files", "--others", "--exclude-standard", "-z"));
+        List<File> files = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            files.add(new File(directory, path));
+        }
+        return files;
+    }
+
+    /**
+     * 版本不能为空、不能以 - 开头 (避免被当作选项)，也不能含有空白
+     */
+    public static boolean isValidRevision(String revision) {
+        if (revision == null || revision.isEmpty() || revision.startsWith("-")) {
+            return false;
+        }
+        for (int i = 0; i < revision.length(); i++) {
+            if (Character.isWhitespace(revision.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> run(File directory, Consumer<String> log, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        log.accept("执行: " + String.join(" ", command));
+        ProcessBuilder builder = new ProcessBuilder(command).directory(directory);
+        // 只读操作，不获取索引锁，避免与 IDE 中的 git 集成冲突；不提示输入凭据
+        builder.environment().put("GIT_OPTIONAL_LOCKS", "0");
+        builder.environment().put("GIT_TERMINAL_PROMPT", "0");
+        Process process;
+        try {
+            process = builder.start();
+        } catch (IOException e) {
+            throw new IOException("无法执行 git，请确认已安装并在 PATH 中: " + e.getMessage(), e);
+        }
+        process.getOutputStream().close();
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+        Thread errorReader = new Thread(() -> copy(process.getErrorStream(), error), "git-stderr");
+        errorReader.setDaemon(true);
+        errorReader.start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        copy(process.getInputStream(), output);
+        try {
+            if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("git " + args[0] + " 超时");
+            }
+            errorReader.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("git " + args[0] + " 被中断", e);
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException("git " + args[0] + " 失败 (退出码 " + process.exitValue() + "): "
+                    + new String(error.toByteArray(), StandardCharsets.UTF_8).trim());
+        }
+        List<String> paths = new ArrayList<>();
+        for (String path : new String(output.toByteArray(), StandardCharsets.UTF_8).split("\0")) {
+            if (!path.isEmpty()) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+
+    private static void copy(InputStream in, ByteArrayOutputStream out) {
+        byte[] buffer = new byte[8192];
+        try (InputStream input = in) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            // 进程结束时流被关闭
+        }
+    }
+}
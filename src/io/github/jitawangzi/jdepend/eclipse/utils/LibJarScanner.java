@@ -0,0 +1,60 @@
+package io.github.jitawangzi.jdepend.eclipse.utils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 扫描插件 lib 目录下的 JAR 包 (支持目录模式和JAR模式)
+ */
+public class LibJarScanner {
+
+    /**
+     * @param pluginLocation 插件代码所在位置，目录或 JAR
+     * @param log 调试日志输出
+     */
+    public static List<URL> scan(URL pluginLocation, Consumer<String> log) throws Exception {
+        List<URL> validUrls = new ArrayList<>();
+        File locationFile = new File(pluginLocation.toURI());
+
+        if (locationFile.isDirectory()) {
+            // 目录模式
+            log.accept("检测到插件以目录形式运行，扫描文件系统...");
+            File pluginRoot = locationFile;
+            if ("bin".equalsIgnoreCase(pluginRoot.getName())
+                    || "target".equalsIgnoreCase(pluginRoot.getName())
+                    || "classes".equalsIgnoreCase(pluginRoot.getName())) {
+                pluginRoot = pluginRoot.getParentFile();
+            }
+            File libDir = new File(pluginRoot, "lib");
+            if (libDir.isDirectory()) {
+                File[] jars = libDir.listFiles((dir, name) -> name.endsWith(".jar"));
+                if (jars != null) {
+                    for (File jar : jars) {
+                        validUrls.add(jar.toURI().toURL());
+                    }
+                }
+            }
+        } else {
+            // JAR 模式
+            log.accept("检测到插件以JAR形式运行，扫描内部 lib...");
+            try (InputStream jarStream = pluginLocation.openStream();
+                 ZipInputStream zipInput = new ZipInputStream(jarStream)) {
+                ZipEntry entry;
+                while ((entry = zipInput.getNextEntry()) != null) {
+                    String name = entry.getName();
+                    if (name.startsWith("lib/") && name.endsWith(".jar") && !entry.isDirectory()) {
+                        URL innerJarUrl = new URL("jar:" + pluginLocation + "!/" + name);
+                        validUrls.add(innerJarUrl);
+                    }
+                }
+            }
+        }
+        return validUrls;
+    }
+}
@@ -0,0 +1,411 @@
+package io.github.jitawangzi.jdepend.eclipse.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 只监听本机回环地址的最小 HTTP/1.1 服务
+ * 每个连接处理一个请求后关闭，不支持 keep-alive 和分块请求体；所有请求都要带 Authorization: Bearer &lt;token&gt;，
+ * 读完头部即校验，未通过认证的请求不读取请求体。连接由服务自己的小线程池处理，头部须在较短时间内发送完毕，
+ * 积压的连接过多时直接拒绝，不占用分析使用的线程池。
+ * 插件不依赖 com.sun.net.httpserver (OSGi 下默认不可见)，这里直接基于 ServerSocket 实现。
+ */
+public class LoopbackHttpServer {
+
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final int MAX_BODY_BYTES = 1024 * 1024;
+    private static final int HEADER_TIMEOUT_MILLIS = 5_000;
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+    /** 同时处理的连接数；分析本身同一时间只运行一个，其余请求排队等待 */
+    private static final int MAX_WORKERS = 4;
+    private static final int MAX_QUEUED = 16;
+
+    /**
+     * 处理一个已通过认证的请求，必须调用一次 response 的 send 方法
+     */
+    public interface Handler {
+        void handle(Request request, Response response) throws Exception;
+    }
+
+    private final String token;
+    private final Handler handler;
+    private final String threadName;
+    private ServerSocket serverSocket;
+    private ThreadPoolExecutor executor;
+
+    public LoopbackHttpServer(String token, Handler handler, String threadName) {
+        this.token = token;
+        this.handler = handler;
+        this.threadName = threadName;
+    }
+
+    /**
+     * @param port 监听端口，0 表示由系统分配
+     * @return 实际监听的端口
+     */
+    public synchronized int start(int port) throws IOException {
+        if (serverSocket != null) {
+            return serverSocket.getLocalPort();
+        }
+        serverSocket = new ServerSocket(port, 16, InetAddress.getLoopbackAddress());
+        executor = newExecutor();
+        ServerSocket socket = serverSocket;
+        ThreadPoolExecutor workers = executor;
+        Thread acceptor = new Thread(() -> acceptLoop(socket, workers), threadName);
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return socket.getLocalPort();
+    }
+
+    public synchronized void stop() {
+        if (serverSocket == null) {
+            return;
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // 关闭时的异常不影响停止
+        }
+        serverSocket = null;
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    private ThreadPoolExecutor newExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_WORKERS, MAX_WORKERS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED), runnable -> {
+                    Thread thread = new Thread(runnable, threadName + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setContextClassLoader(LoopbackHttpServer.class.getClassLoader());
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private void acceptLoop(ServerSocket socket, ThreadPoolExecutor executor) {
+        while (!socket.isClosed()) {
+            Socket connection;
+            try {
+                connection = socket.accept();
+            } catch (IOException e) {
+                // stop() 关闭监听套接字后退出
+                return;
+            }
+            try {
+                executor.execute(() -> serve(connection));
+            } catch (RejectedExecutionException e) {
+                reject(connection);
+            }
+        }
+    }
+
+    /**
+     * 积压过多或服务正在停止，返回 503 后关闭连接，不读取请求
+     */
+    private void reject(Socket connection) {
+        try (Socket socket = connection) {
+            new Response(socket.getOutputStream()).sendError(503, "server busy");
+        } catch (IOException e) {
+            // 客户端提前断开
+        }
+    }
+
+    private void serve(Socket connection) {
+        try (Socket socket = connection) {
+            socket.setSoTimeout(HEADER_TIMEOUT_MILLIS);
+            Response response = new Response(socket.getOutputStream());
+            Request request;
+            try {
+                request = Request.readHead(socket.getInputStream());
+                if (!authorized(request.getHeader("authorization"))) {
+                    response.sendError(401, "missing or invalid token");
+                    return;
+                }
+                socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+                request.readBody(socket.getInputStream());
+            } catch (BadRequestException e) {
+                response.sendError(e.status, e.getMessage());
+                return;
+            } catch (SocketTimeoutException e) {
+                response.sendError(408, "timed out reading the request");
+                return;
+            }
+            try {
+                handler.handle(request, response);
+            } catch (Exception e) {
+                if (!response.isSent()) {
+                    response.sendError(500, String.valueOf(e.getMessage()));
+                }
+            }
+        } catch (SocketException e) {
+            // 客户端提前断开
+        } catch (IOException e) {
+            System.err.println("[" + threadName + "] 处理请求失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 固定时间比较，避免按响应时间逐字节猜出 token
+     */
+    private boolean authorized(String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return false;
+        }
+        byte[] expected = token.getBytes(StandardCharsets.UTF_8);
+        byte[] actual = authorization.substring(7).trim().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    public static class Request {
+
+        private final String method;
+        private final String path;
+        private final Map<String, String> query;
+        private final Map<String, String> headers;
+        private byte[] body = new byte[0];
+
+        private Request(String method, String path, Map<String, String> query, Map<String, String> headers) {
+            this.method = method;
+            this.path = path;
+            this.query = query;
+            this.headers = headers;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * 查询参数，没有时返回 null
+         */
+        public String getParameter(String name) {
+            return query.get(name);
+        }
+
+        /**
+         * @param name 小写的头名称
+         */
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * 读取请求行与头部，请求体在认证通过后由 {@link #readBody} 读取
+         */
+        static Request readHead(InputStream in) throws IOException {
+            String head = readHeadBytes(in);
+            String[] lines = head.split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+                throw new BadRequestException(400, "malformed request line");
+            }
+            Map<String, String> headers = new HashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon > 0) {
+                    headers.put(lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT), lines[i].substring(colon + 1).trim());
+                }
+            }
+            String target = requestLine[1];
+            int question = target.indexOf('?');
+            Map<String, String> query = new HashMap<>();
+            if (question >= 0) {
+                for (String pair : target.substring(question + 1).split("&")) {
+                    int equals = pair.indexOf('=');
+                    if (equals > 0) {
+                        query.put(decode(pair.substring(0, equals)), decode(pair.substring(equals + 1)));
+                    } else if (!pair.isEmpty()) {
+                        query.put(decode(pair), "");
+                    }
+                }
+            }
+            return new Request(requestLine[0], question >= 0 ? target.substring(0, question) : target, query, headers);
+        }
+
+        void readBody(InputStream in) throws IOException {
+            if (headers.containsKey("transfer-encoding")) {
+                throw new BadRequestException(411, "chunked request bodies are not supported, send Content-Length");
+            }
+            int length;
+            try {
+                length = headers.containsKey("content-length") ? Integer.parseInt(headers.get("content-length")) : 0;
+            } catch (NumberFormatException e) {
+                throw new BadRequestException(400, "invalid Content-Length");
+            }
+            if (length < 0 || length > MAX_BODY_BYTES) {
+                throw new BadRequestException(413, "request body too large");
+            }
+            byte[] bytes = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int count = in.read(bytes, read, length - read);
+                if (count < 0) {
+                    throw new BadRequestException(400, "truncated request body");
+                }
+                read += count;
+            }
+            body = bytes;
+        }
+
+        /**
+         * 读取到空行为止的请求行与头部；超时按整个头部计算，而不只是单次读取
+         */
+        private static String readHeadBytes(InputStream in) throws IOException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(HEADER_TIMEOUT_MILLIS);
+            ByteArrayOutputStream head = new ByteArrayOutputStream();
+            int matched = 0;
+            while (matched < 4) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw new SocketTimeoutException("request header not received in time");
+                }
+                int b = in.read();
+                if (b < 0) {
+                    throw new BadRequestException(400, "incomplete request");
+                }
+                head.write(b);
+                if (head.size() > MAX_HEADER_BYTES) {
+                    throw new BadRequestException(431, "request header too large");
+                }
+                matched = b == (matched % 2 == 0 ? '\r' : '\n') ? matched + 1 : (b == '\r' ? 1 : 0);
+            }
+            return new String(head.toByteArray(), 0, head.size() - 4, StandardCharsets.ISO_8859_1);
+        }
+
+        private static String decode(String value) {
+            try {
+                return URLDecoder.decode(value, "UTF-8");
+            } catch (IOException | IllegalArgumentException e) {
+                return value;
+            }
+        }
+    }
+
+    public static class Response {
+
+        private final OutputStream out;
+        private boolean sent;
+
+        Response(OutputStream out) {
+            this.out = out;
+        }
+
+        public boolean isSent() {
+            return sent;
+        }
+
+        public void send(int status, String contentType, byte[] body, Map<String, String> headers) throws IOException {
+            writeHead(status, contentType, body.length, headers);
+            out.write(body);
+            out.flush();
+        }
+
+        public void send(int status, String contentType, String body) throws IOException {
+            send(status, contentType + "; charset=UTF-8", body.getBytes(StandardCharsets.UTF_8), null);
+        }
+
+        /**
+         * 以 JSON 返回错误，格式为 {"error": "..."}
+         */
+        public void sendError(int status, String message) throws IOException {
+            send(status, "application/json", "{\"error\": " + JsonUtils.quote(message) + "}\n");
+        }
+
+        /**
+         * 直接从文件复制响应体，不整体读入内存
+         */
+        public void sendFile(int status, String contentType, File file, Map<String, String> headers) throws IOException {
+            writeHead(status, contentType, file.length(), headers);
+            Files.copy(file.toPath(), out);
+            out.flush();
+        }
+
+        private void writeHead(int status, String contentType, long length, Map<String, String> headers) throws IOException {
+            if (sent) {
+                throw new IllegalStateException("response already sent");
+            }
+            sent = true;
+            StringBuilder head = new StringBuilder("HTTP/1.1 ").append(status).append(' ').append(reason(status)).append("\r\n");
+            head.append("Content-Type: ").append(contentType).append("\r\n");
+            head.append("Content-Length: ").append(length).append("\r\n");
+            head.append("Cache-Control: no-store\r\n");
+            head.append("Connection: close\r\n");
+            if (headers != null) {
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+                }
+            }
+            out.write(head.append("\r\n").toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static String reason(int status) {
+            switch (status) {
+                case 200:
+                    return "OK";
+                case 400:
+                    return "Bad Request";
+                case 401:
+                    return "Unauthorized";
+                case 404:
+                    return "Not Found";
+                case 405:
+                    return "Method Not Allowed";
+                case 408:
+                    return "Request Timeout";
+                case 411:
+                    return "Length Required";
+                case 413:
+                    return "Payload Too Large";
+                case 422:
+                    return "Unprocessable Entity";
+                case 431:
+                    return "Request Header Fields Too Large";
+                case 503:
+                    return "Service Unavailable";
+                default:
+                    return status >= 500 ? "Internal Server Error" : "Error";
+            }
+        }
+    }
+
+    private static class BadRequestException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        BadRequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.jitawangzi.jdepend.eclipse.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 逗号分隔的前缀列表匹配器
+ */
+public class PrefixMatcher {
+
+    private final String[] prefixes;
+
+    public PrefixMatcher(String commaSeparated) {
+        this(split(commaSeparated));
+    }
+
+    public PrefixMatcher(List<String> prefixes) {
+        this.prefixes = prefixes.toArray(new String[0]);
+    }
+
+    /**
+     * 拆分逗号分隔的列表，去掉空白和空项，保持原有顺序
+     */
+    public static List<String> split(String commaSeparated) {
+        List<String> values = new ArrayList<>();
+        if (commaSeparated != null) {
+            for (String part : commaSeparated.split(",")) {
+                String trimmed = part.trim();
+                if (!trimmed.isEmpty()) {
+                    values.add(trimmed);
+                }
+            }
+        }
+        return values;
+    }
+
+    public boolean isEmpty() {
+        return prefixes.length == 0;
+    }
+
+    public boolean matches(String value) {
+        for (String prefix : prefixes) {
+            if (value.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.jitawangzi.jdepend.eclipse.utils;
+
+/**
+ * 粗略估算文本的 token 数，不依赖具体模型的分词器
+ * ASCII 字符按每 4 个约 1 个 token 计，其他字符 (中文等) 每个按 1 个 token 计；结果偏保守。
+ */
+public class TokenEstimator {
+
+    private TokenEstimator() {
+    }
+
+    public static long estimate(CharSequence text) {
+        return estimate(text, 0, text.length());
+    }
+
+    public static long estimate(CharSequence text, int start, int end) {
+        long ascii = 0;
+        long other = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) < 0x80) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return (ascii + 3) / 4 + other;
+    }
+}
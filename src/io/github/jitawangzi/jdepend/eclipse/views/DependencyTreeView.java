@@ -0,0 +1,359 @@
+package io.github.jitawangzi.jdepend.eclipse.views;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.ui.JavaUI;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.SashForm;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.swt.widgets.Tree;
+import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.ui.IMemento;
+import org.eclipse.ui.ISharedImages;
+import org.eclipse.ui.IViewSite;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.part.ViewPart;
+
+import io.github.jitawangzi.jdepend.eclipse.Activator;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultCodec;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultIndex;
+
+/**
+ * 以依赖树浏览保存的分析结果 (*.result.bin)，不必打开巨大的 Markdown 文件
+ * 树使用 SWT.VIRTUAL，节点只在滚动到可见或展开时通过 SetData 事件创建，子节点即该类型依赖的类型，
+ * 界面开销只与可见的节点数有关；出现依赖环时在环上的节点处停止展开。
+ * 过滤时改为列出名称匹配的全部类型，选中节点在下方显示代码，双击通过 JDT 打开源码。
+ * 打开时只读取结果文件的索引，代码在选中节点时才于后台从文件中读取。
+ */
+public class DependencyTreeView extends ViewPart {
+
+    public static final String ID = "io.github.jitawangzi.jdepend.eclipse.views.dependencyTree";
+
+    private static final int FILTER_DELAY_MILLIS = 300;
+    private static final String MEMENTO_RESULT_FILE = "resultFile";
+
+    private Text filterText;
+    private Tree tree;
+    private Text codeText;
+    private Action reloadAction;
+
+    private File resultFile;
+    private ResultIndex result;
+    // 最近一次请求显示代码的类型，后台读取完成时用于丢弃过时的结果
+    private int codeRequest = -1;
+    // 小写的类型全名，过滤时使用
+    private String[] searchNames = new String[0];
+    // 当前的顶层节点：没有过滤时为深度 0 的类型，过滤时为名称匹配的类型
+    private int[] roots = new int[0];
+
+    private final Runnable filterTask = this::applyFilter;
+
+    /**
+     * 打开视图并加载结果文件
+     */
+    public static void show(IWorkbenchPage page, File file) throws PartInitException {
+        DependencyTreeView view = (DependencyTreeView) page.showView(ID);
+        view.load(file);
+    }
+
+    @Override
+    public void init(IViewSite site, IMemento memento) throws PartInitException {
+        super.init(site, memento);
+        String path = memento != null ? memento.getString(MEMENTO_RESULT_FILE) : null;
+        if (path != null && new File(path).isFile()) {
+            resultFile = new File(path);
+        }
+    }
+
+    @Override
+    public void saveState(IMemento memento) {
+        super.saveState(memento);
+        if (resultFile != null) {
+            memento.putString(MEMENTO_RESULT_FILE, resultFile.getAbsolutePath());
+        }
+    }
+
+    @Override
+    public void createPartControl(Composite parent) {
+        GridLayout layout = new GridLayout(1, false);
+        layout.marginWidth = 0;
+        layout.marginHeight = 0;
+        parent.setLayout(layout);
+
+        filterText = new Text(parent, SWT.SEARCH | SWT.ICON_SEARCH | SWT.ICON_CANCEL | SWT.BORDER);
+        filterText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+        filterText.setMessage("Filter types by name");
+        filterText.addModifyListener(e -> {
+            filterText.getDisplay().timerExec(-1, filterTask);
+            filterText.getDisplay().timerExec(FILTER_DELAY_MILLIS, filterTask);
+        });
+
+        SashForm sash = new SashForm(parent, SWT.VERTICAL);
+        sash.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
+        tree = new Tree(sash, SWT.VIRTUAL | SWT.SINGLE | SWT.V_SCROLL | SWT.H_SCROLL);
+        tree.addListener(SWT.SetData, this::populate);
+        tree.addListener(SWT.Selection, e -> showCode((TreeItem) e.item));
+        tree.addListener(SWT.DefaultSelection, e -> openSource((TreeItem) e.item));
+        codeText = new Text(sash, SWT.MULTI | SWT.READ_ONLY | SWT.V_SCROLL | SWT.H_SCROLL);
+        codeText.setFont(JFaceResources.getTextFont());
+        sash.setWeights(new int[] { 3, 2 });
+
+        createActions();
+        setContentDescription("Open a saved analysis result (*.result.bin) to browse its dependency tree. "
+                + "The built-in engine saves one next to the output when Save Result Model is on.");
+        if (resultFile != null) {
+            load(resultFile);
+        }
+    }
+
+    private void createActions() {
+        Action openAction = new Action("Open Result...") {
+            @Override
+            public void run() {
+                FileDialog dialog = new FileDialog(getSite().getShell(), SWT.OPEN);
+                dialog.setFilterExtensions(new String[] { "*" + ResultCodec.FILE_SUFFIX, "*.*" });
+                if (resultFile != null) {
+                    dialog.setFilterPath(resultFile.getParent());
+                }
+                String path = dialog.open();
+                if (path != null) {
+                    load(new File(path));
+                }
+            }
+        };
+        openAction.setToolTipText("Open a saved analysis result (*.result.bin)");
+        openAction.setImageDescriptor(PlatformUI.getWorkbench().getSharedImages().getImageDescriptor(ISharedImages.IMG_OBJ_FOLDER));
+
+        reloadAction = new Action("Reload") {
+            @Override
+            public void run() {
+                if (resultFile != null) {
+                    load(resultFile);
+                }
+            }
+        };
+        reloadAction.setToolTipText("Reload the result file after a new analysis");
+        reloadAction.setImageDescriptor(PlatformUI.getWorkbench().getSharedImages().getImageDescriptor(ISharedImages.IMG_TOOL_REDO));
+        reloadAction.setEnabled(false);
+
+        IToolBarManager toolBar = getViewSite().getActionBars().getToolBarManager();
+        toolBar.add(openAction);
+        toolBar.add(reloadAction);
+    }
+
+    /**
+     * 在后台读取结果文件，读完后替换视图内容
+     */
+    public void load(File file) {
+        Display display = tree.getDisplay();
+        Job job = new Job("Loading " + file.getName()) {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                ResultIndex loaded;
+                try {
+                    loaded = ResultCodec.readIndex(file);
+                } catch (IOException e) {
+                    return new Status(IStatus.ERROR, Activator.PLUGIN_ID, "无法读取分析结果: " + file, e);
+                }
+                if (!display.isDisposed()) {
+                    display.asyncExec(() -> setResult(file, loaded));
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.setUser(true);
+        job.schedule();
+    }
+
+    private void setResult(File file, ResultIndex loaded) {
+        if (tree.isDisposed()) {
+            return;
+        }
+        resultFile = file;
+        result = loaded;
+        codeRequest = -1;
+        List<ResultIndex.Entry> types = loaded.getTypes();
+        searchNames = new String[types.size()];
+        for (int i = 0; i < searchNames.length; i++) {
+            searchNames[i] = types.get(i).getName().toLowerCase(Locale.ROOT);
+        }
+        reloadAction.setEnabled(true);
+        codeText.setText("");
+        applyFilter();
+    }
+
+    private void applyFilter() {
+        if (result == null || tree.isDisposed()) {
+            return;
+        }
+        String filter = filterText.getText().trim().toLowerCase(Locale.ROOT);
+        List<ResultIndex.Entry> types = result.getTypes();
+        int[] matches = new int[types.size()];
+        int count = 0;
+        for (int i = 0; i < matches.length; i++) {
+            if (filter.isEmpty() ? types.get(i).getDepth() == 0 : searchNames[i].contains(filter)) {
+                matches[count++] = i;
+            }
+        }
+        roots = Arrays.copyOf(matches, count);
+        tree.setRedraw(false);
+        try {
+            tree.removeAll();
+            tree.setItemCount(roots.length);
+        } finally {
+            tree.setRedraw(true);
+        }
+        StringBuilder description = new StringBuilder(result.getMainClass()).append(" - ").append(types.size()).append(" types");
+        if (!filter.isEmpty()) {
+            description.append(", ").append(count).append(" matching");
+        }
+        description.append(" (").append(resultFile.getName()).append(')');
+        setContentDescription(description.toString());
+    }
+
+    /**
+     * SetData 回调：节点第一次可见时才确定它对应的类型，并只登记子节点数量
+     */
+    private void populate(Event event) {
+        TreeItem item = (TreeItem) event.item;
+        TreeItem parentItem = item.getParentItem();
+        int index = parentItem == null ? roots[event.index]
+                : result.getTypes().get((Integer) parentItem.getData()).getDependencies()[event.index];
+        ResultIndex.Entry type = result.getTypes().get(index);
+        boolean cycle = isAncestor(parentItem, index);
+        item.setData(index);
+        item.setText(label(type, cycle));
+        item.setItemCount(cycle ? 0 : type.getDependencies().length);
+    }
+
+    private static boolean isAncestor(TreeItem item, int index) {
+        for (TreeItem current = item; current != null; current = current.getParentItem()) {
+            if (current.getData() instanceof Integer && (Integer) current.getData() == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String label(ResultIndex.Entry type, boolean cycle) {
+        String name = type.getName();
+        int dot = name.lastIndexOf('.');
+        StringBuilder label = new StringBuilder(dot >= 0 ? name.substring(dot + 1) : name);
+        if (dot >= 0) {
+            label.append(" - ").append(name, 0, dot);
+        }
+        label.append("  [depth ").append(type.getDepth()).append(", ").append(type.getDependencies().length).append(" deps]");
+        if (cycle) {
+            label.append("  (cycle)");
+        }
+        return label.toString();
+    }
+
+    /**
+     * 在后台从结果文件读取选中类型的代码，读完时选中的仍是该类型才显示
+     */
+    private void showCode(TreeItem item) {
+        if (item == null || !(item.getData() instanceof Integer)) {
+            return;
+        }
+        int index = (Integer) item.getData();
+        ResultIndex shown = result;
+        codeRequest = index;
+        Display display = codeText.getDisplay();
+        Job job = new Job("Loading code of " + shown.getTypes().get(index).getName()) {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                String code;
+                try {
+                    code = shown.readCode(index);
+                } catch (IOException e) {
+                    code = "Failed to read the code: " + e.getMessage();
+                }
+                String text = code;
+                if (!display.isDisposed()) {
+                    display.asyncExec(() -> {
+                        if (!codeText.isDisposed() && result == shown && codeRequest == index) {
+                            codeText.setText(text);
+                        }
+                    });
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.schedule();
+    }
+
+    /**
+     * 在工作空间的 Java 项目中查找类型并打开，结果文件所在的项目优先
+     */
+    private void openSource(TreeItem item) {
+        if (item == null || !(item.getData() instanceof Integer)) {
+            return;
+        }
+        String name = result.getTypes().get((Integer) item.getData()).getName();
+        try {
+            for (IJavaProject project : candidateProjects()) {
+                IType type = project.findType(name);
+                if (type != null) {
+                    JavaUI.openInEditor(type);
+                    return;
+                }
+            }
+            MessageDialog.openInformation(getSite().getShell(), "Dependency Tree", "Type " + name + " was not found in the workspace.");
+        } catch (PartInitException | JavaModelException e) {
+            MessageDialog.openError(getSite().getShell(), "Dependency Tree", "Failed to open " + name + ": " + e.getMessage());
+        }
+    }
+
+    private List<IJavaProject> candidateProjects() throws JavaModelException {
+        List<IJavaProject> projects = new ArrayList<>();
+        if (resultFile != null) {
+            for (IContainer container : ResourcesPlugin.getWorkspace().getRoot()
+                    .findContainersForLocationURI(resultFile.getAbsoluteFile().getParentFile().toURI())) {
+                IJavaProject project = JavaCore.create(container.getProject());
+                if (project.exists() && !projects.contains(project)) {
+                    projects.add(project);
+                }
+            }
+        }
+        for (IJavaProject project : JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects()) {
+            if (!projects.contains(project)) {
+                projects.add(project);
+            }
+        }
+        return projects;
+    }
+
+    @Override
+    public void setFocus() {
+        tree.setFocus();
+    }
+}
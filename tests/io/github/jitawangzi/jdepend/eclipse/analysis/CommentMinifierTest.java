@@ -0,0 +1,183 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import static io.github.jitawangzi.jdepend.eclipse.testing.Checks.check;
+import static io.github.jitawangzi.jdepend.eclipse.testing.Checks.checkEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import io.github.jitawangzi.jdepend.eclipse.testing.Checks;
+
+/**
+ * {@link CommentMinifier} 的许可证头删除、注释精简与空白规整检查
+ */
+public class CommentMinifierTest {
+
+    public static void main(String[] args) {
+        Checks.run(CommentMinifierTest.class);
+    }
+
+    private static String minify(String language, String commentMode, boolean stripLicenseHeaders,
+            boolean normalizeWhitespace, String... lines) throws IOException {
+        StringWriter out = new StringWriter();
+        CommentMinifier minifier = new CommentMinifier(language, commentMode, stripLicenseHeaders, normalizeWhitespace, out);
+        for (String line : lines) {
+            minifier.line(line);
+        }
+        minifier.finish();
+        checkEquals((long) out.toString().length(), minifier.getWrittenChars(), "输出字符数");
+        return out.toString();
+    }
+
+    /**
+     * 每行以换行结束，与输出格式一致
+     */
+    private static String lines(String... lines) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static final String[] JAVA = {
+            "/*",
+            " * Copyright 2020 Example",
+            " * Licensed under the MIT License",
+            " */",
+            "package a;",
+            "",
+            "",
+            "/**",
+            " * Main class.",
+            " * More text.",
+            " */",
+            "public class A {   ",
+            "    // first",
+            "    // second",
+            "    int x = 1; // trailing",
+            "    String s = \"// not a comment /* nor this */\";",
+            "    /* inline */ int y;",
+            "    /**",
+            "     * ",
+            "     * Deferred first line.",
+            "     */",
+            "    void f() {}",
+            "}",
+            "" };
+
+    public static void testIsEnabled() {
+        check(!CommentMinifier.isEnabled(CommentMinifier.COMMENTS_KEEP, false, false), "全部关闭");
+        check(!CommentMinifier.isEnabled(null, false, false), "未设置注释模式");
+        check(CommentMinifier.isEnabled(CommentMinifier.COMMENTS_DROP, false, false), "删除注释");
+        check(CommentMinifier.isEnabled(CommentMinifier.COMMENTS_KEEP, true, false), "删除许可证头");
+        check(CommentMinifier.isEnabled(CommentMinifier.COMMENTS_KEEP, false, true), "规整空白");
+    }
+
+    public static void testKeepModePassesLinesThrough() throws IOException {
+        checkEquals(lines(JAVA), minify("java", CommentMinifier.COMMENTS_KEEP, false, false, JAVA), "保留模式原样输出");
+    }
+
+    public static void testLicenseHeaderRemoved() throws IOException {
+        String actual = minify("java", CommentMinifier.COMMENTS_KEEP, true, false,
+                "/*", " * Copyright 2020 Example", " */", "package a;", "/* not a license */", "class A {}");
+        checkEquals(lines("package a;", "/* not a license */", "class A {}"), actual, "开头的许可证块注释");
+
+        actual = minify("js", CommentMinifier.COMMENTS_KEEP, true, false,
+                "// SPDX-License-Identifier: MIT", "// (c) Example", "const a = 1;");
+        checkEquals(lines("const a = 1;"), actual, "开头连续的许可证行注释");
+    }
+
+    public static void testFirstCommentWithoutLicenseKept() throws IOException {
+        String actual = minify("java", CommentMinifier.COMMENTS_KEEP, true, false,
+                "// just a note", "// second line", "class A {}");
+        checkEquals(lines("// just a note", "// second line", "class A {}"), actual, "不含许可证关键字的开头注释保留");
+
+        actual = minify("java", CommentMinifier.COMMENTS_KEEP, true, false, "/*", " * unterminated");
+        checkEquals(lines("/*", " * unterminated"), actual, "未闭合的开头注释按普通注释输出");
+    }
+
+    public static void testFirstLineMode() throws IOException {
+        String actual = minify("java", CommentMinifier.COMMENTS_FIRST_LINE, true, true, JAVA);
+        checkEquals(lines(
+                "package a;",
+                "",
+                "/** Main class. */",
+                "public class A {",
+                "    // first",
+                "    int x = 1; // trailing",
+                "    String s = \"// not a comment /* nor this */\";",
+                "    /* inline */ int y;",
+                "    /** Deferred first line. */",
+                "    void f() {}",
+                "}"), actual, "块注释只保留第一行，连续行注释只保留第一条");
+    }
+
+    public static void testDropMode() throws IOException {
+        String actual = minify("java", CommentMinifier.COMMENTS_DROP, true, true, JAVA);
+        checkEquals(lines(
+                "package a;",
+                "",
+                "public class A {",
+                "    int x = 1;",
+                "    String s = \"// not a comment /* nor this */\";",
+                "    int y;",
+                "    void f() {}",
+                "}"), actual, "删除全部注释，只剩注释的行随之删除");
+
+        actual = minify("js", CommentMinifier.COMMENTS_DROP, false, false, "a(); /* x", " y */ b();", "c(1, /* arg */ 2);");
+        checkEquals(lines("a(); ", "b();", "c(1, 2);"), actual, "跨行与行内的块注释");
+    }
+
+    public static void testCommentMarkersInsideStrings() throws IOException {
+        String actual = minify("js", CommentMinifier.COMMENTS_DROP, false, true,
+                "const url = 'http://example.com'; // site",
+                "const t = `a",
+                "// inside template /*",
+                "`;",
+                "const c = \"\\\"/* escaped */\";");
+        checkEquals(lines(
+                "const url = 'http://example.com';",
+                "const t = `a",
+                "// inside template /*",
+                "`;",
+                "const c = \"\\\"/* escaped */\";"), actual, "字符串与模板字符串中的注释标记");
+    }
+
+    public static void testWhitespaceNormalized() throws IOException {
+        String actual = minify("java", CommentMinifier.COMMENTS_KEEP, false, true,
+                "", "  ", "class A {  ", "\t", "", "", "    int x;\t", "}", "", "");
+        checkEquals(lines("class A {", "", "    int x;", "}"), actual, "去掉行尾空白、合并空行、去掉首尾空行");
+    }
+
+    public static void testPythonHashComments() throws IOException {
+        String actual = minify("py", CommentMinifier.COMMENTS_DROP, true, true,
+                "#!/usr/bin/env python",
+                "# Copyright Example",
+                "# License: MIT",
+                "import os  # os",
+                "s = '# not a comment'",
+                "t = \"\"\"",
+                "# inside a string",
+                "\"\"\"",
+                "# a",
+                "x = 1");
+        checkEquals(lines(
+                "#!/usr/bin/env python",
+                "import os",
+                "s = '# not a comment'",
+                "t = \"\"\"",
+                "# inside a string",
+                "\"\"\"",
+                "x = 1"), actual, "Python 的 # 注释、许可证头与首行 #!");
+
+        actual = minify("py", CommentMinifier.COMMENTS_FIRST_LINE, false, false, "# a", "# b", "x = 1", "# c");
+        checkEquals(lines("# a", "x = 1", "# c"), actual, "连续的 # 注释只保留第一条");
+    }
+
+    public static void testUnknownLanguageOnlyNormalizesWhitespace() throws IOException {
+        String actual = minify("txt", CommentMinifier.COMMENTS_DROP, true, true,
+                "# Copyright not a comment here", "// neither  ", "", "", "text");
+        checkEquals(lines("# Copyright not a comment here", "// neither", "", "text"), actual, "未知语言只规整空白");
+    }
+}
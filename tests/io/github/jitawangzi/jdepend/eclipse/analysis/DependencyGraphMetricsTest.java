@@ -0,0 +1,148 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import static io.github.jitawangzi.jdepend.eclipse.testing.Checks.check;
+import static io.github.jitawangzi.jdepend.eclipse.testing.Checks.checkEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import io.github.jitawangzi.jdepend.eclipse.testing.Checks;
+
+/**
+ * {@link DependencyGraphMetrics} 的强连通分量、扇入扇出、包环与分层违规检查
+ */
+public class DependencyGraphMetricsTest {
+
+    public static void main(String[] args) {
+        Checks.run(DependencyGraphMetricsTest.class);
+    }
+
+    private static DependencyGraphMetrics graph(String[] names, int[][] dependencies, String... layers) {
+        return new DependencyGraphMetrics(names, dependencies, Arrays.asList(layers));
+    }
+
+    private static String[] names(int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = "p.T" + i;
+        }
+        return names;
+    }
+
+    /**
+     * 各分量排序后的成员集合，与 Tarjan 给出分量与成员的顺序无关
+     */
+    private static Set<String> components(List<int[]> cycles) {
+        Set<String> result = new TreeSet<>();
+        for (int[] cycle : cycles) {
+            int[] sorted = cycle.clone();
+            Arrays.sort(sorted);
+            result.add(Arrays.toString(sorted));
+        }
+        return result;
+    }
+
+    public static void testAcyclicGraphHasNoCycles() {
+        DependencyGraphMetrics metrics = graph(names(4), new int[][] { { 1, 2 }, { 3 }, { 3 }, {} });
+        checkEquals(0, metrics.getCycles().size(), "无环图");
+        checkEquals(4, metrics.getEdgeCount(), "边数");
+    }
+
+    public static void testSelfLoopIsNotACycle() {
+        DependencyGraphMetrics metrics = graph(names(2), new int[][] { { 0, 1 }, {} });
+        checkEquals(0, metrics.getCycles().size(), "只含自环的单个节点不算环");
+        checkEquals(1, metrics.getFanIn(0), "自环计入扇入");
+    }
+
+    public static void testSimpleAndDisjointCycles() {
+        // 0 <-> 1，2 -> 3 -> 4 -> 2，5 单独
+        DependencyGraphMetrics metrics = graph(names(6), new int[][] { { 1 }, { 0 }, { 3 }, { 4 }, { 2 }, { 0, 2 } });
+        checkEquals(new TreeSet<>(Arrays.asList("[0, 1]", "[2, 3, 4]")), components(metrics.getCycles()), "两个独立的环");
+    }
+
+    public static void testOverlappingCyclesFormOneComponent() {
+        // 0 -> 1 -> 0 与 1 -> 2 -> 3 -> 1 共享节点 1，另有自环 3 -> 3
+        DependencyGraphMetrics metrics = graph(names(5), new int[][] { { 1 }, { 0, 2 }, { 3 }, { 1, 3, 4 }, {} });
+        checkEquals(Collections.singleton("[0, 1, 2, 3]"), components(metrics.getCycles()), "共享节点的环合并为一个分量");
+    }
+
+    public static void testCycleReachedThroughLaterStart() {
+        // 从 0 出发先访问 1 (无环分支)，环 2 <-> 3 只能从 0 的第二条边到达，节点编号顺序与访问顺序不同
+        DependencyGraphMetrics metrics = graph(names(4), new int[][] { { 1, 3 }, {}, { 3 }, { 2 } });
+        checkEquals(Collections.singleton("[2, 3]"), components(metrics.getCycles()), "后续边到达的环");
+    }
+
+    public static void testLongChainAndLongCycleDoNotOverflow() {
+        int count = 200_000;
+        int[][] chain = new int[count][];
+        int[][] ring = new int[count][];
+        for (int i = 0; i < count; i++) {
+            chain[i] = i + 1 < count ? new int[] { i + 1 } : new int[0];
+            ring[i] = new int[] { (i + 1) % count };
+        }
+        checkEquals(0, graph(names(count), chain).getCycles().size(), "长链无环");
+        List<int[]> cycles = graph(names(count), ring).getCycles();
+        checkEquals(1, cycles.size(), "长环为一个分量");
+        checkEquals(count, cycles.get(0).length, "长环包含全部节点");
+    }
+
+    public static void testFanInAndFanOut() {
+        DependencyGraphMetrics metrics = graph(names(4), new int[][] { { 1, 2, 3 }, { 3 }, { 3 }, {} });
+        checkEquals(3, metrics.getFanOut(0), "扇出");
+        checkEquals(0, metrics.getFanIn(0), "根的扇入");
+        checkEquals(3, metrics.getFanIn(3), "扇入");
+        checkEquals(0, metrics.getFanOut(3), "叶子的扇出");
+    }
+
+    public static void testPackageCycleIgnoresIntraPackageEdges() {
+        String[] names = { "a.X", "b.Y", "a.Z", "c.W", "Default" };
+        // a.X -> b.Y -> a.Z 构成 a <-> b 的包环；a.X -> a.Z 与 c -> a 不构成环
+        DependencyGraphMetrics metrics = graph(names, new int[][] { { 1, 2 }, { 2 }, {}, { 0 }, { 3 } });
+        checkEquals(0, metrics.getCycles().size(), "类型之间无环");
+        checkEquals(1, metrics.getPackageCycles().size(), "包环数量");
+        checkEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(metrics.getPackageCycles().get(0)), "包环成员");
+    }
+
+    public static void testLayerViolationsUseLongestPrefix() {
+        String[] names = { "com.app.ui.View", "com.app.service.Service", "com.app.dao.Dao", "com.app.Util", "org.other.Lib" };
+        int[][] dependencies = {
+                { 1, 3 }, // ui -> service, ui -> 根包：不违规
+                { 2, 0 }, // service -> ui：违规
+                { 4 }, // dao -> 不属于任何层：不违规
+                { 2 }, // 根包 (最下层) -> dao：违规
+                { 0 } // 不属于任何层：不检查
+        };
+        // com.app.ui.View 同时匹配 com.app 与 com.app.ui，应按最长前缀归入 ui 层
+        DependencyGraphMetrics metrics = graph(names, dependencies, "com.app.ui", "com.app.service", "com.app.dao", "com.app");
+        List<String> violations = new ArrayList<>();
+        for (int[] violation : metrics.getLayerViolations()) {
+            violations.add(names[violation[0]] + " -> " + names[violation[1]]);
+        }
+        checkEquals(Arrays.asList("com.app.service.Service -> com.app.ui.View", "com.app.Util -> com.app.dao.Dao"), violations, "分层违规");
+    }
+
+    public static void testSingleLayerReportsNothing() {
+        DependencyGraphMetrics metrics = graph(new String[] { "a.A", "a.B" }, new int[][] { { 1 }, { 0 } }, "a");
+        checkEquals(0, metrics.getLayerViolations().size(), "只有一层时不检查分层");
+        check(!metrics.toMarkdown(10).contains("Layering Violations"), "只有一层时不输出分层小节");
+    }
+
+    public static void testMarkdownRespectsLimit() {
+        int count = 30;
+        int[][] ring = new int[count][];
+        for (int i = 0; i < count; i++) {
+            ring[i] = new int[] { (i + 1) % count };
+        }
+        String markdown = graph(names(count), ring).toMarkdown(5);
+        check(markdown.contains("### Cycles (1)"), "环数量");
+        check(markdown.contains("- 30 types: "), "环的大小");
+        check(markdown.contains(", ...\n"), "超出上限的成员省略");
+        int rows = markdown.split("\n\\| `", -1).length - 1;
+        checkEquals(5, rows, "扇入扇出表的行数");
+    }
+}
@@ -0,0 +1,255 @@
+package io.github.jitawangzi.jdepend.eclipse.analysis;
+
+import static io.github.jitawangzi.jdepend.eclipse.testing.Checks.check;
+import static io.github.jitawangzi.jdepend.eclipse.testing.Checks.checkEquals;
+
+import io.github.jitawangzi.jdepend.eclipse.testing.Checks;
+
+/**
+ * {@link BraceSourceSimplifier} 与 {@link IndentSourceSimplifier} 的函数体折叠检查
+ * 重点是字符串、模板、正则、原始字符串中的花括号不影响块的配对，以及类与控制语句块不被折叠。
+ */
+public class SourceSimplifierTest {
+
+    public static void main(String[] args) {
+        Checks.run(SourceSimplifierTest.class);
+    }
+
+    private static String simplify(String language, String... lines) {
+        StringBuilder out = new StringBuilder();
+        SourceSimplifier.forLanguage(language).simplify(String.join("\n", lines), out);
+        return out.toString();
+    }
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines);
+    }
+
+    public static void testLanguageSelection() {
+        check(SourceSimplifier.forLanguage("TSX") == BraceSourceSimplifier.SCRIPT, "扩展名不区分大小写");
+        check(SourceSimplifier.forLanguage("python") == IndentSourceSimplifier.PYTHON, "Python");
+        check(SourceSimplifier.forLanguage("java") == null, "Java 由外部分析器处理");
+        check(SourceSimplifier.forLanguage(null) == null, "没有语言标记");
+    }
+
+    public static void testScriptFunctionsCollapsedClassesKept() {
+        String actual = simplify("js",
+                "class A extends B {",
+                "  constructor(x) { super(x); this.x = x; }",
+                "  get y() { return this.x; }",
+                "  static async load(url) {",
+                "    return fetch(url);",
+                "  }",
+                "}",
+                "function f(a, b = {}) {",
+                "  return a;",
+                "}");
+        checkEquals(lines(
+                "class A extends B {",
+                "  constructor(x) { ... }",
+                "  get y() { ... }",
+                "  static async load(url) { ... }",
+                "}",
+                "function f(a, b = {}) { ... }"), actual, "类保留、方法与函数折叠");
+    }
+
+    public static void testArrowFunctionsAndCallbacks() {
+        String actual = simplify("ts",
+                "const g = (a: number): number => { return a; };",
+                "items.map(x => { return x * 2; });",
+                "register({ handle(event) { log(event); }, name: 'h' });");
+        checkEquals(lines(
+                "const g = (a: number): number => { ... };",
+                "items.map(x => { ... });",
+                "register({ handle(event) { ... }, name: 'h' });"), actual, "箭头函数、回调与对象字面量中的方法");
+    }
+
+    public static void testControlBlocksNotCollapsed() {
+        String source = lines(
+                "if (ready) { start(); } else if (late) { wait(); } else { stop(); }",
+                "for (let i = 0; i < n; i++) { step(i); }",
+                "while (more()) { next(); }",
+                "try { risky(); } catch (e) { report(e); } finally { done(); }",
+                "switch (k) { case 1: { one(); } }",
+                "outer: for (const x of xs) { if (x) { continue outer; } }");
+        checkEquals(source, simplify("js", source), "控制语句块原样保留");
+    }
+
+    public static void testLabelsAndScopeOperators() {
+        String actual = simplify("cpp",
+                "class A {",
+                "public: void f() { g(); }",
+                "};",
+                "void A::f() { g(); }");
+        checkEquals(lines(
+                "class A {",
+                "public: void f() { ... }",
+                "};",
+                "void A::f() { ... }"), actual, "访问修饰符与作用域运算符不影响函数识别");
+        checkEquals("const o = { a: function (x) { ... } };",
+                simplify("js", "const o = { a: function (x) { return x; } };"), "属性名后的函数");
+    }
+
+    public static void testTemplateLiteralBraces() {
+        String actual = simplify("js",
+                "const t = `a } ${ {x: '}'}.x } ${`nested ${y}`} {`;",
+                "function f() {",
+                "  return `}${ a ? '{' : b }}`;",
+                "}",
+                "const after = 1;");
+        checkEquals(lines(
+                "const t = `a } ${ {x: '}'}.x } ${`nested ${y}`} {`;",
+                "function f() { ... }",
+                "const after = 1;"), actual, "模板字符串及其插值中的花括号");
+    }
+
+    public static void testRegexLiteralVersusDivision() {
+        String actual = simplify("js",
+                "const half = total / 2; const q = a / b / c;",
+                "const r = s.replace(/[{}/]/g, '');",
+                "function f(x) {",
+                "  if (x) return /}/.test(x);",
+                "  return x / 2;",
+                "}",
+                "const after = 1;");
+        checkEquals(lines(
+                "const half = total / 2; const q = a / b / c;",
+                "const r = s.replace(/[{}/]/g, '');",
+                "function f(x) { ... }",
+                "const after = 1;"), actual, "正则中的花括号与除号");
+    }
+
+    public static void testRustRawStringsAndLifetimes() {
+        String actual = simplify("rs",
+                "struct S<'a> { name: &'a str }",
+                "impl<'a> S<'a> {",
+                "    fn text(&self) -> &'static str { r#\"}\"{\"#; br\"}\" }",
+                "    fn ch(&self) -> char { '}' }",
+                "}",
+                "fn main() { let r#type = 1; }");
+        checkEquals(lines(
+                "struct S<'a> { name: &'a str }",
+                "impl<'a> S<'a> {",
+                "    fn text(&self) -> &'static str { ... }",
+                "    fn ch(&self) -> char { ... }",
+                "}",
+                "fn main() { ... }"), actual, "原始字符串、字符字面量与生命周期");
+    }
+
+    public static void testCppRawStringsAndPreprocessor() {
+        String actual = simplify("cpp",
+                "#define BLOCK(x) { x }",
+                "namespace app {",
+                "std::string f() { return R\"x(})\" })x\"; }",
+                "int g(int a) { return a > 0 ? '}' : '{'; }",
+                "}");
+        checkEquals(lines(
+                "#define BLOCK(x) { x }",
+                "namespace app {",
+                "std::string f() { ... }",
+                "int g(int a) { ... }",
+                "}"), actual, "C++ 原始字符串与预处理指令");
+    }
+
+    public static void testGoBacktickStrings() {
+        String actual = simplify("go",
+                "type T struct { A int }",
+                "func (t T) Query() string {",
+                "\treturn `select '}' from {t}",
+                "\t\twhere x = \"}\"`",
+                "}",
+                "func main() { for i := 0; i < 3; i++ { } }");
+        checkEquals(lines(
+                "type T struct { A int }",
+                "func (t T) Query() string { ... }",
+                "func main() { ... }"), actual, "Go 的反引号字符串跨行");
+    }
+
+    public static void testUnterminatedBlockCopiedToEnd() {
+        String source = "function f() {\n  return 1;\n";
+        checkEquals("function f() { ... }", simplify("js", source), "未闭合的函数体折叠到末尾");
+    }
+
+    public static void testPythonDefsCollapsedKeepingDocstrings() {
+        String actual = simplify("py",
+                "import os",
+                "",
+                "class A:",
+                "    \"\"\"Doc.\"\"\"",
+                "",
+                "    class B:",
+                "        def inner(self):",
+                "            return 1",
+                "",
+                "    def m(self, x):",
+                "        \"\"\"Docstring",
+                "        spanning lines.\"\"\"",
+                "        s = \"\"\"",
+                "def fake():",
+                "    pass",
+                "\"\"\"",
+                "        return s",
+                "",
+                "    def n(self): return 2",
+                "",
+                "async def top(a,",
+                "              b):",
+                "    if a:",
+                "        return b",
+                "",
+                "",
+                "x = top(1, 2)");
+        checkEquals(lines(
+                "import os",
+                "",
+                "class A:",
+                "    \"\"\"Doc.\"\"\"",
+                "",
+                "    class B:",
+                "        def inner(self):",
+                "            ...",
+                "",
+                "    def m(self, x):",
+                "        \"\"\"Docstring",
+                "        spanning lines.\"\"\"",
+                "        ...",
+                "",
+                "    def n(self): return 2",
+                "",
+                "async def top(a,",
+                "              b):",
+                "    ...",
+                "",
+                "",
+                "x = top(1, 2)"), actual, "Python 函数体折叠，保留文档字符串和嵌套类");
+    }
+
+    public static void testPythonCommentsAtDefLevel() {
+        String actual = simplify("py",
+                "def f(x):",
+                "    a = 1",
+                "# 顶格注释仍在函数体内",
+                "",
+                "    return a",
+                "",
+                "# 函数之后的注释",
+                "x = 1");
+        checkEquals(lines(
+                "def f(x):",
+                "    ...",
+                "",
+                "# 函数之后的注释",
+                "x = 1"), actual, "顶格注释之后还有函数体时一并折叠");
+    }
+
+    public static void testPythonTripleQuotedStringOutsideFunctions() {
+        String source = lines(
+                "TEMPLATE = '''",
+                "def not_a_function():",
+                "    pass",
+                "'''",
+                "VALUE = \"def # not a comment:\"",
+                "");
+        checkEquals(source, simplify("py", source), "三引号字符串中的 def 不折叠");
+    }
+}
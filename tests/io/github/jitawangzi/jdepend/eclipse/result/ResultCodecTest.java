@@ -0,0 +1,168 @@
+package io.github.jitawangzi.jdepend.eclipse.result;
+
+import static io.github.jitawangzi.jdepend.eclipse.testing.Checks.check;
+import static io.github.jitawangzi.jdepend.eclipse.testing.Checks.checkArrayEquals;
+import static io.github.jitawangzi.jdepend.eclipse.testing.Checks.checkEquals;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPOutputStream;
+
+import io.github.jitawangzi.jdepend.eclipse.testing.Checks;
+
+/**
+ * {@link ResultCodec} 的读写往返、按需读取代码、第 1 版兼容与损坏文件的检查
+ */
+public class ResultCodecTest {
+
+    public static void main(String[] args) {
+        Checks.run(ResultCodecTest.class);
+    }
+
+    private static AnalysisResult sample() {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            large.append("    void method").append(i).append("() { /* 中文注释 */ }\n");
+        }
+        return new AnalysisResult.Builder("com.example.Main")
+                .addType("com.example.Main", 0, "class Main { Service s; }", Arrays.asList("com.example.Service", "java.lang.String"))
+                .addType("com.example.Service", 1, "interface Service {}\n", Collections.singletonList("com.example.Main"))
+                .addType("com.example.Empty", 1, "", Collections.<String>emptyList())
+                .addType("com.example.Large", 2, large.toString(), Arrays.asList("com.example.Large", "com.example.Main"))
+                .addNote("第一条说明")
+                .addNote("")
+                .build();
+    }
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("result-codec", ResultCodec.FILE_SUFFIX);
+        file.deleteOnExit();
+        return file;
+    }
+
+    public static void testRoundTrip() throws IOException {
+        AnalysisResult expected = sample();
+        File file = tempFile();
+        ResultCodec.write(expected, file);
+        AnalysisResult actual = ResultCodec.read(file);
+
+        checkEquals(expected.getMainClass(), actual.getMainClass(), "主类");
+        checkEquals(expected.getCreatedAt(), actual.getCreatedAt(), "创建时间");
+        checkEquals(expected.getNotes(), actual.getNotes(), "说明");
+        checkEquals(expected.getTypes().size(), actual.getTypes().size(), "类型数量");
+        for (int i = 0; i < expected.getTypes().size(); i++) {
+            AnalysisResult.TypeEntry want = expected.getTypes().get(i);
+            AnalysisResult.TypeEntry got = actual.getTypes().get(i);
+            checkEquals(want.getName(), got.getName(), "名称 " + i);
+            checkEquals(want.getDepth(), got.getDepth(), "深度 " + i);
+            checkEquals(want.getCode(), got.getCode(), "代码 " + i);
+            checkArrayEquals(want.getDependencies(), got.getDependencies(), "依赖 " + i);
+        }
+    }
+
+    public static void testBuilderDropsUnknownAndSelfDependencies() {
+        AnalysisResult result = sample();
+        checkArrayEquals(new int[] { 1 }, result.getTypes().get(0).getDependencies(), "只保留结果中的依赖");
+        checkArrayEquals(new int[] { 0 }, result.getTypes().get(3).getDependencies(), "去掉对自身的依赖");
+    }
+
+    public static void testIndexReadsCodeOnDemand() throws IOException {
+        AnalysisResult expected = sample();
+        File file = tempFile();
+        ResultCodec.write(expected, file);
+        ResultIndex index = ResultCodec.readIndex(file);
+
+        check(!index.isInline(), "新版本的代码不内联在索引中");
+        checkEquals(expected.getTypes().size(), index.getTypes().size(), "索引中的类型数量");
+        // 倒序读取，确认每次按偏移定位而不依赖读取顺序
+        for (int i = expected.getTypes().size() - 1; i >= 0; i--) {
+            checkEquals(expected.getTypes().get(i).getCode(), index.readCode(i), "按需读取的代码 " + i);
+        }
+        checkEquals(expected.getTypes().get(2).getName(), index.getTypes().get(2).getName(), "索引中的名称");
+        checkEquals(0, index.getTypes().get(2).getRawCodeLength(), "空代码的长度");
+    }
+
+    public static void testReadsVersionOneFiles() throws IOException {
+        File file = tempFile();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(0x4A444152);
+            out.writeInt(1);
+            writeString(out, "a.Main");
+            out.writeLong(42L);
+            out.writeInt(2);
+            writeString(out, "a.Main");
+            out.writeInt(0);
+            writeString(out, "class Main {}");
+            out.writeInt(1);
+            out.writeInt(1);
+            writeString(out, "a.Other");
+            out.writeInt(1);
+            writeString(out, "class Other {}");
+            out.writeInt(0);
+            out.writeInt(1);
+            writeString(out, "note");
+        }
+        ResultIndex index = ResultCodec.readIndex(file);
+        check(index.isInline(), "第 1 版的代码随索引读入");
+        checkEquals("a.Main", index.getMainClass(), "主类");
+        checkEquals(42L, index.getCreatedAt(), "创建时间");
+        checkEquals("class Other {}", index.readCode(1), "内联代码");
+        checkArrayEquals(new int[] { 1 }, index.getTypes().get(0).getDependencies(), "依赖");
+        checkEquals(Collections.singletonList("note"), ResultCodec.read(file).getNotes(), "说明");
+    }
+
+    public static void testRejectsForeignFiles() throws IOException {
+        File file = tempFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("# not a result file\n".getBytes(StandardCharsets.UTF_8));
+        }
+        checkThrows(file, "不是结果文件");
+    }
+
+    public static void testRejectsTruncatedFiles() throws IOException {
+        File file = tempFile();
+        ResultCodec.write(sample(), file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 20);
+        }
+        checkThrows(file, "截断的文件");
+    }
+
+    public static void testRejectsCorruptCode() throws IOException {
+        File file = tempFile();
+        ResultCodec.write(sample(), file);
+        ResultIndex index = ResultCodec.readIndex(file);
+        ResultIndex.Entry large = index.getTypes().get(3);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(large.getCodeOffset() + large.getCodeLength() / 2);
+            raf.write(new byte[16]);
+        }
+        try {
+            String code = index.readCode(3);
+            check(!code.equals(sample().getTypes().get(3).getCode()), "损坏的代码不应原样读出");
+        } catch (IOException expected) {
+            // 解压失败或长度不符
+        }
+    }
+
+    private static void checkThrows(File file, String what) {
+        try {
+            ResultCodec.readIndex(file);
+        } catch (IOException expected) {
+            return;
+        }
+        throw new AssertionError(what + "应抛出 IOException");
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
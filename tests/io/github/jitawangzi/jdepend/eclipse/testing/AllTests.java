@@ -0,0 +1,20 @@
+package io.github.jitawangzi.jdepend.eclipse.testing;
+
+import io.github.jitawangzi.jdepend.eclipse.analysis.CommentMinifierTest;
+import io.github.jitawangzi.jdepend.eclipse.analysis.DependencyGraphMetricsTest;
+import io.github.jitawangzi.jdepend.eclipse.analysis.SourceSimplifierTest;
+import io.github.jitawangzi.jdepend.eclipse.result.ResultCodecTest;
+
+/**
+ * 运行 tests/ 下的全部检查
+ * <pre>
+ * java -cp bin:tests-bin:lib/* io.github.jitawangzi.jdepend.eclipse.testing.AllTests
+ * </pre>
+ */
+public class AllTests {
+
+    public static void main(String[] args) {
+        Checks.run(ResultCodecTest.class, DependencyGraphMetricsTest.class, SourceSimplifierTest.class,
+                CommentMinifierTest.class);
+    }
+}
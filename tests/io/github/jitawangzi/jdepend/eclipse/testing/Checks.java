@@ -0,0 +1,83 @@
+package io.github.jitawangzi.jdepend.eclipse.testing;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 不依赖测试框架的最小检查工具
+ * 测试类中以 test 开头的 public static 无参方法为一个用例，抛出异常即为失败；
+ * {@link #run(Class...)} 依次执行并汇总，有失败时以退出码 1 结束，便于在脚本中使用。
+ */
+public final class Checks {
+
+    private Checks() {
+    }
+
+    public static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    public static void checkEquals(Object expected, Object actual, String message) {
+        boolean equal = expected == null ? actual == null : expected.equals(actual);
+        if (!equal) {
+            throw new AssertionError(message + "\n  期望: " + show(expected) + "\n  实际: " + show(actual));
+        }
+    }
+
+    public static void checkArrayEquals(int[] expected, int[] actual, String message) {
+        if (!Arrays.equals(expected, actual)) {
+            throw new AssertionError(message + "\n  期望: " + Arrays.toString(expected) + "\n  实际: " + Arrays.toString(actual));
+        }
+    }
+
+    /**
+     * 字符串中换行与制表符显示为转义形式，便于对比空白差异
+     */
+    private static String show(Object value) {
+        if (!(value instanceof String)) {
+            return String.valueOf(value);
+        }
+        return "\"" + ((String) value).replace("\n", "\\n").replace("\t", "\\t") + "\"";
+    }
+
+    /**
+     * 执行各测试类的全部用例，打印结果；有失败时退出码为 1
+     */
+    public static void run(Class<?>... testClasses) {
+        int passed = 0;
+        List<String> failures = new ArrayList<>();
+        for (Class<?> testClass : testClasses) {
+            Method[] methods = testClass.getDeclaredMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                if (!method.getName().startsWith("test") || method.getParameterCount() != 0
+                        || !Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers())) {
+                    continue;
+                }
+                String name = testClass.getSimpleName() + "." + method.getName();
+                try {
+                    method.invoke(null);
+                    passed++;
+                } catch (InvocationTargetException e) {
+                    failures.add(name + ": " + e.getCause());
+                } catch (IllegalAccessException e) {
+                    failures.add(name + ": " + e);
+                }
+            }
+        }
+        for (String failure : failures) {
+            System.out.println("FAIL " + failure);
+        }
+        System.out.println(passed + " passed, " + failures.size() + " failed");
+        if (!failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}